@@ -0,0 +1,361 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Scans class-output directories for Spring Boot configuration metadata, caching the result of each
+ * directory until one of its metadata files has changed.
+ * <p>
+ * This is intended for local project modules in long-running builds, such as Gradle continuous builds,
+ * where the same class-output directories are scanned over and over again while most of them, and their
+ * configuration metadata in particular, do not change between two scans. Directories are scanned with the
+ * {@link ArtifactMetadataScanner} using the same {@link MetadataPathMatcher}, including the nested archives
+ * it matches, and every directory that could contain a matching path is registered with a {@link WatchService}.
+ * <p>
+ * The size and last modified time of every matching file, and of every watched directory, are recorded
+ * alongside the scan result, and are checked again before a cached result is returned. A watch service may
+ * report changes late, or drop them altogether, so its events are only used to discard a result early and
+ * to notify the registered {@link Listener}s, a result is never trusted only because no event was reported.
+ * Checking a cached result costs one file attribute lookup per recorded path, the metadata files themselves
+ * are only read again once they have changed.
+ * <p>
+ * File system changes are picked up whenever a directory is {@link #scan(File) scanned}, or when the
+ * watcher is explicitly {@link #poll() polled}, at which point every registered {@link Listener} is
+ * notified about the directories whose metadata has changed.
+ * <p>
+ * The watcher can be used by multiple threads. Only the access to the cached scan results is synchronized,
+ * directories are scanned, and their stamps are checked, without holding the lock, so scanning one directory
+ * never blocks the scans of other directories. A directory that is scanned by two threads at the same time
+ * may be scanned twice, both produce the same result.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactMetadataScanner
+ */
+@NullMarked
+public final class ArtifactMetadataDirectoryWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactMetadataDirectoryWatcher.class);
+
+    private final WatchService watchService;
+    private final MetadataPathMatcher matcher;
+    private final Map<WatchKey, Path> roots = new ConcurrentHashMap<>();
+    private final Map<Path, ScanResult> cache = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new {@link ArtifactMetadataDirectoryWatcher} using the default file system watch service
+     * and the {@link MetadataPathMatcher#defaults() default metadata locations and nested archives}.
+     *
+     * @throws IOException if the watch service could not be created.
+     */
+    public ArtifactMetadataDirectoryWatcher() throws IOException {
+        this(MetadataPathMatcher.defaults());
+    }
+
+    /**
+     * Creates a new {@link ArtifactMetadataDirectoryWatcher} using the default file system watch service
+     * that scans for the metadata locations and nested archives matched by the given {@link MetadataPathMatcher}.
+     *
+     * @param matcher the matcher of the metadata locations and nested archives, cannot be {@literal null}.
+     * @throws IOException if the watch service could not be created.
+     */
+    public ArtifactMetadataDirectoryWatcher(MetadataPathMatcher matcher) throws IOException {
+        this(FileSystems.getDefault().newWatchService(), matcher);
+    }
+
+    ArtifactMetadataDirectoryWatcher(WatchService watchService, MetadataPathMatcher matcher) {
+        this.watchService = watchService;
+        this.matcher = matcher;
+    }
+
+    /**
+     * Returns the {@link MetadataPathMatcher} used to scan and watch the directories.
+     *
+     * @return the metadata path matcher, never {@literal null}.
+     */
+    public MetadataPathMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Scans the given class-output directory for Spring Boot configuration metadata, returning the cached
+     * result when none of its metadata files have changed since it was last scanned.
+     * <p>
+     * Files are scanned directly, using {@link ArtifactMetadataScanner#scan(File, MetadataPathMatcher)}, as
+     * they are not watched.
+     *
+     * @param directory the directory to scan, must not be {@literal null}.
+     * @return the metadata resources found, empty if the directory contains none or does not exist.
+     * @throws IOException if the directory could not be watched, or its metadata files could not be read.
+     */
+    public List<ArtifactMetadataResource> scan(File directory) throws IOException {
+        if (!directory.isDirectory()) {
+            return ArtifactMetadataScanner.scan(directory, matcher);
+        }
+
+        final Path root = directory.toPath().toAbsolutePath().normalize();
+        final Set<Path> changed = drainEvents();
+        final ScanResult cached;
+
+        synchronized (cache) {
+            cached = cache.get(root);
+        }
+
+        if (cached != null && !changed.contains(root) && cached.isModified()) {
+            changed.add(root);
+        }
+
+        invalidate(changed);
+
+        if (cached != null && !changed.contains(root)) {
+            return cached.resources();
+        }
+
+        logger.debug("Scanning '{}' for configuration metadata, no up-to-date scan result found", root);
+
+        // directories are registered, and every path is stamped, before the metadata files are read, a change
+        // made while they are being read would be reported by the next poll and would not leave a stale result
+        final Map<Path, Stamp> stamps = watch(root);
+        final ScanResult result = new ScanResult(ArtifactMetadataScanner.scan(root.toFile(), matcher), stamps);
+
+        synchronized (cache) {
+            cache.put(root, result);
+        }
+
+        return result.resources();
+    }
+
+    /**
+     * Processes every file system change that was reported since the last poll, and checks every cached scan
+     * result against the recorded sizes and last modified times, discarding the cached scan results of the
+     * directories whose metadata has changed and notifying the registered {@link Listener}s.
+     *
+     * @return the directories whose configuration metadata has changed, never {@literal null}.
+     */
+    public Set<File> poll() {
+        final Set<Path> changed = drainEvents();
+        final Map<Path, ScanResult> results;
+
+        synchronized (cache) {
+            results = Map.copyOf(cache);
+        }
+
+        results.forEach((root, result) -> {
+            if (!changed.contains(root) && result.isModified()) {
+                changed.add(root);
+            }
+        });
+
+        return invalidate(changed);
+    }
+
+    /**
+     * Registers a {@link Listener} that is notified about directories whose configuration metadata has
+     * changed since they were last scanned.
+     *
+     * @param listener the listener to register, must not be {@literal null}.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered {@link Listener}, it is no longer notified about changed directories.
+     *
+     * @param listener the listener to remove, must not be {@literal null}.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops watching every scanned directory and discards the cached scan results.
+     *
+     * @throws IOException if the watch service could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (cache) {
+            cache.clear();
+        }
+
+        roots.clear();
+        listeners.clear();
+        watchService.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ArtifactMetadataDirectoryWatcher(" + matcher + ")";
+    }
+
+    private Set<Path> drainEvents() {
+        final Set<Path> changed = new LinkedHashSet<>();
+        WatchKey key;
+
+        while ((key = watchService.poll()) != null) {
+            final Path root = roots.get(key);
+            final Path watched = (Path) key.watchable();
+
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (root != null && isMetadataChange(root, watched, event)) {
+                    changed.add(root);
+                }
+            }
+
+            // the key is no longer valid when the watched directory was deleted, or is no longer accessible
+            if (!key.reset()) {
+                roots.remove(key);
+
+                if (root != null) {
+                    changed.add(root);
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    private Set<File> invalidate(Set<Path> changed) {
+        final Set<File> directories = new LinkedHashSet<>(changed.size());
+
+        synchronized (cache) {
+            for (Path root : changed) {
+                // directories that were changed again before they were scanned again were already reported
+                if (cache.remove(root) != null) {
+                    logger.debug("Detected configuration metadata change in '{}'", root);
+                    directories.add(root.toFile());
+                }
+            }
+        }
+
+        for (File directory : directories) {
+            for (Listener listener : listeners) {
+                try {
+                    listener.onChange(directory);
+                } catch (RuntimeException ex) {
+                    logger.warn("Configuration metadata change listener failed for: {}", directory, ex);
+                }
+            }
+        }
+
+        return Collections.unmodifiableSet(directories);
+    }
+
+    /**
+     * Registers every directory that could contain a path matched by the {@link MetadataPathMatcher} with the
+     * watch service, and stamps those directories and every file they contain that is matched.
+     */
+    private Map<Path, Stamp> watch(Path root) throws IOException {
+        final Map<Path, Stamp> stamps = new HashMap<>();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                if (!matcher.matchesWithin(relativize(root, directory))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                // registering an already watched directory returns its existing key
+                final WatchKey key = directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+
+                roots.put(key, root);
+                stamps.put(directory, Stamp.of(attributes));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && matcher.match(relativize(root, file)) != 0) {
+                    stamps.put(file, Stamp.of(attributes));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return Collections.unmodifiableMap(stamps);
+    }
+
+    private boolean isMetadataChange(Path root, Path watched, WatchEvent<?> event) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW || !(event.context() instanceof Path name)) {
+            return true;
+        }
+
+        final String path = relativize(root, watched.resolve(name));
+
+        return matcher.match(path) != 0 || matcher.matchesWithin(path);
+    }
+
+    private static String relativize(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Listener notified about class-output directories whose configuration metadata has changed.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Invoked once a change of the configuration metadata in a scanned directory has been detected.
+         *
+         * @param directory the class-output directory whose metadata has changed, never {@literal null}.
+         */
+        void onChange(File directory);
+
+    }
+
+    /**
+     * The cached scan result of a directory, with the stamps of every path it was produced from.
+     */
+    private record ScanResult(List<ArtifactMetadataResource> resources, Map<Path, Stamp> stamps) {
+
+        boolean isModified() {
+            for (Map.Entry<Path, Stamp> entry : stamps.entrySet()) {
+                if (!entry.getValue().equals(Stamp.of(entry.getKey()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * The size and last modified time of a file, or directory, when it was scanned.
+     */
+    private record Stamp(long size, FileTime lastModified) {
+
+        static Stamp of(BasicFileAttributes attributes) {
+            return new Stamp(attributes.size(), attributes.lastModifiedTime());
+        }
+
+        @Nullable
+        static Stamp of(Path path) {
+            try {
+                return of(Files.readAttributes(path, BasicFileAttributes.class));
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+
+    }
+
+}
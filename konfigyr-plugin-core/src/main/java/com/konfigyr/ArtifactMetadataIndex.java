@@ -0,0 +1,412 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent index of {@link ArtifactMetadataScanner} results for jar files, shared by every build that
+ * points to the same index file, usually one located in the Gradle user home.
+ * <p>
+ * For every scanned jar, the index records its size, last modified time and content hash, alongside the
+ * location of each Spring Boot configuration metadata entry it contains, or the fact that it contains
+ * none, including the entries of nested archives that are read in place. When a jar is scanned again,
+ * and its size and last modified time still match, the scan is a single index lookup: the jar is not
+ * opened at all, and the returned resources point directly to the recorded entries.
+ * <p>
+ * When they do not match, the content hash of the jar is looked up instead, so that a jar that was only
+ * touched, or copied to a different location, is still resolved from the index. The content hash is
+ * computed over the central directory of the jar only, which records the checksum, sizes and offset of
+ * every entry, so it costs no more than the scan itself and never reads the entries. Only when the
+ * content is unknown, the jar is actually scanned, which for Spring Boot executable jars also means
+ * opening every nested library.
+ * <p>
+ * Every record is kept for the {@link MetadataPathMatcher} the jar was scanned with, as the metadata a jar
+ * contains depends on the locations that are scanned. Builds scanning for different metadata locations share
+ * the same index file, each of them only resolves the records of its own locations.
+ * <p>
+ * Lookups and new records are kept in memory until the index is {@link #flush() flushed}, or closed. A
+ * flush is guarded by an exclusive file lock, and merges the in-memory records with whatever other
+ * processes, such as other Gradle daemons, have written in the meantime, before the index is atomically
+ * replaced. The index is bounded by the number of jars it records, the least recently used records are
+ * pruned when it grows beyond that limit. A corrupt, or incompatible, index file is simply discarded.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactMetadataScanner
+ */
+@NullMarked
+public final class ArtifactMetadataIndex implements Closeable {
+
+    /**
+     * The default maximum number of jar files that are recorded in the index.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactMetadataIndex.class);
+
+    private static final int MAGIC = 0x4B494458;
+    private static final int VERSION = 4;
+
+    private final PersistentFile file;
+    private final int maxEntries;
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+    private final Map<String, String> keysByHash = new ConcurrentHashMap<>();
+    private final Set<String> modified = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    /**
+     * Creates a new {@link ArtifactMetadataIndex} backed by the given file, using the
+     * {@link #DEFAULT_MAX_ENTRIES default maximum number of entries}.
+     *
+     * @param file the index file, it does not need to exist yet, cannot be {@literal null}.
+     */
+    public ArtifactMetadataIndex(Path file) {
+        this(file, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new {@link ArtifactMetadataIndex} backed by the given file.
+     *
+     * @param file the index file, it does not need to exist yet, cannot be {@literal null}.
+     * @param maxEntries the maximum number of jar files recorded in the index, must be positive.
+     */
+    public ArtifactMetadataIndex(Path file, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum number of index entries must be positive, got: " + maxEntries);
+        }
+        this.file = new PersistentFile(file);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Scans the given jar file or class-output directory for Spring Boot configuration metadata, using
+     * the {@link MetadataPathMatcher#defaults() default metadata locations and nested archives}.
+     *
+     * @param artifact the jar file or directory to scan, must not be {@literal null}.
+     * @return the metadata resources found, empty if the artifact contains none or does not exist.
+     * @throws IOException if the artifact is a jar file that could not be read.
+     * @see #scan(File, MetadataPathMatcher)
+     */
+    public List<ArtifactMetadataResource> scan(File artifact) throws IOException {
+        return scan(artifact, MetadataPathMatcher.defaults());
+    }
+
+    /**
+     * Scans the given jar file or class-output directory for Spring Boot configuration metadata located at
+     * the paths matched by the given {@link MetadataPathMatcher}, using the recorded result for jar files
+     * that are already present in the index for the same matcher.
+     * <p>
+     * Directories are always scanned directly, using {@link ArtifactMetadataScanner#scan(File, MetadataPathMatcher)},
+     * as their contents are expected to change between builds.
+     *
+     * @param artifact the jar file or directory to scan, must not be {@literal null}.
+     * @param matcher the matcher of the metadata locations and nested archives, must not be {@literal null}.
+     * @return the metadata resources found, empty if the artifact contains none or does not exist.
+     * @throws IOException if the artifact is a jar file that could not be read.
+     */
+    public List<ArtifactMetadataResource> scan(File artifact, MetadataPathMatcher matcher) throws IOException {
+        if (!artifact.isFile()) {
+            return ArtifactMetadataScanner.scan(artifact, matcher);
+        }
+
+        load();
+
+        final Path jar = artifact.toPath().toAbsolutePath();
+        final String key = matcher.fingerprint() + '/' + jar;
+        final BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        final long size = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+
+        Record record = records.get(key);
+
+        if (record == null || record.size() != size || record.lastModified() != lastModified) {
+            final String hash = hash(jar);
+            final Record existing = findByHash(matcher, hash, size);
+
+            if (existing != null) {
+                logger.debug("Resolved configuration metadata index record for '{}' by content hash", jar);
+                record = new Record(size, lastModified, hash, System.currentTimeMillis(), existing.entries());
+            } else {
+                logger.debug("Scanning '{}' for configuration metadata, no index record found", jar);
+
+                final List<ArtifactMetadataResource> resources = ArtifactMetadataScanner.scan(artifact, matcher);
+                final List<ZipCentralDirectory.Entry> entries = entriesOf(resources);
+
+                // metadata of compressed nested archives can not be located in the jar, it is not recorded
+                if (entries == null) {
+                    return resources;
+                }
+
+                record = new Record(size, lastModified, hash, System.currentTimeMillis(), entries);
+            }
+        } else {
+            record = record.touch();
+        }
+
+        put(key, record);
+        modified.add(key);
+
+        final List<ArtifactMetadataResource> resources = new ArrayList<>(record.entries().size());
+
+        for (ZipCentralDirectory.Entry entry : record.entries()) {
+            resources.add(new JarEntryArtifactMetadataResource(jar, entry));
+        }
+
+        return resources;
+    }
+
+    /**
+     * Writes every record that was added or looked up since the last flush to the index file, merging
+     * them with the records written by other processes, and pruning the least recently used records
+     * beyond the maximum number of entries.
+     *
+     * @throws IOException if the index file could not be written.
+     */
+    public void flush() throws IOException {
+        if (modified.isEmpty()) {
+            return;
+        }
+
+        final Map<String, Record> pruned = file.locked(() -> {
+            final Map<String, Record> merged = read();
+
+            for (String key : List.copyOf(modified)) {
+                final Record record = records.get(key);
+
+                if (record != null) {
+                    merged.merge(key, record, (current, candidate) ->
+                            candidate.lastAccess() >= current.lastAccess() ? candidate : current);
+                }
+
+                modified.remove(key);
+            }
+
+            final Map<String, Record> result = prune(merged);
+            file.write(out -> write(out, result));
+            return result;
+        });
+
+        pruned.forEach(this::putIfAbsent);
+    }
+
+    /**
+     * Flushes this index, see {@link #flush()}.
+     *
+     * @throws IOException if the index file could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    @Override
+    public String toString() {
+        return "ArtifactMetadataIndex(" + file + ")";
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (records) {
+            if (loaded) {
+                return;
+            }
+
+            if (file.exists()) {
+                file.locked(this::read).forEach(this::putIfAbsent);
+            }
+
+            loaded = true;
+        }
+    }
+
+    private void put(String key, Record record) {
+        records.put(key, record);
+        keysByHash.put(hashKey(key, record.hash()), key);
+    }
+
+    private void putIfAbsent(String key, Record record) {
+        if (records.putIfAbsent(key, record) == null) {
+            keysByHash.putIfAbsent(hashKey(key, record.hash()), key);
+        }
+    }
+
+    @Nullable
+    private Record findByHash(MetadataPathMatcher matcher, String hash, long size) {
+        final String hashKey = matcher.fingerprint() + '/' + hash;
+        final String key = keysByHash.get(hashKey);
+        final Record candidate = key == null ? null : records.get(key);
+
+        // the jar recorded for this hash may have been pruned, or recorded with a different hash since
+        if (candidate == null || !candidate.hash().equals(hash)) {
+            if (key != null) {
+                keysByHash.remove(hashKey, key);
+            }
+            return null;
+        }
+
+        return candidate.size() == size ? candidate : null;
+    }
+
+    private Map<String, Record> prune(Map<String, Record> merged) {
+        if (merged.size() <= maxEntries) {
+            return merged;
+        }
+
+        final List<Map.Entry<String, Record>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, Record> entry) -> entry.getValue().lastAccess()).reversed());
+
+        final Map<String, Record> pruned = new LinkedHashMap<>(maxEntries);
+        entries.subList(0, maxEntries).forEach(entry -> pruned.put(entry.getKey(), entry.getValue()));
+
+        records.keySet().retainAll(pruned.keySet());
+        keysByHash.values().retainAll(pruned.keySet());
+
+        logger.debug("Pruned {} least recently used records from the configuration metadata index: {}",
+                merged.size() - maxEntries, file);
+
+        return pruned;
+    }
+
+    private Map<String, Record> read() {
+        final Map<String, Record> result = new HashMap<>();
+
+        if (!file.exists()) {
+            return result;
+        }
+
+        try (DataInputStream in = file.read()) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.debug("Discarding configuration metadata index with an unsupported format: {}", file);
+                return result;
+            }
+
+            final int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                final String key = in.readUTF();
+                final long size = in.readLong();
+                final long lastModified = in.readLong();
+                final String hash = in.readUTF();
+                final long lastAccess = in.readLong();
+                final int entryCount = in.readUnsignedShort();
+                final List<ZipCentralDirectory.Entry> entries = new ArrayList<>(entryCount);
+
+                for (int j = 0; j < entryCount; j++) {
+                    entries.add(new ZipCentralDirectory.Entry(
+                            in.readUTF(), in.readUnsignedShort(), in.readLong(), in.readLong(), in.readLong()
+                    ));
+                }
+
+                result.put(key, new Record(size, lastModified, hash, lastAccess, List.copyOf(entries)));
+            }
+        } catch (IOException ex) {
+            logger.warn("Discarding corrupted configuration metadata index: {}", file, ex);
+            result.clear();
+        }
+
+        return result;
+    }
+
+    private static void write(DataOutputStream out, Map<String, Record> index) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(index.size());
+
+        for (Map.Entry<String, Record> entry : index.entrySet()) {
+            final Record record = entry.getValue();
+
+            out.writeUTF(entry.getKey());
+            out.writeLong(record.size());
+            out.writeLong(record.lastModified());
+            out.writeUTF(record.hash());
+            out.writeLong(record.lastAccess());
+            out.writeShort(record.entries().size());
+
+            for (ZipCentralDirectory.Entry metadata : record.entries()) {
+                out.writeUTF(metadata.name());
+                out.writeShort(metadata.method());
+                out.writeLong(metadata.compressedSize());
+                out.writeLong(metadata.size());
+                out.writeLong(metadata.offset());
+            }
+        }
+    }
+
+    /**
+     * Creates the key of the given content hash, for the matcher of the record with the given key, which is
+     * prefixed with the fingerprint of that matcher.
+     */
+    private static String hashKey(String key, String hash) {
+        return key.substring(0, key.indexOf('/') + 1) + hash;
+    }
+
+    @Nullable
+    private static List<ZipCentralDirectory.Entry> entriesOf(List<ArtifactMetadataResource> resources) {
+        final List<ZipCentralDirectory.Entry> entries = new ArrayList<>(resources.size());
+
+        for (ArtifactMetadataResource resource : resources) {
+            if (!(resource instanceof JarEntryArtifactMetadataResource jarEntry)) {
+                return null;
+            }
+            entries.add(jarEntry.entry());
+        }
+
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Computes the hex encoded SHA-256 hash of the central directory of the given jar file, see
+     * {@link ZipCentralDirectory#digest(MessageDigest)}.
+     *
+     * @param jar the jar file to hash, cannot be {@literal null}.
+     * @return the content hash, never {@literal null}.
+     * @throws IOException if the file could not be read, or is not a valid jar file.
+     */
+    static String hash(Path jar) throws IOException {
+        final MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 message digest is not available", ex);
+        }
+
+        try (var zip = ZipCentralDirectory.open(jar)) {
+            zip.digest(digest);
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The recorded scan result of a single jar file.
+     *
+     * @param size the size of the jar file, in bytes.
+     * @param lastModified the last modified time of the jar file, in milliseconds since the epoch.
+     * @param hash the hex encoded SHA-256 hash of the central directory of the jar file.
+     * @param lastAccess the time this record was last looked up, in milliseconds since the epoch.
+     * @param entries the configuration metadata entries of the jar file, empty if it contains none.
+     */
+    private record Record(long size, long lastModified, String hash, long lastAccess, List<ZipCentralDirectory.Entry> entries) {
+
+        Record touch() {
+            return new Record(size, lastModified, hash, System.currentTimeMillis(), entries);
+        }
+
+    }
+
+}
@@ -2,8 +2,10 @@ package com.konfigyr;
 
 import com.fasterxml.classmate.TypeResolver;
 import com.konfigyr.artifactory.Deprecation;
+import com.konfigyr.artifactory.JsonSchema;
 import com.konfigyr.artifactory.PropertyDescriptor;
 import com.konfigyr.schema.JsonSchemaGenerator;
+import com.konfigyr.schema.SchemaGenerationBudget;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -16,10 +18,19 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -30,8 +41,20 @@ import java.util.stream.Collectors;
  * located at {@code META-INF/spring-configuration-metadata.json}, extracting property definitions,
  * and converting them into Konfigyr’s domain model.
  * <p>
- * This parser uses the {@link ConfigurationMetadataRepositoryJsonBuilder} to read the Spring Boot metadata
- * JSON files that are later aggregated and converted into a collection of {@link PropertyDescriptor descriptors}.
+ * By default, this parser uses the {@link ConfigurationMetadataRepositoryJsonBuilder} to read the Spring Boot
+ * metadata JSON files that are later aggregated and converted into a collection of
+ * {@link PropertyDescriptor descriptors}. The {@link Engine#STREAMING streaming engine} can be used instead
+ * to read the metadata files without building the intermediate metadata repository.
+ * <p>
+ * Resolving the property types and generating their JSON schemas is independent for every property. When
+ * an {@link Executor} is supplied, properties are resolved concurrently, in batches, using that executor.
+ * With the {@link Engine#STREAMING streaming engine}, a batch is scheduled as soon as enough properties were
+ * read, so properties are resolved while the remaining metadata is still being read. The resulting
+ * descriptors are always sorted, so their order does not depend on how they were resolved.
+ * <p>
+ * Large artifacts can instead be parsed with {@link #parse(Iterable, Consumer)}, that passes every descriptor
+ * to a consumer as soon as it is resolved, without collecting or sorting them. A {@link PropertyDescriptorSorter}
+ * can be used as that consumer when the descriptors still need to be written out in their sorted order.
  *
  * @see PropertyDescriptor
  * @author Vladimir Spasic
@@ -41,6 +64,18 @@ public class ArtifactMetadataParser {
 
     private static final Logger logger = LoggerFactory.getLogger(ArtifactMetadataParser.class);
 
+    /**
+     * The number of properties that are resolved by a single task when resolving them concurrently.
+     */
+    static final int BATCH_SIZE = 32;
+
+    /**
+     * The maximum number of batches that are resolved, or waiting to be consumed, at the same time.
+     */
+    static final int MAX_PENDING_BATCHES = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final Engine engine;
+    private final @Nullable Executor executor;
     private final TypeNameResolver typeNameResolver;
     private final JsonSchemaGenerator jsonSchemaGenerator;
 
@@ -49,13 +84,35 @@ public class ArtifactMetadataParser {
      * type names and generate JSON schemas from the Spring Boot metadata.
      *
      * @param classLoader the class loader to use, never {@literal null}.
+     * @see #builder()
      */
     public ArtifactMetadataParser(@NonNull ClassLoader classLoader) {
-        final TypeLoader typeLoader = new TypeLoader(classLoader);
+        this(builder().classLoader(classLoader));
+    }
+
+    private ArtifactMetadataParser(@NonNull Builder builder) {
+        final TypeLoader typeLoader = new TypeLoader(Objects.requireNonNull(builder.classLoader, "classLoader must not be null"));
         final TypeResolver typeResolver = new TypeResolver();
 
+        this.engine = builder.engine;
+        this.executor = builder.executor;
         this.typeNameResolver = new TypeNameResolver(typeLoader, typeResolver);
-        this.jsonSchemaGenerator = JsonSchemaGenerator.createDefaultGenerator(typeLoader, typeResolver);
+        this.jsonSchemaGenerator = JsonSchemaGenerator.builder()
+                .typeLoader(typeLoader)
+                .typeResolver(typeResolver)
+                .budget(builder.budget)
+                .introspection(builder.introspection)
+                .build();
+    }
+
+    /**
+     * Creates a new builder for constructing {@link ArtifactMetadataParser} instances.
+     *
+     * @return builder instance, never {@literal null}.
+     * @since 1.3.0
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -75,6 +132,80 @@ public class ArtifactMetadataParser {
      * @return the parsed property descriptors from the Spring Boot metadata files, never {@literal null}.
      */
     public List<PropertyDescriptor> parse(@NonNull Iterable<? extends ArtifactMetadataResource> resources) {
+        final List<PropertyDescriptor> descriptors = new ArrayList<>();
+        parse(resources, descriptors::add);
+
+        descriptors.sort(PropertyDescriptor::compareTo);
+        return Collections.unmodifiableList(descriptors);
+    }
+
+    /**
+     * Parses the given metadata files and passes every {@link PropertyDescriptor} to the given consumer, on the
+     * calling thread, as soon as it is resolved. Descriptors are neither collected nor sorted, they are passed in
+     * the order in which the properties were read from the metadata files.
+     * <p>
+     * Using the {@link Engine#STREAMING streaming engine}, properties are resolved, and their descriptors passed
+     * to the consumer, while the metadata files are still being read, neither the read properties nor the resolved
+     * descriptors of a large artifact are ever all kept in memory. The {@link Engine#REPOSITORY repository engine}
+     * reads every metadata file before the first property is resolved, only the resolution is then streamed.
+     *
+     * @param resources the metadata resources to parse, cannot be {@literal null}.
+     * @param consumer the consumer of the parsed property descriptors, cannot be {@literal null}.
+     * @since 1.3.0
+     * @see PropertyDescriptorSorter
+     */
+    public void parse(
+            @NonNull Iterable<? extends ArtifactMetadataResource> resources,
+            @NonNull Consumer<? super PropertyDescriptor> consumer
+    ) {
+        if (executor == null) {
+            read(resources, property -> consumer.accept(resolve(property)));
+            return;
+        }
+
+        final BatchResolver resolver = new BatchResolver(executor, consumer);
+
+        try {
+            read(resources, resolver);
+            resolver.complete();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        } finally {
+            // batches that are still pending when either the resolution or the consumer failed
+            resolver.cancel();
+        }
+    }
+
+    /**
+     * Returns the recursive schemas within the JSON schema of a {@link PropertyDescriptor} parsed by this parser,
+     * keyed by their JSON Pointer, see {@link JsonSchemaGenerator#getRecursiveSchemas(JsonSchema)}.
+     *
+     * @param schema the JSON schema of a parsed property descriptor, cannot be {@literal null}.
+     * @return the number of levels up to the enclosing schema of every recursive schema, never {@literal null}.
+     * @since 1.3.0
+     */
+    public Map<String, Integer> getRecursiveSchemas(@NonNull JsonSchema schema) {
+        return jsonSchemaGenerator.getRecursiveSchemas(schema);
+    }
+
+    private void read(
+            Iterable<? extends ArtifactMetadataResource> resources,
+            Consumer<ConfigurationMetadataProperty> consumer
+    ) {
+        if (engine == Engine.STREAMING) {
+            stream(resources, consumer);
+        } else {
+            read(resources).forEach(consumer);
+        }
+    }
+
+    private Collection<ConfigurationMetadataProperty> read(Iterable<? extends ArtifactMetadataResource> resources) {
         final ConfigurationMetadataRepositoryJsonBuilder builder = ConfigurationMetadataRepositoryJsonBuilder.create();
 
         resources.forEach(resource -> {
@@ -89,11 +220,17 @@ public class ArtifactMetadataParser {
 
         final ConfigurationMetadataRepository repository = builder.build();
 
-        return repository.getAllProperties().values()
-                .stream()
-                .map(this::resolve)
-                .sorted(PropertyDescriptor::compareTo)
-                .toList();
+        return repository.getAllProperties().values();
+    }
+
+    private void stream(Iterable<? extends ArtifactMetadataResource> resources, Consumer<ConfigurationMetadataProperty> consumer) {
+        try {
+            StreamingMetadataReader.read(resources, consumer);
+        } catch (FileNotFoundException e) {
+            throw new IllegalStateException("Could not find metadata file data", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read metadata file data", e);
+        }
     }
 
     private PropertyDescriptor resolve(ConfigurationMetadataProperty metadata) {
@@ -178,4 +315,184 @@ public class ArtifactMetadataParser {
         return resolved.trim();
     }
 
+    /**
+     * Resolves the properties it receives concurrently, in batches of {@link #BATCH_SIZE} properties, and passes
+     * the resolved descriptors to the consumer in batch order, on the thread that passes the properties.
+     * <p>
+     * A batch is scheduled once it is full and the next property is received, and only a limited number of batches
+     * is scheduled ahead of the consumer, the thread that passes the properties waits for the oldest batch to
+     * be consumed before it schedules another one. Resolved descriptors are therefore never all kept in memory at
+     * the same time. When no more than a single batch of properties is received, it is resolved on the calling
+     * thread once the resolver is {@link #complete() completed}.
+     */
+    private final class BatchResolver implements Consumer<ConfigurationMetadataProperty> {
+
+        private final Executor executor;
+        private final Consumer<? super PropertyDescriptor> consumer;
+        private final Deque<CompletableFuture<List<PropertyDescriptor>>> batches = new ArrayDeque<>();
+        private List<ConfigurationMetadataProperty> batch = new ArrayList<>(BATCH_SIZE);
+
+        BatchResolver(Executor executor, Consumer<? super PropertyDescriptor> consumer) {
+            this.executor = executor;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(ConfigurationMetadataProperty property) {
+            if (batch.size() == BATCH_SIZE) {
+                schedule();
+            }
+
+            batch.add(property);
+        }
+
+        /**
+         * Resolves the remaining properties and waits until every scheduled batch has been consumed.
+         */
+        void complete() {
+            if (batches.isEmpty()) {
+                batch.forEach(property -> consumer.accept(resolve(property)));
+                batch.clear();
+                return;
+            }
+
+            if (!batch.isEmpty()) {
+                schedule();
+            }
+
+            while (!batches.isEmpty()) {
+                batches.removeFirst().join().forEach(consumer);
+            }
+        }
+
+        /**
+         * Cancels every batch that was scheduled and is not yet consumed.
+         */
+        void cancel() {
+            batches.forEach(pending -> pending.cancel(false));
+            batches.clear();
+        }
+
+        private void schedule() {
+            if (batches.size() >= MAX_PENDING_BATCHES) {
+                batches.removeFirst().join().forEach(consumer);
+            }
+
+            final List<ConfigurationMetadataProperty> scheduled = batch;
+            batch = new ArrayList<>(BATCH_SIZE);
+
+            batches.add(CompletableFuture.supplyAsync(
+                    () -> scheduled.stream().map(ArtifactMetadataParser.this::resolve).toList(), executor));
+        }
+
+    }
+
+    /**
+     * Fluent builder for creating {@link ArtifactMetadataParser} instances.
+     *
+     * @since 1.3.0
+     */
+    public static final class Builder {
+        private @Nullable ClassLoader classLoader;
+        private Engine engine = Engine.REPOSITORY;
+        private @Nullable Executor executor;
+        private SchemaGenerationBudget budget = SchemaGenerationBudget.DEFAULT;
+        private JsonSchemaGenerator.Introspection introspection = JsonSchemaGenerator.Introspection.REFLECTION;
+
+        private Builder() {
+            // Private constructor to enforce the builder pattern
+        }
+
+        /**
+         * Sets the class loader used to resolve the type names and generate the JSON schemas.
+         *
+         * @param classLoader the class loader to use, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder classLoader(@NonNull ClassLoader classLoader) {
+            this.classLoader = classLoader;
+            return this;
+        }
+
+        /**
+         * Sets the engine used to read the metadata files. Defaults to {@link Engine#REPOSITORY}.
+         *
+         * @param engine the engine used to read the metadata files, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder engine(@NonNull Engine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to resolve the properties concurrently. Defaults to {@literal null}, resolving
+         * the properties sequentially on the calling thread.
+         *
+         * @param executor the executor used to resolve the properties, or {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder executor(@Nullable Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the budget that limits the JSON schema of every property. Defaults to
+         * {@link SchemaGenerationBudget#DEFAULT}.
+         *
+         * @param budget the budget of every generated property schema, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder budget(@NonNull SchemaGenerationBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Sets how the property types are inspected when their JSON schemas are generated. Defaults to
+         * {@link JsonSchemaGenerator.Introspection#REFLECTION}.
+         *
+         * @param introspection the introspection used to generate the property schemas, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder introspection(JsonSchemaGenerator.@NonNull Introspection introspection) {
+            this.introspection = introspection;
+            return this;
+        }
+
+        /**
+         * Constructs a new {@link ArtifactMetadataParser} instance with the configured values.
+         *
+         * @return a new parser instance, never {@literal null}.
+         * @throws NullPointerException if the class loader was not set.
+         */
+        public ArtifactMetadataParser build() {
+            return new ArtifactMetadataParser(this);
+        }
+    }
+
+    /**
+     * Defines how the Spring Boot configuration metadata files are read before the properties they
+     * define are converted into {@link PropertyDescriptor}s.
+     *
+     * @since 1.3.0
+     */
+    public enum Engine {
+
+        /**
+         * Reads the metadata files using the Spring Boot {@link ConfigurationMetadataRepositoryJsonBuilder},
+         * that builds an in-memory repository of every group, source and property before they are converted.
+         */
+        REPOSITORY,
+
+        /**
+         * Reads the metadata files using a streaming JSON parser, creating only the metadata properties
+         * and their hints, while still honoring hint merging and the overrides defined in the
+         * {@code additional-spring-configuration-metadata.json} files.
+         */
+        STREAMING
+
+    }
+
 }
@@ -1,15 +1,18 @@
 package com.konfigyr;
 
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 /**
  * Scans a jar file or an unpacked class-output directory for Spring Boot configuration metadata
@@ -20,6 +23,25 @@ import java.util.zip.ZipFile;
  * is a resolved dependency (a jar) or a project's own compiled output (a directory, before its jar
  * task has run) — this is the single source of truth for "does this artifact expose Spring Boot
  * configuration metadata", shared by every place in the build that needs to answer that question.
+ * <p>
+ * Jar files are probed through their {@link ZipCentralDirectory}, only the central directory is mapped
+ * into memory and the matching entries are only read, and inflated, when their resources are opened, so
+ * scanning a jar that contains no metadata, which is the case for most of the runtime classpath, never
+ * reads any of its entries.
+ * <p>
+ * Whole classpaths can be scanned at once via {@link #scanAll(Iterable)}, which scans every artifact
+ * concurrently and reports failures per artifact instead of aborting the entire batch. Batches can be scanned
+ * with any {@link Scan}, such as a custom {@link MetadataPathMatcher} or an {@link ArtifactMetadataIndex}.
+ * <p>
+ * Spring Boot executable jars and wars are scanned as a whole, the metadata of the application itself in
+ * {@code BOOT-INF/classes} or {@code WEB-INF/classes}, as well as the metadata of every library nested in
+ * {@code BOOT-INF/lib} or {@code WEB-INF/lib}, see {@link #NESTED_ARCHIVE_PATTERNS}. Nested libraries are
+ * read in place, libraries that are stored without compression, as Spring Boot requires, are read through
+ * regions of the outer jar, and never extracted.
+ * <p>
+ * Additional metadata locations, such as {@code META-INF/konfigyr/*.json}, and nested archives can be
+ * scanned using a custom {@link MetadataPathMatcher}, see {@link #scan(File, MetadataPathMatcher)}. Nested
+ * archives are scanned recursively, up to {@value #MAX_NESTED_ARCHIVE_DEPTH} levels deep.
  *
  * @author Vladimir Spasic
  * @since 1.1.0
@@ -36,53 +58,297 @@ public final class ArtifactMetadataScanner {
             "META-INF/spring/org.springframework.boot.configuration-metadata.json"
     );
 
+    /**
+     * The patterns of the nested archives that contain the libraries of Spring Boot executable jars and
+     * wars, which are scanned, in place, by default.
+     */
+    public static final Set<String> NESTED_ARCHIVE_PATTERNS = Set.of(
+            "BOOT-INF/lib/*.jar",
+            "WEB-INF/lib/*.jar"
+    );
+
+    /**
+     * The default maximum number of artifacts that are scanned concurrently by {@link #scanAll(Iterable)}.
+     */
+    public static final int DEFAULT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * The maximum depth of nested archives that are scanned, guards against maliciously nested archives.
+     */
+    static final int MAX_NESTED_ARCHIVE_DEPTH = 4;
+
     private ArtifactMetadataScanner() {
     }
 
     /**
-     * Scans the given jar file or class-output directory for Spring Boot configuration metadata.
+     * Scans the given jar file or class-output directory for Spring Boot configuration metadata, using the
+     * {@link MetadataPathMatcher#defaults() default metadata locations and nested archives}.
      *
      * @param artifact the jar file or directory to scan, must not be {@literal null}.
      * @return the metadata resources found, empty if the artifact contains none or does not exist.
      * @throws IOException if the artifact is a jar file that could not be read.
      */
     public static List<ArtifactMetadataResource> scan(File artifact) throws IOException {
+        return scan(artifact, MetadataPathMatcher.defaults());
+    }
+
+    /**
+     * Scans the given jar file or class-output directory for Spring Boot configuration metadata located
+     * at the paths matched by the given {@link MetadataPathMatcher}, including the metadata of every
+     * nested archive it matches.
+     * <p>
+     * Metadata found in nested archives is named after its location within the outermost archive, for
+     * example {@code BOOT-INF/lib/library.jar!/META-INF/spring-configuration-metadata.json}. It is read into
+     * memory only when the nested archive is compressed, and streamed from the outermost archive otherwise.
+     *
+     * @param artifact the jar file or directory to scan, must not be {@literal null}.
+     * @param matcher the matcher of the metadata locations and nested archives, must not be {@literal null}.
+     * @return the metadata resources found, empty if the artifact contains none or does not exist.
+     * @throws IOException if the artifact is, or contains, an archive that could not be read.
+     */
+    public static List<ArtifactMetadataResource> scan(File artifact, MetadataPathMatcher matcher) throws IOException {
         if (!artifact.exists()) {
             return List.of();
         }
 
-        return artifact.isDirectory() ? scanDirectory(artifact) : scanJar(artifact);
+        return artifact.isDirectory() ? scanDirectory(artifact, matcher) : scanJar(artifact, matcher);
     }
 
-    private static List<ArtifactMetadataResource> scanJar(File jar) throws IOException {
-        final List<ArtifactMetadataResource> candidates = new ArrayList<>();
+    /**
+     * Scans every given jar file or class-output directory for Spring Boot configuration metadata,
+     * concurrently, using virtual threads bounded to {@link #DEFAULT_PARALLELISM} artifacts at a time, and
+     * the {@link MetadataPathMatcher#defaults() default metadata locations and nested archives}.
+     *
+     * @param artifacts the jar files or directories to scan, must not be {@literal null}.
+     * @return the scan results keyed by artifact, in the order the artifacts were given, never {@literal null}.
+     * @see #scanAll(Iterable, Scan, Executor, int)
+     */
+    public static Map<File, Result> scanAll(Iterable<? extends File> artifacts) {
+        return scanAll(artifacts, ArtifactMetadataScanner::scan);
+    }
+
+    /**
+     * Scans every given jar file or class-output directory for Spring Boot configuration metadata using the
+     * given {@link Scan}, concurrently, using virtual threads bounded to {@link #DEFAULT_PARALLELISM} artifacts
+     * at a time.
+     *
+     * @param artifacts the jar files or directories to scan, must not be {@literal null}.
+     * @param scan the scan that is applied to every artifact, must not be {@literal null}.
+     * @return the scan results keyed by artifact, in the order the artifacts were given, never {@literal null}.
+     * @see #scanAll(Iterable, Scan, Executor, int)
+     */
+    public static Map<File, Result> scanAll(Iterable<? extends File> artifacts, Scan scan) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return scanAll(artifacts, scan, executor, DEFAULT_PARALLELISM);
+        }
+    }
+
+    /**
+     * Scans every given jar file or class-output directory for Spring Boot configuration metadata using the
+     * given {@link Scan}, concurrently, using the given {@link Executor}.
+     * <p>
+     * At most {@code parallelism} artifacts are scanned at the same time, regardless of how many threads
+     * the executor provides. The calling thread blocks until every artifact has been scanned. An artifact
+     * that could not be scanned does not abort the batch, its failure is reported in its {@link Result}.
+     * Artifacts that are present more than once are only scanned once.
+     *
+     * @param artifacts the jar files or directories to scan, must not be {@literal null}.
+     * @param scan the scan that is applied to every artifact, must not be {@literal null}.
+     * @param executor the executor used to run the scans, must not be {@literal null}.
+     * @param parallelism the maximum number of artifacts scanned at the same time, must be positive.
+     * @return the scan results keyed by artifact, in the order the artifacts were given, never {@literal null}.
+     * @throws IllegalStateException if the calling thread is interrupted while waiting for the scans.
+     */
+    public static Map<File, Result> scanAll(Iterable<? extends File> artifacts, Scan scan, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be a positive number, got: " + parallelism);
+        }
 
-        try (var zip = new ZipFile(jar)) {
-            for (String path : METADATA_PATHS) {
-                final ZipEntry entry = zip.getEntry(path);
+        final Semaphore permits = new Semaphore(parallelism);
+        final Map<File, CompletableFuture<Result>> futures = new LinkedHashMap<>();
 
-                if (entry != null) {
-                    final InputStream is = zip.getInputStream(entry);
-                    candidates.add(ArtifactMetadataResource.of(entry.getName(), is.readAllBytes()));
+        try {
+            for (File artifact : artifacts) {
+                if (futures.containsKey(artifact)) {
+                    continue;
+                }
+
+                permits.acquire();
+
+                try {
+                    futures.put(artifact, CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return scanSafely(artifact, scan);
+                        } finally {
+                            permits.release();
+                        }
+                    }, executor));
+                } catch (RuntimeException ex) {
+                    permits.release();
+                    futures.put(artifact, CompletableFuture.completedFuture(Result.failed(artifact, ex)));
                 }
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning artifacts for configuration metadata", ex);
         }
 
-        return candidates;
+        final Map<File, Result> results = new LinkedHashMap<>(futures.size());
+        futures.forEach((artifact, future) -> results.put(artifact, future.join()));
+
+        return Collections.unmodifiableMap(results);
     }
 
-    private static List<ArtifactMetadataResource> scanDirectory(File dir) {
+    private static Result scanSafely(File artifact, Scan scan) {
+        try {
+            return Result.of(artifact, scan.scan(artifact));
+        } catch (IOException | RuntimeException ex) {
+            return Result.failed(artifact, ex);
+        }
+    }
+
+    private static List<ArtifactMetadataResource> scanJar(File jar, MetadataPathMatcher matcher) throws IOException {
         final List<ArtifactMetadataResource> candidates = new ArrayList<>();
 
-        for (String path : METADATA_PATHS) {
-            final File metadata = new File(dir, path);
+        // only the central directory is mapped and probed, the matching entries themselves are
+        // streamed from the jar, and inflated, only once the returned resources are opened
+        try (var zip = ZipCentralDirectory.open(jar.toPath())) {
+            scanArchive(jar.toPath(), zip, matcher, "", 0, candidates);
+        }
+
+        return candidates;
+    }
+
+    private static void scanArchive(
+            Path jar,
+            ZipCentralDirectory zip,
+            MetadataPathMatcher matcher,
+            String prefix,
+            int depth,
+            List<ArtifactMetadataResource> candidates
+    ) throws IOException {
+        for (ZipCentralDirectory.Entry entry : zip.find(matcher)) {
+            final int match = matcher.match(entry.name());
+
+            if ((match & MetadataPathMatcher.METADATA) != 0) {
+                // entries of nested archives that are read in place are streamed from the outermost jar
+                // as well, only entries of compressed nested archives are already held in memory
+                candidates.add(zip.isFileBacked()
+                        ? new JarEntryArtifactMetadataResource(jar, entry.withName(prefix + entry.name()))
+                        : ArtifactMetadataResource.of(prefix + entry.name(), zip.read(entry)));
+            } else if ((match & MetadataPathMatcher.NESTED_ARCHIVE) != 0 && depth < MAX_NESTED_ARCHIVE_DEPTH) {
+                try (var nested = zip.openNested(entry)) {
+                    scanArchive(jar, nested, matcher, prefix + entry.name() + "!/", depth + 1, candidates);
+                }
+            }
+        }
+    }
+
+    private static List<ArtifactMetadataResource> scanDirectory(File dir, MetadataPathMatcher matcher) throws IOException {
+        final Path root = dir.toPath();
+        final List<Path> matches = new ArrayList<>();
+
+        // only descends into directories that could contain a matching path, for the well-known
+        // metadata paths these are just the root, META-INF and META-INF/spring directories
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                return matcher.matchesWithin(relativize(root, directory))
+                        ? FileVisitResult.CONTINUE
+                        : FileVisitResult.SKIP_SUBTREE;
+            }
 
-            if (metadata.exists()) {
-                candidates.add(ArtifactMetadataResource.of(metadata));
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && matcher.match(relativize(root, file)) != 0) {
+                    matches.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        matches.sort(Comparator.comparing(file -> relativize(root, file)));
+
+        final List<ArtifactMetadataResource> candidates = new ArrayList<>(matches.size());
+
+        for (Path file : matches) {
+            if (matcher.isMetadata(relativize(root, file))) {
+                candidates.add(ArtifactMetadataResource.of(file));
+            } else {
+                candidates.addAll(scanJar(file.toFile(), matcher));
             }
         }
 
         return candidates;
     }
 
+    private static String relativize(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Scans a single jar file or class-output directory for Spring Boot configuration metadata, as part of a
+     * {@link #scanAll(Iterable, Scan) batch scan}. Implementations must be safe to invoke concurrently.
+     */
+    @FunctionalInterface
+    public interface Scan {
+
+        /**
+         * Scans the given jar file or class-output directory for Spring Boot configuration metadata.
+         *
+         * @param artifact the jar file or directory to scan, never {@literal null}.
+         * @return the metadata resources found, empty if the artifact contains none or does not exist.
+         * @throws IOException if the artifact could not be read.
+         */
+        List<ArtifactMetadataResource> scan(File artifact) throws IOException;
+
+    }
+
+    /**
+     * The outcome of scanning a single artifact as part of a {@link #scanAll(Iterable) batch scan}, either
+     * the metadata resources that were found, or the exception that prevented the artifact from being scanned.
+     *
+     * @param artifact the scanned jar file or directory, never {@literal null}.
+     * @param resources the metadata resources found, empty if none were found or the scan failed.
+     * @param failure the exception thrown while scanning the artifact, {@literal null} if it was successful.
+     */
+    public record Result(File artifact, List<ArtifactMetadataResource> resources, @Nullable Exception failure) {
+
+        static Result of(File artifact, List<ArtifactMetadataResource> resources) {
+            return new Result(artifact, List.copyOf(resources), null);
+        }
+
+        static Result failed(File artifact, Exception failure) {
+            return new Result(artifact, List.of(), failure);
+        }
+
+        /**
+         * Checks whether this artifact could not be scanned.
+         *
+         * @return {@literal true} if the scan failed.
+         */
+        public boolean isFailed() {
+            return failure != null;
+        }
+
+        /**
+         * Returns the metadata resources found in this artifact, rethrowing the scan failure if there was one.
+         *
+         * @return the metadata resources found, never {@literal null}.
+         * @throws IOException if the artifact could not be scanned.
+         */
+        public List<ArtifactMetadataResource> getOrThrow() throws IOException {
+            if (failure instanceof IOException ex) {
+                throw ex;
+            }
+            if (failure instanceof RuntimeException ex) {
+                throw ex;
+            }
+            if (failure != null) {
+                throw new IOException("Failed to scan artifact: " + artifact, failure);
+            }
+            return resources;
+        }
+    }
+
 }
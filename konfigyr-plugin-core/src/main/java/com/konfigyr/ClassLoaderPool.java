@@ -0,0 +1,336 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A thread-safe pool of {@link URLClassLoader}s, keyed by the ordered classpath they are created from.
+ * <p>
+ * Creating a class loader is cheap, but every new class loader opens its jar files again and loads every
+ * class it is asked to resolve from scratch. Artifacts that are parsed against the same classpath, such as
+ * the same library consumed by multiple projects of a build, therefore {@link #acquire(Iterable) acquire}
+ * the same class loader from this pool instead of creating their own.
+ * <p>
+ * Class loaders are reference counted, every acquired {@link Lease} must be closed once the class loader is
+ * no longer needed. Class loaders that are no longer leased are kept for the configured idle timeout, after
+ * which they are closed and removed from the pool. Class loaders are identified by the location, size and
+ * last modification time of each classpath file, so a rebuilt jar file is never resolved by a class loader
+ * that was created before it changed.
+ * <p>
+ * By default, every classpath is loaded by a single class loader that contains all of its entries, so the
+ * classes that are resolved for a classpath never depend on the other classpaths that are pooled.
+ * <p>
+ * Classpaths of different artifacts usually overlap heavily, as most of them share the same core libraries,
+ * which is why sharing classpath prefixes can be enabled by configuring a minimum number of shared entries.
+ * When a new class loader is needed for a classpath that starts with the same entries as a classpath that is
+ * already pooled, and the shared prefix contains at least that many entries, the shared prefix is loaded by a
+ * common parent class loader that is created once and shared by every classpath starting with it. The child
+ * class loader only contains the remaining, artifact specific, entries. Parent class loaders are reference
+ * counted by their children and evicted once they are no longer used.
+ * <p>
+ * Only ordered prefixes are shared, so that classes are still looked up in the same order as they would be
+ * by a single class loader over the whole classpath. As class loaders delegate to their parent first, classes
+ * within the shared prefix can however only resolve other classes that are part of the prefix. Whether a
+ * classpath is split also depends on the classpaths that were pooled before it, prefix sharing should thus
+ * only be enabled when the leading entries of every classpath are known not to depend on the entries that
+ * follow them.
+ * <p>
+ * Closing the pool closes every class loader it created, including the ones that are still leased.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ */
+@NullMarked
+public final class ClassLoaderPool implements Closeable {
+
+    /**
+     * The default duration for which class loaders that are no longer leased are kept in the pool.
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(1);
+
+    /**
+     * The minimum number of shared entries that disables sharing classpath prefixes, every classpath is then
+     * loaded by a single class loader.
+     */
+    public static final int NO_SHARED_PREFIXES = 0;
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassLoaderPool.class);
+
+    private final Map<List<ClasspathEntry>, PooledClassLoader> loaders = new LinkedHashMap<>();
+    private final long idleTimeout;
+    private final int minimumSharedEntries;
+    private boolean closed;
+
+    /**
+     * Creates a new {@link ClassLoaderPool} with the {@link #DEFAULT_IDLE_TIMEOUT default idle timeout} that
+     * does not share classpath prefixes.
+     */
+    public ClassLoaderPool() {
+        this(DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Creates a new {@link ClassLoaderPool} with the given idle timeout that does not share classpath prefixes.
+     *
+     * @param idleTimeout how long class loaders that are no longer leased are kept, cannot be {@literal null}.
+     * @throws IllegalArgumentException if the idle timeout is negative.
+     */
+    public ClassLoaderPool(Duration idleTimeout) {
+        this(idleTimeout, NO_SHARED_PREFIXES);
+    }
+
+    /**
+     * Creates a new {@link ClassLoaderPool} with the given idle timeout and minimum number of shared entries.
+     *
+     * @param idleTimeout how long class loaders that are no longer leased are kept, cannot be {@literal null}.
+     * @param minimumSharedEntries the minimum number of classpath entries two classpaths need to share before
+     *                             they are loaded by a common parent class loader, or
+     *                             {@link #NO_SHARED_PREFIXES} to load every classpath by a single class loader.
+     * @throws IllegalArgumentException if the idle timeout or the minimum number of shared entries is negative.
+     */
+    public ClassLoaderPool(Duration idleTimeout, int minimumSharedEntries) {
+        if (idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Idle timeout must not be negative, got: " + idleTimeout);
+        }
+        if (minimumSharedEntries < 0) {
+            throw new IllegalArgumentException("Minimum shared entries must not be negative, got: " + minimumSharedEntries);
+        }
+        this.idleTimeout = idleTimeout.toNanos();
+        this.minimumSharedEntries = minimumSharedEntries;
+    }
+
+    /**
+     * Leases a class loader for the given classpath, creating one when the pool does not contain a class
+     * loader for the same ordered classpath yet. The class loader remains in use until the returned lease
+     * is closed.
+     *
+     * @param classpath the ordered classpath files of the class loader, cannot be {@literal null}.
+     * @return the class loader lease, never {@literal null}.
+     * @throws IllegalStateException if the pool has been closed.
+     */
+    public synchronized Lease acquire(Iterable<? extends File> classpath) {
+        if (closed) {
+            throw new IllegalStateException("Class loader pool has been closed");
+        }
+
+        evict(System.nanoTime());
+
+        final List<ClasspathEntry> key = new ArrayList<>();
+        classpath.forEach(file -> key.add(ClasspathEntry.of(file)));
+
+        final PooledClassLoader pooled = obtain(List.copyOf(key));
+        pooled.references++;
+
+        return new Lease(pooled);
+    }
+
+    /**
+     * Returns the number of class loaders that are currently held by the pool, leased, idle or shared
+     * as parent class loaders.
+     *
+     * @return the number of pooled class loaders.
+     */
+    public synchronized int size() {
+        return loaders.size();
+    }
+
+    /**
+     * Closes every class loader created by this pool, including the ones that are still leased. Class
+     * loaders can no longer be acquired once the pool is closed.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        loaders.values().forEach(PooledClassLoader::close);
+        loaders.clear();
+    }
+
+    private PooledClassLoader obtain(List<ClasspathEntry> classpath) {
+        final PooledClassLoader existing = loaders.get(classpath);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        final PooledClassLoader parent = obtainSharedParent(classpath);
+        final PooledClassLoader pooled = PooledClassLoader.create(classpath, parent);
+
+        if (parent != null) {
+            parent.references++;
+        }
+
+        loaders.put(classpath, pooled);
+
+        return pooled;
+    }
+
+    @Nullable
+    private PooledClassLoader obtainSharedParent(List<ClasspathEntry> classpath) {
+        if (minimumSharedEntries == NO_SHARED_PREFIXES) {
+            return null;
+        }
+
+        int shared = 0;
+
+        for (List<ClasspathEntry> candidate : loaders.keySet()) {
+            shared = Math.max(shared, sharedPrefix(candidate, classpath));
+        }
+
+        if (shared < minimumSharedEntries || shared >= classpath.size()) {
+            return null;
+        }
+
+        return obtain(List.copyOf(classpath.subList(0, shared)));
+    }
+
+    private static int sharedPrefix(List<ClasspathEntry> first, List<ClasspathEntry> second) {
+        final int length = Math.min(first.size(), second.size());
+        int index = 0;
+
+        while (index < length && first.get(index).equals(second.get(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    private synchronized void release(PooledClassLoader pooled) {
+        pooled.references--;
+        pooled.releasedAt = System.nanoTime();
+
+        evict(pooled.releasedAt);
+    }
+
+    private void evict(long now) {
+        boolean evicted;
+
+        // evicting a class loader releases its parent, which may then become idle as well
+        do {
+            evicted = false;
+
+            final Iterator<PooledClassLoader> iterator = loaders.values().iterator();
+
+            while (iterator.hasNext()) {
+                final PooledClassLoader pooled = iterator.next();
+
+                if (pooled.references == 0 && now - pooled.releasedAt >= idleTimeout) {
+                    iterator.remove();
+                    pooled.close();
+
+                    if (pooled.parent != null) {
+                        pooled.parent.references--;
+                        pooled.parent.releasedAt = now;
+                    }
+
+                    evicted = true;
+                }
+            }
+        } while (evicted);
+    }
+
+    /**
+     * A lease of a pooled class loader, which must be closed once the class loader is no longer used.
+     * Closing a lease more than once has no effect.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final PooledClassLoader pooled;
+        private boolean released;
+
+        private Lease(PooledClassLoader pooled) {
+            this.pooled = pooled;
+        }
+
+        /**
+         * Returns the leased class loader.
+         *
+         * @return the class loader, never {@literal null}.
+         */
+        public ClassLoader getClassLoader() {
+            return pooled.classLoader;
+        }
+
+        /**
+         * Returns the class loader to the pool.
+         */
+        @Override
+        public void close() {
+            synchronized (ClassLoaderPool.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+
+            release(pooled);
+        }
+    }
+
+    private record ClasspathEntry(File file, long size, long lastModified) {
+
+        static ClasspathEntry of(File file) {
+            final File absolute = file.getAbsoluteFile();
+            return new ClasspathEntry(absolute, absolute.length(), absolute.lastModified());
+        }
+    }
+
+    private static final class PooledClassLoader {
+
+        private final URLClassLoader classLoader;
+
+        @Nullable
+        private final PooledClassLoader parent;
+        private final int size;
+
+        private int references;
+        private long releasedAt;
+
+        private PooledClassLoader(URLClassLoader classLoader, @Nullable PooledClassLoader parent, int size) {
+            this.classLoader = classLoader;
+            this.parent = parent;
+            this.size = size;
+        }
+
+        static PooledClassLoader create(List<ClasspathEntry> classpath, @Nullable PooledClassLoader parent) {
+            final List<ClasspathEntry> entries = parent == null ? classpath
+                    : classpath.subList(parent.size, classpath.size());
+            final List<URL> urls = new ArrayList<>(entries.size());
+
+            for (ClasspathEntry entry : entries) {
+                try {
+                    urls.add(entry.file().toURI().toURL());
+                } catch (MalformedURLException ex) {
+                    logger.debug("Skipping classpath entry that can not be converted to an URL: {}", entry.file(), ex);
+                }
+            }
+
+            final ClassLoader parentClassLoader = parent == null ? ClassLoader.getSystemClassLoader() : parent.classLoader;
+
+            return new PooledClassLoader(new URLClassLoader(urls.toArray(URL[]::new), parentClassLoader), parent, classpath.size());
+        }
+
+        void close() {
+            try {
+                classLoader.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to close pooled class loader", ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * {@link ArtifactMetadataResource} backed by a single entry of a jar file, that is located once by the
+ * {@link ArtifactMetadataScanner} but only read when the resource is {@link #open() opened}.
+ * <p>
+ * The entry contents are never kept in memory, each call to {@link #open()} re-opens the jar file and
+ * streams, and if needed inflates, the entry data directly from it. The amount of memory needed to parse
+ * the metadata of an artifact therefore depends on the size of the metadata file that is currently being
+ * parsed, not on the size of all the metadata files that were found.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ZipCentralDirectory#openStream(Path, ZipCentralDirectory.Entry)
+ */
+@NullMarked
+final class JarEntryArtifactMetadataResource implements ArtifactMetadataResource {
+
+    private final Path jar;
+    private final ZipCentralDirectory.Entry entry;
+
+    /**
+     * Creates a new {@link JarEntryArtifactMetadataResource}.
+     *
+     * @param jar the path to the jar file containing the entry, cannot be {@literal null}.
+     * @param entry the central directory entry of the Spring Boot configuration metadata, cannot be {@literal null}.
+     */
+    JarEntryArtifactMetadataResource(Path jar, ZipCentralDirectory.Entry entry) {
+        this.jar = jar;
+        this.entry = entry;
+    }
+
+    /**
+     * Returns the central directory entry of the Spring Boot configuration metadata.
+     *
+     * @return the jar entry, never {@literal null}.
+     */
+    ZipCentralDirectory.Entry entry() {
+        return entry;
+    }
+
+    @Override
+    public String name() {
+        return entry.name();
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return ZipCentralDirectory.openStream(jar, entry);
+    }
+
+    @Override
+    public String toString() {
+        return "JarEntryArtifactMetadataResource(" + jar + "!/" + entry.name() + ")";
+    }
+}
@@ -0,0 +1,277 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent filter of artifacts that are known to contain no Spring Boot configuration metadata, shared
+ * by every build that points to the same filter file, usually one located in the Gradle user home.
+ * <p>
+ * Most of the runtime classpath of an application consists of libraries that never ship configuration
+ * metadata. Once such an artifact has been scanned, its key, which should identify both its coordinates
+ * and its content hash, is {@link #add(String) added} to this filter, and subsequent builds can skip the
+ * artifact without opening it at all.
+ * <p>
+ * The filter records the exact keys, a lookup is a single hash map lookup and can never report an artifact
+ * that was not recorded, so an artifact that does contain metadata is never skipped because of a collision.
+ * <p>
+ * New keys are kept in memory until the filter is {@link #flush() flushed}, or closed. A flush is guarded
+ * by an exclusive file lock, and merges the in-memory keys with whatever other processes have written in
+ * the meantime, before the filter is atomically replaced. The filter file is versioned, a filter file with
+ * a different version is discarded.
+ * <p>
+ * Like the {@link ArtifactMetadataIndex}, the filter is bounded by the number of keys it records. Every key
+ * records when it was last added or looked up, and the least recently used keys are pruned when a flush
+ * grows the filter beyond that limit, so keys of dependency versions that are no longer used by any build
+ * are eventually discarded.
+ * <p>
+ * Every key is recorded for the {@link MetadataPathMatcher} the artifact was scanned with, as an artifact
+ * that contains no metadata at the {@link MetadataPathMatcher#defaults() default metadata locations} may
+ * still contain metadata at custom ones. Builds scanning for different metadata locations share the same
+ * filter file, each of them only sees the keys recorded for its own locations.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactMetadataIndex
+ */
+@NullMarked
+public final class MetadataFreeArtifactFilter implements Closeable {
+
+    /**
+     * The default maximum number of artifact keys that are recorded in the filter.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 50_000;
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataFreeArtifactFilter.class);
+
+    private static final int MAGIC = 0x4B4D4646;
+    private static final int VERSION = 4;
+
+    private final PersistentFile file;
+    private final int maxEntries;
+    private final Map<String, Long> keys = new ConcurrentHashMap<>();
+    private final Set<String> modified = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    /**
+     * Creates a new {@link MetadataFreeArtifactFilter} backed by the given file, using the
+     * {@link #DEFAULT_MAX_ENTRIES default maximum number of entries}.
+     *
+     * @param file the filter file, it does not need to exist yet, cannot be {@literal null}.
+     */
+    public MetadataFreeArtifactFilter(Path file) {
+        this(file, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new {@link MetadataFreeArtifactFilter} backed by the given file.
+     *
+     * @param file the filter file, it does not need to exist yet, cannot be {@literal null}.
+     * @param maxEntries the maximum number of artifact keys recorded in the filter, must be positive.
+     */
+    public MetadataFreeArtifactFilter(Path file, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum number of filter entries must be positive, got: " + maxEntries);
+        }
+        this.file = new PersistentFile(file);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Checks whether the artifact with the given key is known to contain no configuration metadata at the
+     * {@link MetadataPathMatcher#defaults() default metadata locations}.
+     *
+     * @param key the artifact key, identifying its coordinates and content hash, cannot be {@literal null}.
+     * @return {@literal true} if the artifact was recorded as metadata-free, {@literal false} otherwise.
+     * @throws IOException if the filter file could not be read.
+     */
+    public boolean isMetadataFree(String key) throws IOException {
+        return isMetadataFree(key, MetadataPathMatcher.defaults());
+    }
+
+    /**
+     * Checks whether the artifact with the given key is known to contain no configuration metadata at the
+     * locations matched by the given {@link MetadataPathMatcher}.
+     *
+     * @param key the artifact key, identifying its coordinates and content hash, cannot be {@literal null}.
+     * @param matcher the matcher the artifact is scanned with, cannot be {@literal null}.
+     * @return {@literal true} if the artifact was recorded as metadata-free, {@literal false} otherwise.
+     * @throws IOException if the filter file could not be read.
+     */
+    public boolean isMetadataFree(String key, MetadataPathMatcher matcher) throws IOException {
+        load();
+
+        final String member = key(key, matcher);
+
+        if (keys.computeIfPresent(member, (ignore, lastAccess) -> System.currentTimeMillis()) == null) {
+            return false;
+        }
+
+        modified.add(member);
+        return true;
+    }
+
+    /**
+     * Records the artifact with the given key as one that contains no configuration metadata at the
+     * {@link MetadataPathMatcher#defaults() default metadata locations}.
+     *
+     * @param key the artifact key, identifying its coordinates and content hash, cannot be {@literal null}.
+     * @throws IOException if the filter file could not be read.
+     */
+    public void add(String key) throws IOException {
+        add(key, MetadataPathMatcher.defaults());
+    }
+
+    /**
+     * Records the artifact with the given key as one that contains no configuration metadata at the
+     * locations matched by the given {@link MetadataPathMatcher}.
+     *
+     * @param key the artifact key, identifying its coordinates and content hash, cannot be {@literal null}.
+     * @param matcher the matcher the artifact was scanned with, cannot be {@literal null}.
+     * @throws IOException if the filter file could not be read.
+     */
+    public void add(String key, MetadataPathMatcher matcher) throws IOException {
+        load();
+
+        final String member = key(key, matcher);
+
+        keys.put(member, System.currentTimeMillis());
+        modified.add(member);
+    }
+
+    /**
+     * Writes every key that was added or looked up since the last flush to the filter file, merging them
+     * with the keys written by other processes, and pruning the least recently used keys beyond the maximum
+     * number of entries.
+     *
+     * @throws IOException if the filter file could not be written.
+     */
+    public void flush() throws IOException {
+        if (modified.isEmpty()) {
+            return;
+        }
+
+        final Map<String, Long> pruned = file.locked(() -> {
+            final Map<String, Long> merged = read();
+
+            for (String key : List.copyOf(modified)) {
+                final Long lastAccess = keys.get(key);
+
+                if (lastAccess != null) {
+                    merged.merge(key, lastAccess, Math::max);
+                }
+
+                modified.remove(key);
+            }
+
+            final Map<String, Long> result = prune(merged);
+            file.write(out -> write(out, result));
+            return result;
+        });
+
+        pruned.forEach(keys::putIfAbsent);
+    }
+
+    /**
+     * Flushes this filter, see {@link #flush()}.
+     *
+     * @throws IOException if the filter file could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataFreeArtifactFilter(" + file + ")";
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (keys) {
+            if (loaded) {
+                return;
+            }
+
+            if (file.exists()) {
+                file.locked(this::read).forEach(keys::putIfAbsent);
+            }
+
+            loaded = true;
+        }
+    }
+
+    private Map<String, Long> prune(Map<String, Long> merged) {
+        if (merged.size() <= maxEntries) {
+            return merged;
+        }
+
+        final List<Map.Entry<String, Long>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        final Map<String, Long> pruned = new LinkedHashMap<>(maxEntries);
+        entries.subList(0, maxEntries).forEach(entry -> pruned.put(entry.getKey(), entry.getValue()));
+
+        keys.keySet().retainAll(pruned.keySet());
+
+        logger.debug("Pruned {} least recently used keys from the metadata free artifact filter: {}",
+                merged.size() - maxEntries, file);
+
+        return pruned;
+    }
+
+    private Map<String, Long> read() {
+        final Map<String, Long> result = new HashMap<>();
+
+        if (!file.exists()) {
+            return result;
+        }
+
+        try (DataInputStream in = file.read()) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.debug("Discarding metadata free artifact filter with an unsupported format: {}", file);
+                return result;
+            }
+
+            final int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                result.put(in.readUTF(), in.readLong());
+            }
+        } catch (IOException ex) {
+            logger.warn("Discarding corrupted metadata free artifact filter: {}", file, ex);
+            result.clear();
+        }
+
+        return result;
+    }
+
+    private static void write(DataOutputStream out, Map<String, Long> members) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(members.size());
+
+        for (Map.Entry<String, Long> member : members.entrySet()) {
+            out.writeUTF(member.getKey());
+            out.writeLong(member.getValue());
+        }
+    }
+
+    private static String key(String key, MetadataPathMatcher matcher) {
+        return matcher.fingerprint() + '/' + key;
+    }
+
+}
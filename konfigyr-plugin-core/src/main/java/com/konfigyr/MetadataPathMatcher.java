@@ -0,0 +1,434 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Matches archive entry names, or paths relative to a class-output directory, against the locations
+ * where configuration metadata files, and nested archives that should be scanned for them, are expected.
+ * <p>
+ * Locations are declared as path patterns, using {@code /} as the separator, where a {@code *} matches
+ * any sequence of characters within a single path segment, for example {@code META-INF/konfigyr/*.json}
+ * or {@code BOOT-INF/lib/*.jar}. Every pattern is compiled, once, into a single deterministic automaton
+ * over the UTF-8 encoded path bytes, so a name is matched against every pattern at once, in a single pass
+ * over its bytes, and most names are rejected after their first few bytes. Adding more patterns does not
+ * add more lookups per archive entry.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactMetadataScanner#scan(java.io.File, MetadataPathMatcher)
+ */
+@NullMarked
+public final class MetadataPathMatcher {
+
+    /**
+     * Match result flag for configuration metadata files.
+     */
+    static final int METADATA = 1;
+
+    /**
+     * Match result flag for nested archives.
+     */
+    static final int NESTED_ARCHIVE = 2;
+
+    private static final int DEAD = -1;
+
+    private static final MetadataPathMatcher DEFAULT = of(defaultMetadataLocations(), ArtifactMetadataScanner.NESTED_ARCHIVE_PATTERNS);
+
+    private final Set<String> metadataLocations;
+    private final Set<String> nestedArchives;
+    private final String fingerprint;
+
+    /**
+     * Maps every byte to its equivalence class, bytes that do not appear in any pattern, other than the
+     * separator, all share the same class and therefore the same transitions.
+     */
+    private final int[] classes;
+
+    private final int classCount;
+
+    /**
+     * Transition table of the automaton, the next state for a byte {@code b} in state {@code s} is at
+     * index {@code s * classCount + classes[b]}, or {@link #DEAD} when no pattern can match anymore.
+     */
+    private final int[] transitions;
+
+    /**
+     * Match result flags of every automaton state.
+     */
+    private final int[] accepts;
+
+    private MetadataPathMatcher(Set<String> metadataLocations, Set<String> nestedArchives,
+                                int[] classes, int classCount, int[] transitions, int[] accepts) {
+        this.metadataLocations = metadataLocations;
+        this.nestedArchives = nestedArchives;
+        this.fingerprint = fingerprint(metadataLocations, nestedArchives);
+        this.classes = classes;
+        this.classCount = classCount;
+        this.transitions = transitions;
+        this.accepts = accepts;
+    }
+
+    /**
+     * Returns the matcher for the well-known {@link ArtifactMetadataScanner#METADATA_PATHS metadata paths},
+     * also within the {@code BOOT-INF/classes} and {@code WEB-INF/classes} directories of Spring Boot
+     * executable archives, and their {@link ArtifactMetadataScanner#NESTED_ARCHIVE_PATTERNS nested libraries}.
+     *
+     * @return the default matcher, never {@literal null}.
+     */
+    public static MetadataPathMatcher defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Compiles a new {@link MetadataPathMatcher} for the given metadata location and nested archive patterns.
+     *
+     * @param metadataLocations patterns of the configuration metadata file locations, cannot be {@literal null}.
+     * @param nestedArchives patterns of the nested archive locations, cannot be {@literal null}.
+     * @return the compiled matcher, never {@literal null}.
+     * @throws IllegalArgumentException if any of the patterns is empty, or starts or ends with a {@code /}.
+     */
+    public static MetadataPathMatcher of(Collection<String> metadataLocations, Collection<String> nestedArchives) {
+        final Compiler compiler = new Compiler();
+        metadataLocations.forEach(pattern -> compiler.add(pattern, METADATA));
+        nestedArchives.forEach(pattern -> compiler.add(pattern, NESTED_ARCHIVE));
+
+        return compiler.compile(new TreeSet<>(metadataLocations), new TreeSet<>(nestedArchives));
+    }
+
+    /**
+     * Compiles a new {@link MetadataPathMatcher} that matches the patterns of this matcher as well as the
+     * given metadata location and nested archive patterns.
+     *
+     * @param metadataLocations additional patterns of the metadata file locations, cannot be {@literal null}.
+     * @param nestedArchives additional patterns of the nested archive locations, cannot be {@literal null}.
+     * @return the extended matcher, or this matcher when there are no additional patterns, never {@literal null}.
+     * @throws IllegalArgumentException if any of the patterns is empty, or starts or ends with a {@code /}.
+     */
+    public MetadataPathMatcher extend(Collection<String> metadataLocations, Collection<String> nestedArchives) {
+        if (this.metadataLocations.containsAll(metadataLocations) && this.nestedArchives.containsAll(nestedArchives)) {
+            return this;
+        }
+
+        final Set<String> locations = new HashSet<>(this.metadataLocations);
+        locations.addAll(metadataLocations);
+
+        final Set<String> archives = new HashSet<>(this.nestedArchives);
+        archives.addAll(nestedArchives);
+
+        return of(locations, archives);
+    }
+
+    /**
+     * Returns the patterns of the configuration metadata file locations.
+     *
+     * @return the metadata location patterns, never {@literal null}.
+     */
+    public Set<String> getMetadataLocations() {
+        return Collections.unmodifiableSet(metadataLocations);
+    }
+
+    /**
+     * Returns the patterns of the nested archive locations.
+     *
+     * @return the nested archive patterns, never {@literal null}.
+     */
+    public Set<String> getNestedArchives() {
+        return Collections.unmodifiableSet(nestedArchives);
+    }
+
+    /**
+     * Checks whether the given path is the location of a configuration metadata file.
+     *
+     * @param path the archive entry name, or the relative path, to check, cannot be {@literal null}.
+     * @return {@literal true} if the path matches one of the metadata location patterns.
+     */
+    public boolean isMetadata(String path) {
+        return (match(path) & METADATA) != 0;
+    }
+
+    /**
+     * Checks whether the given path is the location of a nested archive that should be scanned.
+     *
+     * @param path the archive entry name, or the relative path, to check, cannot be {@literal null}.
+     * @return {@literal true} if the path matches one of the nested archive patterns.
+     */
+    public boolean isNestedArchive(String path) {
+        return (match(path) & NESTED_ARCHIVE) != 0;
+    }
+
+    /**
+     * Returns the fingerprint of the metadata location and nested archive patterns, used to keep apart the
+     * persisted scan results of different matchers. Matchers that are equal have the same fingerprint.
+     *
+     * @return the hex encoded fingerprint, never {@literal null}.
+     */
+    String fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Checks whether any of the patterns could match a path within the given directory, used to skip
+     * whole directory trees when scanning class-output directories.
+     *
+     * @param directory the relative path of the directory, without a trailing {@code /}, empty for the root.
+     * @return {@literal true} if a path within this directory may be matched.
+     */
+    boolean matchesWithin(String directory) {
+        if (directory.isEmpty()) {
+            return true;
+        }
+
+        final int state = advance(0, (directory + '/').getBytes(StandardCharsets.UTF_8));
+        return state != DEAD;
+    }
+
+    /**
+     * Matches the given path against every pattern.
+     *
+     * @param path the path to match, cannot be {@literal null}.
+     * @return the match flags, a combination of {@link #METADATA} and {@link #NESTED_ARCHIVE}, zero if none match.
+     */
+    int match(String path) {
+        final int state = advance(0, path.getBytes(StandardCharsets.UTF_8));
+        return state == DEAD ? 0 : accepts[state];
+    }
+
+    /**
+     * Matches the UTF-8 encoded path, located in the given region of the buffer, against every pattern.
+     *
+     * @param buffer the buffer containing the path, cannot be {@literal null}.
+     * @param offset the absolute position of the path within the buffer.
+     * @param length the length of the path, in bytes.
+     * @return the match flags, a combination of {@link #METADATA} and {@link #NESTED_ARCHIVE}, zero if none match.
+     */
+    int match(ByteBuffer buffer, int offset, int length) {
+        int state = 0;
+
+        for (int i = 0; i < length; i++) {
+            state = transitions[state * classCount + classes[buffer.get(offset + i) & 0xFF]];
+
+            if (state == DEAD) {
+                return 0;
+            }
+        }
+
+        return accepts[state];
+    }
+
+    private int advance(int state, byte[] bytes) {
+        for (byte b : bytes) {
+            state = transitions[state * classCount + classes[b & 0xFF]];
+
+            if (state == DEAD) {
+                return DEAD;
+            }
+        }
+
+        return state;
+    }
+
+    private static String fingerprint(Set<String> metadataLocations, Set<String> nestedArchives) {
+        final MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 message digest is not available", ex);
+        }
+
+        // patterns are sorted, and prefixed with their kind and length, so that different sets of patterns
+        // never digest the same bytes
+        for (String pattern : metadataLocations) {
+            digest.update(("M" + pattern.length() + ':' + pattern).getBytes(StandardCharsets.UTF_8));
+        }
+        for (String pattern : nestedArchives) {
+            digest.update(("N" + pattern.length() + ':' + pattern).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static Set<String> defaultMetadataLocations() {
+        final Set<String> locations = new HashSet<>();
+
+        for (String path : ArtifactMetadataScanner.METADATA_PATHS) {
+            locations.add(path);
+            locations.add("BOOT-INF/classes/" + path);
+            locations.add("WEB-INF/classes/" + path);
+        }
+
+        return locations;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetadataPathMatcher that)) {
+            return false;
+        }
+        return metadataLocations.equals(that.metadataLocations) && nestedArchives.equals(that.nestedArchives);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(metadataLocations, nestedArchives);
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataPathMatcher(metadataLocations=" + metadataLocations + ", nestedArchives=" + nestedArchives + ")";
+    }
+
+    /**
+     * Compiles the patterns into a trie, a nondeterministic automaton where {@code *} is represented by a
+     * state that loops over every byte but {@code /}, which is then converted into a deterministic one
+     * using the subset construction.
+     */
+    private static final class Compiler {
+
+        private final Node root = new Node(false);
+        private final BitSet literals = new BitSet(256);
+
+        void add(String pattern, int flag) {
+            if (pattern.isEmpty() || pattern.startsWith("/") || pattern.endsWith("/")) {
+                throw new IllegalArgumentException("Invalid metadata path pattern: '" + pattern + "'");
+            }
+
+            Node node = root;
+
+            for (byte b : pattern.getBytes(StandardCharsets.UTF_8)) {
+                if (b == '*') {
+                    // consecutive wildcards are equivalent to a single one
+                    if (!node.loop) {
+                        if (node.wildcard == null) {
+                            node.wildcard = new Node(true);
+                        }
+                        node = node.wildcard;
+                    }
+                } else {
+                    literals.set(b & 0xFF);
+                    node = node.children.computeIfAbsent(b, ignore -> new Node(false));
+                }
+            }
+
+            node.accept |= flag;
+        }
+
+        MetadataPathMatcher compile(Set<String> metadataLocations, Set<String> nestedArchives) {
+            literals.set('/');
+
+            // class zero is shared by every byte that is neither a pattern literal nor the separator,
+            // each remaining byte gets a class of its own, represented by the byte itself
+            final int[] classes = new int[256];
+            final List<Byte> representatives = new ArrayList<>();
+            representatives.add((byte) literals.nextClearBit(0));
+
+            for (int b = literals.nextSetBit(0); b >= 0; b = literals.nextSetBit(b + 1)) {
+                classes[b] = representatives.size();
+                representatives.add((byte) b);
+            }
+
+            final int classCount = representatives.size();
+            final Map<Set<Node>, Integer> states = new HashMap<>();
+            final List<Set<Node>> pending = new ArrayList<>();
+            final List<int[]> rows = new ArrayList<>();
+            final List<Integer> accepts = new ArrayList<>();
+
+            final Set<Node> initial = closure(Set.of(root));
+            states.put(initial, 0);
+            pending.add(initial);
+
+            for (int index = 0; index < pending.size(); index++) {
+                final Set<Node> current = pending.get(index);
+                final int[] row = new int[classCount];
+                int accept = 0;
+
+                for (Node node : current) {
+                    accept |= node.accept;
+                }
+
+                for (int c = 0; c < classCount; c++) {
+                    final Set<Node> next = step(current, representatives.get(c));
+
+                    if (next.isEmpty()) {
+                        row[c] = DEAD;
+                        continue;
+                    }
+
+                    Integer target = states.get(next);
+
+                    if (target == null) {
+                        target = pending.size();
+                        states.put(next, target);
+                        pending.add(next);
+                    }
+
+                    row[c] = target;
+                }
+
+                rows.add(row);
+                accepts.add(accept);
+            }
+
+            final int[] transitions = new int[rows.size() * classCount];
+            final int[] flags = new int[rows.size()];
+
+            for (int state = 0; state < rows.size(); state++) {
+                System.arraycopy(rows.get(state), 0, transitions, state * classCount, classCount);
+                flags[state] = accepts.get(state);
+            }
+
+            return new MetadataPathMatcher(metadataLocations, nestedArchives, classes, classCount, transitions, flags);
+        }
+
+        private Set<Node> step(Set<Node> current, byte b) {
+            final Set<Node> next = new HashSet<>();
+
+            for (Node node : current) {
+                final Node child = node.children.get(b);
+
+                if (child != null) {
+                    next.add(child);
+                }
+                if (node.loop && b != '/') {
+                    next.add(node);
+                }
+            }
+
+            return next.isEmpty() ? next : closure(next);
+        }
+
+        private static Set<Node> closure(Set<Node> nodes) {
+            final Set<Node> result = new HashSet<>(nodes);
+
+            for (Node node : nodes) {
+                for (Node wildcard = node.wildcard; wildcard != null; wildcard = wildcard.wildcard) {
+                    result.add(wildcard);
+                }
+            }
+
+            return Collections.unmodifiableSet(result);
+        }
+    }
+
+    private static final class Node {
+        final Map<Byte, Node> children = new HashMap<>();
+        final boolean loop;
+        @Nullable Node wildcard;
+        int accept;
+
+        Node(boolean loop) {
+            this.loop = loop;
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.*;
+import java.time.Duration;
+
+/**
+ * A binary file, usually located in the Gradle user home, that is shared by every process, such as
+ * concurrently running Gradle daemons, that persists state into it.
+ * <p>
+ * Access to the file is coordinated through an exclusive lock on a sibling {@code .lock} file, which
+ * is held for the duration of a {@link #locked(IOCallable)} action, and the file itself is only ever
+ * replaced atomically via {@link #write(IOWriter)}, so readers never observe a partially written file.
+ * <p>
+ * File locks are held on behalf of the whole JVM. When the lock is already held within this JVM, for example
+ * by the same class loaded by a different class loader of another build script classpath, the lock is retried,
+ * with an increasing delay, until it is released or the {@link #LOCK_TIMEOUT} elapses.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactMetadataIndex
+ * @see MetadataFreeArtifactFilter
+ */
+@NullMarked
+final class PersistentFile {
+
+    /**
+     * Guards the file locks within the class loader of this class, as file locks are held on behalf of the
+     * whole process and can not be acquired twice by it, even from different threads. Locks held through
+     * other class loaders are awaited by retrying the lock, see {@link #lock(FileChannel)}.
+     */
+    private static final Object MONITOR = new Object();
+
+    /**
+     * The maximum time spent waiting for a lock that is held by a different class loader within this JVM.
+     */
+    static final Duration LOCK_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final long MIN_LOCK_RETRY_DELAY = 10;
+    private static final long MAX_LOCK_RETRY_DELAY = 500;
+
+    private final Path file;
+
+    PersistentFile(Path file) {
+        this.file = file.toAbsolutePath();
+    }
+
+    /**
+     * Checks whether the file exists.
+     *
+     * @return {@literal true} if the file exists.
+     */
+    boolean exists() {
+        return Files.exists(file);
+    }
+
+    /**
+     * Executes the given action while holding the exclusive lock of this file.
+     *
+     * @param action the action to execute, cannot be {@literal null}.
+     * @param <T> the result type of the action.
+     * @return the result of the action.
+     * @throws IOException if the lock could not be acquired, or the action failed.
+     */
+    <T> T locked(IOCallable<T> action) throws IOException {
+        Files.createDirectories(file.getParent());
+
+        synchronized (MONITOR) {
+            try (FileChannel channel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                final FileLock lock = lock(channel);
+
+                try {
+                    return action.call();
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    private FileLock lock(FileChannel channel) throws IOException {
+        final long deadline = System.nanoTime() + LOCK_TIMEOUT.toNanos();
+        long delay = MIN_LOCK_RETRY_DELAY;
+
+        while (true) {
+            try {
+                return channel.lock();
+            } catch (OverlappingFileLockException ex) {
+                // the lock is held by this JVM, through a different class loader, wait until it is released
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new IOException("Timed out waiting for the lock of " + file + ", it is held by a " +
+                            "different class loader of this process", ex);
+                }
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the lock of " + file);
+            }
+
+            delay = Math.min(delay * 2, MAX_LOCK_RETRY_DELAY);
+        }
+    }
+
+    /**
+     * Opens the file for reading, should only be invoked while holding the lock.
+     *
+     * @return the input stream of the file contents, never {@literal null}.
+     * @throws IOException if the file does not exist, or could not be opened.
+     */
+    DataInputStream read() throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    /**
+     * Atomically replaces the file with the contents written by the given writer, should only be
+     * invoked while holding the lock.
+     *
+     * @param writer the writer of the new file contents, cannot be {@literal null}.
+     * @throws IOException if the file could not be written.
+     */
+    void write(IOWriter writer) throws IOException {
+        final Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                writer.write(out);
+            }
+
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    /**
+     * Action executed while holding the lock of a {@link PersistentFile}.
+     *
+     * @param <T> the result type.
+     */
+    @FunctionalInterface
+    interface IOCallable<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Writer of the contents of a {@link PersistentFile}.
+     */
+    @FunctionalInterface
+    interface IOWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.konfigyr;
+
+import com.konfigyr.artifactory.PropertyDescriptor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A thread-safe, in-process cache of {@link PropertyDescriptor}s parsed from Spring Boot configuration
+ * metadata, keyed by the contents of the metadata and the classpath used to resolve its property types.
+ * <p>
+ * Projects of a multi-project build commonly depend on the same library versions, so the same metadata is
+ * parsed against the same classpath more than once. This cache lets those projects reuse the descriptors
+ * that were already generated, instead of resolving their types and schemas again.
+ * <p>
+ * The cache is bounded by its weight, the total number of descriptors it holds, rather than by the number
+ * of artifacts, as a single artifact can declare anywhere from a handful to thousands of properties. Once
+ * the maximum weight is exceeded, the least recently used entries are evicted. Entries that are heavier
+ * than the maximum weight are never cached.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ */
+@NullMarked
+public final class PropertyDescriptorCache {
+
+    /**
+     * The default maximum number of descriptors held by the cache.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 50_000;
+
+    private final Map<Key, List<PropertyDescriptor>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maximumWeight;
+    private long weight;
+
+    /**
+     * Creates a new {@link PropertyDescriptorCache} with the {@link #DEFAULT_MAXIMUM_WEIGHT default maximum weight}.
+     */
+    public PropertyDescriptorCache() {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Creates a new {@link PropertyDescriptorCache} with the given maximum weight.
+     *
+     * @param maximumWeight the maximum number of descriptors held by the cache.
+     * @throws IllegalArgumentException if the maximum weight is negative.
+     */
+    public PropertyDescriptorCache(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight must not be negative, got: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Returns the maximum number of descriptors held by the cache.
+     *
+     * @return the maximum weight.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the number of descriptors currently held by the cache.
+     *
+     * @return the current weight.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Looks up the descriptors cached under the given key.
+     *
+     * @param key the key to look up, cannot be {@literal null}.
+     * @return the cached, sorted and unmodifiable descriptors, or {@literal null} if absent.
+     */
+    @Nullable
+    public synchronized List<PropertyDescriptor> get(Key key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches the given descriptors under the given key, replacing any descriptors already present, and
+     * evicts the least recently used entries until the cache no longer exceeds its maximum weight.
+     * Descriptors that are heavier than the maximum weight are not cached.
+     *
+     * @param key the key to associate the descriptors with, cannot be {@literal null}.
+     * @param descriptors the sorted descriptors to cache, cannot be {@literal null}.
+     */
+    public synchronized void put(Key key, List<PropertyDescriptor> descriptors) {
+        if (descriptors.size() > maximumWeight) {
+            return;
+        }
+
+        final List<PropertyDescriptor> previous = entries.put(key, List.copyOf(descriptors));
+
+        if (previous != null) {
+            weight -= previous.size();
+        }
+
+        weight += descriptors.size();
+
+        final Iterator<List<PropertyDescriptor>> iterator = entries.values().iterator();
+
+        while (weight > maximumWeight && iterator.hasNext()) {
+            weight -= iterator.next().size();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes every cached descriptor.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Key of the cached descriptors, made of the content hash of the configuration metadata and the
+     * fingerprint of the classpath that was used to resolve the property types.
+     *
+     * @param metadata the hex encoded SHA-256 hash of the configuration metadata contents.
+     * @param classpath the hex encoded SHA-256 hash of the classpath file locations, sizes and modification times.
+     */
+    public record Key(String metadata, String classpath) {
+
+        /**
+         * Creates a new {@link Key} for the given metadata resources and classpath.
+         * <p>
+         * The metadata is identified by the file name and the contents of each resource, in iteration order,
+         * so that the same metadata packaged in different jar files yields the same key. The classpath is
+         * identified by the location, size and last modification time of each file, also in iteration
+         * order, as it determines which types are loaded.
+         *
+         * @param metadata the configuration metadata resources, cannot be {@literal null}.
+         * @param classpath the classpath files used to resolve property types, cannot be {@literal null}.
+         * @return the cache key, never {@literal null}.
+         * @throws UncheckedIOException if the metadata resources could not be read.
+         */
+        public static Key of(Iterable<? extends ArtifactMetadataResource> metadata, Iterable<? extends File> classpath) {
+            final MessageDigest digest = digest();
+            final byte[] buffer = new byte[8192];
+
+            for (ArtifactMetadataResource resource : metadata) {
+                final String name = resource.name();
+                update(digest, name.substring(name.lastIndexOf('/') + 1));
+
+                long length = 0;
+
+                try (InputStream is = resource.open()) {
+                    int read;
+
+                    while ((read = is.read(buffer)) >= 0) {
+                        digest.update(buffer, 0, read);
+                        length += read;
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Failed to read configuration metadata from: " + name, ex);
+                }
+
+                update(digest, length);
+            }
+
+            final String metadataHash = HexFormat.of().formatHex(digest.digest());
+
+            for (File file : classpath) {
+                update(digest, file.getAbsolutePath());
+                update(digest, file.length());
+                update(digest, file.lastModified());
+            }
+
+            return new Key(metadataHash, HexFormat.of().formatHex(digest.digest()));
+        }
+
+        private static MessageDigest digest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 message digest is not available", ex);
+            }
+        }
+
+        private static void update(MessageDigest digest, String value) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            update(digest, bytes.length);
+            digest.update(bytes);
+        }
+
+        private static void update(MessageDigest digest, long value) {
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.konfigyr;
+
+import com.konfigyr.artifactory.PropertyDescriptor;
+import org.jspecify.annotations.NullMarked;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Sorts {@link PropertyDescriptor}s, passed to it one at a time, using an external merge sort so that the
+ * memory needed to sort them does not depend on the number of descriptors.
+ * <p>
+ * Descriptors are collected in a buffer of a fixed size. Once the buffer is full it is sorted and written
+ * to a temporary file, as a sorted run. When the descriptors are {@link #drain(Consumer) drained}, the runs
+ * are merged back, reading a single descriptor from each run at a time. Descriptors of artifacts that fit
+ * into the buffer are sorted in memory and never written to disk.
+ * <p>
+ * Temporary files are removed once the descriptors are drained, or when the sorter is closed.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactMetadataParser#parse(Iterable, Consumer)
+ */
+@NullMarked
+public final class PropertyDescriptorSorter implements Consumer<PropertyDescriptor>, Closeable {
+
+    /**
+     * The default number of descriptors that are sorted in memory before they are written to disk.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 2048;
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyDescriptorSorter.class);
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final Path directory;
+    private final int bufferSize;
+    private final List<PropertyDescriptor> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * Creates a new {@link PropertyDescriptorSorter} with the {@link #DEFAULT_BUFFER_SIZE default buffer size}
+     * that writes its sorted runs to the given directory.
+     * <p>
+     * The directory should be owned by the caller, such as the workspace of a build step, so that the sorted
+     * runs of a process that terminated before they could be removed are cleaned up together with it.
+     *
+     * @param mapper the JSON mapper used to write and read the sorted runs, cannot be {@literal null}.
+     * @param directory the directory where the sorted runs are written, cannot be {@literal null}.
+     */
+    public PropertyDescriptorSorter(JsonMapper mapper, Path directory) {
+        this(mapper, directory, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new {@link PropertyDescriptorSorter}.
+     *
+     * @param mapper the JSON mapper used to write and read the sorted runs, cannot be {@literal null}.
+     * @param directory the directory where the sorted runs are written, cannot be {@literal null}.
+     * @param bufferSize the number of descriptors that are sorted in memory before they are written to disk.
+     * @throws IllegalArgumentException if the buffer size is not positive.
+     */
+    public PropertyDescriptorSorter(JsonMapper mapper, Path directory, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, got: " + bufferSize);
+        }
+
+        this.reader = mapper.readerFor(PropertyDescriptor.class);
+        this.writer = mapper.writerFor(PropertyDescriptor.class);
+        this.directory = directory;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Adds the given descriptor, writing the buffered descriptors to disk once the buffer is full.
+     *
+     * @param descriptor the descriptor to be sorted, cannot be {@literal null}.
+     * @throws UncheckedIOException if the buffered descriptors could not be written to disk.
+     */
+    @Override
+    public void accept(PropertyDescriptor descriptor) {
+        buffer.add(descriptor);
+
+        if (buffer.size() >= bufferSize) {
+            spill();
+        }
+    }
+
+    /**
+     * Passes every added descriptor, in their sorted order, to the given consumer. The sorter is empty
+     * once this method returns and can be reused.
+     *
+     * @param consumer the consumer of the sorted descriptors, cannot be {@literal null}.
+     * @throws UncheckedIOException if the sorted runs could not be read from disk.
+     */
+    public void drain(Consumer<? super PropertyDescriptor> consumer) {
+        if (runs.isEmpty()) {
+            buffer.sort(PropertyDescriptor::compareTo);
+            buffer.forEach(consumer);
+            buffer.clear();
+            return;
+        }
+
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+
+        final List<MappingIterator<PropertyDescriptor>> iterators = new ArrayList<>(runs.size());
+
+        try {
+            final PriorityQueue<Head> heads = new PriorityQueue<>(runs.size());
+
+            for (Path run : runs) {
+                final MappingIterator<PropertyDescriptor> iterator = reader.readValues(run.toFile());
+                iterators.add(iterator);
+
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator.next(), iterator));
+                }
+            }
+
+            Head head;
+
+            while ((head = heads.poll()) != null) {
+                consumer.accept(head.descriptor());
+
+                if (head.iterator().hasNext()) {
+                    heads.add(new Head(head.iterator().next(), head.iterator()));
+                }
+            }
+        } finally {
+            iterators.forEach(MappingIterator::close);
+            delete();
+        }
+    }
+
+    /**
+     * Discards every added descriptor and removes the temporary files of the sorted runs.
+     */
+    @Override
+    public void close() {
+        buffer.clear();
+        delete();
+    }
+
+    private void spill() {
+        buffer.sort(PropertyDescriptor::compareTo);
+
+        final Path run;
+
+        try {
+            run = Files.createTempFile(directory, "konfigyr-descriptors-", ".json");
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create sorted property descriptor run in: " + directory, ex);
+        }
+
+        runs.add(run);
+
+        try (SequenceWriter sequence = writer.writeValues(run.toFile())) {
+            for (PropertyDescriptor descriptor : buffer) {
+                sequence.write(descriptor);
+            }
+        }
+
+        logger.debug("Written sorted run of {} property descriptors to: {}", buffer.size(), run);
+
+        buffer.clear();
+    }
+
+    private void delete() {
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException ex) {
+                logger.warn("Failed to delete sorted property descriptor run: {}", run, ex);
+            }
+        }
+
+        runs.clear();
+    }
+
+    private record Head(PropertyDescriptor descriptor, MappingIterator<PropertyDescriptor> iterator)
+            implements Comparable<Head> {
+
+        @Override
+        public int compareTo(Head o) {
+            return descriptor.compareTo(o.descriptor);
+        }
+    }
+
+}
@@ -0,0 +1,475 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+import org.springframework.boot.configurationmetadata.Deprecation;
+import org.springframework.boot.configurationmetadata.ValueHint;
+import org.springframework.boot.configurationmetadata.ValueProvider;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Reads Spring Boot configuration metadata files using the Jackson streaming {@link JsonParser}, an
+ * alternative to the {@link org.springframework.boot.configurationmetadata.ConfigurationMetadataRepositoryJsonBuilder}
+ * that does not read the whole file into memory, nor build a JSON tree, groups or sources out of it.
+ * <p>
+ * Each property is read straight into a {@link ConfigurationMetadataProperty}, while the {@code groups}
+ * are skipped altogether as they are not needed to create the property descriptors. Hints may target a
+ * property of any resource, and are usually written after the properties, so the resources are read twice.
+ * The first pass only reads the hints and the {@value #ADDITIONAL_METADATA_FILE} files, skipping the
+ * properties of every other file without creating them. The second pass reads those properties and passes
+ * each one to the consumer as soon as it is read, with its hints applied using the same rules as Spring
+ * Boot, including the {@code .keys} and {@code .values} suffixes of map hints. The properties are therefore
+ * never all kept in memory, only the hints, the additional metadata and the names of the passed properties.
+ * <p>
+ * When the same property is defined more than once the first definition wins, unless it is defined in an
+ * {@value #ADDITIONAL_METADATA_FILE} file. Those are merged into the generated definition regardless of
+ * the order in which the resources are read, in the same way as the Spring Boot configuration processor
+ * does, where the description, default value and deprecation of the additional definition take precedence.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactMetadataParser.Engine#STREAMING
+ */
+@NullMarked
+final class StreamingMetadataReader {
+
+    /**
+     * The name of the manually written metadata file that is merged into the generated metadata.
+     */
+    static final String ADDITIONAL_METADATA_FILE = "additional-spring-configuration-metadata.json";
+
+    private static final String MAP_KEYS_SUFFIX = ".keys";
+    private static final String MAP_VALUES_SUFFIX = ".values";
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final Map<String, ConfigurationMetadataProperty> overrides = new LinkedHashMap<>();
+    private final List<Hint> hints = new ArrayList<>();
+
+    /**
+     * Names of the properties that end with a map hint suffix, a hint with such a name targets that property
+     * instead of the map property whose name it is prefixed with.
+     */
+    private final Set<String> suffixedNames = new HashSet<>();
+
+    /**
+     * The hints to apply to each property, keyed by the name of the property, in the order they were read.
+     */
+    private final Map<String, List<HintTarget>> targets = new HashMap<>();
+
+    /**
+     * The names of the properties that were passed to the consumer, the first definition of a property wins.
+     */
+    private final Set<String> passed = new HashSet<>();
+
+    private StreamingMetadataReader() {
+    }
+
+    /**
+     * Reads the given configuration metadata resources and passes every property they define, with its
+     * hints and additional metadata applied, to the given consumer.
+     *
+     * @param resources the metadata resources to read, cannot be {@literal null}.
+     * @param consumer the consumer of the read properties, cannot be {@literal null}.
+     * @throws IOException if any of the resources could not be opened or read.
+     * @throws IllegalStateException if any of the resources does not contain valid configuration metadata.
+     */
+    static void read(Iterable<? extends ArtifactMetadataResource> resources,
+                     Consumer<? super ConfigurationMetadataProperty> consumer) throws IOException {
+        final StreamingMetadataReader reader = new StreamingMetadataReader();
+
+        for (ArtifactMetadataResource resource : resources) {
+            reader.read(resource, null);
+        }
+
+        reader.resolveHintTargets();
+
+        for (ArtifactMetadataResource resource : resources) {
+            if (!isAdditionalMetadata(resource)) {
+                reader.read(resource, consumer);
+            }
+        }
+
+        // additional metadata of properties that are not defined in any of the generated metadata files
+        for (ConfigurationMetadataProperty override : reader.overrides.values()) {
+            if (reader.passed.add(override.getId())) {
+                consumer.accept(reader.complete(override));
+            }
+        }
+    }
+
+    /**
+     * Reads the given resource. Without a consumer, only the hints and the additional metadata are read, and
+     * the properties of any other resource are skipped. With a consumer, only the properties are read, and
+     * each one is passed to the consumer as soon as it is read.
+     */
+    private void read(ArtifactMetadataResource resource,
+                      @Nullable Consumer<? super ConfigurationMetadataProperty> consumer) throws IOException {
+        final boolean additional = isAdditionalMetadata(resource);
+
+        try (InputStream is = resource.open(); JsonParser parser = factory.createParser(ObjectReadContext.empty(), is)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                final String field = parser.currentName();
+                final JsonToken token = parser.nextToken();
+
+                switch (field) {
+                    case "properties" -> {
+                        expect(parser, token, JsonToken.START_ARRAY);
+
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            if (consumer != null) {
+                                final ConfigurationMetadataProperty property = readProperty(parser);
+
+                                if (passed.add(property.getId())) {
+                                    consumer.accept(complete(property));
+                                }
+                            } else if (additional) {
+                                final ConfigurationMetadataProperty property = readProperty(parser);
+                                overrides.putIfAbsent(property.getId(), property);
+                                recordName(property.getId());
+                            } else {
+                                recordName(readPropertyName(parser));
+                            }
+                        }
+                    }
+                    case "hints" -> {
+                        if (consumer == null) {
+                            expect(parser, token, JsonToken.START_ARRAY);
+
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                hints.add(readHint(parser));
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JacksonException | IllegalStateException ex) {
+            throw new IllegalStateException("Failed to read configuration metadata from: " + resource.name(), ex);
+        }
+    }
+
+    private void recordName(String name) {
+        if (name.endsWith(MAP_KEYS_SUFFIX) || name.endsWith(MAP_VALUES_SUFFIX)) {
+            suffixedNames.add(name);
+        }
+    }
+
+    /**
+     * Resolves the property that every read hint targets, once the names of every property are known.
+     */
+    private void resolveHintTargets() {
+        for (Hint hint : hints) {
+            final String id = hint.id();
+
+            if (suffixedNames.contains(id)) {
+                target(id, hint, false);
+            } else if (id.endsWith(MAP_KEYS_SUFFIX)) {
+                target(id.substring(0, id.length() - MAP_KEYS_SUFFIX.length()), hint, true);
+            } else if (id.endsWith(MAP_VALUES_SUFFIX)) {
+                target(id.substring(0, id.length() - MAP_VALUES_SUFFIX.length()), hint, false);
+            } else {
+                target(id, hint, false);
+            }
+        }
+
+        hints.clear();
+    }
+
+    private void target(String id, Hint hint, boolean keys) {
+        targets.computeIfAbsent(id, ignore -> new ArrayList<>()).add(new HintTarget(hint, keys));
+    }
+
+    /**
+     * Merges the additional metadata into the given property and applies the hints that target it.
+     */
+    private ConfigurationMetadataProperty complete(ConfigurationMetadataProperty property) {
+        final ConfigurationMetadataProperty override = overrides.get(property.getId());
+
+        if (override != null && override != property) {
+            merge(property, override);
+        }
+
+        for (HintTarget target : targets.getOrDefault(property.getId(), List.of())) {
+            if (target.keys()) {
+                property.getHints().getKeyHints().addAll(target.hint().values());
+                property.getHints().getKeyProviders().addAll(target.hint().providers());
+            } else {
+                property.getHints().getValueHints().addAll(target.hint().values());
+                property.getHints().getValueProviders().addAll(target.hint().providers());
+            }
+        }
+
+        return property;
+    }
+
+    private static boolean isAdditionalMetadata(ArtifactMetadataResource resource) {
+        return resource.name().endsWith(ADDITIONAL_METADATA_FILE);
+    }
+
+    private static void merge(ConfigurationMetadataProperty property, ConfigurationMetadataProperty override) {
+        if (override.getDescription() != null) {
+            property.setDescription(override.getDescription());
+        }
+        if (override.getDefaultValue() != null) {
+            property.setDefaultValue(override.getDefaultValue());
+        }
+
+        final Deprecation deprecation = override.getDeprecation();
+
+        if (deprecation == null) {
+            return;
+        }
+
+        if (property.getDeprecation() == null) {
+            property.setDeprecation(deprecation);
+            return;
+        }
+
+        if (deprecation.getReason() != null) {
+            property.getDeprecation().setReason(deprecation.getReason());
+        }
+        if (deprecation.getReplacement() != null) {
+            property.getDeprecation().setReplacement(deprecation.getReplacement());
+        }
+        if (deprecation.getLevel() != null) {
+            property.getDeprecation().setLevel(deprecation.getLevel());
+        }
+    }
+
+    private static ConfigurationMetadataProperty readProperty(JsonParser parser) {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        final ConfigurationMetadataProperty property = new ConfigurationMetadataProperty();
+        boolean deprecated = false;
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            final String field = parser.currentName();
+            final JsonToken token = parser.nextToken();
+
+            switch (field) {
+                case "name" -> property.setId(parser.getValueAsString());
+                case "type" -> property.setType(parser.getValueAsString());
+                case "description" -> property.setDescription(parser.getValueAsString());
+                case "defaultValue" -> property.setDefaultValue(readValue(parser));
+                case "deprecated" -> deprecated = token == JsonToken.VALUE_TRUE;
+                case "deprecation" -> property.setDeprecation(readDeprecation(parser));
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (property.getId() == null) {
+            throw new IllegalStateException("Configuration metadata property is missing its name");
+        }
+
+        property.setName(property.getId());
+
+        if (deprecated && property.getDeprecation() == null) {
+            property.setDeprecation(new Deprecation());
+        }
+
+        return property;
+    }
+
+    private static String readPropertyName(JsonParser parser) {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        String name = null;
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+
+            if ("name".equals(field)) {
+                name = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (name == null) {
+            throw new IllegalStateException("Configuration metadata property is missing its name");
+        }
+
+        return name;
+    }
+
+    private static Deprecation readDeprecation(JsonParser parser) {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        final Deprecation deprecation = new Deprecation();
+        deprecation.setLevel(Deprecation.Level.WARNING);
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "reason" -> deprecation.setReason(parser.getValueAsString());
+                case "replacement" -> deprecation.setReplacement(parser.getValueAsString());
+                case "level" -> deprecation.setLevel(readDeprecationLevel(parser.getValueAsString()));
+                default -> parser.skipChildren();
+            }
+        }
+
+        return deprecation;
+    }
+
+    private static Deprecation.Level readDeprecationLevel(@Nullable String level) {
+        if (level == null) {
+            return Deprecation.Level.WARNING;
+        }
+
+        try {
+            return Deprecation.Level.valueOf(level.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return Deprecation.Level.WARNING;
+        }
+    }
+
+    private static Hint readHint(JsonParser parser) {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        String id = null;
+        final List<ValueHint> values = new ArrayList<>();
+        final List<ValueProvider> providers = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            final String field = parser.currentName();
+            final JsonToken token = parser.nextToken();
+
+            switch (field) {
+                case "name" -> id = parser.getValueAsString();
+                case "values" -> {
+                    expect(parser, token, JsonToken.START_ARRAY);
+
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        values.add(readValueHint(parser));
+                    }
+                }
+                case "providers" -> {
+                    expect(parser, token, JsonToken.START_ARRAY);
+
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        providers.add(readValueProvider(parser));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (id == null) {
+            throw new IllegalStateException("Configuration metadata hint is missing its name");
+        }
+
+        return new Hint(id, values, providers);
+    }
+
+    private static ValueHint readValueHint(JsonParser parser) {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        final ValueHint hint = new ValueHint();
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "value" -> hint.setValue(readValue(parser));
+                case "description" -> hint.setDescription(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+
+        return hint;
+    }
+
+    private static ValueProvider readValueProvider(JsonParser parser) {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        final ValueProvider provider = new ValueProvider();
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            final String field = parser.currentName();
+            final JsonToken token = parser.nextToken();
+
+            switch (field) {
+                case "name" -> provider.setName(parser.getValueAsString());
+                case "parameters" -> {
+                    expect(parser, token, JsonToken.START_OBJECT);
+
+                    while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                        final String name = parser.currentName();
+                        parser.nextToken();
+                        provider.getParameters().put(name, readValue(parser));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        return provider;
+    }
+
+    /**
+     * Reads the current value the same way as Spring Boot does, arrays are read as object arrays and
+     * objects as maps, while numbers keep the narrowest type that can represent them.
+     */
+    private static @Nullable Object readValue(JsonParser parser) {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getValueAsString();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case START_ARRAY -> {
+                final List<@Nullable Object> values = new ArrayList<>();
+
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    values.add(readValue(parser));
+                }
+
+                yield values.toArray();
+            }
+            case START_OBJECT -> {
+                final Map<String, @Nullable Object> values = new LinkedHashMap<>();
+
+                while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                    final String name = parser.currentName();
+                    parser.nextToken();
+                    values.put(name, readValue(parser));
+                }
+
+                yield values;
+            }
+            case null, default -> null;
+        };
+    }
+
+    private static void expect(JsonParser parser, @Nullable JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Invalid configuration metadata, expected " + expected + " but was "
+                    + actual + " at: " + parser.currentLocation());
+        }
+    }
+
+    private record Hint(String id, List<ValueHint> values, List<ValueProvider> providers) {
+    }
+
+    private record HintTarget(Hint hint, boolean keys) {
+    }
+
+}
@@ -1,12 +1,21 @@
 package com.konfigyr;
 
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 import java.lang.reflect.Array;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for loading types from the given class loader.
+ * <p>
+ * Loaded types, as well as type names that could not be loaded, are cached by this loader, so every type
+ * name is only ever looked up once. Types of the {@code java.*} packages are loaded directly by the platform
+ * class loader, which delegates to the bootstrap class loader, instead of being delegated to it by every
+ * class loader of the hierarchy. Nested types referenced by their canonical name, like
+ * {@code com.acme.Outer.Inner}, are located by their class file instead of trying to load every possible
+ * binary name of the type.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
@@ -26,7 +35,13 @@ public final class TypeLoader {
             "void", void.class
     );
 
+    /**
+     * Sentinel that is cached for type names that could not be loaded.
+     */
+    private static final Object MISSING = new Object();
+
     private final ClassLoader classLoader;
+    private final Map<String, Object> cache = new ConcurrentHashMap<>(256);
 
     /**
      * Creates a new {@link TypeLoader} instance using the current {@link ClassLoader} instance.
@@ -44,6 +59,17 @@ public final class TypeLoader {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Returns the {@link ClassLoader} that is used to load the types that are not part of the {@code java.*}
+     * packages, and whose resources contain their class files.
+     *
+     * @return the class loader, never {@literal null}.
+     * @since 1.3.0
+     */
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
     /**
      * Attempts to load the given type name using the given class loader.
      *
@@ -53,11 +79,7 @@ public final class TypeLoader {
      * @throws ClassNotFoundException if the type cannot be found by the class loader.
      */
     public <T> Class<T> load(String typeName) throws ClassNotFoundException {
-        try {
-            return forName(typeName.strip(), classLoader);
-        } catch (LinkageError e) {
-            throw new ClassNotFoundException(e.getMessage(), e);
-        }
+        return forName(typeName.strip());
     }
 
     /**
@@ -76,7 +98,7 @@ public final class TypeLoader {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> Class<T> forName(String name, ClassLoader classLoader) throws ClassNotFoundException {
+    private <T> Class<T> forName(String name) throws ClassNotFoundException {
         // primitive types: int, long, boolean, void, etc.
         final Class<?> primitive = PRIMITIVE_TYPES.get(name);
         if (primitive != null) {
@@ -85,20 +107,90 @@ public final class TypeLoader {
 
         // array types, recursive so int[][] works too
         if (name.endsWith("[]")) {
-            final Class<?> element = forName(name.substring(0, name.length() - 2), classLoader);
+            final Class<?> element = forName(name.substring(0, name.length() - 2));
             return (Class<T>) Array.newInstance(element, 0).getClass();
         }
 
-        // regular class first; if not found, try inner-class dot to dollar conversion
-        // e.g. com.example.Outer.Inner → com.example.Outer$Inner
+        Object type = cache.get(name);
+
+        if (type == null) {
+            // types are loaded outside the cache, class loading may be slow and should not block other lookups
+            try {
+                type = find(name);
+            } catch (ClassNotFoundException ex) {
+                cache.putIfAbsent(name, MISSING);
+                throw ex;
+            }
+
+            final Object existing = cache.putIfAbsent(name, type);
+
+            if (existing != null) {
+                type = existing;
+            }
+        }
+
+        if (type == MISSING) {
+            throw new ClassNotFoundException(name);
+        }
+
+        return (Class<T>) type;
+    }
+
+    /**
+     * Looks up the type with the given name, by its binary name first, and by the binary name of a nested
+     * type when the name is the canonical name of a nested type.
+     */
+    private Class<?> find(String name) throws ClassNotFoundException {
+        final ClassLoader loader = name.startsWith("java.") ? ClassLoader.getPlatformClassLoader() : classLoader;
+
         try {
-            return (Class<T>) Class.forName(name, false, classLoader);
+            return Class.forName(name, false, loader);
         } catch (ClassNotFoundException ex) {
-            final int lastDot = name.lastIndexOf('.');
-            if (lastDot > 0) {
-                return forName(name.substring(0, lastDot) + '$' + name.substring(lastDot + 1), classLoader);
+            final String nestedName = findNestedName(name, loader);
+
+            if (nestedName == null) {
+                throw ex;
+            }
+
+            try {
+                return Class.forName(nestedName, false, loader);
+            } catch (LinkageError e) {
+                throw new ClassNotFoundException(e.getMessage(), e);
+            }
+        } catch (LinkageError e) {
+            throw new ClassNotFoundException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Resolves the binary name of a nested type referenced by its canonical name, replacing the dots that
+     * separate nested type names with dollar signs, from right to left, until a matching class file is found,
+     * e.g. {@code com.example.Outer.Inner} to {@code com.example.Outer$Inner}.
+     */
+    @Nullable
+    private static String findNestedName(String name, ClassLoader loader) {
+        final char[] path = name.replace('.', '/').toCharArray();
+        int separator = path.length;
+
+        while ((separator = lastIndexOf(path, '/', separator - 1)) > 0) {
+            path[separator] = '$';
+
+            final String candidate = new String(path);
+
+            if (loader.getResource(candidate + ".class") != null) {
+                return candidate.replace('/', '.');
+            }
+        }
+
+        return null;
+    }
+
+    private static int lastIndexOf(char[] chars, char c, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (chars[i] == c) {
+                return i;
             }
-            throw ex;
         }
+        return -1;
     }
 }
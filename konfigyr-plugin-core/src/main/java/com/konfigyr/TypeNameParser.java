@@ -0,0 +1,213 @@
+package com.konfigyr;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeResolver;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser for the type names that are used by the Spring Boot configuration metadata,
+ * which resolves the parsed type name directly into a {@link ResolvedType}.
+ * <p>
+ * Type names in the configuration metadata are always fully qualified Java source type names, optionally
+ * with type arguments and array dimensions, for instance: {@code java.lang.String},
+ * {@code java.util.Map<java.lang.String,java.util.List<? extends java.lang.Integer>>}, {@code int[]} or
+ * {@code com.acme.Outer.Inner}. Parsing these shapes does not need a full Java parser, nor an intermediate
+ * syntax tree. The type name is scanned twice: once to check that it is well-formed, without loading any
+ * types, and once more to resolve it.
+ * <p>
+ * Type names with other shapes, like annotated types or type arguments of enclosing types, are rejected
+ * and should be parsed by a general purpose Java parser instead.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see TypeNameResolver
+ */
+@NullMarked
+final class TypeNameParser {
+
+    private static final RejectedTypeNameException REJECTED = new RejectedTypeNameException();
+
+    private final String input;
+    private final TypeLoader loader;
+    private final TypeResolver resolver;
+    private boolean resolving;
+    private int position;
+
+    private TypeNameParser(String input, TypeLoader loader, TypeResolver resolver) {
+        this.input = input;
+        this.loader = loader;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Parses and resolves the given type name.
+     *
+     * @param typeName the type name to parse, cannot be {@literal null}.
+     * @param loader the type loader used to load the parsed types, cannot be {@literal null}.
+     * @param resolver the type resolver used to resolve the loaded types, cannot be {@literal null}.
+     * @return the resolved type, or {@literal null} when the type name is not supported by this parser.
+     * @throws ClassNotFoundException if the type name, or any of its type arguments, could not be loaded.
+     */
+    @Nullable
+    static ResolvedType parse(String typeName, TypeLoader loader, TypeResolver resolver) throws ClassNotFoundException {
+        final TypeNameParser parser = new TypeNameParser(typeName, loader, resolver);
+
+        try {
+            parser.type();
+            parser.skipWhitespace();
+        } catch (RejectedTypeNameException ex) {
+            return null;
+        }
+
+        if (parser.position != typeName.length()) {
+            return null;
+        }
+
+        parser.position = 0;
+        parser.resolving = true;
+
+        return parser.type();
+    }
+
+    /*
+     * type := name [ '<' argument { ',' argument } '>' ] { '[' ']' }
+     */
+    @Nullable
+    private ResolvedType type() throws ClassNotFoundException {
+        final int start = name();
+        final int end = position;
+        final List<ResolvedType> arguments;
+
+        if (accept('<')) {
+            arguments = resolving ? new ArrayList<>(2) : List.of();
+
+            do {
+                final ResolvedType argument = argument();
+
+                if (argument != null) {
+                    arguments.add(argument);
+                }
+            } while (accept(','));
+
+            expect('>');
+        } else {
+            arguments = List.of();
+        }
+
+        int dimensions = 0;
+
+        while (accept('[')) {
+            expect(']');
+            dimensions++;
+        }
+
+        if (!resolving) {
+            return null;
+        }
+
+        final String name = input.substring(start, end);
+
+        if (dimensions == 0) {
+            return arguments.isEmpty() ? resolver.resolve(loader.load(name))
+                    : resolver.resolve(loader.load(name), arguments.toArray(new ResolvedType[0]));
+        }
+
+        // the erasure of generic array types is used, the same way as the Java compiler does
+        return resolver.resolve(loader.load(name + "[]".repeat(dimensions)));
+    }
+
+    /*
+     * argument := '?' [ ( 'extends' | 'super' ) type ] | type
+     */
+    @Nullable
+    private ResolvedType argument() throws ClassNotFoundException {
+        if (!accept('?')) {
+            return type();
+        }
+
+        skipWhitespace();
+
+        if (keyword("extends") || keyword("super")) {
+            return type();
+        }
+
+        return resolving ? resolver.resolve(Object.class) : null;
+    }
+
+    /*
+     * name := identifier { '.' identifier }
+     */
+    private int name() {
+        skipWhitespace();
+
+        final int start = position;
+        identifier();
+
+        while (position < input.length() && input.charAt(position) == '.') {
+            position++;
+            identifier();
+        }
+
+        return start;
+    }
+
+    private void identifier() {
+        if (position >= input.length() || !Character.isJavaIdentifierStart(input.charAt(position))) {
+            throw REJECTED;
+        }
+
+        do {
+            position++;
+        } while (position < input.length() && Character.isJavaIdentifierPart(input.charAt(position)));
+    }
+
+    private boolean keyword(String keyword) {
+        final int end = position + keyword.length();
+
+        if (input.startsWith(keyword, position) && end < input.length()
+                && !Character.isJavaIdentifierPart(input.charAt(end))) {
+            position = end;
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+
+        if (position < input.length() && input.charAt(position) == c) {
+            position++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw REJECTED;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Thrown, without a stack trace, when the type name has a shape that is not supported by this parser.
+     */
+    private static final class RejectedTypeNameException extends RuntimeException {
+
+        private RejectedTypeNameException() {
+            super(null, null, false, false);
+        }
+    }
+
+}
@@ -23,12 +23,18 @@ import java.util.concurrent.ConcurrentHashMap;
  * This resolver is using the following to resolve a {@link ResolvedPropertyType}:
  * <ul>
  *     <li>
- *         The {@link JavaParser} to parse the literal type name to extract the type tokens.
+ *         The {@link TypeNameParser} to parse the literal type name, which covers the type name shapes used
+ *         by the Spring Boot configuration metadata, or the {@link JavaParser} to extract the type tokens of
+ *         type names that are rejected by it.
  *     </li>
  *     <li>
  *         The {@link TypeResolver} to create a {@link ResolvedPropertyType} from the parsed type tokens.
  *     </li>
  * </ul>
+ * <p>
+ * This resolver is thread-safe. Every type name is resolved exactly once, concurrent lookups of the same
+ * type name wait for it to be resolved, while distinct type names are resolved concurrently. As the
+ * {@link JavaParser} is not thread-safe, every thread parses type names with its own parser instance.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
@@ -45,7 +51,7 @@ final class TypeNameResolver {
 
     private final TypeLoader loader;
     private final TypeResolver resolver;
-    private final JavaParser parser = new JavaParser();
+    private final ThreadLocal<JavaParser> parser = ThreadLocal.withInitial(JavaParser::new);
     private final Map<String, ResolvedPropertyType> cache = new ConcurrentHashMap<>(128, 0.5f, 4);
 
     TypeNameResolver(@NonNull ClassLoader loader) {
@@ -58,26 +64,12 @@ final class TypeNameResolver {
     }
 
     @Nullable
-    synchronized ResolvedPropertyType resolve(String className) {
+    ResolvedPropertyType resolve(String className) {
         if (className == null || className.isBlank()) {
             return null;
         }
 
-        ResolvedPropertyType resolvedPropertyType = cache.get(className);
-
-        if (resolvedPropertyType == null) {
-            try {
-                resolvedPropertyType = resolveType(className);
-            } catch (ClassNotFoundException ex) {
-                logger.debug("Could not resolve actual Java type for '{}' type name", className, ex);
-            }
-
-            if (resolvedPropertyType == null) {
-                resolvedPropertyType = UNKNOWN_TYPE;
-            }
-
-            cache.put(className, resolvedPropertyType);
-        }
+        final ResolvedPropertyType resolvedPropertyType = cache.computeIfAbsent(className, this::compute);
 
         if (resolvedPropertyType == UNKNOWN_TYPE) {
             return null;
@@ -86,8 +78,28 @@ final class TypeNameResolver {
         return resolvedPropertyType;
     }
 
+    private ResolvedPropertyType compute(String className) {
+        ResolvedPropertyType resolvedPropertyType = null;
+
+        try {
+            resolvedPropertyType = resolveType(className);
+        } catch (ClassNotFoundException ex) {
+            logger.debug("Could not resolve actual Java type for '{}' type name", className, ex);
+        }
+
+        return resolvedPropertyType == null ? UNKNOWN_TYPE : resolvedPropertyType;
+    }
+
     private ResolvedPropertyType resolveType(String className) throws ClassNotFoundException {
-        final ParseResult<Type> result = parser.parseType(className);
+        final ResolvedType parsedType = TypeNameParser.parse(className, loader, resolver);
+
+        if (parsedType != null) {
+            final ResolvedPropertyType resolvedPropertyType = createResolvedType(parsedType);
+            logger.debug("Successfully resolved type '{}' to: {}", className, resolvedPropertyType);
+            return resolvedPropertyType;
+        }
+
+        final ParseResult<Type> result = parser.get().parseType(className);
 
         if (result.isSuccessful()) {
             final Type type = result.getResult().orElseThrow(() -> new IllegalStateException(
@@ -0,0 +1,722 @@
+package com.konfigyr;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Minimal, read-only view over the central directory of a ZIP archive, used by the
+ * {@link ArtifactMetadataScanner} to probe jar files for a handful of well-known entry names.
+ * <p>
+ * Unlike {@link java.util.zip.ZipFile}, which reads and indexes every entry of the archive when it
+ * is opened, this class only memory-maps the end of central directory record and the central
+ * directory itself. Entry names are compared, as raw UTF-8 bytes, while walking the central directory
+ * in a single pass, so no entry table is ever materialized, and only the entries that match are
+ * later read and inflated, either eagerly via {@link #read(Entry)} or lazily, as a stream that re-opens
+ * the archive, via {@link #openStream(Path, Entry)}. Most dependency jars on a runtime classpath contain no Spring Boot
+ * configuration metadata at all, for those, the cost of a scan is one map of their central directory.
+ * <p>
+ * Entries can also be looked up with a {@link MetadataPathMatcher}, whose compiled automaton matches
+ * every entry name against all of its patterns in the same single pass, and archives nested in other
+ * archives can be {@link #openNested(Entry) opened} without being extracted.
+ * <p>
+ * ZIP64 archives and archives with prefixed data (e.g. self-executing jars) are supported. Encrypted
+ * entries and compression methods other than {@code STORED} and {@code DEFLATED} are not, as jar
+ * files never use them.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ */
+@NullMarked
+final class ZipCentralDirectory implements Closeable {
+
+    static final int STORED = 0;
+    static final int DEFLATED = 8;
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int ZIP64_EOCD_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EOCD_LOCATOR_SIZE = 20;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_EOCD_SIZE = 56;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int LOC_SIZE = 30;
+    private static final int ZIP64_EXTRA_FIELD = 0x0001;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private final String name;
+    private final Source source;
+    private final ByteBuffer directory;
+    private final long base;
+    private final boolean fileBacked;
+
+    private ZipCentralDirectory(String name, Source source, ByteBuffer directory, long base, boolean fileBacked) {
+        this.name = name;
+        this.source = source;
+        this.directory = directory;
+        this.base = base;
+        this.fileBacked = fileBacked;
+    }
+
+    /**
+     * Opens the ZIP archive located at the given path, mapping its central directory into memory.
+     *
+     * @param path the path of the archive to open, cannot be {@literal null}.
+     * @return the opened central directory, never {@literal null}.
+     * @throws ZipException if the file is not a valid ZIP archive.
+     * @throws IOException if the file could not be read.
+     */
+    static ZipCentralDirectory open(Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            return open(path.toString(), new FileSource(channel), 0, channel.size(), true);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens the ZIP archive contained in the given buffer, such as an archive nested in another one.
+     *
+     * @param name the name of the archive, used in error messages, cannot be {@literal null}.
+     * @param archive the buffer containing the whole archive, cannot be {@literal null}.
+     * @return the opened central directory, never {@literal null}.
+     * @throws ZipException if the buffer does not contain a valid ZIP archive.
+     */
+    static ZipCentralDirectory open(String name, ByteBuffer archive) throws IOException {
+        final BufferSource source = new BufferSource(archive.slice().order(ByteOrder.LITTLE_ENDIAN));
+        return open(name, source, 0, source.size(), false);
+    }
+
+    /**
+     * Opens the ZIP archive located in the {@code [start, end)} region of the given source. Every position,
+     * including the offsets of the returned entries, is relative to the start of the source, not the region.
+     */
+    private static ZipCentralDirectory open(String name, Source source, long start, long end, boolean fileBacked) throws IOException {
+        if (end - start < EOCD_SIZE) {
+            throw new ZipException("Not a ZIP archive, file is too small: " + name);
+        }
+
+        final long tailPosition = Math.max(start, end - EOCD_SIZE - MAX_COMMENT_SIZE);
+        final ByteBuffer tail = source.slice(tailPosition, end - tailPosition);
+        final int eocd = findEndOfCentralDirectory(tail);
+
+        if (eocd < 0) {
+            throw new ZipException("Not a ZIP archive, could not find the end of central directory record: " + name);
+        }
+
+        long entries = Short.toUnsignedInt(tail.getShort(eocd + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        long directoryEnd = tailPosition + eocd;
+
+        if (entries == 0xFFFF || directorySize == ZIP64_MAGIC || directoryOffset == ZIP64_MAGIC) {
+            final ByteBuffer record = findZip64EndOfCentralDirectory(source, start, directoryEnd);
+
+            if (record != null) {
+                directorySize = record.getLong(40);
+                directoryOffset = record.getLong(48);
+                directoryEnd -= ZIP64_EOCD_LOCATOR_SIZE + ZIP64_EOCD_SIZE;
+            }
+        }
+
+        // archives with prefixed data, such as self-executing jars, record offsets relative to the
+        // start of the archive itself rather than the start of the file...
+        final long base = directoryEnd - directorySize - directoryOffset;
+
+        if (base < start || directorySize > Integer.MAX_VALUE) {
+            throw new ZipException("Invalid ZIP archive, central directory is out of bounds: " + name);
+        }
+
+        return new ZipCentralDirectory(name, source, source.slice(base + directoryOffset, directorySize), base, fileBacked);
+    }
+
+    /**
+     * Walks the central directory once, collecting every entry whose name is one of the given names.
+     * Entries are returned in the order in which they are declared in the archive.
+     *
+     * @param names the entry names to look for, cannot be {@literal null}.
+     * @return the matching entries, never {@literal null}.
+     * @throws ZipException if the central directory is corrupted.
+     */
+    List<Entry> find(Collection<String> names) throws ZipException {
+        final byte[][] candidates = names.stream()
+                .map(candidate -> candidate.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+
+        return find((position, length) -> {
+            for (byte[] candidate : candidates) {
+                if (matches(position, length, candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        }, candidates.length);
+    }
+
+    /**
+     * Walks the central directory once, collecting every entry whose name is matched by the given
+     * {@link MetadataPathMatcher}, either as a metadata location or as a nested archive. Entries are
+     * returned in the order in which they are declared in the archive.
+     *
+     * @param matcher the matcher of the entry names to look for, cannot be {@literal null}.
+     * @return the matching entries, never {@literal null}.
+     * @throws ZipException if the central directory is corrupted.
+     */
+    List<Entry> find(MetadataPathMatcher matcher) throws ZipException {
+        return find((position, length) -> matcher.match(directory, position, length) != 0, Integer.MAX_VALUE);
+    }
+
+    private List<Entry> find(NameMatcher matcher, int limit) throws ZipException {
+        final List<Entry> entries = new ArrayList<>();
+        int position = 0;
+
+        while (position + CEN_SIZE <= directory.limit() && entries.size() < limit) {
+            if (directory.getInt(position) != CEN_SIGNATURE) {
+                throw new ZipException("Invalid central directory header at " + position + " in: " + name);
+            }
+
+            final int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            final int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            final int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            final int next = position + CEN_SIZE + nameLength + extraLength + commentLength;
+
+            if (next > directory.limit()) {
+                throw new ZipException("Truncated central directory header at " + position + " in: " + name);
+            }
+
+            if (matcher.matches(position + CEN_SIZE, nameLength)) {
+                entries.add(createEntry(position, nameLength, extraLength));
+            }
+
+            position = next;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Reads and, if needed, inflates the contents of the given entry.
+     *
+     * @param entry the entry to read, must be obtained from this central directory.
+     * @return the uncompressed entry contents, never {@literal null}.
+     * @throws ZipException if the entry data is corrupted or uses an unsupported compression method.
+     * @throws IOException if the archive could not be read.
+     */
+    byte[] read(Entry entry) throws IOException {
+        if (entry.size() > Integer.MAX_VALUE - 8) {
+            throw new ZipException("Entry '" + entry.name() + "' is too large to be read in: " + name);
+        }
+
+        final ByteBuffer data = source.slice(dataPosition(name, source, entry), entry.compressedSize());
+
+        return switch (entry.method()) {
+            case STORED -> {
+                final byte[] contents = new byte[data.remaining()];
+                data.get(contents);
+                yield contents;
+            }
+            case DEFLATED -> inflate(entry, data);
+            default -> throw new ZipException("Unsupported compression method " + entry.method() +
+                    " for entry '" + entry.name() + "' in: " + name);
+        };
+    }
+
+    /**
+     * Opens the archive stored in the given entry, such as a library jar nested in an executable jar. The
+     * nested archive is never extracted to disk.
+     * <p>
+     * A nested archive that is stored without compression, as Spring Boot requires for the libraries of
+     * executable jars, is read in place, through regions of this archive, and its entries are
+     * {@link #isFileBacked() located} in the file of this archive. A compressed nested archive is inflated
+     * into memory instead.
+     * <p>
+     * Closing the nested archive does not close this one, and it must not be used after this archive is closed.
+     *
+     * @param entry the entry containing the nested archive, must be obtained from this central directory.
+     * @return the central directory of the nested archive, never {@literal null}.
+     * @throws ZipException if the entry does not contain a valid ZIP archive.
+     * @throws IOException if the archive could not be read.
+     */
+    ZipCentralDirectory openNested(Entry entry) throws IOException {
+        final String nested = name + "!/" + entry.name();
+
+        if (entry.method() != STORED) {
+            return open(nested, ByteBuffer.wrap(read(entry)));
+        }
+
+        final long start = dataPosition(name, source, entry);
+        return open(nested, new SharedSource(source), start, start + entry.compressedSize(), fileBacked);
+    }
+
+    /**
+     * Checks whether the entries of this archive are located in a file, at their recorded offsets, so that
+     * they can be read with {@link #openStream(Path, Entry)} from that file. This is not the case for
+     * archives that are held in memory, such as compressed nested archives.
+     *
+     * @return {@literal true} if the entries are located in a file.
+     */
+    boolean isFileBacked() {
+        return fileBacked;
+    }
+
+    /**
+     * Updates the given digest with the central directory of this archive and its position. The central
+     * directory records the name, CRC-32 checksum, sizes and offset of every entry, so archives with equal
+     * digests contain the same entries, located at the same offsets.
+     *
+     * @param digest the digest to update, cannot be {@literal null}.
+     */
+    void digest(MessageDigest digest) {
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, base));
+        digest.update(directory.duplicate());
+    }
+
+    /**
+     * Opens a new stream over the contents of the given entry, re-opening the archive it was found in.
+     * <p>
+     * The entry data is read from the archive, and inflated if needed, as the stream is consumed, it is
+     * never buffered in its entirety. Closing the returned stream closes the archive as well.
+     *
+     * @param archive the path of the archive the entry was found in, cannot be {@literal null}.
+     * @param entry the entry to read, cannot be {@literal null}.
+     * @return the stream of uncompressed entry contents, never {@literal null}.
+     * @throws ZipException if the entry uses an unsupported compression method or has an invalid header.
+     * @throws IOException if the archive could not be read.
+     */
+    static InputStream openStream(Path archive, Entry entry) throws IOException {
+        final String name = archive.toString();
+        final FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+
+        try {
+            final long position = dataPosition(name, new FileSource(channel), entry);
+            final InputStream data = new EntryInputStream(channel, position, entry.compressedSize());
+
+            return switch (entry.method()) {
+                case STORED -> data;
+                case DEFLATED -> new EntryInflaterInputStream(data);
+                default -> throw new ZipException("Unsupported compression method " + entry.method() +
+                        " for entry '" + entry.name() + "' in: " + name);
+            };
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ZipCentralDirectory(" + name + ")";
+    }
+
+    private static long dataPosition(String name, Source source, Entry entry) throws IOException {
+        final long position = entry.offset();
+        final ByteBuffer header;
+
+        try {
+            header = source.read(position, LOC_SIZE);
+        } catch (EOFException | ZipException ex) {
+            throw (ZipException) new ZipException("Truncated local header for entry '" + entry.name() +
+                    "' in: " + name).initCause(ex);
+        }
+
+        if (header.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("Invalid local header for entry '" + entry.name() + "' in: " + name);
+        }
+
+        return position + LOC_SIZE + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+    }
+
+    private byte[] inflate(Entry entry, ByteBuffer data) throws ZipException {
+        final Inflater inflater = new Inflater(true);
+        final byte[] contents = new byte[(int) entry.size()];
+
+        try {
+            inflater.setInput(data);
+
+            int length = 0;
+
+            while (length < contents.length && !inflater.finished()) {
+                final int inflated = inflater.inflate(contents, length, contents.length - length);
+
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                length += inflated;
+            }
+
+            if (length != contents.length) {
+                throw new ZipException("Invalid entry size for '" + entry.name() + "', expected " +
+                        contents.length + " bytes but was " + length + " in: " + name);
+            }
+
+            return contents;
+        } catch (DataFormatException ex) {
+            throw (ZipException) new ZipException("Invalid compressed data for entry '" + entry.name() +
+                    "' in: " + name).initCause(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private boolean matches(int position, int length, byte[] candidate) {
+        if (length != candidate.length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (directory.get(position + i) != candidate[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Entry createEntry(int position, int nameLength, int extraLength) throws ZipException {
+        final byte[] name = new byte[nameLength];
+        directory.get(position + CEN_SIZE, name);
+
+        final int method = Short.toUnsignedInt(directory.getShort(position + 10));
+        long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+        long size = Integer.toUnsignedLong(directory.getInt(position + 24));
+        long offset = Integer.toUnsignedLong(directory.getInt(position + 42));
+
+        if ((directory.getShort(position + 8) & 1) != 0) {
+            throw new ZipException("Encrypted entries are not supported, found: " +
+                    new String(name, StandardCharsets.UTF_8) + " in: " + this.name);
+        }
+
+        // sizes and offsets that do not fit into 32 bits are stored in the ZIP64 extra field, in this
+        // exact order, and only when their value in the header is set to the magic 0xFFFFFFFF value...
+        int extra = position + CEN_SIZE + nameLength;
+        final int extraEnd = extra + extraLength;
+
+        while (extra + 4 <= extraEnd) {
+            final int id = Short.toUnsignedInt(directory.getShort(extra));
+            final int length = Short.toUnsignedInt(directory.getShort(extra + 2));
+            int field = extra + 4;
+
+            if (id == ZIP64_EXTRA_FIELD) {
+                if (size == ZIP64_MAGIC && field + 8 <= extraEnd) {
+                    size = directory.getLong(field);
+                    field += 8;
+                }
+                if (compressedSize == ZIP64_MAGIC && field + 8 <= extraEnd) {
+                    compressedSize = directory.getLong(field);
+                    field += 8;
+                }
+                if (offset == ZIP64_MAGIC && field + 8 <= extraEnd) {
+                    offset = directory.getLong(field);
+                }
+                break;
+            }
+
+            extra += 4 + length;
+        }
+
+        return new Entry(new String(name, StandardCharsets.UTF_8), method, compressedSize, size, base + offset);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail) {
+        for (int position = tail.limit() - EOCD_SIZE; position >= 0; position--) {
+            if (tail.getInt(position) == EOCD_SIGNATURE
+                    && position + EOCD_SIZE + Short.toUnsignedInt(tail.getShort(position + 20)) <= tail.limit()) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    @Nullable
+    private static ByteBuffer findZip64EndOfCentralDirectory(Source source, long start, long eocd) throws IOException {
+        final long locator = eocd - ZIP64_EOCD_LOCATOR_SIZE;
+        final long record = locator - ZIP64_EOCD_SIZE;
+
+        if (record < start || source.read(locator, 4).getInt(0) != ZIP64_EOCD_LOCATOR_SIGNATURE) {
+            return null;
+        }
+
+        final ByteBuffer buffer = source.read(record, ZIP64_EOCD_SIZE);
+
+        if (buffer.getInt(0) != ZIP64_EOCD_SIGNATURE) {
+            throw new ZipException("Invalid ZIP64 end of central directory record");
+        }
+
+        return buffer;
+    }
+
+    private static void checkBounds(long position, long size, long limit) throws ZipException {
+        if (position < 0 || size < 0 || position + size > limit) {
+            throw new ZipException("Invalid ZIP archive, region [" + position + ", " + (position + size) +
+                    ") is outside of the archive bounds");
+        }
+    }
+
+    /**
+     * Matches the raw UTF-8 bytes of an entry name within the central directory.
+     */
+    @FunctionalInterface
+    private interface NameMatcher {
+        boolean matches(int position, int length);
+    }
+
+    /**
+     * The bytes of an archive, either a file or a region of memory, all returned buffers use little
+     * endian byte order, as every ZIP structure does.
+     */
+    private interface Source extends Closeable {
+
+        long size() throws IOException;
+
+        /**
+         * Returns a view over a, potentially large, region of the archive without copying it.
+         */
+        ByteBuffer slice(long position, long size) throws IOException;
+
+        /**
+         * Returns a small region of the archive, such as a single header.
+         */
+        ByteBuffer read(long position, int size) throws IOException;
+    }
+
+    private record FileSource(FileChannel channel) implements Source {
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public ByteBuffer slice(long position, long size) throws IOException {
+            checkBounds(position, size, channel.size());
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public ByteBuffer read(long position, int size) throws IOException {
+            checkBounds(position, size, channel.size());
+
+            final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of archive at " + (position + buffer.position()));
+                }
+            }
+
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * View over the source of an enclosing archive, which remains owned, and closed, by that archive.
+     */
+    private record SharedSource(Source source) implements Source {
+
+        @Override
+        public long size() throws IOException {
+            return source.size();
+        }
+
+        @Override
+        public ByteBuffer slice(long position, long size) throws IOException {
+            return source.slice(position, size);
+        }
+
+        @Override
+        public ByteBuffer read(long position, int size) throws IOException {
+            return source.read(position, size);
+        }
+
+        @Override
+        public void close() {
+            // the source is closed by the archive that owns it
+        }
+    }
+
+    private record BufferSource(ByteBuffer buffer) implements Source {
+
+        @Override
+        public long size() {
+            return buffer.limit();
+        }
+
+        @Override
+        public ByteBuffer slice(long position, long size) throws ZipException {
+            checkBounds(position, size, buffer.limit());
+            return buffer.slice((int) position, (int) size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public ByteBuffer read(long position, int size) throws ZipException {
+            return slice(position, size);
+        }
+
+        @Override
+        public void close() {
+            // nothing to release, the buffer is reclaimed once it is no longer referenced
+        }
+    }
+
+    /**
+     * A single entry of the central directory, carrying just enough information to locate and read
+     * its contents from the archive.
+     *
+     * @param name the entry name, never {@literal null}.
+     * @param method the compression method, either {@link #STORED} or {@link #DEFLATED}.
+     * @param compressedSize the size of the entry data as stored in the archive.
+     * @param size the uncompressed size of the entry data.
+     * @param offset the position of the entry's local file header within the archive file, which is the
+     *               outermost archive file for entries of nested archives that are read in place.
+     */
+    record Entry(String name, int method, long compressedSize, long size, long offset) {
+
+        /**
+         * Creates a copy of this entry with a different name, such as its location within an enclosing archive.
+         *
+         * @param name the new entry name, cannot be {@literal null}.
+         * @return the renamed entry, never {@literal null}.
+         */
+        Entry withName(String name) {
+            return new Entry(name, method, compressedSize, size, offset);
+        }
+
+    }
+
+    /**
+     * Stream over a bounded region of an archive file, using positional reads so that it never depends
+     * on, or changes, the position of the underlying channel. Closing the stream closes the channel.
+     */
+    private static final class EntryInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        EntryInputStream(FileChannel channel, long position, long length) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) < 0 ? -1 : Byte.toUnsignedInt(buffer[0]);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            final int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position);
+
+            if (count < 0) {
+                throw new EOFException("Unexpected end of archive while reading entry data");
+            }
+
+            position += count;
+            remaining -= count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            final long skipped = Math.max(0, Math.min(n, remaining));
+            position += skipped;
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * {@link InflaterInputStream} for raw, {@code nowrap}, deflate data that owns its {@link Inflater},
+     * releasing it once the stream is closed.
+     */
+    private static final class EntryInflaterInputStream extends InflaterInputStream {
+
+        private boolean eof;
+
+        EntryInflaterInputStream(InputStream in) {
+            super(in, new Inflater(true), 8192);
+        }
+
+        @Override
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of compressed entry data");
+            }
+
+            len = in.read(buf, 0, buf.length);
+
+            // the nowrap inflater may require an extra dummy byte once the input has been exhausted
+            if (len < 0) {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,389 @@
+package com.konfigyr.schema;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Inspects Java types by reading their class files, without loading any of them in the JVM.
+ * <p>
+ * This is used by the {@link JsonSchemaGenerator.Introspection#CLASS_FILE class file introspection} of the
+ * {@link DefaultJsonSchemaGenerator}, where the types of the artifact classpath are never loaded, and therefore
+ * never defined by its class loader, nor linked. Types are identified by their binary name, and are described
+ * by the class file that the class loader would define them from, as returned by its resources. A type is only
+ * {@link #describe(String) described} when the class files of the type, and of all of its supertypes, can be
+ * read, the same way a type can only be loaded when all of its supertypes can be loaded as well.
+ * <p>
+ * Types of the {@code java.*} packages, and primitive types, are {@link #isPlatformType(String) platform types}.
+ * They are always loaded by the platform class loader, which already defines most of them, and are generated
+ * using reflection, in the same way as with the {@link JsonSchemaGenerator.Introspection#REFLECTION reflection
+ * introspection}. Their class files are only read when they are the supertypes of other types.
+ * <p>
+ * The property candidates of a type are collected from the same fields, in the same order, as they would be
+ * using reflection, their erased field type is referenced by its name instead of its loaded class.
+ * <p>
+ * Class files are read once per type and kept for the lifetime of this introspector, which is thread-safe.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ClassFileReader
+ */
+@NullMarked
+final class ClassFileIntrospector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassFileIntrospector.class);
+
+    private static final Set<String> PRIMITIVE_TYPES = Set.of(
+            "boolean", "byte", "char", "short", "int", "long", "float", "double", "void"
+    );
+
+    private static final String OBJECT_TYPE = "java.lang.Object";
+    private static final String ENUM_TYPE = "java.lang.Enum";
+    private static final String RECORD_TYPE = "java.lang.Record";
+
+    // access flags of the class file format, that have no java.lang.reflect.Modifier counterpart
+    private static final int ACC_BRIDGE = 0x0040;
+    private static final int ACC_ENUM = 0x4000;
+
+    /**
+     * Sentinel that is cached for types that could not be described.
+     */
+    private static final ClassFileType MISSING = new ClassFileType("", null, null, Set.of());
+
+    private final ClassLoader classLoader;
+    private final Map<String, ClassFileType> types = new ConcurrentHashMap<>(256);
+    private final Map<ClassFileType, List<PropertyCandidate>> candidates = new ConcurrentHashMap<>(256);
+
+    /**
+     * Creates a new {@link ClassFileIntrospector} that reads the class files from the resources of the given
+     * {@link ClassLoader}.
+     *
+     * @param classLoader the class loader whose types are inspected, cannot be {@literal null}.
+     */
+    ClassFileIntrospector(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Checks whether the type with the given name is a primitive type, a type of the {@code java.*} packages, or
+     * an array of these types. Platform types are loaded by the platform class loader, instead of being inspected.
+     *
+     * @param typeName the binary name of the type, cannot be {@literal null}.
+     * @return {@literal true} when the type is a platform type.
+     */
+    static boolean isPlatformType(String typeName) {
+        final String element = elementTypeName(typeName);
+        return PRIMITIVE_TYPES.contains(element) || element.startsWith("java.");
+    }
+
+    /**
+     * Checks whether the type with the given name is a primitive type.
+     *
+     * @param typeName the binary name of the type, cannot be {@literal null}.
+     * @return {@literal true} when the type is a primitive type.
+     */
+    static boolean isPrimitiveType(String typeName) {
+        return PRIMITIVE_TYPES.contains(typeName);
+    }
+
+    /**
+     * Describes the type with the given binary name, or the array type with the given element type name followed
+     * by one {@code []} for each of its dimensions, using the class files of the type and of all its supertypes.
+     *
+     * @param typeName the binary name of the type, cannot be {@literal null}.
+     * @return the described type, or {@literal null} when the class file of the type, or of any of its supertypes,
+     * can not be found or read.
+     */
+    @Nullable
+    ClassFileType describe(String typeName) {
+        ClassFileType type = types.get(typeName);
+
+        if (type == null) {
+            // supertypes are described recursively, the type is therefore computed outside the cache
+            type = compute(typeName);
+
+            final ClassFileType existing = types.putIfAbsent(typeName, type);
+
+            if (existing != null) {
+                type = existing;
+            }
+        }
+
+        return type == MISSING ? null : type;
+    }
+
+    /**
+     * Collects the property candidates of the given type, from the declared fields of the type and of its
+     * supertypes, excluding {@code static} and {@code transient} fields, sorted by their name.
+     *
+     * @param type the type whose property candidates are collected, cannot be {@literal null}.
+     * @return the sorted property candidates, never {@literal null}.
+     */
+    List<PropertyCandidate> collectPropertyCandidates(ClassFileType type) {
+        List<PropertyCandidate> result = candidates.get(type);
+
+        if (result == null) {
+            result = candidates.computeIfAbsent(type, this::collect);
+        }
+
+        return result;
+    }
+
+    private ClassFileType compute(String typeName) {
+        if (typeName.endsWith("[]")) {
+            final ClassFileType element = describe(typeName.substring(0, typeName.length() - 2));
+            return element == null ? MISSING : new ClassFileType(typeName, null, element, Set.of());
+        }
+
+        final ClassFileReader.ClassFile classFile;
+
+        try {
+            classFile = ClassFileReader.read(classLoader, typeName);
+        } catch (IllegalArgumentException ex) {
+            logger.debug("Failed to read class file of type '{}': {}", typeName, ex.getMessage());
+            return MISSING;
+        }
+
+        if (classFile == null) {
+            logger.debug("Could not find class file of type '{}'", typeName);
+            return MISSING;
+        }
+
+        // the names of every supertype, the direct superclass and interfaces first, to match a type against
+        final Set<String> supertypes = new LinkedHashSet<>();
+
+        for (String supertype : directSupertypes(classFile).toList()) {
+            final ClassFileType described = describe(supertype);
+
+            if (described == null) {
+                return MISSING;
+            }
+
+            supertypes.add(supertype);
+            supertypes.addAll(described.supertypes());
+        }
+
+        return new ClassFileType(typeName, classFile, null, Collections.unmodifiableSet(supertypes));
+    }
+
+    private List<PropertyCandidate> collect(ClassFileType type) {
+        final ClassFileReader.ClassFile classFile = type.classFile();
+
+        if (classFile == null) {
+            return List.of();
+        }
+
+        final List<ClassFileType> declaring = new ArrayList<>();
+
+        // Object does not declare any properties, no need to gather the types
+        if (!OBJECT_TYPE.equals(type.name())) {
+            gatherTypes(type, new HashSet<>(), declaring);
+        }
+
+        final List<PropertyCandidate> result = new ArrayList<>();
+
+        for (ClassFileType candidate : declaring) {
+            for (ClassFileReader.ClassFileField field : Objects.requireNonNull(candidate.classFile()).fields()) {
+                // static and transient fields are never part of the schema
+                if (Modifier.isStatic(field.access()) || Modifier.isTransient(field.access())) {
+                    continue;
+                }
+
+                result.add(new PropertyCandidate(field, field.deprecated() || isGetterDeprecated(classFile, field.name())));
+            }
+        }
+
+        result.sort(PropertyCandidate::compareTo);
+
+        return List.copyOf(result);
+    }
+
+    /**
+     * Gathers the type and its supertypes in the same order as the reflection based property candidates.
+     */
+    private void gatherTypes(@Nullable ClassFileType type, Set<String> seen, List<ClassFileType> types) {
+        if (type == null || type.classFile() == null || OBJECT_TYPE.equals(type.name()) || !seen.add(type.name())) {
+            return;
+        }
+
+        types.add(type);
+
+        final ClassFileReader.ClassFile classFile = type.classFile();
+
+        // interfaces first, so that the highest interfaces get priority, then the superclass
+        for (String name : classFile.interfaces()) {
+            gatherTypes(describe(name), seen, types);
+        }
+
+        if (classFile.superName() != null) {
+            gatherTypes(describe(classFile.superName()), seen, types);
+        }
+    }
+
+    /**
+     * Checks whether the JavaBeans getter of the field, declared by the given class file, is annotated with
+     * {@link Deprecated}, using the same getter names as {@link PropertyCandidate#findGetter(Class, String)}.
+     */
+    private static boolean isGetterDeprecated(ClassFileReader.ClassFile classFile, String fieldName) {
+        // "non-prefix" naming convention of Java 14 java.lang.Record types
+        if (RECORD_TYPE.equals(classFile.superName())) {
+            final ClassFileReader.ClassFileMethod accessor = findGetter(classFile, fieldName);
+            return accessor != null && Modifier.isPublic(accessor.access()) && accessor.deprecated();
+        }
+
+        final Iterator<String> names = PropertyCandidate.resolvePossibleGetterNames(fieldName).iterator();
+
+        while (names.hasNext()) {
+            final ClassFileReader.ClassFileMethod getter = findGetter(classFile, names.next());
+
+            if (getter != null && Modifier.isPublic(getter.access())) {
+                return getter.deprecated();
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private static ClassFileReader.ClassFileMethod findGetter(ClassFileReader.ClassFile classFile, String name) {
+        for (ClassFileReader.ClassFileMethod method : classFile.methods()) {
+            // bridge methods of covariant getters are never returned by reflection, the overriding getter is
+            if (method.name().equals(name) && method.descriptor().startsWith("()") && (method.access() & ACC_BRIDGE) == 0) {
+                return method;
+            }
+        }
+
+        return null;
+    }
+
+    private static Stream<String> directSupertypes(ClassFileReader.ClassFile classFile) {
+        final Stream<String> interfaces = classFile.interfaces().stream();
+        return classFile.superName() == null ? interfaces : Stream.concat(Stream.of(classFile.superName()), interfaces);
+    }
+
+    private static String elementTypeName(String typeName) {
+        final int dimensions = typeName.indexOf("[]");
+        return dimensions < 0 ? typeName : typeName.substring(0, dimensions);
+    }
+
+    /**
+     * A type that is described by its class file, or an array of such types, identified by its binary name.
+     */
+    static final class ClassFileType {
+
+        private final String name;
+        private final ClassFileReader.@Nullable ClassFile classFile;
+        private final @Nullable ClassFileType elementType;
+        private final Set<String> supertypes;
+
+        private ClassFileType(
+                String name,
+                ClassFileReader.@Nullable ClassFile classFile,
+                @Nullable ClassFileType elementType,
+                Set<String> supertypes
+        ) {
+            this.name = name;
+            this.classFile = classFile;
+            this.elementType = elementType;
+            this.supertypes = supertypes;
+        }
+
+        /**
+         * The binary name of the type, followed by one {@code []} for each dimension of an array type.
+         *
+         * @return the type name, never {@literal null}.
+         */
+        String name() {
+            return name;
+        }
+
+        /**
+         * The element type of an array type.
+         *
+         * @return the element type, or {@literal null} when this type is not an array type.
+         */
+        @Nullable
+        ClassFileType elementType() {
+            return elementType;
+        }
+
+        /**
+         * The binary names of every supertype of this type, excluding itself.
+         *
+         * @return the supertype names, never {@literal null}.
+         */
+        Set<String> supertypes() {
+            return supertypes;
+        }
+
+        /**
+         * Checks whether this type is an array type.
+         *
+         * @return {@literal true} when this type is an array type.
+         */
+        boolean isArray() {
+            return elementType != null;
+        }
+
+        /**
+         * Checks whether this type is an enum type, the same way as {@link Class#isEnum()}.
+         *
+         * @return {@literal true} when this type is an enum type.
+         */
+        boolean isEnum() {
+            return classFile != null && (classFile.access() & ACC_ENUM) != 0 && ENUM_TYPE.equals(classFile.superName());
+        }
+
+        /**
+         * Checks whether this type is, or is a subtype of, the type with the given binary name.
+         *
+         * @param typeName the binary name of the type, cannot be {@literal null}.
+         * @return {@literal true} when this type is an instance of the named type.
+         */
+        boolean isInstanceOf(String typeName) {
+            return name.equals(typeName) || supertypes.contains(typeName);
+        }
+
+        /**
+         * Returns the names of the enum constants of an enum type, in their declaration order.
+         *
+         * @return the enum constant names, empty when this type is not an enum type.
+         */
+        List<String> enumConstants() {
+            if (!isEnum()) {
+                return List.of();
+            }
+
+            return classFile.fields().stream()
+                    .filter(field -> (field.access() & ACC_ENUM) != 0)
+                    .map(ClassFileReader.ClassFileField::name)
+                    .toList();
+        }
+
+        ClassFileReader.@Nullable ClassFile classFile() {
+            return classFile;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof ClassFileType other && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+}
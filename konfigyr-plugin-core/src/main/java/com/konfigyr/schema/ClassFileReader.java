@@ -0,0 +1,354 @@
+package com.konfigyr.schema;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal reader of Java class files, that reads the declared fields and methods of a type straight from its
+ * class file, without loading or linking the type, or any of the types it references, in the JVM.
+ * <p>
+ * Reflection requires every type referenced by the declared fields of a class to be loadable, a single
+ * field whose type belongs to an optional dependency that is not present on the classpath fails with a
+ * {@link NoClassDefFoundError} for the whole class. Reading the class file instead lets the generator
+ * inspect the remaining fields individually. Class files are also read by the {@link ClassFileIntrospector},
+ * which inspects types without ever loading them.
+ * <p>
+ * Only the parts of the class file that describe the type and its members are read: the constant pool, the
+ * access flags, names of the type, its superclass and interfaces, the access flags, names and descriptors of
+ * the fields and methods and their {@code RuntimeVisibleAnnotations} attributes. Everything else is skipped.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ */
+@NullMarked
+final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int CONSTANT_CLASS = 7;
+    private static final String DEPRECATED_DESCRIPTOR = "Ljava/lang/Deprecated;";
+
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+
+    private ClassFileReader(byte[] bytes) {
+        this.buffer = ByteBuffer.wrap(bytes);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a Java class file");
+        }
+
+        // minor and major version
+        skip(4);
+
+        this.offsets = new int[buffer.getShort() & 0xFFFF];
+
+        for (int index = 1; index < offsets.length; index++) {
+            final int tag = buffer.get();
+            offsets[index] = buffer.position();
+
+            switch (tag) {
+                case 1 -> skip(unsignedShort());
+                case 7, 8, 16, 19, 20 -> skip(2);
+                case 15 -> skip(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> skip(4);
+                case 5, 6 -> {
+                    skip(8);
+                    index++;
+                }
+                default -> throw new IllegalArgumentException("Unsupported constant pool tag: " + tag);
+            }
+        }
+    }
+
+    /**
+     * Reads the fields declared by the given type from its class file.
+     *
+     * @param type the type whose class file should be read, cannot be {@literal null}.
+     * @return the declared fields, in their declaration order, or {@literal null} when the class file of
+     * the type could not be found or read.
+     */
+    @Nullable
+    static List<ClassFileField> readFields(Class<?> type) {
+        final ClassLoader loader = type.getClassLoader() == null
+                ? ClassLoader.getPlatformClassLoader() : type.getClassLoader();
+
+        try {
+            final ClassFile classFile = read(loader, type.getName());
+            return classFile == null ? null : classFile.fields();
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the fields declared in the given class file.
+     *
+     * @param bytes the contents of the class file, cannot be {@literal null}.
+     * @return the declared fields, in their declaration order, never {@literal null}.
+     * @throws IllegalArgumentException if the class file is malformed.
+     */
+    static List<ClassFileField> readFields(byte[] bytes) {
+        return read(bytes).fields();
+    }
+
+    /**
+     * Reads the class file of the type with the given binary name, as a resource of the given class loader,
+     * without loading the type.
+     *
+     * @param loader the class loader whose resources contain the class file, cannot be {@literal null}.
+     * @param name the binary name of the type, e.g. {@code com.acme.Outer$Inner}, cannot be {@literal null}.
+     * @return the read class file, or {@literal null} when the class file could not be found or read.
+     * @throws IllegalArgumentException if the class file is malformed.
+     */
+    @Nullable
+    static ClassFile read(ClassLoader loader, String name) {
+        try (InputStream is = loader.getResourceAsStream(name.replace('.', '/') + ".class")) {
+            return is == null ? null : read(is.readAllBytes());
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the given class file.
+     *
+     * @param bytes the contents of the class file, cannot be {@literal null}.
+     * @return the read class file, never {@literal null}.
+     * @throws IllegalArgumentException if the class file is malformed.
+     */
+    static ClassFile read(byte[] bytes) {
+        try {
+            return new ClassFileReader(bytes).classFile();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Malformed Java class file", ex);
+        }
+    }
+
+    private ClassFile classFile() {
+        final int access = unsignedShort();
+        final String name = className(unsignedShort());
+        final int superClass = unsignedShort();
+
+        final int count = unsignedShort();
+        final List<String> interfaces = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            interfaces.add(className(unsignedShort()));
+        }
+
+        final List<ClassFileField> fields = members(ClassFileField::new);
+        final List<ClassFileMethod> methods = members(ClassFileMethod::new);
+
+        // only java.lang.Object, and module descriptors, do not have a superclass
+        return new ClassFile(access, name, superClass == 0 ? null : className(superClass), interfaces, fields, methods);
+    }
+
+    private <T> List<T> members(Member<T> factory) {
+        final int count = unsignedShort();
+        final List<T> members = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            final int access = unsignedShort();
+            final String name = utf8(unsignedShort());
+            final String descriptor = utf8(unsignedShort());
+
+            boolean deprecated = false;
+
+            final int attributes = unsignedShort();
+
+            for (int j = 0; j < attributes; j++) {
+                final String attribute = utf8(unsignedShort());
+                final int length = buffer.getInt();
+                final int end = buffer.position() + length;
+
+                if (length < 0 || end > buffer.limit()) {
+                    throw new BufferUnderflowException();
+                }
+
+                // the Deprecated attribute is also written for the @deprecated Javadoc tag, reflection only
+                // considers the annotation
+                if ("RuntimeVisibleAnnotations".equals(attribute)) {
+                    deprecated |= isAnnotatedDeprecated();
+                }
+
+                buffer.position(end);
+            }
+
+            members.add(factory.create(name, access, descriptor, deprecated));
+        }
+
+        return members;
+    }
+
+    private boolean isAnnotatedDeprecated() {
+        final int annotations = unsignedShort();
+        boolean deprecated = false;
+
+        for (int i = 0; i < annotations; i++) {
+            deprecated |= DEPRECATED_DESCRIPTOR.equals(utf8(unsignedShort()));
+            skipElementValuePairs();
+        }
+
+        return deprecated;
+    }
+
+    private void skipElementValuePairs() {
+        final int pairs = unsignedShort();
+
+        for (int i = 0; i < pairs; i++) {
+            // element name
+            skip(2);
+            skipElementValue();
+        }
+    }
+
+    private void skipElementValue() {
+        final char tag = (char) buffer.get();
+
+        switch (tag) {
+            case 'e' -> skip(4);
+            case '@' -> {
+                // annotation type
+                skip(2);
+                skipElementValuePairs();
+            }
+            case '[' -> {
+                final int values = unsignedShort();
+
+                for (int i = 0; i < values; i++) {
+                    skipElementValue();
+                }
+            }
+            // constant and class values
+            default -> skip(2);
+        }
+    }
+
+    private String className(int index) {
+        final int offset = offsets[index];
+
+        if (buffer.get(offset - 1) != CONSTANT_CLASS) {
+            throw new IllegalArgumentException("Malformed constant pool entry: " + index);
+        }
+
+        return utf8(buffer.getShort(offset) & 0xFFFF).replace('/', '.');
+    }
+
+    private String utf8(int index) {
+        final int offset = offsets[index];
+        final int length = buffer.getShort(offset) & 0xFFFF;
+
+        try {
+            return new DataInputStream(new ByteArrayInputStream(buffer.array(), offset, length + 2)).readUTF();
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Malformed constant pool entry: " + index, ex);
+        }
+    }
+
+    private int unsignedShort() {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    private void skip(int bytes) {
+        if (bytes > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        buffer.position(buffer.position() + bytes);
+    }
+
+    /**
+     * Returns the name of the given type, in the same form as {@link ClassFileField#typeName()}.
+     *
+     * @param type the type, cannot be {@literal null}.
+     * @return the type name, never {@literal null}.
+     */
+    static String typeName(Class<?> type) {
+        return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    @FunctionalInterface
+    private interface Member<T> {
+        T create(String name, int access, String descriptor, boolean deprecated);
+    }
+
+    /**
+     * A Java class file.
+     *
+     * @param access the access flags of the type, as defined by the class file format.
+     * @param name the binary name of the type, e.g. {@code com.acme.Outer$Inner}.
+     * @param superName the binary name of the superclass, or {@literal null} for {@link Object}.
+     * @param interfaces the binary names of the directly implemented interfaces.
+     * @param fields the declared fields, in their declaration order.
+     * @param methods the declared methods, constructors and initializers, in their declaration order.
+     */
+    record ClassFile(
+            int access,
+            String name,
+            @Nullable String superName,
+            List<String> interfaces,
+            List<ClassFileField> fields,
+            List<ClassFileMethod> methods
+    ) {
+    }
+
+    /**
+     * A field declared in a Java class file.
+     *
+     * @param name the name of the field.
+     * @param access the access flags of the field, as defined by {@link java.lang.reflect.Modifier}.
+     * @param descriptor the type descriptor of the field, e.g. {@code Ljava/lang/String;} or {@code [I}.
+     * @param deprecated whether the field is annotated with {@link Deprecated}.
+     */
+    record ClassFileField(String name, int access, String descriptor, boolean deprecated) {
+
+        /**
+         * Returns the name of the field type, as accepted by the {@link com.konfigyr.TypeLoader}, converted from
+         * its type descriptor, e.g. {@code java.lang.String}, {@code int[]} or {@code com.acme.Outer$Inner}.
+         *
+         * @return the type name, never {@literal null}.
+         */
+        String typeName() {
+            int dimensions = 0;
+
+            while (descriptor.charAt(dimensions) == '[') {
+                dimensions++;
+            }
+
+            final String element = switch (descriptor.charAt(dimensions)) {
+                case 'Z' -> "boolean";
+                case 'B' -> "byte";
+                case 'C' -> "char";
+                case 'S' -> "short";
+                case 'I' -> "int";
+                case 'J' -> "long";
+                case 'F' -> "float";
+                case 'D' -> "double";
+                default -> descriptor.substring(dimensions + 1, descriptor.length() - 1).replace('/', '.');
+            };
+
+            return element + "[]".repeat(dimensions);
+        }
+    }
+
+    /**
+     * A method declared in a Java class file.
+     *
+     * @param name the name of the method.
+     * @param access the access flags of the method, as defined by {@link java.lang.reflect.Modifier}.
+     * @param descriptor the method descriptor, e.g. {@code ()Ljava/lang/String;}.
+     * @param deprecated whether the method is annotated with {@link Deprecated}.
+     */
+    record ClassFileMethod(String name, int access, String descriptor, boolean deprecated) {
+    }
+
+}
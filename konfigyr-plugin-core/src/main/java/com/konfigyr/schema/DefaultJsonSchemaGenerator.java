@@ -2,7 +2,6 @@ package com.konfigyr.schema;
 
 import com.fasterxml.classmate.ResolvedType;
 import com.fasterxml.classmate.TypeResolver;
-import com.fasterxml.classmate.util.ClassKey;
 import com.konfigyr.TypeLoader;
 import com.konfigyr.artifactory.ArraySchema;
 import com.konfigyr.artifactory.JsonSchema;
@@ -16,6 +15,7 @@ import org.springframework.boot.configurationmetadata.ConfigurationMetadataPrope
 
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A small, dependency-free (besides Jackson) JSON Schema generator that uses Java reflection.
@@ -23,6 +23,34 @@ import java.util.*;
  * This is intentionally basic: it covers primitives, wrappers, strings, numbers, booleans,
  * enums, arrays, collections, maps, and simple POJOs (by inspecting their declared fields).
  * It emits Draft 2020-12 compatible keywords (type, properties, items, additionalProperties, required, enum, format).
+ * <p>
+ * Generated schemas are immutable and memoized by their resolved type and the
+ * {@link SchemaGenerationContext#hintFingerprint() hints} of the property, properties of the same type
+ * without hints share the same {@link JsonSchema} instance.
+ * <p>
+ * Self-referential types are expanded until a type recurses into itself, the recursive occurrence is generated
+ * as an open {@code object}, or {@code array}, schema that accepts any value of that JSON type, and that is
+ * {@link SchemaGenerationContext#createRecursiveSchema marked} as recursive. The generator keeps the number of
+ * schema levels up to the schema of the enclosing type every marker recurses into, see
+ * {@link #getRecursiveSchemas(JsonSchema)}, which the {@link JsonSchemaReferences referenced form} of the schema
+ * uses to turn these markers into references to that enclosing schema, keeping the recursive structure of the type. The object
+ * schemas of POJO types are memoized as well, once their subtree is generated, so that every POJO type that is
+ * not part of a cycle is only ever expanded once. A memoized subtree is only reused when none of the types it
+ * expands is currently being visited, the generated schemas are the same as if no subtree was memoized.
+ * <p>
+ * How much of the type graph is expanded for a single property is limited by a {@link SchemaGenerationBudget}.
+ * Types that would exceed it are generated as {@link SchemaGenerationContext#createTruncatedSchema() truncated}
+ * {@code object} schemas, schemas and subtrees that contain truncated types are never memoized.
+ * <p>
+ * Using the {@link JsonSchemaGenerator.Introspection#CLASS_FILE class file introspection}, the types of the
+ * classpath are inspected by a {@link ClassFileIntrospector} instead of reflection. The properties of POJO types
+ * are read from their class files, and their field types are only ever referenced by name, so that expanding
+ * a POJO type never loads the types it references. Only {@link ClassFileIntrospector#isPlatformType platform
+ * types} are loaded, and generated the same way as with reflection. The given type itself is already loaded,
+ * unless it is a collection or a map type, whose type arguments are used, it is generated from its class file
+ * as well, so that both introspections generate the same schemas. Field types are erased either way, collection
+ * and map types of the classpath that are referenced by fields are generated as raw types, with {@code string}
+ * items, keys and values.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
@@ -31,9 +59,30 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultJsonSchemaGenerator.class);
 
+    /**
+     * Sorted property candidates of POJO types, collected once per class. As classes are unique per class loader,
+     * this also caches the candidates per class loader, and releases them together with the class loader. Classes
+     * of class loaders that outlive this generator are never cached, see {@link #getPropertyCandidates(Class)}.
+     */
+    private static final ClassValue<List<PropertyCandidate>> PROPERTY_CANDIDATES = new ClassValue<>() {
+        @Override
+        protected List<PropertyCandidate> computeValue(Class<?> type) {
+            return collectPropertyCandidates(type);
+        }
+    };
+
     private final TypeLoader typeLoader;
     private final TypeResolver typeResolver;
+    private final SchemaGenerationBudget budget;
+    private final @Nullable ClassFileIntrospector introspector;
+    private final PrimitiveSchemaDefinitionProvider<?, ?> primitives;
+    private final EnumSchemaDefinitionProvider enums = new EnumSchemaDefinitionProvider();
     private final List<SchemaDefinitionProvider<?, ?>> providers;
+    private final Map<SchemaKey, JsonSchema> schemas = new ConcurrentHashMap<>();
+    private final Map<SchemaKey, PojoSchema> pojos = new ConcurrentHashMap<>();
+
+    // the number of schema levels up to the enclosing schema of every generated recursive schema
+    private final Map<JsonSchema, Integer> recursions = Collections.synchronizedMap(new IdentityHashMap<>());
 
     /**
      * Creates a new {@link DefaultJsonSchemaGenerator}, using the given {@link TypeLoader} and
@@ -43,34 +92,128 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
      * @param typeResolver the type resolver to use, cannot be {@literal null}.
      */
     DefaultJsonSchemaGenerator(TypeLoader typeLoader, TypeResolver typeResolver) {
+        this(typeLoader, typeResolver, SchemaGenerationBudget.DEFAULT, Introspection.REFLECTION);
+    }
+
+    /**
+     * Creates a new {@link DefaultJsonSchemaGenerator}, using the given {@link TypeLoader} and
+     * {@link TypeResolver} to build its {@link SchemaDefinitionProvider}s, that limits the generated
+     * schema of every property using the given {@link SchemaGenerationBudget} and inspects the types
+     * using the given {@link Introspection}.
+     *
+     * @param typeLoader the type loader to use, cannot be {@literal null}.
+     * @param typeResolver the type resolver to use, cannot be {@literal null}.
+     * @param budget the budget of every generated property schema, cannot be {@literal null}.
+     * @param introspection how the types of the classpath are inspected, cannot be {@literal null}.
+     */
+    DefaultJsonSchemaGenerator(
+            TypeLoader typeLoader,
+            TypeResolver typeResolver,
+            SchemaGenerationBudget budget,
+            Introspection introspection
+    ) {
         this.typeLoader = typeLoader;
         this.typeResolver = typeResolver;
-        this.providers = List.of(
-                new PrimitiveSchemaDefinitionProvider<>(typeLoader),
-                new SpringSchemaDefinitionProvider<>(typeLoader),
-                new EnumSchemaDefinitionProvider()
-        );
+        this.budget = budget;
+        this.primitives = new PrimitiveSchemaDefinitionProvider<>(typeLoader);
+
+        if (introspection == Introspection.CLASS_FILE) {
+            // Spring types are matched by name, registering them would load them
+            this.introspector = new ClassFileIntrospector(typeLoader.getClassLoader());
+            this.providers = List.of(primitives, enums);
+        } else {
+            this.introspector = null;
+            this.providers = List.of(primitives, new SpringSchemaDefinitionProvider<>(typeLoader), enums);
+        }
     }
 
     @NonNull
     @Override
     public JsonSchema generateSchema(@NonNull ResolvedType type, @NonNull ConfigurationMetadataProperty metadata) {
-        return generateSchema(type, new SchemaGenerationContext(metadata, typeResolver, typeLoader), new HashSet<>());
+        final SchemaGenerationContext context = new SchemaGenerationContext(metadata, typeResolver, typeLoader, budget);
+        final SchemaKey key = new SchemaKey(type, context.hintFingerprint());
+
+        JsonSchema schema = schemas.get(key);
+
+        if (schema == null) {
+            // generate outside the map so that concurrent generation of other types is not blocked
+            schema = generateSchema(type, context, new Visits(key.hints()));
+
+            // truncated schemas are never memoized, they are only valid for the budget of this property
+            if (context.isTruncated()) {
+                logger.warn("Generated schema for property '{}' of type '{}' was truncated, as it exceeds the {}",
+                        metadata.getId(), type, budget);
+                return schema;
+            }
+
+            final JsonSchema existing = schemas.putIfAbsent(key, schema);
+
+            if (existing != null) {
+                schema = existing;
+            }
+        }
+
+        return schema;
+    }
+
+    @NonNull
+    @Override
+    public Map<String, Integer> getRecursiveSchemas(@NonNull JsonSchema schema) {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        collectRecursiveSchemas(schema, "", result);
+        return Collections.unmodifiableMap(result);
+    }
+
+    private void collectRecursiveSchemas(JsonSchema schema, String pointer, Map<String, Integer> result) {
+        final Integer levels = recursions.get(schema);
+
+        if (levels != null) {
+            result.put(pointer, levels);
+            return;
+        }
+
+        if (schema instanceof ObjectSchema object) {
+            object.properties().forEach((name, property) -> collectRecursiveSchemas(property,
+                    pointer + "/properties/" + name.replace("~", "~0").replace("/", "~1"), result));
+
+            if (object.additionalProperties() != null) {
+                collectRecursiveSchemas(object.additionalProperties(), pointer + "/additionalProperties", result);
+            }
+        }
+
+        if (schema instanceof ArraySchema array && array.items() != null) {
+            collectRecursiveSchemas(array.items(), pointer + "/items", result);
+        }
+    }
+
+    /**
+     * Builds the given schema builder, keeping the number of schema levels up to the enclosing schema when the
+     * builder is the one of a recursive schema.
+     */
+    private JsonSchema build(JsonSchema.Builder<?, ?> builder, SchemaGenerationContext context) {
+        final JsonSchema schema = builder.build();
+        final int levels = context.recursiveLevels(builder);
+
+        if (levels > 0) {
+            recursions.put(schema, levels);
+        }
+
+        return schema;
     }
 
     private JsonSchema generateSchema(
             @NonNull ResolvedType type,
             @NonNull SchemaGenerationContext context,
-            @NonNull Set<Class<?>> visiting
+            @NonNull Visits visits
     ) {
-        JsonSchema.Builder<?, ?> builder = generateSchemaBuilder(type, context, visiting);
+        JsonSchema.Builder<?, ?> builder = generateSchemaBuilder(type, context, visits);
 
         if (builder == null) {
             logger.warn("Could not generate schema for type '{}', using the default 'string' JSON Schema", type);
             builder = context.createSchema(JsonSchemaType.STRING);
         }
 
-        return builder.build();
+        return build(builder, context);
     }
 
     @Nullable
@@ -78,11 +221,19 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
     private <T extends JsonSchema, B extends JsonSchema.Builder<T, B>> B generateSchemaBuilder(
             @NonNull ResolvedType type,
             @NonNull SchemaGenerationContext context,
-            @NonNull Set<Class<?>> visiting
+            @NonNull Visits visits
     ) {
+        final ClassFileIntrospector.ClassFileType classFileType = describe(type);
+
+        if (classFileType != null) {
+            return generateSchemaBuilder(classFileType, context, visits);
+        }
+
         JsonSchema.Builder<?, ?> schema = null;
         Iterator<SchemaDefinitionProvider<?, ?>> iterator = providers.iterator();
 
+        context.count();
+
         while (iterator.hasNext() && schema == null) {
             schema = iterator.next().provide(type, context);
         }
@@ -91,10 +242,18 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
             return (B) schema;
         }
 
-        // Prevent infinite recursion on self-referential types, just return a simple
-        // JSON Schema with a string type and no properties.
-        if (!visiting.add(type.getErasedType())) {
-            return context.createSchema(JsonSchemaType.STRING);
+        if (!context.enter()) {
+            logger.debug("Truncating schema of type '{}' as it exceeds the {}", type, budget);
+            return (B) context.createTruncatedSchema();
+        }
+
+        // Prevent infinite recursion on self-referential types, the recursive occurrence is an open
+        // JSON Schema of the same JSON type, without any properties or items, that marks its enclosing schema.
+        // Optional types do not generate a schema of their own, they do not nest the schema of their value.
+        if (!visits.enter(type, !type.isInstanceOf(Optional.class))) {
+            context.exit();
+            return context.createRecursiveSchema(type.isArray() || type.isInstanceOf(Collection.class)
+                    ? JsonSchemaType.ARRAY : JsonSchemaType.OBJECT, visits.levels(type));
         }
 
         try {
@@ -102,7 +261,7 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
                 final ArraySchema.Builder builder = context.createSchema(JsonSchemaType.ARRAY);
 
                 return (B) builder.items(generateSchema(
-                        type.getArrayElementType(), context, visiting
+                        type.getArrayElementType(), context, visits
                 ));
             }
 
@@ -110,7 +269,7 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
                 final ResolvedType itemType = type.getTypeParameters().isEmpty() ?
                         context.resolveType(String.class) : type.getTypeParameters().getFirst();
 
-                return generateSchemaBuilder(itemType, context, visiting);
+                return generateSchemaBuilder(itemType, context, visits);
             }
 
             if (type.isInstanceOf(Collection.class)) {
@@ -118,7 +277,7 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
                         context.resolveType(String.class) : type.getTypeParameters().getFirst();
 
                 final ArraySchema.Builder builder = context.createSchema(JsonSchemaType.ARRAY);
-                return (B) builder.items(generateSchema(itemType, context, visiting));
+                return (B) builder.items(generateSchema(itemType, context, visits));
             }
 
             if (type.isInstanceOf(Map.class)) {
@@ -129,45 +288,216 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
                         context.resolveType(String.class) : type.getTypeParameters().get(1);
 
                 final ObjectSchema.Builder builder = context.createSchema(JsonSchemaType.OBJECT);
-                final JsonSchema.Builder<?, ?> propertyNames = generateSchemaBuilder(keyType, context, visiting);
-                final JsonSchema.Builder<?, ?> additionalProperties = generateSchemaBuilder(valueType, context, visiting);
+                final JsonSchema.Builder<?, ?> propertyNames = generateSchemaBuilder(keyType, context, visits);
+                final JsonSchema.Builder<?, ?> additionalProperties = generateSchemaBuilder(valueType, context, visits);
 
                 if (propertyNames != null) {
                     context.extractKeyHints().ifPresent(propertyNames::examples);
-                    builder.propertyNames(propertyNames.build());
+                    builder.propertyNames(build(propertyNames, context));
                 }
 
                 if (additionalProperties != null) {
                     context.extractValueHints().ifPresent(additionalProperties::examples);
-                    builder.additionalProperties(additionalProperties.build());
+                    builder.additionalProperties(build(additionalProperties, context));
                 }
 
                 return (B) builder;
             }
 
-            return (B) objectFromPojo(type, context, visiting);
+            return (B) objectFromPojo(type, getPropertyCandidates(type.getErasedType()), context, visits);
         } finally {
-            visiting.remove(type.getErasedType());
+            visits.exit(type);
+            context.exit();
         }
     }
 
-    private ObjectSchema.Builder objectFromPojo(
-            ResolvedType type,
-            SchemaGenerationContext context,
-            Set<Class<?>> visiting
+    /**
+     * Generates the schema of a type of the classpath that is referenced by name, when using the class file
+     * introspection, loading only platform types.
+     */
+    @Nullable
+    private <T extends JsonSchema, B extends JsonSchema.Builder<T, B>> B generateSchemaBuilder(
+            @NonNull String typeName,
+            @NonNull SchemaGenerationContext context,
+            @NonNull Visits visits
     ) {
-        final ObjectSchema.Builder builder = context.createSchema(JsonSchemaType.OBJECT);
+        if (ClassFileIntrospector.isPlatformType(typeName)) {
+            try {
+                return generateSchemaBuilder(typeResolver.resolve(typeLoader.load(typeName)), context, visits);
+            } catch (ClassNotFoundException ex) {
+                logger.debug("Could not load platform type '{}': {}", typeName, ex.getMessage());
+                return null;
+            }
+        }
+
+        final ClassFileIntrospector.ClassFileType type = Objects.requireNonNull(introspector).describe(typeName);
+
+        if (type == null) {
+            logger.debug("Could not read class files of type '{}', skipping its schema", typeName);
+            return null;
+        }
+
+        return generateSchemaBuilder(type, context, visits);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private <T extends JsonSchema, B extends JsonSchema.Builder<T, B>> B generateSchemaBuilder(
+            ClassFileIntrospector.@NonNull ClassFileType type,
+            @NonNull SchemaGenerationContext context,
+            @NonNull Visits visits
+    ) {
+        context.count();
+
+        final JsonSchema.Builder<?, ?> schema = provide(type, context);
+
+        if (schema != null) {
+            return (B) schema;
+        }
+
+        if (!context.enter()) {
+            logger.debug("Truncating schema of type '{}' as it exceeds the {}", type, budget);
+            return (B) context.createTruncatedSchema();
+        }
+
+        final boolean collection = type.isInstanceOf(Collection.class.getName());
+
+        if (!visits.enter(type, true)) {
+            context.exit();
+            return context.createRecursiveSchema(type.isArray() || collection
+                    ? JsonSchemaType.ARRAY : JsonSchemaType.OBJECT, visits.levels(type));
+        }
+
+        try {
+            final ClassFileIntrospector.ClassFileType elementType = type.elementType();
+
+            if (elementType != null) {
+                final ArraySchema.Builder builder = context.createSchema(JsonSchemaType.ARRAY);
+                return (B) builder.items(generateSchema(elementType.name(), context, visits));
+            }
+
+            // collection and map types referenced by fields are raw types, their values are strings
+            if (collection) {
+                final ArraySchema.Builder builder = context.createSchema(JsonSchemaType.ARRAY);
+                return (B) builder.items(generateSchema(context.resolveType(String.class), context, visits));
+            }
+
+            if (type.isInstanceOf(Map.class.getName())) {
+                final ResolvedType valueType = context.resolveType(String.class);
+                final ObjectSchema.Builder builder = context.createSchema(JsonSchemaType.OBJECT);
+                final JsonSchema.Builder<?, ?> propertyNames = generateSchemaBuilder(valueType, context, visits);
+                final JsonSchema.Builder<?, ?> additionalProperties = generateSchemaBuilder(valueType, context, visits);
+
+                if (propertyNames != null) {
+                    context.extractKeyHints().ifPresent(propertyNames::examples);
+                    builder.propertyNames(build(propertyNames, context));
+                }
+
+                if (additionalProperties != null) {
+                    context.extractValueHints().ifPresent(additionalProperties::examples);
+                    builder.additionalProperties(build(additionalProperties, context));
+                }
+
+                return (B) builder;
+            }
+
+            return (B) objectFromPojo(type, Objects.requireNonNull(introspector).collectPropertyCandidates(type), context, visits);
+        } finally {
+            visits.exit(type);
+            context.exit();
+        }
+    }
+
+    private JsonSchema generateSchema(
+            @NonNull String typeName,
+            @NonNull SchemaGenerationContext context,
+            @NonNull Visits visits
+    ) {
+        JsonSchema.Builder<?, ?> builder = generateSchemaBuilder(typeName, context, visits);
 
-        for (PropertyCandidate candidate : collectPropertyCandidates(type)) {
-            if (candidate.isStatic() || candidate.isTransient()) {
+        if (builder == null) {
+            logger.warn("Could not generate schema for type '{}', using the default 'string' JSON Schema", typeName);
+            builder = context.createSchema(JsonSchemaType.STRING);
+        }
+
+        return build(builder, context);
+    }
+
+    /**
+     * Provides the schema of a type that is described by its class file, the same way as the providers of
+     * this generator would for the loaded type: platform supertypes are matched by the primitive provider,
+     * loading only these platform types, and Spring and enum types by their class files.
+     */
+    private JsonSchema.@Nullable Builder<?, ?> provide(
+            ClassFileIntrospector.ClassFileType type,
+            SchemaGenerationContext context
+    ) {
+        // arrays are only assignable to Object, Cloneable and Serializable, none of them have a definition
+        if (type.isArray()) {
+            return null;
+        }
+
+        for (String supertype : type.supertypes()) {
+            if (!ClassFileIntrospector.isPlatformType(supertype)) {
                 continue;
             }
 
-            final JsonSchema.Builder<?, ?> schema = generateSchemaBuilder(
-                    context.resolveType(candidate.getType()),
-                    context,
-                    visiting
-            );
+            try {
+                final JsonSchema.Builder<?, ?> schema = primitives.provide(
+                        typeResolver.resolve(typeLoader.load(supertype)), context);
+
+                if (schema != null) {
+                    return schema;
+                }
+            } catch (ClassNotFoundException ex) {
+                logger.debug("Could not load platform type '{}': {}", supertype, ex.getMessage());
+            }
+        }
+
+        final JsonSchema.Builder<?, ?> schema = SpringSchemaDefinitionProvider.provide(type);
+
+        return schema == null ? enums.provide(type, context) : schema;
+    }
+
+    /**
+     * Describes the given loaded type by its class file, when using the class file introspection, so that it is
+     * generated the same way as the types that are referenced by name. Collection and map types keep their type
+     * arguments, and are not described.
+     */
+    private ClassFileIntrospector.@Nullable ClassFileType describe(ResolvedType type) {
+        if (introspector == null || type.isInstanceOf(Collection.class) || type.isInstanceOf(Map.class)) {
+            return null;
+        }
+
+        final String typeName = ClassFileReader.typeName(type.getErasedType());
+
+        return ClassFileIntrospector.isPlatformType(typeName) ? null : introspector.describe(typeName);
+    }
+
+    private ObjectSchema.Builder objectFromPojo(
+            Object type,
+            List<PropertyCandidate> candidates,
+            SchemaGenerationContext context,
+            Visits visits
+    ) {
+        final SchemaKey key = new SchemaKey(type, visits.hints());
+        final PojoSchema cached = pojos.get(key);
+
+        if (cached != null && visits.canReuse(type, cached) && context.use(cached.usage())) {
+            visits.reuse(cached);
+            return cached.toBuilder(context);
+        }
+
+        final Visits.Subtree subtree = visits.subtree(type);
+        final SchemaGenerationContext.Measurement measurement = context.measure();
+        final Map<String, JsonSchema> properties = new LinkedHashMap<>();
+        final List<String> required = new ArrayList<>();
+
+        for (PropertyCandidate candidate : candidates) {
+            final Class<?> candidateType = candidate.getType();
+            final JsonSchema.Builder<?, ?> schema = candidateType == null
+                    ? generateSchemaBuilder(candidate.getTypeName(), context, visits)
+                    : generateSchemaBuilder(context.resolveType(candidateType), context, visits);
 
             if (schema == null) {
                 continue;
@@ -177,74 +507,246 @@ final class DefaultJsonSchemaGenerator implements JsonSchemaGenerator {
                 schema.deprecated(candidate.isDeprecated());
             }
 
-            builder.property(candidate.getName(), schema.build());
+            properties.put(candidate.getName(), build(schema, context));
 
             if (candidate.isRequired()) {
-                builder.required(candidate.getName());
+                required.add(candidate.getName());
             }
         }
 
+        final Set<Object> types = visits.complete(subtree);
+        final SchemaGenerationContext.Usage usage = context.complete(measurement);
+
+        // only subtrees that did not recurse into one of their enclosing types, and that were not truncated,
+        // can be reused in other places
+        if (types != null && usage != null) {
+            pojos.putIfAbsent(key, new PojoSchema(properties, required, types, usage));
+        }
+
+        final ObjectSchema.Builder builder = context.createSchema(JsonSchemaType.OBJECT);
+        properties.forEach(builder::property);
+        required.forEach(builder::required);
         return builder;
     }
 
-    private List<PropertyCandidate> collectPropertyCandidates(ResolvedType type) {
-        final List<ResolvedType> types;
-        final HashSet<ClassKey> seen = new HashSet<>();
+    /**
+     * Returns the sorted property candidates of the given POJO type. The candidates of types that are loaded by
+     * the bootstrap, platform or system class loader are collected every time, as the cached value would be kept
+     * by the class of a class loader that is never unloaded, and would keep the class loader of this generator,
+     * that loaded the {@link PropertyCandidate} class, from being unloaded along with it.
+     */
+    private static List<PropertyCandidate> getPropertyCandidates(Class<?> type) {
+        final ClassLoader loader = type.getClassLoader();
+
+        if (loader == null || loader == ClassLoader.getPlatformClassLoader() || loader == ClassLoader.getSystemClassLoader()) {
+            return collectPropertyCandidates(type);
+        }
+
+        return PROPERTY_CANDIDATES.get(type);
+    }
+
+    private static List<PropertyCandidate> collectPropertyCandidates(Class<?> type) {
+        final List<Class<?>> types;
 
         // if the type is an object, no need to gather types, just use it
-        if (type.getErasedType() == Object.class) {
+        if (type == Object.class) {
             types = Collections.singletonList(type);
         } else {
             types = new ArrayList<>();
-            gatherTypes(type, seen, types);
+            gatherTypes(type, new HashSet<>(), types);
         }
 
         final List<PropertyCandidate> candidates = new ArrayList<>();
 
-        for (var resolved : types) {
+        for (var declaring : types) {
             try {
-                for (Field f : resolved.getErasedType().getDeclaredFields()) {
+                for (Field f : declaring.getDeclaredFields()) {
                     candidates.add(new PropertyCandidate(type, f));
                 }
-            } catch (ReflectiveOperationException | NoClassDefFoundError e) {
-                logger.debug("Failed to collect property candidates for type '{}': {}", resolved, e.getMessage(), e);
+            } catch (NoClassDefFoundError e) {
+                // one of the fields references a type that is missing from the classpath, read the fields
+                // from the class file instead, so that the remaining fields can still be collected
+                collectPropertyCandidatesFromClassFile(type, declaring, candidates);
+            } catch (ReflectiveOperationException e) {
+                logger.debug("Failed to collect property candidates for type '{}': {}", declaring, e.getMessage(), e);
             }
         }
 
+        // static and transient fields are never part of the schema
+        candidates.removeIf(candidate -> candidate.isStatic() || candidate.isTransient());
+
         // sort the candidates...
         candidates.sort(PropertyCandidate::compareTo);
 
-        return candidates;
+        return List.copyOf(candidates);
     }
 
-    private static void gatherTypes(ResolvedType type, Set<ClassKey> seen, List<ResolvedType> resolved) {
-        // may get called with null if no parent type
-        if (type == null) {
+    private static void collectPropertyCandidatesFromClassFile(
+            Class<?> type,
+            Class<?> declaring,
+            List<PropertyCandidate> candidates
+    ) {
+        final List<ClassFileReader.ClassFileField> fields = ClassFileReader.readFields(declaring);
+
+        if (fields == null) {
+            logger.debug("Failed to read class file for type '{}', skipping its property candidates", declaring);
             return;
         }
-        final Class<?> raw = type.getErasedType();
-        // Also, don't include Object.class
-        if (raw == Object.class) {
+
+        // field types are loaded the same way the JVM would resolve them, by the class loader of the declaring type
+        final TypeLoader loader = new TypeLoader(declaring.getClassLoader() == null
+                ? ClassLoader.getPlatformClassLoader() : declaring.getClassLoader());
+
+        for (ClassFileReader.ClassFileField field : fields) {
+            try {
+                candidates.add(new PropertyCandidate(type, field, loader.load(field.typeName())));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.debug("Skipping property candidate '{}' of type '{}' as its type could not be loaded: {}",
+                        field.name(), declaring, e.getMessage());
+            }
+        }
+    }
+
+    private static void gatherTypes(@Nullable Class<?> type, Set<Class<?>> seen, List<Class<?>> types) {
+        // may get called with null if no parent type, also, don't include Object.class
+        if (type == null || type == Object.class) {
             return;
         }
         // Finally, only include the first instance of an interface, so:
-        final ClassKey key = new ClassKey(type.getErasedType());
-        if (!seen.add(key)) {
+        if (!seen.add(type)) {
             return;
         }
         // If all good so far, append
-        resolved.add(type);
+        types.add(type);
         /* and check supertypes; starting with interfaces. Why interfaces?
          * So that "highest" interfaces get priority; otherwise we'd recurse
          *  the super-class stack and actually start with the bottom. Usually makes
          * little difference, but in cases where it does, this seems like the
          * correct order.
          */
-        for (ResolvedType t : type.getImplementedInterfaces()) {
-            gatherTypes(t, seen, resolved);
+        for (Class<?> t : type.getInterfaces()) {
+            gatherTypes(t, seen, types);
         }
         // and then superclass
-        gatherTypes(type.getParentClass(), seen, resolved);
+        gatherTypes(type.getSuperclass(), seen, types);
+    }
+
+    /**
+     * Key of a generated schema, the type is either a {@link ResolvedType}, or a type that is described by its
+     * class file, when using the class file introspection.
+     */
+    private record SchemaKey(Object type, List<Collection<String>> hints) {
+    }
+
+    /**
+     * The generated properties of a POJO type, along with every type that was expanded to generate them,
+     * and the budget that was used to do so.
+     */
+    private record PojoSchema(
+            Map<String, JsonSchema> properties,
+            List<String> required,
+            Set<Object> types,
+            SchemaGenerationContext.Usage usage
+    ) {
+
+        ObjectSchema.Builder toBuilder(SchemaGenerationContext context) {
+            final ObjectSchema.Builder builder = context.createSchema(JsonSchemaType.OBJECT);
+            properties.forEach(builder::property);
+            required.forEach(builder::required);
+            return builder;
+        }
+    }
+
+    /**
+     * Keeps track of the types that are being visited while the schema of a single property is generated, and
+     * of the recursive occurrences of these types, that are cut off from the generated schema.
+     */
+    private static final class Visits {
+
+        private final List<Collection<String>> hints;
+        private final Map<Object, Visit> visiting = new HashMap<>();
+        private final List<Object> expanded = new ArrayList<>();
+
+        // the number of visited types that generate a schema of their own, which is the level of the next schema
+        private int level;
+
+        // the depth of the outermost visited type that was cut off within the current subtree
+        private int cutoff = Integer.MAX_VALUE;
+
+        Visits(List<Collection<String>> hints) {
+            this.hints = hints;
+        }
+
+        List<Collection<String>> hints() {
+            return hints;
+        }
+
+        boolean enter(Object type, boolean nested) {
+            final Visit visit = visiting.putIfAbsent(type, new Visit(visiting.size(), level, nested));
+
+            if (visit != null) {
+                cutoff = Math.min(cutoff, visit.depth());
+                return false;
+            }
+
+            if (nested) {
+                level++;
+            }
+
+            expanded.add(type);
+            return true;
+        }
+
+        void exit(Object type) {
+            final Visit visit = visiting.remove(type);
+
+            if (visit != null && visit.nested()) {
+                level--;
+            }
+        }
+
+        /**
+         * Returns the number of schema levels from the schema that is generated next, up to the schema of the
+         * given type that is being visited.
+         */
+        int levels(Object type) {
+            return level - visiting.get(type).level();
+        }
+
+        boolean canReuse(Object type, PojoSchema schema) {
+            for (Object visited : visiting.keySet()) {
+                if (!visited.equals(type) && schema.types().contains(visited)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        void reuse(PojoSchema schema) {
+            expanded.addAll(schema.types());
+        }
+
+        Subtree subtree(Object type) {
+            final Subtree subtree = new Subtree(visiting.get(type).depth(), cutoff, expanded.size() - 1);
+            cutoff = Integer.MAX_VALUE;
+            return subtree;
+        }
+
+        @Nullable
+        Set<Object> complete(Subtree subtree) {
+            final boolean contained = cutoff >= subtree.depth();
+            cutoff = Math.min(cutoff, subtree.cutoff());
+
+            // the type of the subtree was the last expanded type when the subtree was started
+            return contained ? Set.copyOf(expanded.subList(subtree.start(), expanded.size())) : null;
+        }
+
+        record Visit(int depth, int level, boolean nested) {
+        }
+
+        record Subtree(int depth, int cutoff, int start) {
+        }
     }
 
 }
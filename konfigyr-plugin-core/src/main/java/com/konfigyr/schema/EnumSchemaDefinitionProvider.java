@@ -40,6 +40,24 @@ class EnumSchemaDefinitionProvider implements SchemaDefinitionProvider<StringSch
         return null;
     }
 
+    /**
+     * Provides the schema definition for a type that is described by its class file, using the names of the
+     * enum constants that are declared by its class file.
+     *
+     * @param type the type described by its class file, cannot be {@literal null}.
+     * @param context the schema generation context, cannot be {@literal null}.
+     * @return the schema definition, or {@literal null} if the type is not an enum type.
+     */
+    StringSchema.@Nullable Builder provide(ClassFileIntrospector.ClassFileType type, SchemaGenerationContext context) {
+        if (!type.isEnum()) {
+            return null;
+        }
+
+        final StringSchema.Builder schema = context.createSchema(JsonSchemaType.STRING);
+        type.enumConstants().forEach(schema::enumeration);
+        return schema;
+    }
+
     @Nullable
     private Stream<String> enumConstantsFor(ResolvedType type) {
         try {
@@ -5,9 +5,13 @@ import com.fasterxml.classmate.TypeResolver;
 import com.konfigyr.TypeLoader;
 import com.konfigyr.artifactory.JsonSchema;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
 import tools.jackson.databind.node.ObjectNode;
 
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Simple JSON Schema generator contract.
  * <p>
@@ -31,6 +35,16 @@ public interface JsonSchemaGenerator {
         return new DefaultJsonSchemaGenerator(typeLoader, typeResolver);
     }
 
+    /**
+     * Creates a new builder for constructing the default implementation of the {@link JsonSchemaGenerator}.
+     *
+     * @return builder instance, never {@literal null}.
+     * @since 1.3.0
+     */
+    static Builder builder() {
+        return new Builder();
+    }
+
     /**
      * Generate a JSON Schema for the given Java type.
      *
@@ -40,4 +54,117 @@ public interface JsonSchemaGenerator {
      */
     JsonSchema generateSchema(ResolvedType type, ConfigurationMetadataProperty metadata);
 
+    /**
+     * Returns the recursive schemas within a JSON Schema that was generated by this generator, the open schemas
+     * that are generated in place of the recursive occurrences of self-referential types. Every recursive schema
+     * is keyed by its JSON Pointer within the given schema, and mapped to the number of schema levels up to the
+     * enclosing schema it recurses into, see {@link JsonSchemaReferences#hoist(tools.jackson.databind.JsonNode, Map)}.
+     *
+     * @param schema the JSON Schema generated by this generator, never {@literal null}.
+     * @return the recursive schemas, keyed by their JSON Pointers, empty when the schema contains none.
+     * @since 1.3.0
+     */
+    default Map<String, Integer> getRecursiveSchemas(JsonSchema schema) {
+        return Map.of();
+    }
+
+    /**
+     * Fluent builder for creating the default implementation of the {@link JsonSchemaGenerator}.
+     *
+     * @since 1.3.0
+     */
+    final class Builder {
+        private @Nullable TypeLoader typeLoader;
+        private @Nullable TypeResolver typeResolver;
+        private SchemaGenerationBudget budget = SchemaGenerationBudget.DEFAULT;
+        private Introspection introspection = Introspection.REFLECTION;
+
+        private Builder() {
+            // Private constructor to enforce the builder pattern
+        }
+
+        /**
+         * Sets the type loader used to load the types of the classpath.
+         *
+         * @param typeLoader the type loader to use, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder typeLoader(TypeLoader typeLoader) {
+            this.typeLoader = typeLoader;
+            return this;
+        }
+
+        /**
+         * Sets the type resolver used to resolve the generic types of the classpath.
+         *
+         * @param typeResolver the type resolver to use, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder typeResolver(TypeResolver typeResolver) {
+            this.typeResolver = typeResolver;
+            return this;
+        }
+
+        /**
+         * Sets the budget that limits the generated schema of every property. Defaults to
+         * {@link SchemaGenerationBudget#DEFAULT}.
+         *
+         * @param budget the budget of every generated property schema, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder budget(SchemaGenerationBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Sets how the types of the classpath are inspected. Defaults to {@link Introspection#REFLECTION}.
+         *
+         * @param introspection how the types of the classpath are inspected, never {@literal null}.
+         * @return this builder instance for method chaining.
+         */
+        public Builder introspection(Introspection introspection) {
+            this.introspection = introspection;
+            return this;
+        }
+
+        /**
+         * Constructs the default implementation of the {@link JsonSchemaGenerator} with the configured values.
+         *
+         * @return a new generator instance, never {@literal null}.
+         * @throws NullPointerException if the type loader or the type resolver was not set.
+         */
+        public JsonSchemaGenerator build() {
+            return new DefaultJsonSchemaGenerator(
+                    Objects.requireNonNull(typeLoader, "typeLoader must not be null"),
+                    Objects.requireNonNull(typeResolver, "typeResolver must not be null"),
+                    budget,
+                    introspection
+            );
+        }
+    }
+
+    /**
+     * Defines how the types of the classpath are inspected when their JSON Schema is generated.
+     *
+     * @since 1.3.0
+     */
+    enum Introspection {
+
+        /**
+         * Inspects the types using Java reflection, which loads every type that is expanded, as well as the
+         * types of all of their fields, in the class loader of the {@link TypeLoader}.
+         */
+        REFLECTION,
+
+        /**
+         * Inspects the types by reading their class files from the resources of the class loader of the
+         * {@link TypeLoader}, without loading them. The fields of POJO types are read from their class files,
+         * only the types of the {@code java.*} packages are loaded, by the platform class loader. Field types are
+         * erased with both introspections, the generated schemas are the same as with {@link #REFLECTION}.
+         */
+        CLASS_FILE
+
+    }
+
 }
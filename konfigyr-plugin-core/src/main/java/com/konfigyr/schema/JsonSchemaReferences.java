@@ -0,0 +1,453 @@
+package com.konfigyr.schema;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.JsonNodeFactory;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.util.*;
+
+/**
+ * Converts serialized JSON Schemas between their inline form, in which every nested object schema is written
+ * out in full wherever it is used, and their referenced form, in which object schemas that are used more than
+ * once are written only once, as shared definitions of the schema, and referenced wherever they are used.
+ * <p>
+ * Schemas of POJO types with nested configuration classes repeat the same object schema for every property
+ * of that nested type. The referenced form {@link #hoist(JsonNode) hoists} these repeated object schemas into
+ * the {@code $defs} keyword of the root schema, and replaces every occurrence with a {@code $ref} to it:
+ * <pre>{@code
+ * {
+ *   "type": "object",
+ *   "properties": {
+ *     "primary": { "$ref": "#/$defs/object-1" },
+ *     "secondary": { "$ref": "#/$defs/object-1" }
+ *   },
+ *   "$defs": {
+ *     "object-1": { "type": "object", "properties": { ... } }
+ *   }
+ * }
+ * }</pre>
+ * The {@link JsonSchemaGenerator} generates the recursive occurrences of self-referential types as open schemas,
+ * and keeps the number of schema levels up to the enclosing schema they recurse into, see
+ * {@link JsonSchemaGenerator#getRecursiveSchemas}. Given these recursive schemas, the referenced form replaces them
+ * with a {@code $ref} to that enclosing schema, which is moved into the {@code $defs} as well, or to {@code #} when
+ * it is the root schema, so that the recursive structure of the type is kept:
+ * <pre>{@code
+ * {
+ *   "type": "object",
+ *   "properties": {
+ *     "name": { "type": "string" },
+ *     "children": {
+ *       "type": "array",
+ *       "items": { "$ref": "#", "type": "object", "description": "Recursive, same as an enclosing schema" }
+ *     }
+ *   }
+ * }
+ * }</pre>
+ * Every converted schema remains a valid, self-contained JSON Schema, as references only ever point to the
+ * definitions of the schema they are part of. The {@link JsonSchemaGenerator} always generates the inline form,
+ * which is the one the {@link com.konfigyr.artifactory.JsonSchema} model represents, referenced schemas must be
+ * {@link #inline(JsonNode) inlined} again before they are read back into that model.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ */
+@NullMarked
+public final class JsonSchemaReferences {
+
+    /**
+     * The JSON Schema keyword that contains the shared schema definitions.
+     */
+    public static final String DEFINITIONS = "$defs";
+
+    /**
+     * The JSON Schema keyword that references a schema definition.
+     */
+    public static final String REFERENCE = "$ref";
+
+    private static final String DEFINITIONS_POINTER = "#/" + DEFINITIONS + "/";
+
+    private JsonSchemaReferences() {
+    }
+
+    /**
+     * Converts the given inline JSON Schema into its referenced form, where every object schema that is used
+     * more than once is moved into the shared {@value #DEFINITIONS} of the schema and referenced by its usages.
+     *
+     * @param schema the inline JSON Schema to convert, cannot be {@literal null}.
+     * @return the referenced JSON Schema, or the given schema when it contains no repeated object schemas.
+     */
+    public static JsonNode hoist(JsonNode schema) {
+        return hoist(schema, Map.of());
+    }
+
+    /**
+     * Converts the given inline JSON Schema into its referenced form, where every object schema that is used
+     * more than once is moved into the shared {@value #DEFINITIONS} of the schema and referenced by its usages,
+     * and where every recursive schema is replaced by a reference to the enclosing schema it recurses into.
+     * <p>
+     * Recursive schemas are keyed by their JSON Pointer within the given schema, and mapped to the number of
+     * schema levels up to their enclosing schema, as they are returned by
+     * {@link JsonSchemaGenerator#getRecursiveSchemas}. Recursive schemas keep all of their keywords next to
+     * the reference, including their description.
+     *
+     * @param schema the inline JSON Schema to convert, cannot be {@literal null}.
+     * @param recursions the number of levels up to the enclosing schema of every recursive schema, keyed by
+     * their JSON Pointer, cannot be {@literal null}.
+     * @return the referenced JSON Schema, or the given schema when it contains no repeated object schemas
+     * and no recursive schemas.
+     */
+    public static JsonNode hoist(JsonNode schema, Map<String, Integer> recursions) {
+        if (!schema.isObject()) {
+            return schema;
+        }
+
+        final Map<JsonNode, Integer> occurrences = new HashMap<>();
+        countObjectSchemas(schema, occurrences, true);
+
+        final Recursions recursive = new Recursions(schema, recursions);
+        recursive.collect(schema, Kind.SCHEMA, "", new ArrayList<>());
+
+        if (recursive.markers.isEmpty() && occurrences.values().stream().noneMatch(count -> count > 1)) {
+            return schema;
+        }
+
+        final Hoister hoister = new Hoister(occurrences, recursive);
+        final ObjectNode result = hoister.members((ObjectNode) schema, Kind.SCHEMA);
+
+        if (!hoister.definitions.isEmpty()) {
+            result.set(DEFINITIONS, hoister.definitions);
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts the given JSON Schema, that may be in its referenced form, back into its inline form, where
+     * every reference to the shared {@value #DEFINITIONS} of the schema is replaced by the definition itself.
+     * References to an enclosing schema, that is the root schema or a definition that is being inlined, are
+     * replaced by the open schema that {@link SchemaGenerationContext#createRecursiveSchema marks} the
+     * recursive occurrence, made of the keywords next to the reference and the type of the enclosing schema.
+     *
+     * @param schema the JSON Schema to convert, cannot be {@literal null}.
+     * @return the inline JSON Schema, or the given schema when it contains no references.
+     * @throws IllegalArgumentException when the schema references a definition that does not exist.
+     */
+    public static JsonNode inline(JsonNode schema) {
+        if (!schema.isObject()) {
+            return schema;
+        }
+
+        final JsonNode definitions = schema.get(DEFINITIONS);
+
+        if ((definitions == null || !definitions.isObject()) && schema.findValue(REFERENCE) == null) {
+            return schema;
+        }
+
+        final ObjectNode result = ((ObjectNode) schema).deepCopy();
+        result.remove(DEFINITIONS);
+
+        final ObjectNode shared = definitions instanceof ObjectNode object ? object : JsonNodeFactory.instance.objectNode();
+
+        return new Inliner(shared, result).expand(result);
+    }
+
+    private static void countObjectSchemas(JsonNode node, Map<JsonNode, Integer> occurrences, boolean root) {
+        if (node.isObject() && !root && isObjectSchema(node)) {
+            occurrences.merge(node, 1, Integer::sum);
+        }
+
+        if (node.isObject() || node.isArray()) {
+            for (JsonNode child : node) {
+                countObjectSchemas(child, occurrences, false);
+            }
+        }
+    }
+
+    private static boolean isObjectSchema(JsonNode node) {
+        final JsonNode type = node.get("type");
+        final JsonNode properties = node.get("properties");
+
+        return type != null && type.isString() && "object".equals(type.asString())
+                && properties != null && properties.isObject() && !properties.isEmpty();
+    }
+
+    private static String pointer(String parent, String name) {
+        return parent + "/" + name.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Defines whether a JSON node is a schema, the map of the {@code properties} schemas, or any other node.
+     */
+    private enum Kind {
+        SCHEMA, PROPERTIES, OTHER;
+
+        Kind child(String name) {
+            if (this == PROPERTIES) {
+                return SCHEMA;
+            }
+
+            if (this != SCHEMA) {
+                return OTHER;
+            }
+
+            return switch (name) {
+                case "properties" -> PROPERTIES;
+                case "items", "additionalProperties", "propertyNames" -> SCHEMA;
+                default -> OTHER;
+            };
+        }
+    }
+
+    /**
+     * Finds the recursive schemas of an inline JSON Schema and the enclosing schemas they recurse into.
+     */
+    private static final class Recursions {
+
+        private final JsonNode root;
+
+        // the number of levels up to the enclosing schema of every recursive schema, keyed by its JSON Pointer
+        private final Map<String, Integer> levels;
+
+        // the enclosing schema of every recursive schema
+        private final Map<JsonNode, JsonNode> markers = new IdentityHashMap<>();
+
+        // enclosing schemas, other than the root schema, that are referenced by recursive schemas
+        private final Set<JsonNode> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // schemas that contain a recursive schema that recurses into one of their enclosing schemas, these are
+        // not shared with equal schemas in other places, as those may recurse into a different enclosing schema
+        private final Set<JsonNode> escaped = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Recursions(JsonNode root, Map<String, Integer> levels) {
+            this.root = root;
+            this.levels = levels;
+        }
+
+        void collect(JsonNode node, Kind kind, String pointer, List<JsonNode> schemas) {
+            if (node.isArray()) {
+                for (int i = 0; i < node.size(); i++) {
+                    collect(node.get(i), Kind.OTHER, pointer + "/" + i, schemas);
+                }
+                return;
+            }
+
+            if (!node.isObject()) {
+                return;
+            }
+
+            if (kind == Kind.SCHEMA) {
+                final int levels = this.levels.getOrDefault(pointer, -1);
+
+                if (levels > 0 && levels <= schemas.size()) {
+                    final int index = schemas.size() - levels;
+                    final JsonNode target = schemas.get(index);
+
+                    markers.put(node, target);
+
+                    if (target != root) {
+                        targets.add(target);
+                    }
+
+                    escaped.addAll(schemas.subList(index + 1, schemas.size()));
+                    return;
+                }
+
+                schemas.add(node);
+            }
+
+            for (Map.Entry<String, JsonNode> member : node.properties()) {
+                collect(member.getValue(), kind.child(member.getKey()), pointer(pointer, member.getKey()), schemas);
+            }
+
+            if (kind == Kind.SCHEMA) {
+                schemas.removeLast();
+            }
+        }
+    }
+
+    private static final class Hoister {
+
+        private final Map<JsonNode, Integer> occurrences;
+        private final Recursions recursions;
+        private final Map<JsonNode, String> names = new HashMap<>();
+        private final Map<JsonNode, String> escapedNames = new IdentityHashMap<>();
+        private final ObjectNode definitions = JsonNodeFactory.instance.objectNode();
+
+        private Hoister(Map<JsonNode, Integer> occurrences, Recursions recursions) {
+            this.occurrences = occurrences;
+            this.recursions = recursions;
+        }
+
+        JsonNode rewrite(JsonNode node, Kind kind) {
+            if (node.isArray()) {
+                final ArrayNode result = JsonNodeFactory.instance.arrayNode(node.size());
+                node.forEach(element -> result.add(rewrite(element, Kind.OTHER)));
+                return result;
+            }
+
+            if (!node.isObject()) {
+                return node;
+            }
+
+            final JsonNode target = recursions.markers.get(node);
+
+            if (target != null) {
+                return reference((ObjectNode) node, target);
+            }
+
+            final boolean escaped = recursions.escaped.contains(node);
+
+            if ((escaped || occurrences.getOrDefault(node, 0) < 2) && !recursions.targets.contains(node)) {
+                return members((ObjectNode) node, kind);
+            }
+
+            final Map<JsonNode, String> names = escaped ? escapedNames : this.names;
+            String name = names.get(node);
+
+            if (name == null) {
+                name = "object-" + (definitions.size() + 1);
+                names.put(node, name);
+
+                // reserve the position of the definition, so definitions are ordered by their first usage
+                definitions.putNull(name);
+                definitions.set(name, members((ObjectNode) node, kind));
+            }
+
+            return JsonNodeFactory.instance.objectNode().put(REFERENCE, DEFINITIONS_POINTER + name);
+        }
+
+        ObjectNode members(ObjectNode node, Kind kind) {
+            final ObjectNode result = JsonNodeFactory.instance.objectNode();
+
+            for (Map.Entry<String, JsonNode> member : node.properties()) {
+                result.set(member.getKey(), rewrite(member.getValue(), kind.child(member.getKey())));
+            }
+
+            return result;
+        }
+
+        /**
+         * Replaces the recursive schema with a reference to its enclosing schema, which is already being written
+         * as the root schema or as a definition, keeping every keyword of the recursive schema.
+         */
+        private ObjectNode reference(ObjectNode marker, JsonNode target) {
+            final ObjectNode result = JsonNodeFactory.instance.objectNode();
+
+            if (target == recursions.root) {
+                result.put(REFERENCE, "#");
+            } else {
+                final String name = recursions.escaped.contains(target) ? escapedNames.get(target) : names.get(target);
+                result.put(REFERENCE, DEFINITIONS_POINTER + name);
+            }
+
+            for (Map.Entry<String, JsonNode> member : marker.properties()) {
+                result.set(member.getKey(), member.getValue());
+            }
+
+            return result;
+        }
+    }
+
+    private static final class Inliner {
+
+        private final ObjectNode definitions;
+        private final JsonNode root;
+        private final Map<String, JsonNode> expanded = new HashMap<>();
+
+        // definitions that are being inlined
+        private final Set<String> expanding = new HashSet<>();
+
+        private Inliner(ObjectNode definitions, JsonNode root) {
+            this.definitions = definitions;
+            this.root = root;
+        }
+
+        JsonNode expand(JsonNode node) {
+            if (!node.isObject() && !node.isArray()) {
+                return node;
+            }
+
+            final JsonNode reference = node.isObject() ? node.get(REFERENCE) : null;
+
+            if (reference != null && reference.isString()) {
+                final ObjectNode object = (ObjectNode) node;
+                final String pointer = reference.asString();
+
+                if ("#".equals(pointer)) {
+                    return recursion(object, root);
+                }
+
+                if (pointer.startsWith(DEFINITIONS_POINTER)) {
+                    final String name = pointer.substring(DEFINITIONS_POINTER.length());
+
+                    if (expanding.contains(name)) {
+                        return recursion(object, definitions.get(name));
+                    }
+
+                    if (object.size() == 1) {
+                        return definition(name);
+                    }
+                }
+            }
+
+            if (node instanceof ArrayNode array) {
+                for (int i = 0; i < array.size(); i++) {
+                    array.set(i, expand(array.get(i)));
+                }
+            } else if (node instanceof ObjectNode object) {
+                for (Map.Entry<String, JsonNode> member : List.copyOf(object.properties())) {
+                    object.set(member.getKey(), expand(member.getValue()));
+                }
+            }
+
+            return node;
+        }
+
+        private JsonNode definition(String name) {
+            final JsonNode cached = expanded.get(name);
+
+            if (cached != null) {
+                return cached;
+            }
+
+            final JsonNode definition = definitions.get(name);
+
+            if (definition == null) {
+                throw new IllegalArgumentException("JSON Schema references an unknown definition: " + name);
+            }
+
+            expanding.add(name);
+            final JsonNode result = expand(definition.deepCopy());
+            expanding.remove(name);
+            expanded.put(name, result);
+
+            return result;
+        }
+
+        /**
+         * Replaces the reference to an enclosing schema with the recursive schema the generator created in its
+         * place, keeping every keyword of the reference, and the type of the enclosing schema when it has none.
+         */
+        private ObjectNode recursion(ObjectNode reference, JsonNode target) {
+            final ObjectNode result = JsonNodeFactory.instance.objectNode();
+
+            for (Map.Entry<String, JsonNode> member : reference.properties()) {
+                if (!REFERENCE.equals(member.getKey())) {
+                    result.set(member.getKey(), member.getValue());
+                }
+            }
+
+            final JsonNode type = target.get("type");
+
+            if (!result.has("type") && type != null) {
+                result.set("type", type);
+            }
+
+            return result;
+        }
+    }
+
+}
@@ -14,12 +14,16 @@ import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.time.*;
 import java.util.*;
-import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
  * Implementation of {@link SchemaDefinitionProvider} that provides schema definitions for primitive types.
+ * <p>
+ * Definitions are matched in the order in which they are {@link #createDefinitions(TypeLoader) created}: by the
+ * exact type first, then by the first definition that is a supertype of the type, and finally by the canonical
+ * name of the type, which matches types that are loaded by a different class loader. The definitions are indexed
+ * by type, using a {@link TypeIndex}, and by name, so that lookups do not need to scan the definitions.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
@@ -27,7 +31,8 @@ import java.util.stream.Stream;
 @NullMarked
 final class PrimitiveSchemaDefinitionProvider<T extends JsonSchema, B extends JsonSchema.Builder<T, B>> implements SchemaDefinitionProvider<T, B> {
 
-    private final Set<PrimitiveSchemaDefinition> definitions;
+    private final TypeIndex<PrimitiveSchemaDefinition> definitions;
+    private final Map<String, PrimitiveSchemaDefinition> names = new HashMap<>();
 
     /**
      * Creates a new {@link PrimitiveSchemaDefinitionProvider}, building its fixed set of known
@@ -37,7 +42,17 @@ final class PrimitiveSchemaDefinitionProvider<T extends JsonSchema, B extends Js
      *               cannot be {@literal null}.
      */
     PrimitiveSchemaDefinitionProvider(TypeLoader loader) {
-        definitions = createDefinitions(loader);
+        final Map<Class<?>, PrimitiveSchemaDefinition> types = new LinkedHashMap<>();
+
+        for (PrimitiveSchemaDefinition definition : createDefinitions(loader)) {
+            types.putIfAbsent(definition.javaType(), definition);
+
+            if (definition.javaType().getCanonicalName() != null) {
+                names.putIfAbsent(definition.javaType().getCanonicalName(), definition);
+            }
+        }
+
+        definitions = new TypeIndex<>(types);
     }
 
     @Nullable
@@ -71,16 +86,13 @@ final class PrimitiveSchemaDefinitionProvider<T extends JsonSchema, B extends Js
     @Nullable
     private PrimitiveSchemaDefinition definitionFor(ResolvedType type) {
         // first find the definition by the exact type, if none found, try if it is a subtype of the given type
-        return definitionFor(candidate -> candidate.equals(type.getErasedType()))
-                .or(() -> definitionFor(type::isInstanceOf))
-                .or(() -> definitionFor(it -> type.getTypeName().equals(it.getCanonicalName())))
-                .orElse(null);
-    }
+        final PrimitiveSchemaDefinition definition = definitions.find(type.getErasedType());
+
+        if (definition != null) {
+            return definition;
+        }
 
-    private Optional<PrimitiveSchemaDefinition> definitionFor(Predicate<Class<?>> predicate) {
-        return definitions.stream()
-                .filter(definition -> predicate.test(definition.javaType))
-                .findFirst();
+        return names.get(type.getTypeName());
     }
 
     /**
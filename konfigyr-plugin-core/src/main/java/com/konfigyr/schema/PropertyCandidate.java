@@ -1,11 +1,9 @@
 package com.konfigyr.schema;
 
-import com.fasterxml.classmate.ResolvedType;
 import lombok.EqualsAndHashCode;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -17,6 +15,12 @@ import java.util.stream.Stream;
  * {@link DefaultJsonSchemaGenerator}, paired with its JavaBeans getter (if one can be found), used
  * to read annotations that may be declared on the getter rather than the field itself (e.g.
  * {@link Deprecated}).
+ * <p>
+ * Candidates are usually created from reflected {@link Field}s. When the fields of a type can not be
+ * reflected, because one of them references a type that is missing from the classpath, candidates are
+ * created from the {@link ClassFileReader.ClassFileField fields} read from its class file instead. Candidates
+ * that are collected by the {@link ClassFileIntrospector} only reference their field type by its name, the
+ * type is never loaded.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
@@ -25,22 +29,75 @@ import java.util.stream.Stream;
 final class PropertyCandidate implements Comparable<PropertyCandidate> {
 
     @NonNull
-    private final Field field;
+    private final String name;
+
+    @NonNull
+    private final String typeName;
 
     @Nullable
-    private final Method getter;
+    private final Class<?> type;
+
+    private final int modifiers;
+    private final boolean deprecated;
 
     /**
      * Creates a new {@link PropertyCandidate} for the given field, locating its JavaBeans getter, if
-     * any, via {@link #findGetter(Class, Field)}.
+     * any, via {@link #findGetter(Class, String)}.
      *
-     * @param type the resolved type the field is declared on, cannot be {@literal null}.
+     * @param type the type whose property this field is, cannot be {@literal null}.
      * @param field the field this candidate wraps, cannot be {@literal null}.
      * @throws ReflectiveOperationException if the getter lookup fails.
      */
-    PropertyCandidate(@NonNull ResolvedType type, @NonNull Field field) throws ReflectiveOperationException {
-        this.field = field;
-        this.getter = findGetter(type.getErasedType(), field);
+    PropertyCandidate(@NonNull Class<?> type, @NonNull Field field) throws ReflectiveOperationException {
+        this(field.getName(), field.getType(), field.getModifiers(), field.isAnnotationPresent(Deprecated.class)
+                || isDeprecated(findGetter(type, field.getName())));
+    }
+
+    /**
+     * Creates a new {@link PropertyCandidate} for the given field that was read from the class file of the
+     * type, locating its JavaBeans getter, if any, via {@link #findGetter(Class, String)}.
+     *
+     * @param type the type whose property this field is, cannot be {@literal null}.
+     * @param field the field read from the class file, cannot be {@literal null}.
+     * @param fieldType the loaded type of the field, cannot be {@literal null}.
+     * @throws ReflectiveOperationException if the getter lookup fails.
+     */
+    PropertyCandidate(
+            @NonNull Class<?> type,
+            ClassFileReader.@NonNull ClassFileField field,
+            @NonNull Class<?> fieldType
+    ) throws ReflectiveOperationException {
+        this(field.name(), fieldType, field.access(), field.deprecated()
+                || isDeprecated(findGetter(type, field.name())));
+    }
+
+    /**
+     * Creates a new {@link PropertyCandidate} for the given field that was read from the class file of the
+     * type, whose field type is not loaded, and only referenced by its {@link #getTypeName() name}.
+     *
+     * @param field the field read from the class file, cannot be {@literal null}.
+     * @param deprecated whether the field, or its getter, is annotated {@link Deprecated}.
+     */
+    PropertyCandidate(ClassFileReader.@NonNull ClassFileField field, boolean deprecated) {
+        this(field.name(), field.typeName(), null, field.access(), deprecated);
+    }
+
+    private PropertyCandidate(@NonNull String name, @NonNull Class<?> type, int modifiers, boolean deprecated) {
+        this(name, ClassFileReader.typeName(type), type, modifiers, deprecated);
+    }
+
+    private PropertyCandidate(
+            @NonNull String name,
+            @NonNull String typeName,
+            @Nullable Class<?> type,
+            int modifiers,
+            boolean deprecated
+    ) {
+        this.name = name;
+        this.typeName = typeName;
+        this.type = type;
+        this.modifiers = modifiers;
+        this.deprecated = deprecated;
     }
 
     /**
@@ -50,17 +107,28 @@ final class PropertyCandidate implements Comparable<PropertyCandidate> {
      */
     @NonNull
     String getName() {
-        return field.getName();
+        return name;
     }
 
     /**
-     * The field's declared type, used to generate its JSON Schema.
+     * The name of the field's declared type, in the form of {@link ClassFileReader.ClassFileField#typeName()}.
      *
-     * @return the field type, never {@literal null}.
+     * @return the field type name, never {@literal null}.
      */
     @NonNull
+    String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * The field's declared type, used to generate its JSON Schema.
+     *
+     * @return the field type, or {@literal null} when the candidate was collected by the
+     *         {@link ClassFileIntrospector} and its type is only referenced by its {@link #getTypeName() name}.
+     */
+    @Nullable
     Class<?> getType() {
-        return field.getType();
+        return type;
     }
 
     /**
@@ -69,7 +137,7 @@ final class PropertyCandidate implements Comparable<PropertyCandidate> {
      * @return {@literal true} if the field is transient.
      */
     boolean isTransient() {
-        return Modifier.isTransient(field.getModifiers());
+        return Modifier.isTransient(modifiers);
     }
 
     /**
@@ -78,7 +146,7 @@ final class PropertyCandidate implements Comparable<PropertyCandidate> {
      * @return {@literal true} if the field is static.
      */
     boolean isStatic() {
-        return Modifier.isStatic(field.getModifiers());
+        return Modifier.isStatic(modifiers);
     }
 
     /**
@@ -88,17 +156,17 @@ final class PropertyCandidate implements Comparable<PropertyCandidate> {
      * @return {@literal true} if the field is required.
      */
     boolean isRequired() {
-        return getType().isPrimitive();
+        return type == null ? ClassFileIntrospector.isPrimitiveType(typeName) : type.isPrimitive();
     }
 
     /**
-     * Checks whether this field, or its {@link #findGetter(Class, Field) getter}, is annotated
+     * Checks whether this field, or its {@link #findGetter(Class, String) getter}, is annotated
      * {@link Deprecated}.
      *
      * @return {@literal true} if the field is deprecated.
      */
     boolean isDeprecated() {
-        return annotationFor(Deprecated.class) != null;
+        return deprecated;
     }
 
     @Override
@@ -106,14 +174,8 @@ final class PropertyCandidate implements Comparable<PropertyCandidate> {
         return getName().compareTo(o.getName());
     }
 
-    private <A extends Annotation> A annotationFor(Class<A> annotationType) {
-        A annotation = field.getAnnotation(annotationType);
-
-        if (annotation == null && getter != null) {
-            annotation = getter.getAnnotation(annotationType);
-        }
-
-        return annotation;
+    private static boolean isDeprecated(@Nullable Method getter) {
+        return getter != null && getter.isAnnotationPresent(Deprecated.class);
     }
 
     /**
@@ -121,18 +183,19 @@ final class PropertyCandidate implements Comparable<PropertyCandidate> {
      * turn, or the field's own name directly for a {@link Class#isRecord() record} component.
      *
      * @param type the type the field is declared on, cannot be {@literal null}.
-     * @param field the field to find a getter for, cannot be {@literal null}.
+     * @param fieldName the name of the field to find a getter for, cannot be {@literal null}.
      * @return the found getter method, or {@literal null} if none of the candidate names match a
      *         public method.
      * @throws ReflectiveOperationException if the record component accessor cannot be found.
      */
-    static Method findGetter(Class<?> type, Field field) throws ReflectiveOperationException {
+    @Nullable
+    static Method findGetter(Class<?> type, String fieldName) throws ReflectiveOperationException {
         // "non-prefix" naming convention of Java 14 java.lang.Record types
         if (type.isRecord()) {
-            return type.getMethod(field.getName());
+            return type.getMethod(fieldName);
         }
 
-        final Iterator<String> candidates = resolvePossibleGetterNames(field.getName())
+        final Iterator<String> candidates = resolvePossibleGetterNames(fieldName)
                 .iterator();
 
         while (candidates.hasNext()) {
@@ -153,7 +216,7 @@ final class PropertyCandidate implements Comparable<PropertyCandidate> {
         return null;
     }
 
-    private static Stream<String> resolvePossibleGetterNames(String fieldName) {
+    static Stream<String> resolvePossibleGetterNames(String fieldName) {
         final Stream.Builder<String> builder = Stream.builder();
 
         // for a field like "xIndex" also consider "getxIndex()" as getter method (according to JavaBeans specification)
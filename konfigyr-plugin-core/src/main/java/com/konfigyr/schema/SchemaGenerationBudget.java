@@ -0,0 +1,100 @@
+package com.konfigyr.schema;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Limits how much of the type graph of a single property is expanded when generating its JSON Schema.
+ * <p>
+ * The budget is checked every time an {@code array}, {@code object} or map type is about to be expanded.
+ * Once it is exhausted, the type is generated as an open {@code object} schema that is marked with the
+ * {@link SchemaGenerationContext#TRUNCATED_DESCRIPTION truncated description}, and the generation continues
+ * with the remaining properties of the enclosing types. Every property starts with its own budget.
+ * <p>
+ * The depth and node limits are deterministic, the same types always generate the same schemas. The time
+ * limit is not, as where a schema is truncated depends on how fast the machine generates it, and it is
+ * therefore disabled by default. It should only be used when reproducible metadata is not required.
+ *
+ * @param maxDepth the maximum number of nested types that are expanded, defaults to {@code 32}.
+ * @param maxNodes the maximum number of schemas that are generated, defaults to {@code 10000}.
+ * @param maxTime  the maximum time spent generating the schema, or {@literal null} for no time limit,
+ *                 which is the default.
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see SchemaGenerationContext
+ */
+@NullMarked
+public record SchemaGenerationBudget(int maxDepth, int maxNodes, @Nullable Duration maxTime) {
+
+    /**
+     * The default {@link SchemaGenerationBudget}, using every builder default.
+     */
+    public static final SchemaGenerationBudget DEFAULT = builder().build();
+
+    /**
+     * Creates a new builder for constructing {@link SchemaGenerationBudget} instances.
+     *
+     * @return builder instance, never {@literal null}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Fluent builder for creating {@link SchemaGenerationBudget} instances.
+     */
+    public static final class Builder {
+        private int maxDepth = 32;
+        private int maxNodes = 10_000;
+        private @Nullable Duration maxTime;
+
+        private Builder() {
+            // Private constructor to enforce the builder pattern
+        }
+
+        /**
+         * Sets the maximum number of nested types that are expanded.
+         *
+         * @param maxDepth the maximum depth of the generated schema.
+         * @return this builder instance for method chaining.
+         */
+        public Builder maxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of schemas that are generated.
+         *
+         * @param maxNodes the maximum number of nodes in the generated schema.
+         * @return this builder instance for method chaining.
+         */
+        public Builder maxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time spent generating the schema. Schemas that are truncated by the time limit
+         * depend on the load of the machine, the same types may not generate the same schemas.
+         *
+         * @param maxTime the maximum generation time, or {@literal null} for no time limit.
+         * @return this builder instance for method chaining.
+         */
+        public Builder maxTime(@Nullable Duration maxTime) {
+            this.maxTime = maxTime;
+            return this;
+        }
+
+        /**
+         * Constructs a new {@link SchemaGenerationBudget} instance with the configured values.
+         *
+         * @return a new budget instance, never {@literal null}.
+         */
+        public SchemaGenerationBudget build() {
+            return new SchemaGenerationBudget(maxDepth, maxNodes, maxTime);
+        }
+    }
+}
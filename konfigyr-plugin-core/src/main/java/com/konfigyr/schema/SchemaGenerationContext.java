@@ -8,12 +8,16 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
 import org.springframework.boot.configurationmetadata.Hints;
 import org.springframework.boot.configurationmetadata.ValueHint;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
@@ -21,6 +25,10 @@ import java.util.function.Predicate;
 
 /**
  * Context for schema generation.
+ * <p>
+ * A context is created for every property and keeps track of how much of its {@link SchemaGenerationBudget}
+ * was already used. Types that can not be expanded within the budget are generated as
+ * {@link #createTruncatedSchema() truncated schemas}.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
@@ -29,6 +37,18 @@ import java.util.function.Predicate;
 @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 public final class SchemaGenerationContext {
 
+    /**
+     * Description of the open {@code object} schemas that are generated in place of the types that could not
+     * be expanded, as the {@link SchemaGenerationBudget} of the property was exhausted.
+     */
+    public static final String TRUNCATED_DESCRIPTION = "Truncated, the schema generation budget of this property was exhausted";
+
+    /**
+     * Description of the open schemas that are generated in place of the recursive occurrences of a type that
+     * is already being expanded, see {@link #createRecursiveSchema(JsonSchemaType, int)}.
+     */
+    public static final String RECURSIVE_DESCRIPTION = "Recursive, same as an enclosing schema";
+
     /**
      * The Spring Boot configuration metadata property this context is generating a schema for.
      */
@@ -37,6 +57,21 @@ public final class SchemaGenerationContext {
     private final TypeResolver typeResolver;
     private final TypeLoader typeLoader;
 
+    /**
+     * The budget that limits how much of the type graph of the property is expanded.
+     */
+    @Getter
+    private final SchemaGenerationBudget budget;
+    private final long startedAt = System.nanoTime();
+
+    // the number of schema levels up to the enclosing schema of every created recursive schema builder
+    private final Map<JsonSchema.Builder<?, ?>, Integer> recursions = new IdentityHashMap<>();
+
+    private int depth;
+    private int height;
+    private int nodes;
+    private int truncations;
+
     /**
      * Resolves the given type to a {@link ResolvedType}.
      *
@@ -80,6 +115,133 @@ public final class SchemaGenerationContext {
         };
     }
 
+    /**
+     * Creates a new open {@code object} JSON Schema builder, that is marked as truncated, to be used in place
+     * of a type that can not be expanded within the {@link SchemaGenerationBudget}.
+     *
+     * @return the truncated {@link ObjectSchema JSON Schema} builder, never {@literal null}.
+     */
+    public ObjectSchema.Builder createTruncatedSchema() {
+        final ObjectSchema.Builder builder = createSchema(JsonSchemaType.OBJECT);
+        return builder.description(TRUNCATED_DESCRIPTION);
+    }
+
+    /**
+     * Creates a new open JSON Schema builder of the given type, that marks the recursive occurrence of a type
+     * that is already being expanded. The enclosing schema of that type is the given number of schema levels
+     * up, it is kept by the {@link JsonSchemaGenerator} rather than in the schema itself, so that the recursive
+     * occurrence can be written as a reference to it, see {@link JsonSchemaGenerator#getRecursiveSchemas}.
+     *
+     * @param type the JSON Schema type of the recursive occurrence, never {@literal null}.
+     * @param levels the number of schema levels up to the enclosing schema, at least {@code 1}.
+     * @param <T> the concrete type of the JSON Schema.
+     * @param <B> the concrete type of the JSON Schema builder.
+     * @return the recursive {@link JsonSchema JSON Schema} builder, never {@literal null}.
+     */
+    public <T extends JsonSchema, B extends JsonSchema.Builder<T, B>> B createRecursiveSchema(JsonSchemaType type, int levels) {
+        final B builder = createSchema(type);
+        recursions.put(builder, levels);
+        return builder.description(RECURSIVE_DESCRIPTION);
+    }
+
+    /**
+     * Returns the number of schema levels up to the enclosing schema of the given builder, when it was created
+     * as a {@link #createRecursiveSchema(JsonSchemaType, int) recursive schema} by this context.
+     *
+     * @param builder the JSON Schema builder to check, cannot be {@literal null}.
+     * @return the number of levels, or {@code -1} when the builder is not the one of a recursive schema.
+     */
+    int recursiveLevels(JsonSchema.Builder<?, ?> builder) {
+        return recursions.getOrDefault(builder, -1);
+    }
+
+    /**
+     * Checks whether any type was truncated while generating the schema of the property.
+     *
+     * @return {@literal true} when at least one type could not be expanded within the budget.
+     */
+    public boolean isTruncated() {
+        return truncations > 0;
+    }
+
+    /**
+     * Counts a schema that is being generated against the node budget of the property.
+     */
+    void count() {
+        nodes++;
+    }
+
+    /**
+     * Enters a type that is about to be expanded, when the budget of the property allows it. Every entered
+     * type must be {@link #exit() exited} once it is expanded.
+     *
+     * @return {@literal true} when the type can be expanded, {@literal false} when the budget is exhausted.
+     */
+    boolean enter() {
+        if (depth >= budget.maxDepth() || nodes > budget.maxNodes() || isExpired()) {
+            truncations++;
+            return false;
+        }
+
+        height = Math.max(height, ++depth);
+        return true;
+    }
+
+    /**
+     * Exits the type that was last {@link #enter() entered}.
+     */
+    void exit() {
+        depth--;
+    }
+
+    /**
+     * Starts measuring the budget that is used to expand the type that was last {@link #enter() entered}.
+     *
+     * @return the measurement to {@link #complete(Measurement) complete}, never {@literal null}.
+     */
+    Measurement measure() {
+        final Measurement measurement = new Measurement(height, nodes, truncations);
+        height = depth;
+        return measurement;
+    }
+
+    /**
+     * Completes the measurement of the budget that was used to expand the type that was last entered.
+     *
+     * @param measurement the started measurement, cannot be {@literal null}.
+     * @return the used budget, or {@literal null} when a type was truncated while expanding it.
+     */
+    @Nullable
+    Usage complete(Measurement measurement) {
+        final Usage usage = truncations == measurement.truncations()
+                ? new Usage(height - depth + 1, nodes - measurement.nodes() + 1) : null;
+
+        height = Math.max(height, measurement.height());
+        return usage;
+    }
+
+    /**
+     * Uses the budget of an already expanded type, that is reused for the type that was last entered, when
+     * expanding that type again would not have exhausted the remaining budget of the property.
+     *
+     * @param usage the budget used to expand the reused type, cannot be {@literal null}.
+     * @return {@literal true} when the type can be reused, {@literal false} when it needs to be expanded again.
+     */
+    boolean use(Usage usage) {
+        if (depth + usage.height() - 1 > budget.maxDepth() || nodes + usage.nodes() - 1 > budget.maxNodes() || isExpired()) {
+            return false;
+        }
+
+        height = Math.max(height, depth + usage.height() - 1);
+        nodes += usage.nodes() - 1;
+        return true;
+    }
+
+    private boolean isExpired() {
+        final Duration maxTime = budget.maxTime();
+        return maxTime != null && System.nanoTime() - startedAt > maxTime.toNanos();
+    }
+
     /**
      * Extracts the key hints from the configuration metadata property that can be used to provide example
      * values for the JSON Schema type definition.
@@ -100,6 +262,23 @@ public final class SchemaGenerationContext {
         return extractHints(Hints::getValueHints);
     }
 
+    /**
+     * Returns the fingerprint of the hints that are used when generating the JSON Schema. Schemas that are
+     * generated for the same type by contexts with equal hint fingerprints are equal as well.
+     *
+     * @return the hint fingerprint, an empty list when the property defines no usable hints.
+     */
+    List<Collection<String>> hintFingerprint() {
+        final Collection<String> keys = extractKeyHints().orElse(List.of());
+        final Collection<String> values = extractValueHints().orElse(List.of());
+
+        if (keys.isEmpty() && values.isEmpty()) {
+            return List.of();
+        }
+
+        return List.of(keys, values);
+    }
+
     private Optional<Collection<String>> extractHints(Function<Hints, Collection<ValueHint>> provider) {
         final Hints hints = configurationMetadataProperty.getHints();
 
@@ -124,4 +303,17 @@ public final class SchemaGenerationContext {
 
         return Optional.of(examples);
     }
+
+    /**
+     * The state of the budget when the measurement of an expanded type was started.
+     */
+    record Measurement(int height, int nodes, int truncations) {
+    }
+
+    /**
+     * The budget used to expand a type, its {@code height} is the number of nested types that were expanded,
+     * including itself, and its {@code nodes} the number of generated schemas, including its own.
+     */
+    record Usage(int height, int nodes) {
+    }
 }
@@ -8,13 +8,24 @@ import com.konfigyr.artifactory.StringSchema;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
 /**
  * Implementation of {@link SchemaDefinitionProvider} that provides schema definitions for Spring
- * specific types, like {@code Resource}, {@code DataSize} or {@code MimeType}.
+ * specific types, like {@code Resource}, {@code DataSize} or {@code MimeType}, and other well-known
+ * value types of libraries commonly used with Spring Boot, like Micrometer, that are bound from plain
+ * configuration property values.
+ * <p>
+ * Types that are not present on the classpath are not registered. Registered types are matched using a
+ * {@link TypeIndex}, so that the first registered type, or supertype, of the requested type is found
+ * without checking every registered type. Types that are described by their class file, and are not loaded,
+ * are matched by the names of their supertypes instead, see {@link #provide(ClassFileIntrospector.ClassFileType)}.
+ * <p>
+ * A new schema builder is created for every provided definition, builders are mutable and may be
+ * customized by the generator, or used by multiple threads generating schemas at the same time.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
@@ -22,28 +33,60 @@ import java.util.function.Supplier;
 @NullMarked
 class SpringSchemaDefinitionProvider<T extends JsonSchema, B extends JsonSchema.Builder<T, B>> implements SchemaDefinitionProvider<T, B> {
 
-    private final Map<Class<?>, JsonSchema.Builder<?, ?>> schemas;
+    private static final Map<String, Supplier<JsonSchema.Builder<?, ?>>> DEFINITIONS = createDefinitions();
+
+    private final TypeIndex<Supplier<JsonSchema.Builder<?, ?>>> schemas;
 
     SpringSchemaDefinitionProvider(TypeLoader typeLoader) {
-        schemas = new LinkedHashMap<>();
-        register(schemas, typeLoader, "org.springframework.core.io.Resource", () -> StringSchema.builder().format(KonfigyrFormat.RESOURCE));
-        register(schemas, typeLoader, "org.springframework.util.MimeType", () -> StringSchema.builder().format(KonfigyrFormat.MIME_TYPE));
-        register(schemas, typeLoader, "org.springframework.util.unit.DataSize", () -> StringSchema.builder().format(KonfigyrFormat.DATA_SIZE));
+        final Map<Class<?>, Supplier<JsonSchema.Builder<?, ?>>> builders = new LinkedHashMap<>();
+
+        DEFINITIONS.forEach((typeName, supplier) -> register(builders, typeLoader, typeName, supplier));
+
+        schemas = new TypeIndex<>(builders);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public @Nullable B provide(ResolvedType type, SchemaGenerationContext context) {
-        for (Map.Entry<Class<?>, JsonSchema.Builder<?, ?>> entry : schemas.entrySet()) {
-            if (type.isInstanceOf(entry.getKey())) {
-                return (B) entry.getValue();
+        final Supplier<JsonSchema.Builder<?, ?>> supplier = schemas.find(type.getErasedType());
+        return supplier == null ? null : (B) supplier.get();
+    }
+
+    /**
+     * Provides the schema definition for a type that is described by its class file, matching the first
+     * registered type that is the type itself, or one of its supertypes, by its name.
+     *
+     * @param type the type described by its class file, cannot be {@literal null}.
+     * @return the schema definition, or {@literal null} if the type is not a registered type.
+     */
+    static JsonSchema.@Nullable Builder<?, ?> provide(ClassFileIntrospector.ClassFileType type) {
+        for (Map.Entry<String, Supplier<JsonSchema.Builder<?, ?>>> definition : DEFINITIONS.entrySet()) {
+            if (type.isInstanceOf(definition.getKey())) {
+                return definition.getValue().get();
             }
         }
+
         return null;
     }
 
+    private static Map<String, Supplier<JsonSchema.Builder<?, ?>>> createDefinitions() {
+        final Map<String, Supplier<JsonSchema.Builder<?, ?>>> definitions = new LinkedHashMap<>();
+
+        /* Spring Framework */
+        definitions.put("org.springframework.core.io.Resource", () -> StringSchema.builder().format(KonfigyrFormat.RESOURCE));
+        definitions.put("org.springframework.util.MimeType", () -> StringSchema.builder().format(KonfigyrFormat.MIME_TYPE));
+        definitions.put("org.springframework.util.unit.DataSize", () -> StringSchema.builder().format(KonfigyrFormat.DATA_SIZE));
+        definitions.put("org.springframework.http.HttpMethod", StringSchema::builder);
+
+        /* Micrometer metrics, values can either be a number or a duration */
+        definitions.put("org.springframework.boot.actuate.autoconfigure.metrics.MeterValue", StringSchema::builder);
+        definitions.put("org.springframework.boot.actuate.autoconfigure.metrics.ServiceLevelObjectiveBoundary", StringSchema::builder);
+
+        return Collections.unmodifiableMap(definitions);
+    }
+
     static void register(
-            Map<Class<?>, JsonSchema.Builder<?, ?>> builders,
+            Map<Class<?>, Supplier<JsonSchema.Builder<?, ?>>> builders,
             TypeLoader typeLoader,
             String typeName,
             Supplier<JsonSchema.Builder<?, ?>> supplier
@@ -56,6 +99,6 @@ class SpringSchemaDefinitionProvider<T extends JsonSchema, B extends JsonSchema.
             return;
         }
 
-        builders.put(type, supplier.get());
+        builders.putIfAbsent(type, supplier);
     }
 }
@@ -0,0 +1,105 @@
+package com.konfigyr.schema;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ordered index of values registered for Java types, that finds the value registered for a type, or for the
+ * first registered supertype of a type, without scanning the registered types.
+ * <p>
+ * A type matches the value registered for itself first. When there is none, it matches the value of the
+ * supertype, be it a superclass or an implemented interface, that was registered first. This is the same value
+ * that a scan over the registered types, in their registration order, checking whether the type is assignable
+ * to them would find. Supertype matches are computed once per type, from its supertype closure, and cached.
+ * <p>
+ * The index is immutable once created and can be safely used by multiple threads.
+ *
+ * @param <V> the type of the indexed values.
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ */
+@NullMarked
+final class TypeIndex<V> {
+
+    private final List<V> values;
+    private final Map<Class<?>, Integer> positions;
+    private final Map<Class<?>, Optional<V>> matches = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link TypeIndex} for the given values, in the iteration order of the map.
+     *
+     * @param values the values keyed by the type they are registered for, cannot be {@literal null}.
+     */
+    TypeIndex(Map<Class<?>, V> values) {
+        this.values = new ArrayList<>(values.size());
+        this.positions = new IdentityHashMap<>(values.size());
+
+        values.forEach((type, value) -> {
+            positions.put(type, this.values.size());
+            this.values.add(value);
+        });
+    }
+
+    /**
+     * Returns the value that is registered for exactly the given type.
+     *
+     * @param type the type to look up, cannot be {@literal null}.
+     * @return the registered value, or {@literal null} when no value is registered for this type.
+     */
+    @Nullable
+    V get(Class<?> type) {
+        final Integer position = positions.get(type);
+        return position == null ? null : values.get(position);
+    }
+
+    /**
+     * Finds the value that is registered for the given type, or for its first registered supertype.
+     *
+     * @param type the type to look up, cannot be {@literal null}.
+     * @return the matching value, or {@literal null} when neither the type nor any of its supertypes
+     * are registered.
+     */
+    @Nullable
+    V find(Class<?> type) {
+        final V value = get(type);
+
+        if (value != null) {
+            return value;
+        }
+
+        return matches.computeIfAbsent(type, this::findSupertype).orElse(null);
+    }
+
+    private Optional<V> findSupertype(Class<?> type) {
+        final Set<Class<?>> closure = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectSupertypes(type, closure);
+
+        int first = Integer.MAX_VALUE;
+
+        for (Class<?> supertype : closure) {
+            final Integer position = positions.get(supertype);
+
+            if (position != null && position < first) {
+                first = position;
+            }
+        }
+
+        return first == Integer.MAX_VALUE ? Optional.empty() : Optional.of(values.get(first));
+    }
+
+    private static void collectSupertypes(@Nullable Class<?> type, Set<Class<?>> closure) {
+        if (type == null || !closure.add(type)) {
+            return;
+        }
+
+        collectSupertypes(type.getSuperclass(), closure);
+
+        for (Class<?> iface : type.getInterfaces()) {
+            collectSupertypes(iface, closure);
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.konfigyr;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactMetadataDirectoryWatcherTest {
+
+    private static final String METADATA_PATH = "META-INF/spring-configuration-metadata.json";
+
+    @TempDir
+    Path dir;
+
+    ArtifactMetadataDirectoryWatcher watcher;
+
+    @BeforeEach
+    void setup() throws IOException {
+        watcher = new ArtifactMetadataDirectoryWatcher();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        watcher.close();
+    }
+
+    @Test
+    @DisplayName("should reuse the scan result of directories whose metadata did not change")
+    void shouldReuseUnchangedScanResults() throws IOException {
+        writeMetadata("{\"properties\":[]}");
+
+        final List<ArtifactMetadataResource> resources = watcher.scan(dir.toFile());
+
+        assertThat(resources)
+                .singleElement()
+                .returns(dir.resolve(METADATA_PATH).toUri().toString(), ArtifactMetadataResource::name)
+                .extracting(this::readContent)
+                .isEqualTo("{\"properties\":[]}");
+
+        assertThat(watcher.scan(dir.toFile()))
+                .isSameAs(resources);
+    }
+
+    @Test
+    @DisplayName("should scan directories again once their metadata files are modified")
+    void shouldRescanModifiedMetadata() throws IOException, InterruptedException {
+        final List<File> notifications = new CopyOnWriteArrayList<>();
+        watcher.addListener(notifications::add);
+
+        writeMetadata("{\"properties\":[]}");
+        assertThat(watcher.scan(dir.toFile())).hasSize(1);
+
+        writeMetadata("{\"groups\":[],\"properties\":[]}");
+
+        assertThat(awaitChanges())
+                .containsExactly(dir.toAbsolutePath().normalize().toFile());
+
+        assertThat(notifications)
+                .containsExactly(dir.toAbsolutePath().normalize().toFile());
+
+        assertThat(watcher.scan(dir.toFile()))
+                .singleElement()
+                .extracting(this::readContent)
+                .isEqualTo("{\"groups\":[],\"properties\":[]}");
+    }
+
+    @Test
+    @DisplayName("should scan directories again once metadata files are created in them")
+    void shouldRescanCreatedMetadata() throws IOException, InterruptedException {
+        assertThat(watcher.scan(dir.toFile())).isEmpty();
+
+        writeMetadata("{}");
+
+        assertThat(awaitChanges()).hasSize(1);
+        assertThat(watcher.scan(dir.toFile())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should scan directories again once their metadata files are modified, before the change is reported")
+    void shouldRescanModifiedMetadataWithoutEvents() throws IOException {
+        writeMetadata("{\"properties\":[]}");
+        assertThat(watcher.scan(dir.toFile())).hasSize(1);
+
+        writeMetadata("{\"groups\":[],\"properties\":[]}");
+
+        assertThat(watcher.scan(dir.toFile()))
+                .singleElement()
+                .extracting(this::readContent)
+                .isEqualTo("{\"groups\":[],\"properties\":[]}");
+    }
+
+    @Test
+    @DisplayName("should watch the metadata locations and nested archives of a custom metadata path matcher")
+    void shouldWatchCustomMetadataLocations() throws IOException, InterruptedException {
+        watcher.close();
+        watcher = new ArtifactMetadataDirectoryWatcher(MetadataPathMatcher.of(
+                Set.of("META-INF/konfigyr/*.json"), Set.of("lib/*.jar")
+        ));
+
+        writeMetadata("{}");
+        assertThat(watcher.scan(dir.toFile())).isEmpty();
+
+        final Path metadata = dir.resolve("META-INF/konfigyr/library.json");
+        Files.createDirectories(metadata.getParent());
+        Files.writeString(metadata, "{\"properties\":[]}");
+
+        assertThat(awaitChanges()).hasSize(1);
+
+        assertThat(watcher.scan(dir.toFile()))
+                .singleElement()
+                .returns(ArtifactMetadataResource.of(metadata).name(), ArtifactMetadataResource::name)
+                .extracting(this::readContent)
+                .isEqualTo("{\"properties\":[]}");
+    }
+
+    @Test
+    @DisplayName("should scan different directories from multiple threads at the same time")
+    void shouldScanConcurrently() throws Exception {
+        final List<Path> directories = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++) {
+            final Path metadata = dir.resolve("module-" + i).resolve(METADATA_PATH);
+            Files.createDirectories(metadata.getParent());
+            Files.writeString(metadata, "{\"properties\":[" + i + "]}");
+            directories.add(metadata.getParent().getParent());
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            final List<Future<List<ArtifactMetadataResource>>> scans = new ArrayList<>();
+
+            for (int round = 0; round < 4; round++) {
+                for (Path directory : directories) {
+                    scans.add(executor.submit(() -> watcher.scan(directory.toFile())));
+                }
+            }
+
+            for (int i = 0; i < scans.size(); i++) {
+                assertThat(scans.get(i).get())
+                        .singleElement()
+                        .extracting(this::readContent)
+                        .isEqualTo("{\"properties\":[" + (i % directories.size()) + "]}");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(watcher.scan(directories.getFirst().toFile()))
+                .isSameAs(watcher.scan(directories.getFirst().toFile()));
+    }
+
+    @Test
+    @DisplayName("should scan files and missing directories directly")
+    void shouldScanFilesDirectly() throws IOException {
+        assertThat(watcher.scan(dir.resolve("missing").toFile())).isEmpty();
+        assertThat(watcher.poll()).isEmpty();
+    }
+
+    private void writeMetadata(String contents) throws IOException {
+        final Path metadata = dir.resolve(METADATA_PATH);
+        Files.createDirectories(metadata.getParent());
+        Files.writeString(metadata, contents);
+    }
+
+    private Set<File> awaitChanges() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 30_000;
+        Set<File> changes;
+
+        // watch services deliver their events asynchronously, some of them by polling the file system
+        while ((changes = watcher.poll()).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        return changes;
+    }
+
+    private String readContent(ArtifactMetadataResource resource) {
+        try (var is = resource.open()) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
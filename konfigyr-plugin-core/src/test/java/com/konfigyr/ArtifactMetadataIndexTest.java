@@ -0,0 +1,226 @@
+package com.konfigyr;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ArtifactMetadataIndexTest {
+
+    private static final String METADATA_PATH = "META-INF/spring-configuration-metadata.json";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should scan jars that are not yet present in the index")
+    void shouldScanUnknownJars() throws IOException {
+        final File jar = createJar("library.jar", "{\"properties\":[]}");
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("index/scan.bin"))) {
+            assertThat(index.scan(jar))
+                    .singleElement()
+                    .returns(METADATA_PATH, ArtifactMetadataResource::name)
+                    .extracting(this::readContent)
+                    .isEqualTo("{\"properties\":[]}");
+        }
+
+        assertThat(dir.resolve("index/scan.bin")).exists();
+    }
+
+    @Test
+    @DisplayName("should resolve recorded jars from a persisted index")
+    void shouldResolveRecordedJars() throws IOException {
+        final File jar = createJar("library.jar", "{\"properties\":[]}");
+        final File empty = createJar("empty.jar", null);
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            index.scan(jar);
+            index.scan(empty);
+        }
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(jar))
+                    .singleElement()
+                    .extracting(this::readContent)
+                    .isEqualTo("{\"properties\":[]}");
+
+            assertThat(index.scan(empty)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("should resolve jars with the same contents by their content hash")
+    void shouldResolveJarsByContentHash() throws IOException {
+        final File jar = createJar("library.jar", "{\"properties\":[]}");
+        final Path copy = Files.copy(jar.toPath(), dir.resolve("copy.jar"));
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            index.scan(jar);
+
+            assertThat(index.scan(copy.toFile()))
+                    .singleElement()
+                    .extracting(this::readContent)
+                    .isEqualTo("{\"properties\":[]}");
+        }
+    }
+
+    @Test
+    @DisplayName("should re-scan jars whose contents have changed since they were recorded")
+    void shouldRescanChangedJars() throws IOException {
+        final File jar = createJar("library.jar", null);
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(jar)).isEmpty();
+        }
+
+        createJar("library.jar", "{\"groups\":[],\"properties\":[]}");
+        assertThat(jar.setLastModified(jar.lastModified() + 5000)).isTrue();
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(jar))
+                    .singleElement()
+                    .extracting(this::readContent)
+                    .isEqualTo("{\"groups\":[],\"properties\":[]}");
+        }
+    }
+
+    @Test
+    @DisplayName("should re-scan jars whose metadata has changed without changing their size")
+    void shouldRescanJarsWithChangedMetadata() throws IOException {
+        final File jar = createJar("library.jar", "{\"properties\":[1]}");
+        final long size = jar.length();
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            index.scan(jar);
+        }
+
+        createJar("library.jar", "{\"properties\":[2]}");
+        assertThat(jar.setLastModified(jar.lastModified() + 5000)).isTrue();
+        assertThat(jar).hasSize(size);
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(jar))
+                    .singleElement()
+                    .extracting(this::readContent)
+                    .isEqualTo("{\"properties\":[2]}");
+        }
+    }
+
+    @Test
+    @DisplayName("should record scan results for the metadata path matcher the jars were scanned with")
+    void shouldRecordScanResultsPerMatcher() throws IOException {
+        final File jar = createJar("library.jar", "{\"properties\":[]}");
+        final MetadataPathMatcher matcher = MetadataPathMatcher.of(List.of("META-INF/konfigyr/*.json"), List.of());
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(jar)).hasSize(1);
+            assertThat(index.scan(jar, matcher)).isEmpty();
+        }
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(jar)).hasSize(1);
+            assertThat(index.scan(jar, matcher)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("should scan directories directly without recording them")
+    void shouldScanDirectoriesDirectly() throws IOException {
+        final Path metadata = dir.resolve("classes").resolve(METADATA_PATH);
+        Files.createDirectories(metadata.getParent());
+        Files.writeString(metadata, "{}");
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(dir.resolve("classes").toFile())).hasSize(1);
+        }
+
+        assertThat(dir.resolve("scan.bin")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("should discard corrupted index files and scan the jars again")
+    void shouldDiscardCorruptedIndex() throws IOException {
+        final File jar = createJar("library.jar", "{}");
+        Files.writeString(dir.resolve("scan.bin"), "definitely not an index file");
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("scan.bin"))) {
+            assertThat(index.scan(jar)).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("should prune the least recently used records when the index grows beyond its limit")
+    void shouldPruneLeastRecentlyUsedRecords() throws IOException {
+        final List<File> jars = List.of(
+                createJar("first.jar", "{}"),
+                createJar("second.jar", null),
+                createJar("third.jar", "{\"properties\":[]}")
+        );
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("unbounded.bin"))) {
+            for (File jar : jars) {
+                index.scan(jar);
+            }
+        }
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("bounded.bin"), 2)) {
+            for (File jar : jars) {
+                index.scan(jar);
+            }
+        }
+
+        assertThat(Files.size(dir.resolve("bounded.bin")))
+                .isLessThan(Files.size(dir.resolve("unbounded.bin")));
+
+        try (var index = new ArtifactMetadataIndex(dir.resolve("bounded.bin"), 2)) {
+            assertThat(index.scan(jars.getFirst())).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("should reject a non-positive maximum number of entries")
+    void shouldRejectInvalidMaxEntries() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ArtifactMetadataIndex(dir.resolve("scan.bin"), 0));
+    }
+
+    private File createJar(String name, String metadata) throws IOException {
+        final Path jar = dir.resolve(name);
+
+        try (var out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            out.write("Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+
+            if (metadata != null) {
+                out.putNextEntry(new ZipEntry(METADATA_PATH));
+                out.write(metadata.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        return jar.toFile();
+    }
+
+    private String readContent(ArtifactMetadataResource resource) {
+        try (var is = resource.open()) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
@@ -8,30 +8,38 @@ import com.konfigyr.artifactory.StringSchema;
 import com.konfigyr.test.PropertyDescriptorAssert;
 import com.konfigyr.test.ResourceUtils;
 import org.assertj.core.data.Index;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ArtifactMetadataParserTest {
 
-    ArtifactMetadataParser resolver;
-
-    @BeforeEach
-    void setup() {
-        resolver = new ArtifactMetadataParser(ClassLoader.getSystemClassLoader());
-    }
-
-    @Test
+    @EnumSource(ArtifactMetadataParser.Engine.class)
+    @ParameterizedTest(name = "using {0} engine")
     @DisplayName("should parse Spring Boot configuration metadata and create an Artifact Metadata for upload")
-    void shouldParseMetadata() throws Exception {
+    void shouldParseMetadata(ArtifactMetadataParser.Engine engine) throws Exception {
+        final ArtifactMetadataParser resolver = ArtifactMetadataParser.builder()
+                .classLoader(ClassLoader.getSystemClassLoader())
+                .engine(engine)
+                .build();
         final List<PropertyDescriptor> descriptors = resolver.parse(
                 ResourceUtils.loadMetadata(
                         "additional-spring-configuration-metadata.json",
@@ -104,18 +112,159 @@ class ArtifactMetadataParserTest {
                 );
     }
 
+    @EnumSource(ArtifactMetadataParser.Engine.class)
+    @ParameterizedTest(name = "using {0} engine")
+    @DisplayName("should resolve properties concurrently in the same order as sequentially resolved properties")
+    void shouldResolvePropertiesConcurrently(ArtifactMetadataParser.Engine engine) {
+        final String[] types = {
+                "java.lang.String", "java.lang.Integer", "java.time.Duration", "java.util.List<java.lang.String>",
+                "java.util.Map<java.lang.String,java.lang.Long>", "com.konfigyr.TestEnumeration", "com.acme.Unknown"
+        };
+
+        final List<String> properties = new ArrayList<>();
+
+        for (int i = 0; i < ArtifactMetadataParser.BATCH_SIZE * 10; i++) {
+            properties.add("{\"name\":\"acme.property-%03d\",\"type\":\"%s\"}".formatted(i, types[i % types.length]));
+        }
+
+        Collections.shuffle(properties, new Random(42));
+
+        final ArtifactMetadataResource metadata = ArtifactMetadataResource.of(
+                "spring-configuration-metadata.json",
+                ("{\"properties\":[" + String.join(",", properties) + "]}").getBytes(StandardCharsets.UTF_8)
+        );
+
+        final List<PropertyDescriptor> expected = ArtifactMetadataParser.builder()
+                .classLoader(ClassLoader.getSystemClassLoader())
+                .engine(engine)
+                .build()
+                .parse(metadata);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            final ArtifactMetadataParser parser = ArtifactMetadataParser.builder()
+                    .classLoader(ClassLoader.getSystemClassLoader())
+                    .engine(engine)
+                    .executor(executor)
+                    .build();
+
+            assertThat(parser.parse(metadata))
+                    .hasSize(ArtifactMetadataParser.BATCH_SIZE * 10)
+                    .isSortedAccordingTo(PropertyDescriptor::compareTo)
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(expected);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @EnumSource(ArtifactMetadataParser.Engine.class)
+    @ParameterizedTest(name = "using {0} engine")
+    @DisplayName("should pass parsed property descriptors to the consumer without collecting them")
+    void shouldParseMetadataIntoConsumer(ArtifactMetadataParser.Engine engine) throws Exception {
+        final ArtifactMetadataParser resolver = ArtifactMetadataParser.builder()
+                .classLoader(ClassLoader.getSystemClassLoader())
+                .engine(engine)
+                .build();
+        final var metadata = ResourceUtils.loadMetadata(
+                "additional-spring-configuration-metadata.json",
+                "spring-configuration-metadata.json"
+        );
+
+        final List<PropertyDescriptor> descriptors = new ArrayList<>();
+        resolver.parse(metadata, descriptors::add);
+
+        assertThat(descriptors)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(resolver.parse(metadata));
+    }
+
     @Test
+    @DisplayName("should resolve streamed properties concurrently while the metadata files are still being read")
+    void shouldResolveStreamedPropertiesWhileReading() {
+        final int count = ArtifactMetadataParser.MAX_PENDING_BATCHES + 2;
+        final AtomicInteger opened = new AtomicInteger();
+        final List<ArtifactMetadataResource> resources = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            final List<String> properties = new ArrayList<>();
+
+            for (int j = 0; j < ArtifactMetadataParser.BATCH_SIZE; j++) {
+                properties.add("{\"name\":\"acme.resource-%02d.property-%02d\",\"type\":\"java.lang.String\"}".formatted(i, j));
+            }
+
+            final ArtifactMetadataResource resource = ArtifactMetadataResource.of(
+                    "resource-%02d.json".formatted(i),
+                    ("{\"properties\":[" + String.join(",", properties) + "]}").getBytes(StandardCharsets.UTF_8)
+            );
+
+            resources.add(new ArtifactMetadataResource() {
+                @Override
+                public String name() {
+                    return resource.name();
+                }
+
+                @Override
+                public InputStream open() throws IOException {
+                    opened.incrementAndGet();
+                    return resource.open();
+                }
+            });
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Integer> reads = new ArrayList<>();
+
+        try {
+            ArtifactMetadataParser.builder()
+                    .classLoader(ClassLoader.getSystemClassLoader())
+                    .engine(ArtifactMetadataParser.Engine.STREAMING)
+                    .executor(executor)
+                    .build()
+                    .parse(resources, descriptor -> reads.add(opened.get()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every resource is opened twice by the streaming reader, once the pending batches are full the first batch
+        // is consumed while the first property of the last resource is being scheduled, before it is read any further
+        assertThat(reads)
+                .hasSize(count * ArtifactMetadataParser.BATCH_SIZE)
+                .first()
+                .isEqualTo(count + ArtifactMetadataParser.MAX_PENDING_BATCHES + 2);
+    }
+
+    @Test
+    @DisplayName("should require a class loader when building the parser")
+    void shouldRequireClassLoader() {
+        assertThatThrownBy(() -> ArtifactMetadataParser.builder().engine(ArtifactMetadataParser.Engine.STREAMING).build())
+                .isInstanceOf(NullPointerException.class)
+                .hasMessageContaining("classLoader");
+    }
+
+    @EnumSource(ArtifactMetadataParser.Engine.class)
+    @ParameterizedTest(name = "using {0} engine")
     @DisplayName("should fail to parse invalid Spring Boot configuration metadata files")
-    void shouldFailToParseInvalidMetadataFiles() throws Exception {
+    void shouldFailToParseInvalidMetadataFiles(ArtifactMetadataParser.Engine engine) throws Exception {
+        final ArtifactMetadataParser resolver = ArtifactMetadataParser.builder()
+                .classLoader(ClassLoader.getSystemClassLoader())
+                .engine(engine)
+                .build();
         final var metadata = ResourceUtils.loadMetadata("invalid-spring-configuration-metadata.json");
 
         assertThatThrownBy(() -> resolver.parse(metadata))
                 .isInstanceOf(IllegalStateException.class);
     }
 
-    @Test
+    @EnumSource(ArtifactMetadataParser.Engine.class)
+    @ParameterizedTest(name = "using {0} engine")
     @DisplayName("should fail to parse unknown Spring Boot configuration metadata files")
-    void shouldFailToParseNonExistingMetadataFiles() {
+    void shouldFailToParseNonExistingMetadataFiles(ArtifactMetadataParser.Engine engine) {
+        final ArtifactMetadataParser resolver = ArtifactMetadataParser.builder()
+                .classLoader(ClassLoader.getSystemClassLoader())
+                .engine(engine)
+                .build();
         final var metadata = ArtifactMetadataResource.of(new File("non-existent.json"));
 
         assertThatThrownBy(() -> resolver.parse(metadata))
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -13,11 +14,13 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 class ArtifactMetadataScannerTest {
 
@@ -67,6 +70,23 @@ class ArtifactMetadataScannerTest {
                 .containsOnly(METADATA_CONTENTS);
     }
 
+    @Test
+    @DisplayName("should lazily stream jar entry resources each time they are opened")
+    void shouldStreamJarResourcesOnOpen() throws IOException {
+        final File jar = createJar("artifact.jar", Map.of(
+                "META-INF/spring-configuration-metadata.json", METADATA_CONTENTS
+        ));
+
+        final ArtifactMetadataResource resource = ArtifactMetadataScanner.scan(jar).getFirst();
+
+        assertThat(resource)
+                .isInstanceOf(JarEntryArtifactMetadataResource.class)
+                .returns("META-INF/spring-configuration-metadata.json", ArtifactMetadataResource::name);
+
+        assertThat(readContent(resource)).isEqualTo(METADATA_CONTENTS);
+        assertThat(readContent(resource)).isEqualTo(METADATA_CONTENTS);
+    }
+
     @Test
     @DisplayName("should ignore jar entries that are not well-known configuration metadata paths")
     void shouldIgnoreUnrelatedJarEntries() throws IOException {
@@ -116,6 +136,241 @@ class ArtifactMetadataScannerTest {
                 .isInstanceOf(IOException.class);
     }
 
+    @Test
+    @DisplayName("should scan a batch of artifacts and return results in the order they were given")
+    void shouldScanBatchInInputOrder() throws IOException {
+        final File metadata = createJar("metadata.jar", Map.of(
+                "META-INF/spring-configuration-metadata.json", METADATA_CONTENTS
+        ));
+        final File empty = createJar("empty.jar", Map.of("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n"));
+        final File missing = dir.resolve("missing.jar").toFile();
+
+        final Map<File, ArtifactMetadataScanner.Result> results = ArtifactMetadataScanner.scanAll(
+                List.of(missing, metadata, dir.toFile(), empty, metadata)
+        );
+
+        assertThat(results)
+                .containsOnlyKeys(missing, metadata, dir.toFile(), empty)
+                .allSatisfy((artifact, result) -> assertThat(result.isFailed()).isFalse());
+
+        assertThat(results.keySet())
+                .containsExactly(missing, metadata, dir.toFile(), empty);
+
+        assertThat(results.get(metadata).resources())
+                .singleElement()
+                .extracting(this::readContent)
+                .isEqualTo(METADATA_CONTENTS);
+
+        assertThat(results.get(empty).resources()).isEmpty();
+        assertThat(results.get(missing).resources()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should report per-artifact failures without aborting the batch scan")
+    void shouldReportBatchFailuresPerArtifact() throws IOException {
+        final Path corrupt = dir.resolve("corrupt.jar");
+        Files.writeString(corrupt, "not a zip file");
+
+        final File metadata = createJar("metadata.jar", Map.of(
+                "META-INF/spring-configuration-metadata.json", METADATA_CONTENTS
+        ));
+
+        final Map<File, ArtifactMetadataScanner.Result> results = ArtifactMetadataScanner.scanAll(
+                List.of(corrupt.toFile(), metadata)
+        );
+
+        assertThat(results.get(corrupt.toFile()))
+                .returns(true, ArtifactMetadataScanner.Result::isFailed)
+                .satisfies(result -> assertThat(result.failure()).isInstanceOf(IOException.class))
+                .satisfies(result -> assertThatThrownBy(result::getOrThrow).isInstanceOf(IOException.class));
+
+        assertThat(results.get(metadata))
+                .returns(false, ArtifactMetadataScanner.Result::isFailed)
+                .satisfies(result -> assertThat(result.getOrThrow()).hasSize(1));
+    }
+
+    @Test
+    @DisplayName("should reject a non-positive batch scan parallelism")
+    void shouldRejectInvalidParallelism() {
+        assertThatThrownBy(() -> ArtifactMetadataScanner.scanAll(List.of(), ArtifactMetadataScanner::scan, Runnable::run, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should scan a batch of artifacts using the given scan")
+    void shouldScanBatchUsingScan() throws IOException {
+        final File custom = createJar("custom.jar", Map.of(
+                "META-INF/konfigyr/datasource.json", METADATA_CONTENTS,
+                "META-INF/spring-configuration-metadata.json", METADATA_CONTENTS
+        ));
+        final File failing = createJar("failing.jar", Map.of("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n"));
+
+        final MetadataPathMatcher matcher = MetadataPathMatcher.of(List.of("META-INF/konfigyr/*.json"), List.of());
+
+        final Map<File, ArtifactMetadataScanner.Result> results = ArtifactMetadataScanner.scanAll(
+                List.of(custom, failing),
+                artifact -> {
+                    if (artifact.equals(failing)) {
+                        throw new IllegalStateException("Scan failed");
+                    }
+                    return ArtifactMetadataScanner.scan(artifact, matcher);
+                }
+        );
+
+        assertThat(results.get(custom).resources())
+                .singleElement()
+                .returns("META-INF/konfigyr/datasource.json", ArtifactMetadataResource::name);
+
+        assertThat(results.get(failing))
+                .returns(true, ArtifactMetadataScanner.Result::isFailed)
+                .returns(List.of(), ArtifactMetadataScanner.Result::resources)
+                .satisfies(result -> assertThat(result.failure()).isInstanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    @DisplayName("should scan a jar for metadata located at custom path patterns")
+    void shouldScanJarForCustomMetadataLocations() throws IOException {
+        final File jar = createJar("custom.jar", Map.of(
+                "META-INF/konfigyr/datasource.json", METADATA_CONTENTS,
+                "META-INF/konfigyr/nested/ignored.json", METADATA_CONTENTS,
+                "META-INF/konfigyr/readme.txt", "ignored"
+        ));
+
+        final MetadataPathMatcher matcher = MetadataPathMatcher.of(List.of("META-INF/konfigyr/*.json"), List.of());
+
+        assertThat(ArtifactMetadataScanner.scan(jar, matcher))
+                .singleElement()
+                .returns("META-INF/konfigyr/datasource.json", ArtifactMetadataResource::name)
+                .extracting(this::readContent)
+                .isEqualTo(METADATA_CONTENTS);
+    }
+
+    @Test
+    @DisplayName("should recursively scan nested archives matched by the path matcher")
+    void shouldScanNestedArchives() throws IOException {
+        final byte[] library = zip(Map.of(
+                "META-INF/spring-configuration-metadata.json", "{\"groups\":[]}".getBytes(StandardCharsets.UTF_8)
+        ));
+        final byte[] nested = zip(Map.of(
+                "lib/library.jar", library,
+                "META-INF/konfigyr/nested.json", METADATA_CONTENTS.getBytes(StandardCharsets.UTF_8)
+        ));
+
+        final Path jar = dir.resolve("application.jar");
+        Files.write(jar, zip(Map.of(
+                "BOOT-INF/lib/nested.jar", nested,
+                "BOOT-INF/classes/META-INF/spring-configuration-metadata.json", "{}".getBytes(StandardCharsets.UTF_8)
+        )));
+
+        final MetadataPathMatcher matcher = MetadataPathMatcher.of(
+                List.of("META-INF/spring-configuration-metadata.json", "META-INF/konfigyr/*.json"),
+                List.of("BOOT-INF/lib/*.jar", "lib/*.jar")
+        );
+
+        assertThat(ArtifactMetadataScanner.scan(jar.toFile(), matcher))
+                .extracting(ArtifactMetadataResource::name, this::readContent)
+                .containsExactlyInAnyOrder(
+                        tuple("BOOT-INF/lib/nested.jar!/META-INF/konfigyr/nested.json", METADATA_CONTENTS),
+                        tuple("BOOT-INF/lib/nested.jar!/lib/library.jar!/META-INF/spring-configuration-metadata.json", "{\"groups\":[]}")
+                );
+
+        assertThat(ArtifactMetadataScanner.scan(jar.toFile()))
+                .singleElement()
+                .returns("BOOT-INF/classes/META-INF/spring-configuration-metadata.json", ArtifactMetadataResource::name);
+    }
+
+    @Test
+    @DisplayName("should scan a class-output directory for metadata located at custom path patterns")
+    void shouldScanDirectoryForCustomMetadataLocations() throws IOException {
+        Files.createDirectories(dir.resolve("META-INF/konfigyr"));
+        Files.createDirectories(dir.resolve("com/acme"));
+        Files.writeString(dir.resolve("META-INF/konfigyr/b.json"), METADATA_CONTENTS);
+        Files.writeString(dir.resolve("META-INF/konfigyr/a.json"), METADATA_CONTENTS);
+        Files.writeString(dir.resolve("com/acme/a.json"), METADATA_CONTENTS);
+
+        final MetadataPathMatcher matcher = MetadataPathMatcher.of(List.of("META-INF/konfigyr/*.json"), List.of());
+
+        assertThat(ArtifactMetadataScanner.scan(dir.toFile(), matcher))
+                .extracting(ArtifactMetadataResource::name)
+                .containsExactly(
+                        dir.resolve("META-INF/konfigyr/a.json").toUri().toString(),
+                        dir.resolve("META-INF/konfigyr/b.json").toUri().toString()
+                );
+    }
+
+    @Test
+    @DisplayName("should scan the application and stored nested libraries of executable jars in place")
+    void shouldScanExecutableJars() throws IOException {
+        final byte[] library = zip(Map.of(
+                "META-INF/spring-configuration-metadata.json", "{\"groups\":[]}".getBytes(StandardCharsets.UTF_8),
+                "com/acme/Library.class", new byte[128]
+        ), false);
+
+        final Path jar = dir.resolve("application.jar");
+        Files.write(jar, zip(Map.of(
+                "BOOT-INF/classes/META-INF/spring-configuration-metadata.json", METADATA_CONTENTS.getBytes(StandardCharsets.UTF_8),
+                "BOOT-INF/lib/library.jar", library,
+                "BOOT-INF/lib/empty.jar", zip(Map.of("META-INF/MANIFEST.MF", new byte[0]), false)
+        ), true));
+
+        assertThat(ArtifactMetadataScanner.scan(jar.toFile()))
+                .hasSize(2)
+                .allSatisfy(resource -> assertThat(resource).isInstanceOf(JarEntryArtifactMetadataResource.class))
+                .extracting(ArtifactMetadataResource::name, this::readContent)
+                .containsExactlyInAnyOrder(
+                        tuple("BOOT-INF/classes/META-INF/spring-configuration-metadata.json", METADATA_CONTENTS),
+                        tuple("BOOT-INF/lib/library.jar!/META-INF/spring-configuration-metadata.json", "{\"groups\":[]}")
+                );
+    }
+
+    @Test
+    @DisplayName("should scan compressed nested libraries of executable wars in memory")
+    void shouldScanCompressedNestedLibraries() throws IOException {
+        final byte[] library = zip(Map.of(
+                "META-INF/spring/org.springframework.boot.configuration-metadata.json", METADATA_CONTENTS.getBytes(StandardCharsets.UTF_8)
+        ), true);
+
+        final Path war = dir.resolve("application.war");
+        Files.write(war, zip(Map.of("WEB-INF/lib/library.jar", library), false));
+
+        assertThat(ArtifactMetadataScanner.scan(war.toFile()))
+                .singleElement()
+                .returns("WEB-INF/lib/library.jar!/META-INF/spring/org.springframework.boot.configuration-metadata.json",
+                        ArtifactMetadataResource::name)
+                .extracting(this::readContent)
+                .isEqualTo(METADATA_CONTENTS);
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        return zip(entries, false);
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries, boolean stored) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (var out = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                final ZipEntry zipEntry = new ZipEntry(entry.getKey());
+
+                if (stored) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(entry.getValue());
+
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(entry.getValue().length);
+                    zipEntry.setCompressedSize(entry.getValue().length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+
+                out.putNextEntry(zipEntry);
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
     private File createJar(String name, Map<String, String> entries) throws IOException {
         final File jar = dir.resolve(name).toFile();
 
@@ -0,0 +1,303 @@
+package com.konfigyr;
+
+import com.fasterxml.classmate.TypeResolver;
+import com.konfigyr.artifactory.JsonSchema;
+import com.konfigyr.schema.JsonSchemaGenerator;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class ClassLoaderPoolTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should share class loaders between leases of the same ordered classpath")
+    void shouldShareClassLoaders() throws IOException {
+        final File first = file("first.jar", "first");
+        final File second = file("second.jar", "second");
+
+        try (var pool = new ClassLoaderPool()) {
+            final ClassLoaderPool.Lease lease = pool.acquire(List.of(first, second));
+
+            try (var same = pool.acquire(List.of(first, second));
+                 var reversed = pool.acquire(List.of(second, first))) {
+                assertThat(same.getClassLoader()).isSameAs(lease.getClassLoader());
+                assertThat(reversed.getClassLoader()).isNotSameAs(lease.getClassLoader());
+            }
+
+            lease.close();
+
+            assertThat(pool.size()).isEqualTo(2);
+
+            try (var reused = pool.acquire(List.of(first, second))) {
+                assertThat(reused.getClassLoader()).isSameAs(lease.getClassLoader());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should create a new class loader once a classpath file changes")
+    void shouldCreateClassLoaderForChangedClasspath() throws IOException {
+        final File jar = file("library.jar", "library");
+
+        try (var pool = new ClassLoaderPool(); var lease = pool.acquire(List.of(jar))) {
+            file("library.jar", "changed library");
+
+            try (var changed = pool.acquire(List.of(jar))) {
+                assertThat(changed.getClassLoader()).isNotSameAs(lease.getClassLoader());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should evict class loaders that are no longer leased once they become idle")
+    void shouldEvictIdleClassLoaders() throws IOException {
+        final File jar = file("library.jar", "library");
+
+        try (var pool = new ClassLoaderPool(Duration.ZERO)) {
+            final ClassLoaderPool.Lease first = pool.acquire(List.of(jar));
+            final ClassLoaderPool.Lease second = pool.acquire(List.of(jar));
+
+            first.close();
+            first.close();
+
+            assertThat(pool.size())
+                    .as("class loader is still leased and must not be evicted")
+                    .isOne();
+
+            second.close();
+
+            assertThat(pool.size()).isZero();
+
+            try (var lease = pool.acquire(List.of(jar))) {
+                assertThat(lease.getClassLoader()).isNotSameAs(first.getClassLoader());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should load every classpath by a single class loader unless prefix sharing is enabled")
+    void shouldNotShareClasspathPrefixesByDefault() throws IOException {
+        final File core = file("core.jar", "core");
+        final File first = file("first.jar", "first");
+        final File second = file("second.jar", "second");
+
+        try (var pool = new ClassLoaderPool();
+             var flat = pool.acquire(List.of(core, first));
+             var overlapping = pool.acquire(List.of(core, second))) {
+
+            assertThat(overlapping.getClassLoader().getParent())
+                    .isSameAs(flat.getClassLoader().getParent())
+                    .isSameAs(ClassLoader.getSystemClassLoader());
+
+            assertThat(overlapping.getClassLoader())
+                    .asInstanceOf(InstanceOfAssertFactories.type(URLClassLoader.class))
+                    .extracting(URLClassLoader::getURLs, InstanceOfAssertFactories.array(URL[].class))
+                    .containsExactly(core.toURI().toURL(), second.toURI().toURL());
+
+            assertThat(pool.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("should generate the same schemas with and without a shared parent class loader")
+    void shouldGenerateSameSchemas() throws IOException {
+        final Path classes = compile(Map.of(
+                "acme.Owner", "package acme; public class Owner { String name; acme.Part part; }",
+                "acme.Base", "package acme; public class Base { String value; int priority; }",
+                "acme.Part", "package acme; public class Part { long size; }",
+                "acme.Settings", "package acme; public class Settings { acme.Base base; java.time.Duration timeout; }"
+        ));
+
+        final File core = jar("core.jar", classes, "acme/Owner.class", "acme/Base.class");
+        final File first = file("first.jar", "first");
+        final File second = jar("second.jar", classes, "acme/Part.class", "acme/Settings.class");
+        final List<File> classpath = List.of(core, second);
+
+        try (var flat = new URLClassLoader(new URL[] { core.toURI().toURL(), second.toURI().toURL() });
+             var pool = new ClassLoaderPool();
+             var sharing = new ClassLoaderPool(ClassLoaderPool.DEFAULT_IDLE_TIMEOUT, 1);
+             var ignored = pool.acquire(List.of(core, first));
+             var lease = pool.acquire(classpath);
+             var sharingIgnored = sharing.acquire(List.of(core, first));
+             var child = sharing.acquire(classpath)) {
+
+            assertThat(child.getClassLoader().getParent())
+                    .as("classpath should be split into a shared parent and a child class loader")
+                    .isNotSameAs(ClassLoader.getSystemClassLoader());
+
+            assertThat(generateSchema(lease.getClassLoader(), "acme.Owner"))
+                    .as("classpath loaded by a single class loader regardless of the pooled classpaths")
+                    .isEqualTo(generateSchema(flat, "acme.Owner"));
+
+            assertThat(generateSchema(child.getClassLoader(), "acme.Settings"))
+                    .as("child classes resolving classes of the shared parent class loader")
+                    .isEqualTo(generateSchema(lease.getClassLoader(), "acme.Settings"))
+                    .isEqualTo(generateSchema(flat, "acme.Settings"));
+        }
+    }
+
+    @Test
+    @DisplayName("should load shared classpath prefixes with a common parent class loader")
+    void shouldShareClasspathPrefixes() throws IOException {
+        final File core = file("core.jar", "core");
+        final File beans = file("beans.jar", "beans");
+        final File first = file("first.jar", "first");
+        final File second = file("second.jar", "second");
+        final File third = file("third.jar", "third");
+
+        try (var pool = new ClassLoaderPool(ClassLoaderPool.DEFAULT_IDLE_TIMEOUT, 2);
+             var flat = pool.acquire(List.of(core, beans, first));
+             var child = pool.acquire(List.of(core, beans, second));
+             var sibling = pool.acquire(List.of(core, beans, third));
+             var unrelated = pool.acquire(List.of(core, third))) {
+
+            assertThat(flat.getClassLoader().getParent())
+                    .isSameAs(ClassLoader.getSystemClassLoader());
+
+            assertThat(child.getClassLoader())
+                    .asInstanceOf(InstanceOfAssertFactories.type(URLClassLoader.class))
+                    .extracting(URLClassLoader::getURLs, InstanceOfAssertFactories.array(URL[].class))
+                    .containsExactly(second.toURI().toURL());
+
+            assertThat(child.getClassLoader().getParent())
+                    .isSameAs(sibling.getClassLoader().getParent())
+                    .asInstanceOf(InstanceOfAssertFactories.type(URLClassLoader.class))
+                    .extracting(URLClassLoader::getURLs, InstanceOfAssertFactories.array(URL[].class))
+                    .containsExactly(core.toURI().toURL(), beans.toURI().toURL());
+
+            assertThat(unrelated.getClassLoader().getParent())
+                    .isSameAs(ClassLoader.getSystemClassLoader());
+
+            assertThat(pool.size()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    @DisplayName("should evict shared parent class loaders once their children are evicted")
+    void shouldEvictSharedParents() throws IOException {
+        final File core = file("core.jar", "core");
+        final File first = file("first.jar", "first");
+        final File second = file("second.jar", "second");
+
+        try (var pool = new ClassLoaderPool(Duration.ZERO, 1)) {
+            final ClassLoaderPool.Lease flat = pool.acquire(List.of(core, first));
+            final ClassLoaderPool.Lease child = pool.acquire(List.of(core, second));
+
+            assertThat(pool.size()).isEqualTo(3);
+
+            flat.close();
+
+            assertThat(pool.size())
+                    .as("shared parent class loader is still used by its child")
+                    .isEqualTo(2);
+
+            child.close();
+
+            assertThat(pool.size()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("should close every class loader when the pool is closed")
+    void shouldCloseClassLoaders() throws IOException {
+        final File jar = file("library.jar", "library");
+        final var pool = new ClassLoaderPool();
+        final var lease = pool.acquire(List.of(jar));
+
+        pool.close();
+        lease.close();
+
+        assertThat(pool.size()).isZero();
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> pool.acquire(List.of(jar)))
+                .withMessageContaining("closed");
+    }
+
+    @Test
+    @DisplayName("should reject a negative idle timeout")
+    void shouldRejectNegativeIdleTimeout() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ClassLoaderPool(Duration.ofSeconds(-1)))
+                .withMessageContaining("Idle timeout");
+    }
+
+    @Test
+    @DisplayName("should reject a negative minimum number of shared entries")
+    void shouldRejectInvalidMinimumSharedEntries() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ClassLoaderPool(Duration.ZERO, -1))
+                .withMessageContaining("Minimum shared entries");
+    }
+
+    private File file(String name, String contents) throws IOException {
+        return Files.writeString(dir.resolve(name), contents).toFile();
+    }
+
+    private Path compile(Map<String, String> sources) throws IOException {
+        final Path source = Files.createDirectories(dir.resolve("sources"));
+        final Path classes = Files.createDirectories(dir.resolve("classes"));
+        final List<String> arguments = new ArrayList<>(List.of("-d", classes.toString()));
+
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            final Path file = source.resolve(entry.getKey().replace('.', '/') + ".java");
+            Files.createDirectories(file.getParent());
+            arguments.add(Files.writeString(file, entry.getValue()).toString());
+        }
+
+        assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments.toArray(String[]::new)))
+                .as("compilation of the test classes")
+                .isZero();
+
+        return classes;
+    }
+
+    private File jar(String name, Path classes, String... entries) throws IOException {
+        final Path jar = dir.resolve(name);
+
+        try (var out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write(Files.readAllBytes(classes.resolve(entry)));
+                out.closeEntry();
+            }
+        }
+
+        return jar.toFile();
+    }
+
+    private static JsonSchema generateSchema(ClassLoader classLoader, String type) {
+        final TypeResolver resolver = new TypeResolver();
+        final JsonSchemaGenerator generator = JsonSchemaGenerator.createDefaultGenerator(new TypeLoader(classLoader), resolver);
+
+        try {
+            return generator.generateSchema(resolver.resolve(classLoader.loadClass(type)), new ConfigurationMetadataProperty());
+        } catch (ClassNotFoundException ex) {
+            throw new AssertionError("Could not load test type: " + type, ex);
+        }
+    }
+
+}
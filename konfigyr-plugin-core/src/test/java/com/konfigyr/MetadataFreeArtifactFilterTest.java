@@ -0,0 +1,150 @@
+package com.konfigyr;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class MetadataFreeArtifactFilterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should report recorded artifacts as metadata free")
+    void shouldReportRecordedArtifacts() throws IOException {
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("filter/free.bin"))) {
+            assertThat(filter.isMetadataFree("io.netty:netty-common:4.1.0:netty-common-4.1.0.jar@abc")).isFalse();
+
+            filter.add("io.netty:netty-common:4.1.0:netty-common-4.1.0.jar@abc");
+
+            assertThat(filter.isMetadataFree("io.netty:netty-common:4.1.0:netty-common-4.1.0.jar@abc")).isTrue();
+            assertThat(filter.isMetadataFree("io.netty:netty-common:4.1.0:netty-common-4.1.0.jar@def")).isFalse();
+        }
+
+        assertThat(dir.resolve("filter/free.bin")).exists();
+    }
+
+    @Test
+    @DisplayName("should resolve recorded artifacts from a persisted filter")
+    void shouldResolvePersistedArtifacts() throws IOException {
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            filter.add("com.google.guava:guava:33.0.0:guava-33.0.0.jar@abc");
+        }
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            filter.add("tools.jackson.core:jackson-core:3.0.0:jackson-core-3.0.0.jar@def");
+        }
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            assertThat(filter.isMetadataFree("com.google.guava:guava:33.0.0:guava-33.0.0.jar@abc")).isTrue();
+            assertThat(filter.isMetadataFree("tools.jackson.core:jackson-core:3.0.0:jackson-core-3.0.0.jar@def")).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("should never report unrecorded artifacts as metadata free")
+    void shouldNotReportUnrecordedArtifacts() throws IOException {
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            for (int i = 0; i < 500; i++) {
+                filter.add("com.acme:library-" + i + ":1.0.0:library.jar@" + i);
+            }
+
+            assertThat(IntStream.range(500, 5000).mapToObj(i -> "com.acme:library-" + i + ":1.0.0:library.jar@" + i))
+                    .noneMatch(key -> {
+                        try {
+                            return filter.isMetadataFree(key);
+                        } catch (IOException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                    });
+        }
+    }
+
+    @Test
+    @DisplayName("should record metadata free artifacts for the metadata path matcher they were scanned with")
+    void shouldRecordArtifactsPerMatcher() throws IOException {
+        final MetadataPathMatcher matcher = MetadataPathMatcher.of(List.of("META-INF/konfigyr/*.json"), List.of());
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            filter.add("com.acme:library:1.0.0:library.jar@abc");
+        }
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            assertThat(filter.isMetadataFree("com.acme:library:1.0.0:library.jar@abc")).isTrue();
+            assertThat(filter.isMetadataFree("com.acme:library:1.0.0:library.jar@abc", matcher)).isFalse();
+
+            filter.add("com.acme:library:1.0.0:library.jar@abc", matcher);
+
+            assertThat(filter.isMetadataFree("com.acme:library:1.0.0:library.jar@abc", matcher)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("should prune the least recently used keys when the filter grows beyond its limit")
+    void shouldPruneLeastRecentlyUsedKeys() throws IOException {
+        final List<String> keys = List.of(
+                "com.acme:first:1.0.0:first.jar@abc",
+                "com.acme:second:1.0.0:second.jar@abc",
+                "com.acme:third:1.0.0:third.jar@abc"
+        );
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("unbounded.bin"))) {
+            for (String key : keys) {
+                filter.add(key);
+            }
+        }
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("bounded.bin"), 2)) {
+            for (String key : keys) {
+                filter.add(key);
+            }
+        }
+
+        assertThat(Files.size(dir.resolve("bounded.bin")))
+                .isLessThan(Files.size(dir.resolve("unbounded.bin")));
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("bounded.bin"), 2)) {
+            assertThat(keys)
+                    .filteredOn(key -> {
+                        try {
+                            return filter.isMetadataFree(key);
+                        } catch (IOException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                    })
+                    .hasSize(2);
+        }
+    }
+
+    @Test
+    @DisplayName("should reject a non-positive maximum number of entries")
+    void shouldRejectInvalidMaxEntries() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new MetadataFreeArtifactFilter(dir.resolve("free.bin"), 0));
+    }
+
+    @Test
+    @DisplayName("should discard corrupted filter files")
+    void shouldDiscardCorruptedFilter() throws IOException {
+        Files.writeString(dir.resolve("free.bin"), "definitely not a filter file");
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            assertThat(filter.isMetadataFree("com.acme:library:1.0.0:library.jar@abc")).isFalse();
+            filter.add("com.acme:library:1.0.0:library.jar@abc");
+        }
+
+        try (var filter = new MetadataFreeArtifactFilter(dir.resolve("free.bin"))) {
+            assertThat(filter.isMetadataFree("com.acme:library:1.0.0:library.jar@abc")).isTrue();
+        }
+    }
+
+}
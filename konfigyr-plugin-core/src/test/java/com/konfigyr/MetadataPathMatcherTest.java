@@ -0,0 +1,161 @@
+package com.konfigyr;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class MetadataPathMatcherTest {
+
+    final MetadataPathMatcher matcher = MetadataPathMatcher.of(
+            List.of("META-INF/spring-configuration-metadata.json", "META-INF/konfigyr/*.json"),
+            List.of("BOOT-INF/lib/*.jar", "WEB-INF/lib/*.jar")
+    );
+
+    @Test
+    @DisplayName("should match the well-known metadata paths and executable archive libraries with the default matcher")
+    void shouldMatchDefaultMetadataPaths() {
+        final MetadataPathMatcher defaults = MetadataPathMatcher.defaults();
+
+        assertThat(ArtifactMetadataScanner.METADATA_PATHS)
+                .allMatch(defaults::isMetadata)
+                .allMatch(path -> defaults.isMetadata("BOOT-INF/classes/" + path))
+                .allMatch(path -> defaults.isMetadata("WEB-INF/classes/" + path))
+                .noneMatch(defaults::isNestedArchive);
+
+        assertThat(defaults.isNestedArchive("BOOT-INF/lib/spring-boot-3.5.0.jar")).isTrue();
+        assertThat(defaults.isNestedArchive("WEB-INF/lib/spring-boot-3.5.0.jar")).isTrue();
+
+        assertThat(defaults.isMetadata("META-INF/spring-configuration-metadata.jso")).isFalse();
+        assertThat(defaults.isMetadata("META-INF/spring-configuration-metadata.json.bak")).isFalse();
+        assertThat(defaults.isMetadata("lib/META-INF/spring-configuration-metadata.json")).isFalse();
+        assertThat(defaults.isNestedArchive("lib/spring-boot-3.5.0.jar")).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "META-INF/spring-configuration-metadata.json",
+            "META-INF/konfigyr/datasource.json",
+            "META-INF/konfigyr/.json"
+    })
+    @DisplayName("should match metadata locations")
+    void shouldMatchMetadataLocations(String path) {
+        assertThat(matcher.isMetadata(path)).isTrue();
+        assertThat(matcher.isNestedArchive(path)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "BOOT-INF/lib/library-1.0.0.jar", "WEB-INF/lib/library.jar" })
+    @DisplayName("should match nested archive locations")
+    void shouldMatchNestedArchives(String path) {
+        assertThat(matcher.isNestedArchive(path)).isTrue();
+        assertThat(matcher.isMetadata(path)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "META-INF",
+            "META-INF/konfigyr/nested/datasource.json",
+            "META-INF/konfigyr/datasource.jsonx",
+            "BOOT-INF/lib/nested/library.jar",
+            "BOOT-INF/lib/library.zip",
+            "com/acme/Application.class"
+    })
+    @DisplayName("should not match unrelated paths")
+    void shouldNotMatchUnrelatedPaths(String path) {
+        assertThat(matcher.match(path)).isZero();
+    }
+
+    @Test
+    @DisplayName("should match wildcards anywhere within a single path segment")
+    void shouldMatchWildcardsWithinSegment() {
+        final MetadataPathMatcher wildcards = MetadataPathMatcher.of(List.of("a*b*c", "x**y"), List.of());
+
+        assertThat(List.of("abc", "aXbYc", "abbc", "abcbc", "xy", "xaaay"))
+                .allMatch(wildcards::isMetadata);
+
+        assertThat(List.of("ac", "a/bc", "ab/c", "x/y", "abcd"))
+                .noneMatch(wildcards::isMetadata);
+    }
+
+    @Test
+    @DisplayName("should match entry names stored in byte buffers")
+    void shouldMatchBufferRegions() {
+        final byte[] bytes = "....META-INF/konfigyr/a.json....".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(matcher.match(ByteBuffer.wrap(bytes), 4, bytes.length - 8))
+                .isEqualTo(MetadataPathMatcher.METADATA);
+
+        assertThat(matcher.match(ByteBuffer.wrap(bytes), 4, bytes.length - 4))
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("should check whether a directory could contain matching paths")
+    void shouldMatchWithinDirectories() {
+        assertThat(List.of("", "META-INF", "META-INF/konfigyr", "BOOT-INF", "BOOT-INF/lib"))
+                .allMatch(matcher::matchesWithin);
+
+        assertThat(List.of("com", "META-INF/konfigyr/nested", "META-INF/spring", "BOOT-INF/classes"))
+                .noneMatch(matcher::matchesWithin);
+    }
+
+    @Test
+    @DisplayName("should be equal when compiled from the same patterns")
+    void shouldBeEqualForSamePatterns() {
+        assertThat(MetadataPathMatcher.of(List.of("b/*.json", "a/*.json"), List.of()))
+                .isEqualTo(MetadataPathMatcher.of(List.of("a/*.json", "b/*.json"), List.of()))
+                .hasSameHashCodeAs(MetadataPathMatcher.of(List.of("a/*.json", "b/*.json"), List.of()))
+                .isNotEqualTo(MetadataPathMatcher.of(List.of("a/*.json"), List.of("b/*.json")));
+    }
+
+    @Test
+    @DisplayName("should extend the matcher with additional patterns")
+    void shouldExtendMatcher() {
+        final MetadataPathMatcher defaults = MetadataPathMatcher.defaults();
+        final MetadataPathMatcher extended = defaults.extend(List.of("META-INF/konfigyr/*.json"), List.of("lib/*.jar"));
+
+        assertThat(extended.getMetadataLocations())
+                .containsAll(defaults.getMetadataLocations())
+                .contains("META-INF/konfigyr/*.json");
+
+        assertThat(extended.getNestedArchives())
+                .containsAll(defaults.getNestedArchives())
+                .contains("lib/*.jar");
+
+        assertThat(extended.isMetadata("META-INF/konfigyr/library.json")).isTrue();
+        assertThat(extended.isMetadata("META-INF/spring-configuration-metadata.json")).isTrue();
+        assertThat(extended.isNestedArchive("lib/library.jar")).isTrue();
+
+        assertThat(defaults.extend(List.of(), List.of()))
+                .isSameAs(defaults);
+    }
+
+    @Test
+    @DisplayName("should have the same fingerprint when compiled from the same patterns")
+    void shouldHaveSameFingerprintForSamePatterns() {
+        assertThat(MetadataPathMatcher.of(List.of("b/*.json", "a/*.json"), List.of()).fingerprint())
+                .isEqualTo(MetadataPathMatcher.of(List.of("a/*.json", "b/*.json"), List.of()).fingerprint())
+                .isNotEqualTo(MetadataPathMatcher.of(List.of("a/*.json"), List.of("b/*.json")).fingerprint())
+                .isNotEqualTo(MetadataPathMatcher.defaults().fingerprint())
+                .hasSize(32);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "/META-INF/metadata.json", "META-INF/" })
+    @DisplayName("should reject invalid patterns")
+    void shouldRejectInvalidPatterns(String pattern) {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> MetadataPathMatcher.of(List.of(pattern), List.of()))
+                .withMessageContaining(pattern);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.konfigyr;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should write and read the file while holding its lock")
+    void shouldWriteAndReadFile() throws IOException {
+        final PersistentFile file = new PersistentFile(dir.resolve("state/file.bin"));
+
+        assertThat(file.exists()).isFalse();
+
+        file.locked(() -> {
+            file.write(out -> out.writeUTF("persisted"));
+            return null;
+        });
+
+        assertThat(file.exists()).isTrue();
+        assertThat(file.locked(() -> {
+            try (var in = file.read()) {
+                return in.readUTF();
+            }
+        })).isEqualTo("persisted");
+    }
+
+    @Test
+    @DisplayName("should wait for a lock that is held elsewhere within the same process")
+    void shouldWaitForLockHeldWithinProcess() throws Exception {
+        final PersistentFile file = new PersistentFile(dir.resolve("file.bin"));
+        final CompletableFuture<String> result;
+
+        // the lock is acquired by a channel that is not guarded by the monitor of the persistent file, as it
+        // would be when the same file is locked by the persistent file class of a different class loader
+        try (FileChannel channel = FileChannel.open(dir.resolve("file.bin.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.lock();
+
+            result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return file.locked(() -> "acquired");
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+
+            Thread.sleep(100);
+
+            assertThat(result).isNotDone();
+
+            lock.release();
+        }
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("acquired");
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.konfigyr;
+
+import com.konfigyr.artifactory.PropertyDescriptor;
+import com.konfigyr.artifactory.StringSchema;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PropertyDescriptorCacheTest {
+
+    final PropertyDescriptorCache cache = new PropertyDescriptorCache(10);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should create equal keys for the same metadata contents and classpath")
+    void shouldCreateEqualKeys() throws IOException {
+        final List<File> classpath = List.of(jar("library.jar", "library"), dir.toFile());
+
+        assertThat(PropertyDescriptorCache.Key.of(List.of(resource("a.jar!/META-INF/spring-configuration-metadata.json", "{}")), classpath))
+                .isEqualTo(PropertyDescriptorCache.Key.of(List.of(resource("b.jar!/META-INF/spring-configuration-metadata.json", "{}")), classpath));
+    }
+
+    @Test
+    @DisplayName("should create different keys when metadata contents or classpath differ")
+    void shouldCreateDifferentKeys() throws IOException {
+        final File jar = jar("library.jar", "library");
+        final var key = PropertyDescriptorCache.Key.of(List.of(resource("spring-configuration-metadata.json", "{}")), List.of(jar));
+
+        assertThat(PropertyDescriptorCache.Key.of(List.of(resource("spring-configuration-metadata.json", "{ }")), List.of(jar)))
+                .isNotEqualTo(key)
+                .returns(key.classpath(), PropertyDescriptorCache.Key::classpath);
+
+        assertThat(PropertyDescriptorCache.Key.of(List.of(resource("additional-spring-configuration-metadata.json", "{}")), List.of(jar)))
+                .isNotEqualTo(key);
+
+        assertThat(PropertyDescriptorCache.Key.of(List.of(resource("spring-configuration-metadata.json", "{}")), List.of(jar, dir.toFile())))
+                .isNotEqualTo(key)
+                .returns(key.metadata(), PropertyDescriptorCache.Key::metadata);
+
+        assertThat(PropertyDescriptorCache.Key.of(List.of(resource("spring-configuration-metadata.json", "{}")), List.of(jar("library.jar", "changed library"))))
+                .isNotEqualTo(key);
+    }
+
+    @Test
+    @DisplayName("should cache descriptors under their key")
+    void shouldCacheDescriptors() {
+        final var key = new PropertyDescriptorCache.Key("metadata", "classpath");
+
+        assertThat(cache.get(key)).isNull();
+
+        cache.put(key, descriptors("acme", 3));
+
+        assertThat(cache.get(key))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(descriptors("acme", 3));
+
+        assertThat(cache.getWeight()).isEqualTo(3);
+
+        cache.put(key, descriptors("acme", 5));
+
+        assertThat(cache.get(key)).hasSize(5);
+        assertThat(cache.getWeight()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("should evict least recently used descriptors once the maximum weight is exceeded")
+    void shouldEvictByWeight() {
+        final var first = new PropertyDescriptorCache.Key("first", "classpath");
+        final var second = new PropertyDescriptorCache.Key("second", "classpath");
+        final var third = new PropertyDescriptorCache.Key("third", "classpath");
+
+        cache.put(first, descriptors("first", 4));
+        cache.put(second, descriptors("second", 4));
+
+        assertThat(cache.get(first)).isNotNull();
+
+        cache.put(third, descriptors("third", 4));
+
+        assertThat(cache.get(first)).hasSize(4);
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(third)).hasSize(4);
+        assertThat(cache.getWeight()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("should not cache descriptors that are heavier than the maximum weight")
+    void shouldNotCacheHeavyDescriptors() {
+        final var key = new PropertyDescriptorCache.Key("metadata", "classpath");
+
+        cache.put(key, descriptors("acme", 11));
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.getWeight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should remove every cached descriptor when cleared")
+    void shouldClearCache() {
+        final var key = new PropertyDescriptorCache.Key("metadata", "classpath");
+
+        cache.put(key, descriptors("acme", 2));
+        cache.clear();
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.getWeight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should reject a negative maximum weight")
+    void shouldRejectNegativeWeight() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new PropertyDescriptorCache(-1))
+                .withMessageContaining("Maximum weight");
+    }
+
+    private File jar(String name, String contents) throws IOException {
+        return Files.writeString(dir.resolve(name), contents).toFile();
+    }
+
+    private static ArtifactMetadataResource resource(String name, String contents) {
+        return ArtifactMetadataResource.of(name, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<PropertyDescriptor> descriptors(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> PropertyDescriptor.builder()
+                        .name(prefix + ".property-" + i)
+                        .typeName("java.lang.String")
+                        .schema(StringSchema.instance())
+                        .build())
+                .toList();
+    }
+
+}
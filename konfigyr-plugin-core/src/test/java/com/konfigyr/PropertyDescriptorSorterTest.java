@@ -0,0 +1,109 @@
+package com.konfigyr;
+
+import com.konfigyr.artifactory.PropertyDescriptor;
+import com.konfigyr.artifactory.StringSchema;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PropertyDescriptorSorterTest {
+
+    final JsonMapper mapper = ArtifactoryClientFactory.createDefaultJsonMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should sort descriptors that fit into the buffer in memory")
+    void shouldSortInMemory() throws IOException {
+        final List<PropertyDescriptor> sorted = new ArrayList<>();
+
+        try (var sorter = new PropertyDescriptorSorter(mapper, dir, 16)) {
+            descriptors(10).forEach(sorter);
+            sorter.drain(sorted::add);
+        }
+
+        assertThat(sorted)
+                .hasSize(10)
+                .isSortedAccordingTo(PropertyDescriptor::compareTo);
+
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should merge sorted runs written to disk once the buffer is full")
+    void shouldMergeSortedRuns() throws IOException {
+        final List<PropertyDescriptor> descriptors = descriptors(250);
+        final List<PropertyDescriptor> sorted = new ArrayList<>();
+
+        try (var sorter = new PropertyDescriptorSorter(mapper, dir, 16)) {
+            descriptors.forEach(sorter);
+
+            assertThat(files()).hasSize(15);
+
+            sorter.drain(sorted::add);
+        }
+
+        assertThat(sorted)
+                .hasSize(250)
+                .isSortedAccordingTo(PropertyDescriptor::compareTo)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(descriptors.stream().sorted(PropertyDescriptor::compareTo).toList());
+
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should remove sorted runs of descriptors that were not drained when closed")
+    void shouldRemoveRunsWhenClosed() throws IOException {
+        try (var sorter = new PropertyDescriptorSorter(mapper, dir, 8)) {
+            descriptors(20).forEach(sorter);
+
+            assertThat(files()).hasSize(2);
+        }
+
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should reject a non-positive buffer size")
+    void shouldRejectInvalidBufferSize() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new PropertyDescriptorSorter(mapper, dir, 0))
+                .withMessageContaining("Buffer size");
+    }
+
+    private List<Path> files() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+
+    private static List<PropertyDescriptor> descriptors(int count) {
+        final List<PropertyDescriptor> descriptors = new ArrayList<>(IntStream.range(0, count)
+                .mapToObj(i -> PropertyDescriptor.builder()
+                        .name("acme.property-%04d".formatted(i))
+                        .typeName("java.lang.String")
+                        .schema(StringSchema.instance())
+                        .description("Property number " + i)
+                        .build())
+                .toList());
+
+        Collections.shuffle(descriptors, new Random(count));
+        return descriptors;
+    }
+
+}
@@ -0,0 +1,256 @@
+package com.konfigyr;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+import org.springframework.boot.configurationmetadata.Deprecation;
+import org.springframework.boot.configurationmetadata.ValueHint;
+import org.springframework.boot.configurationmetadata.ValueProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.tuple;
+
+class StreamingMetadataReaderTest {
+
+    @Test
+    @DisplayName("should read properties and skip groups and unknown fields")
+    void shouldReadProperties() throws IOException {
+        final List<ConfigurationMetadataProperty> properties = read(resource("spring-configuration-metadata.json", """
+                {
+                  "groups": [{ "name": "acme", "type": "com.acme.AcmeProperties", "sourceType": "com.acme.AcmeProperties" }],
+                  "properties": [
+                    {
+                      "name": "acme.timeout",
+                      "type": "java.time.Duration",
+                      "description": "Connection timeout.",
+                      "sourceType": "com.acme.AcmeProperties",
+                      "defaultValue": "30s",
+                      "unknown": { "nested": [1, 2, 3] }
+                    },
+                    { "name": "acme.retries", "type": "java.lang.Integer", "defaultValue": 3 },
+                    { "name": "acme.ratio", "type": "java.lang.Double", "defaultValue": 0.5 },
+                    { "name": "acme.hosts", "type": "java.util.List<java.lang.String>", "defaultValue": ["a", "b"] },
+                    { "name": "acme.enabled", "type": "java.lang.Boolean", "defaultValue": true }
+                  ]
+                }
+                """));
+
+        assertThat(properties)
+                .extracting(ConfigurationMetadataProperty::getId)
+                .containsExactly("acme.timeout", "acme.retries", "acme.ratio", "acme.hosts", "acme.enabled");
+
+        assertThat(properties.getFirst())
+                .returns("acme.timeout", ConfigurationMetadataProperty::getName)
+                .returns("java.time.Duration", ConfigurationMetadataProperty::getType)
+                .returns("Connection timeout.", ConfigurationMetadataProperty::getDescription)
+                .returns("30s", ConfigurationMetadataProperty::getDefaultValue)
+                .returns(null, ConfigurationMetadataProperty::getDeprecation);
+
+        assertThat(properties)
+                .extracting(ConfigurationMetadataProperty::getDefaultValue)
+                .containsExactly("30s", 3, 0.5, new Object[] { "a", "b" }, true);
+    }
+
+    @Test
+    @DisplayName("should read property deprecations")
+    void shouldReadDeprecations() throws IOException {
+        final List<ConfigurationMetadataProperty> properties = read(resource("spring-configuration-metadata.json", """
+                {
+                  "properties": [
+                    {
+                      "name": "acme.url",
+                      "deprecation": { "level": "error", "reason": "Use host.", "replacement": "acme.host" }
+                    },
+                    { "name": "acme.legacy", "deprecated": true },
+                    { "name": "acme.host", "deprecated": false }
+                  ]
+                }
+                """));
+
+        assertThat(properties)
+                .extracting(ConfigurationMetadataProperty::getDeprecation)
+                .satisfiesExactly(
+                        deprecation -> assertThat(deprecation)
+                                .returns(Deprecation.Level.ERROR, Deprecation::getLevel)
+                                .returns("Use host.", Deprecation::getReason)
+                                .returns("acme.host", Deprecation::getReplacement),
+                        deprecation -> assertThat(deprecation)
+                                .returns(null, Deprecation::getReason)
+                                .returns(null, Deprecation::getReplacement),
+                        deprecation -> assertThat(deprecation).isNull()
+                );
+    }
+
+    @Test
+    @DisplayName("should apply value, map key and map value hints to their properties")
+    void shouldApplyHints() throws IOException {
+        final List<ConfigurationMetadataProperty> properties = read(resource("spring-configuration-metadata.json", """
+                {
+                  "hints": [
+                    { "name": "acme.mode", "values": [{ "value": "fast", "description": "Fast mode." }, { "value": "safe" }] },
+                    { "name": "acme.headers.keys", "values": [{ "value": "Accept" }] },
+                    { "name": "acme.headers.values", "providers": [{ "name": "any" }] },
+                    { "name": "acme.bean", "providers": [{ "name": "spring-bean-reference", "parameters": { "target": "javax.sql.DataSource" } }] },
+                    { "name": "acme.unknown", "values": [{ "value": "ignored" }] }
+                  ],
+                  "properties": [
+                    { "name": "acme.mode", "type": "java.lang.String" },
+                    { "name": "acme.headers", "type": "java.util.Map<java.lang.String,java.lang.String>" },
+                    { "name": "acme.bean", "type": "java.lang.String" }
+                  ]
+                }
+                """));
+
+        assertThat(properties).satisfiesExactly(
+                mode -> {
+                    assertThat(mode.getHints().getValueHints())
+                            .extracting(ValueHint::getValue, ValueHint::getDescription)
+                            .containsExactly(
+                                    tuple("fast", "Fast mode."),
+                                    tuple("safe", null)
+                            );
+                    assertThat(mode.getHints().getKeyHints()).isEmpty();
+                },
+                headers -> {
+                    assertThat(headers.getHints().getKeyHints())
+                            .extracting(ValueHint::getValue)
+                            .containsExactly("Accept");
+                    assertThat(headers.getHints().getValueProviders())
+                            .extracting(ValueProvider::getName)
+                            .containsExactly("any");
+                },
+                bean -> assertThat(bean.getHints().getValueProviders())
+                        .singleElement()
+                        .returns("spring-bean-reference", ValueProvider::getName)
+                        .returns(Map.of("target", "javax.sql.DataSource"), ValueProvider::getParameters)
+        );
+    }
+
+    @Test
+    @DisplayName("should merge additional metadata into generated metadata regardless of their order")
+    void shouldMergeAdditionalMetadata() throws IOException {
+        final ArtifactMetadataResource additional = resource("META-INF/additional-spring-configuration-metadata.json", """
+                {
+                  "properties": [
+                    { "name": "acme.host", "description": "Overridden host.", "deprecation": { "reason": "Use url." } },
+                    { "name": "acme.extra", "type": "java.lang.String" }
+                  ]
+                }
+                """);
+
+        final ArtifactMetadataResource generated = resource("META-INF/spring-configuration-metadata.json", """
+                {
+                  "properties": [
+                    { "name": "acme.host", "type": "java.lang.String", "description": "Host.", "defaultValue": "localhost" }
+                  ]
+                }
+                """);
+
+        final ArtifactMetadataResource duplicate = resource("spring-configuration-metadata.json", """
+                { "properties": [{ "name": "acme.host", "type": "java.lang.Integer", "description": "Duplicate." }] }
+                """);
+
+        assertThat(read(additional, generated, duplicate))
+                .satisfiesExactly(
+                        host -> assertThat(host)
+                                .returns("acme.host", ConfigurationMetadataProperty::getId)
+                                .returns("java.lang.String", ConfigurationMetadataProperty::getType)
+                                .returns("Overridden host.", ConfigurationMetadataProperty::getDescription)
+                                .returns("localhost", ConfigurationMetadataProperty::getDefaultValue)
+                                .extracting(ConfigurationMetadataProperty::getDeprecation)
+                                .returns("Use url.", Deprecation::getReason),
+                        extra -> assertThat(extra)
+                                .returns("acme.extra", ConfigurationMetadataProperty::getId)
+                                .returns(null, ConfigurationMetadataProperty::getDescription)
+                );
+    }
+
+    @Test
+    @DisplayName("should pass every property to the consumer as soon as it is read")
+    void shouldStreamProperties() throws IOException {
+        final AtomicInteger opened = new AtomicInteger();
+
+        final ArtifactMetadataResource first = counting(opened, resource("first.json", """
+                { "properties": [{ "name": "acme.first", "type": "java.lang.String" }] }
+                """));
+
+        final ArtifactMetadataResource second = counting(opened, resource("second.json", """
+                {
+                  "properties": [{ "name": "acme.second", "type": "java.lang.String" }],
+                  "hints": [{ "name": "acme.first", "values": [{ "value": "late" }] }]
+                }
+                """));
+
+        final List<Integer> reads = new ArrayList<>();
+        final List<ConfigurationMetadataProperty> properties = new ArrayList<>();
+
+        StreamingMetadataReader.read(List.of(first, second), property -> {
+            reads.add(opened.get());
+            properties.add(property);
+        });
+
+        // both resources are opened once to read the hints, the first property is passed before the
+        // second resource is opened again to read its properties
+        assertThat(reads)
+                .containsExactly(3, 4);
+
+        assertThat(properties)
+                .extracting(ConfigurationMetadataProperty::getId)
+                .containsExactly("acme.first", "acme.second");
+
+        assertThat(properties.getFirst().getHints().getValueHints())
+                .extracting(ValueHint::getValue)
+                .containsExactly("late");
+    }
+
+    @Test
+    @DisplayName("should fail to read invalid configuration metadata")
+    void shouldFailToReadInvalidMetadata() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> read(resource("invalid.json", "{Invalid JSON metadata}")))
+                .withMessageContaining("invalid.json");
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> read(resource("array.json", "[]")))
+                .withMessageContaining("array.json");
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> read(resource("unnamed.json", "{\"properties\":[{\"type\":\"java.lang.String\"}]}")))
+                .withMessageContaining("unnamed.json");
+    }
+
+    private static List<ConfigurationMetadataProperty> read(ArtifactMetadataResource... resources) throws IOException {
+        final List<ConfigurationMetadataProperty> properties = new ArrayList<>();
+        StreamingMetadataReader.read(List.of(resources), properties::add);
+        return properties;
+    }
+
+    private static ArtifactMetadataResource counting(AtomicInteger opened, ArtifactMetadataResource resource) {
+        return new ArtifactMetadataResource() {
+            @Override
+            public String name() {
+                return resource.name();
+            }
+
+            @Override
+            public InputStream open() throws IOException {
+                opened.incrementAndGet();
+                return resource.open();
+            }
+        };
+    }
+
+    private static ArtifactMetadataResource resource(String name, String contents) {
+        return ArtifactMetadataResource.of(name, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
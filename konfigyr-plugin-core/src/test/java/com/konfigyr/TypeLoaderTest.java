@@ -0,0 +1,89 @@
+package com.konfigyr;
+
+import com.konfigyr.test.TestApplicationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class TypeLoaderTest {
+
+    final TypeLoader loader = new TypeLoader(ClassLoader.getSystemClassLoader());
+
+    @MethodSource("types")
+    @DisplayName("should load types by their canonical name")
+    @ParameterizedTest(name = "should load {1} for: {0}")
+    void loadTypes(String name, Class<?> type) throws ClassNotFoundException {
+        assertThat(loader.<Object>load(name))
+                .isEqualTo(type);
+    }
+
+    @Test
+    @DisplayName("should load JDK types with the platform class loader")
+    void loadJdkTypes() throws ClassNotFoundException {
+        final Class<Object> type = loader.load("java.sql.Connection");
+
+        assertThat(type)
+                .isEqualTo(Connection.class);
+
+        assertThat(type.getClassLoader())
+                .isSameAs(ClassLoader.getPlatformClassLoader());
+
+        assertThat(loader.<Object>load(Duration.class))
+                .isEqualTo(Duration.class);
+    }
+
+    @Test
+    @DisplayName("should fail to load unknown types, every time they are loaded")
+    void unknownTypes() {
+        for (int i = 0; i < 2; i++) {
+            assertThatExceptionOfType(ClassNotFoundException.class)
+                    .isThrownBy(() -> loader.load("com.konfigyr.UnknownType"))
+                    .withMessageContaining("com.konfigyr.UnknownType");
+
+            assertThatExceptionOfType(ClassNotFoundException.class)
+                    .isThrownBy(() -> loader.load("com.konfigyr.test.TestApplicationProperties.Unknown"))
+                    .withMessageContaining("com.konfigyr.test.TestApplicationProperties.Unknown");
+
+            assertThatExceptionOfType(ClassNotFoundException.class)
+                    .isThrownBy(() -> loader.load("java.lang.Unknown[]"))
+                    .withMessageContaining("java.lang.Unknown");
+        }
+    }
+
+    @Test
+    @DisplayName("should throw a new exception every time an unknown type is loaded")
+    void unknownTypeExceptions() {
+        final Throwable first = catchThrowable(() -> loader.load("com.konfigyr.UnknownType"));
+        final Throwable second = catchThrowable(() -> loader.load("com.konfigyr.UnknownType"));
+
+        assertThat(second)
+                .isInstanceOf(ClassNotFoundException.class)
+                .isNotSameAs(first);
+    }
+
+    static Stream<Arguments> types() {
+        return Stream.of(
+                Arguments.of("int", int.class),
+                Arguments.of("long[][]", long[][].class),
+                Arguments.of("java.lang.String", String.class),
+                Arguments.of(" java.lang.String[] ", String[].class),
+                Arguments.of("java.util.Map.Entry", Map.Entry.class),
+                Arguments.of("java.util.Map$Entry", Map.Entry.class),
+                Arguments.of("com.konfigyr.test.TestApplicationProperties", TestApplicationProperties.class),
+                Arguments.of("com.konfigyr.test.TestApplicationProperties.Nested", TestApplicationProperties.Nested.class),
+                Arguments.of("com.konfigyr.test.TestApplicationProperties.Nested[]", TestApplicationProperties.Nested[].class)
+        );
+    }
+
+}
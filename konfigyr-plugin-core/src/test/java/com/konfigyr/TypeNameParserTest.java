@@ -0,0 +1,94 @@
+package com.konfigyr;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.fasterxml.classmate.TypeResolver;
+import com.konfigyr.test.TestApplicationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TypeNameParserTest {
+
+    final TypeLoader loader = new TypeLoader(ClassLoader.getSystemClassLoader());
+    final TypeResolver resolver = new TypeResolver();
+
+    @MethodSource("types")
+    @DisplayName("should parse type names used by the configuration metadata")
+    @ParameterizedTest(name = "should parse type name: {0}")
+    void parseTypeNames(String name, ResolvedType expected) throws ClassNotFoundException {
+        assertThat(parse(name))
+                .isEqualTo(expected);
+    }
+
+    @ValueSource(strings = {
+            "",
+            "invalid type name",
+            "java.lang.String>",
+            "java.util.List<java.lang.String",
+            "java.util.List<>",
+            "java.util.List<java.lang.String,>",
+            "java.lang.String[",
+            "java..lang.String",
+            "java.lang.String.",
+            "@Deprecated java.lang.String",
+            "java.util.List<@Deprecated java.lang.String>",
+            "java.util.Map.Entry<java.lang.String, java.lang.String>.Key",
+            "? extends java.lang.String"
+    })
+    @DisplayName("should reject type names that are not supported")
+    @ParameterizedTest(name = "should reject type name: \"{0}\"")
+    void rejectTypeNames(String name) throws ClassNotFoundException {
+        assertThat(parse(name))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("should fail to parse type names that could not be loaded")
+    void unknownTypeNames() {
+        assertThatExceptionOfType(ClassNotFoundException.class)
+                .isThrownBy(() -> parse("com.konfigyr.UnknownType"));
+
+        assertThatExceptionOfType(ClassNotFoundException.class)
+                .isThrownBy(() -> parse("java.util.List<com.konfigyr.UnknownType>"));
+    }
+
+    ResolvedType parse(String name) throws ClassNotFoundException {
+        return TypeNameParser.parse(name, loader, resolver);
+    }
+
+    static Stream<Arguments> types() {
+        final TypeResolver resolver = new TypeResolver();
+
+        return Stream.of(
+                Arguments.of("int", resolver.resolve(int.class)),
+                Arguments.of("boolean[]", resolver.resolve(boolean[].class)),
+                Arguments.of("java.lang.String", resolver.resolve(String.class)),
+                Arguments.of(" java.time.Duration ", resolver.resolve(Duration.class)),
+                Arguments.of("java.lang.String[][]", resolver.resolve(String[][].class)),
+                Arguments.of("java.util.List<java.lang.String>[]", resolver.resolve(List[].class)),
+                Arguments.of("com.konfigyr.test.TestApplicationProperties.Nested",
+                        resolver.resolve(TestApplicationProperties.Nested.class)),
+                Arguments.of("java.util.List<java.lang.String>", resolver.resolve(List.class, String.class)),
+                Arguments.of("java.util.Set<?>", resolver.resolve(Set.class, Object.class)),
+                Arguments.of("java.util.Set<? extends java.time.Duration>", resolver.resolve(Set.class, Duration.class)),
+                Arguments.of("java.util.Set<? super java.lang.Integer>", resolver.resolve(Set.class, Integer.class)),
+                Arguments.of("java.util.Map<java.lang.String,java.util.List<java.lang.Integer>>", resolver.resolve(
+                        Map.class, resolver.resolve(String.class), resolver.resolve(List.class, Integer.class))),
+                Arguments.of("java.util.Map< java.lang.String , int[] >", resolver.resolve(
+                        Map.class, String.class, int[].class))
+        );
+    }
+
+}
@@ -12,6 +12,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -152,6 +156,41 @@ class TypeNameResolverTest {
                 .isNull();
     }
 
+    @Test
+    @DisplayName("should resolve each type name exactly once when resolved concurrently")
+    void resolveConcurrently() throws Exception {
+        final List<String> names = List.of(
+                "java.lang.String",
+                "java.util.List<java.lang.String>",
+                "java.util.Map<java.lang.String, java.util.List<java.time.Duration>>",
+                "com.konfigyr.test.TestApplicationProperties.Nested",
+                "com.konfigyr.UnknownType"
+        );
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            final List<Future<List<ResolvedPropertyType>>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> names.stream().map(resolver::resolve).toList()));
+            }
+
+            final List<ResolvedPropertyType> expected = names.stream().map(resolver::resolve).toList();
+
+            for (Future<List<ResolvedPropertyType>> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS))
+                        .hasSameSizeAs(names)
+                        .usingElementComparator((left, right) -> left == right ? 0 : 1)
+                        .containsExactlyElementsOf(expected);
+            }
+
+            assertThat(expected).last().isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     ObjectAssert<ResolvedPropertyType> assertThatResolvedType(String className) {
         return assertThat(resolver.resolve(className));
     }
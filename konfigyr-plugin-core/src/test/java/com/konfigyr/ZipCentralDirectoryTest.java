@@ -0,0 +1,196 @@
+package com.konfigyr;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZipCentralDirectoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("should find and inflate deflated entries by their exact name")
+    void shouldReadDeflatedEntries() throws IOException {
+        final Path archive = createArchive("deflated.jar", false);
+
+        try (var zip = ZipCentralDirectory.open(archive)) {
+            assertThat(zip.find(List.of("META-INF/spring-configuration-metadata.json", "META-INF")))
+                    .singleElement()
+                    .satisfies(entry -> assertThat(entry.method()).isEqualTo(ZipCentralDirectory.DEFLATED))
+                    .satisfies(entry -> assertThat(zip.read(entry))
+                            .asString(StandardCharsets.UTF_8)
+                            .isEqualTo("{\"properties\":[]}"));
+        }
+    }
+
+    @Test
+    @DisplayName("should find and read stored entries")
+    void shouldReadStoredEntries() throws IOException {
+        final Path archive = createArchive("stored.jar", true);
+
+        try (var zip = ZipCentralDirectory.open(archive)) {
+            assertThat(zip.find(List.of("META-INF/spring-configuration-metadata.json")))
+                    .singleElement()
+                    .satisfies(entry -> assertThat(entry.method()).isEqualTo(ZipCentralDirectory.STORED))
+                    .satisfies(entry -> assertThat(zip.read(entry))
+                            .asString(StandardCharsets.UTF_8)
+                            .isEqualTo("{\"properties\":[]}"));
+        }
+    }
+
+    @Test
+    @DisplayName("should stream deflated and stored entries by re-opening the archive")
+    void shouldStreamEntries() throws IOException {
+        for (boolean stored : new boolean[] { true, false }) {
+            final Path archive = createArchive(stored ? "stream-stored.jar" : "stream-deflated.jar", stored);
+            final ZipCentralDirectory.Entry entry;
+
+            try (var zip = ZipCentralDirectory.open(archive)) {
+                entry = zip.find(List.of("META-INF/spring-configuration-metadata.json")).getFirst();
+            }
+
+            try (var is = ZipCentralDirectory.openStream(archive, entry)) {
+                assertThat(is).hasContent("{\"properties\":[]}");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should return entries in the order they are declared in the archive")
+    void shouldReturnEntriesInArchiveOrder() throws IOException {
+        final Path archive = createArchive("ordered.jar", false);
+
+        try (var zip = ZipCentralDirectory.open(archive)) {
+            assertThat(zip.find(List.of("com/acme/Widget.class", "META-INF/MANIFEST.MF")))
+                    .extracting(ZipCentralDirectory.Entry::name)
+                    .containsExactly("META-INF/MANIFEST.MF", "com/acme/Widget.class");
+        }
+    }
+
+    @Test
+    @DisplayName("should read archives that are prefixed with additional data, like self-executing jars")
+    void shouldReadPrefixedArchives() throws IOException {
+        final Path archive = dir.resolve("executable.jar");
+        Files.writeString(archive, "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n");
+        Files.write(archive, Files.readAllBytes(createArchive("plain.jar", false)), StandardOpenOption.APPEND);
+
+        try (var zip = ZipCentralDirectory.open(archive)) {
+            assertThat(zip.find(List.of("com/acme/Widget.class")))
+                    .singleElement()
+                    .satisfies(entry -> assertThat(zip.read(entry))
+                            .asString(StandardCharsets.UTF_8)
+                            .isEqualTo("not-real-bytecode"));
+        }
+    }
+
+    @Test
+    @DisplayName("should read stored nested archives in place, locating their entries in the outer archive")
+    void shouldReadStoredNestedArchivesInPlace() throws IOException {
+        final Path nested = createArchive("nested.jar", false);
+        final Path archive = dir.resolve("outer.jar");
+
+        try (var out = new ZipOutputStream(Files.newOutputStream(archive))) {
+            write(out, "BOOT-INF/lib/nested.jar", Files.readAllBytes(nested), true);
+        }
+
+        final ZipCentralDirectory.Entry entry;
+
+        try (var zip = ZipCentralDirectory.open(archive);
+             var library = zip.openNested(zip.find(List.of("BOOT-INF/lib/nested.jar")).getFirst())) {
+            assertThat(library.isFileBacked()).isTrue();
+
+            entry = library.find(List.of("META-INF/spring-configuration-metadata.json")).getFirst();
+
+            assertThat(library.read(entry))
+                    .asString(StandardCharsets.UTF_8)
+                    .isEqualTo("{\"properties\":[]}");
+        }
+
+        try (var is = ZipCentralDirectory.openStream(archive, entry)) {
+            assertThat(is).hasContent("{\"properties\":[]}");
+        }
+    }
+
+    @Test
+    @DisplayName("should inflate compressed nested archives into memory")
+    void shouldInflateCompressedNestedArchives() throws IOException {
+        final Path nested = createArchive("nested.jar", true);
+        final Path archive = dir.resolve("outer.war");
+
+        try (var out = new ZipOutputStream(Files.newOutputStream(archive))) {
+            write(out, "WEB-INF/lib/nested.jar", Files.readAllBytes(nested), false);
+        }
+
+        try (var zip = ZipCentralDirectory.open(archive);
+             var library = zip.openNested(zip.find(List.of("WEB-INF/lib/nested.jar")).getFirst())) {
+            assertThat(library.isFileBacked()).isFalse();
+
+            assertThat(library.find(List.of("com/acme/Widget.class")))
+                    .singleElement()
+                    .satisfies(entry -> assertThat(library.read(entry))
+                            .asString(StandardCharsets.UTF_8)
+                            .isEqualTo("not-real-bytecode"));
+        }
+    }
+
+    @Test
+    @DisplayName("should fail to open files that are not ZIP archives")
+    void shouldFailForInvalidArchives() throws IOException {
+        final Path archive = dir.resolve("invalid.jar");
+        Files.writeString(archive, "this is definitely not a valid ZIP archive");
+
+        assertThatThrownBy(() -> ZipCentralDirectory.open(archive))
+                .isInstanceOf(ZipException.class)
+                .hasMessageContaining(archive.toString());
+    }
+
+    private Path createArchive(String name, boolean stored) throws IOException {
+        final Path archive = dir.resolve(name);
+
+        try (var out = new ZipOutputStream(Files.newOutputStream(archive))) {
+            write(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n", stored);
+            write(out, "com/acme/Widget.class", "not-real-bytecode", stored);
+            write(out, "META-INF/spring-configuration-metadata.json", "{\"properties\":[]}", stored);
+        }
+
+        return archive;
+    }
+
+    private static void write(ZipOutputStream out, String name, String contents, boolean stored) throws IOException {
+        write(out, name, contents.getBytes(StandardCharsets.UTF_8), stored);
+    }
+
+    private static void write(ZipOutputStream out, String name, byte[] data, boolean stored) throws IOException {
+        final ZipEntry entry = new ZipEntry(name);
+
+        if (stored) {
+            final CRC32 crc = new CRC32();
+            crc.update(data);
+
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.konfigyr.schema;
+
+import com.konfigyr.TestEnumeration;
+import com.konfigyr.test.TestApplicationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ClassFileReaderTest {
+
+    @Test
+    @DisplayName("should read declared fields from the class file of a type")
+    void readFields() {
+        assertThat(ClassFileReader.readFields(TestFields.class))
+                .isNotNull()
+                .extracting(
+                        ClassFileReader.ClassFileField::name,
+                        ClassFileReader.ClassFileField::typeName,
+                        ClassFileReader.ClassFileField::deprecated
+                )
+                .containsExactly(
+                        tuple("CONSTANT", "java.lang.String", false),
+                        tuple("count", "int", false),
+                        tuple("name", "java.lang.String", false),
+                        tuple("timeout", "java.time.Duration", true),
+                        tuple("retired", "long", true),
+                        tuple("values", "int[]", false),
+                        tuple("matrix", "java.lang.String[][]", false),
+                        tuple("mappings", "java.util.Map", false),
+                        tuple("nested", "com.konfigyr.test.TestApplicationProperties$Nested", false),
+                        tuple("cache", "java.util.List", false)
+                );
+    }
+
+    @Test
+    @DisplayName("should read the same field access flags as reflection")
+    void readFieldAccessFlags() {
+        final List<ClassFileReader.ClassFileField> fields = ClassFileReader.readFields(TestFields.class);
+
+        assertThat(fields)
+                .isNotNull()
+                .extracting(ClassFileReader.ClassFileField::access)
+                .containsExactlyElementsOf(Arrays.stream(TestFields.class.getDeclaredFields())
+                        .map(Field::getModifiers)
+                        .toList());
+
+        assertThat(fields)
+                .filteredOn(field -> Modifier.isStatic(field.access()))
+                .extracting(ClassFileReader.ClassFileField::name)
+                .containsExactly("CONSTANT");
+
+        assertThat(fields)
+                .filteredOn(field -> Modifier.isTransient(field.access()))
+                .extracting(ClassFileReader.ClassFileField::name)
+                .containsExactly("cache");
+    }
+
+    @Test
+    @DisplayName("should read declared fields from the class file of a JDK type")
+    void readPlatformFields() {
+        assertThat(ClassFileReader.readFields(Duration.class))
+                .isNotNull()
+                .extracting(ClassFileReader.ClassFileField::name)
+                .contains("seconds", "nanos");
+    }
+
+    @Test
+    @DisplayName("should not read fields of types without a class file")
+    void readFieldsOfTypesWithoutClassFile() {
+        assertThat(ClassFileReader.readFields(int.class))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("should read the type header and methods from the class file of a type by its name")
+    void readClassFile() {
+        final ClassFileReader.ClassFile classFile = ClassFileReader.read(getClass().getClassLoader(), TestMethods.class.getName());
+
+        assertThat(classFile)
+                .isNotNull()
+                .returns(TestMethods.class.getName(), ClassFileReader.ClassFile::name)
+                .returns(TestFields.class.getName(), ClassFileReader.ClassFile::superName)
+                .returns(List.of(Runnable.class.getName()), ClassFileReader.ClassFile::interfaces);
+
+        assertThat(classFile.methods())
+                .filteredOn(method -> !method.name().startsWith("<"))
+                .extracting(
+                        ClassFileReader.ClassFileMethod::name,
+                        ClassFileReader.ClassFileMethod::descriptor,
+                        ClassFileReader.ClassFileMethod::deprecated
+                )
+                .containsExactlyInAnyOrder(
+                        tuple("getName", "()Ljava/lang/String;", false),
+                        tuple("isActive", "()Z", true),
+                        tuple("run", "()V", false)
+                );
+
+        assertThat(ClassFileReader.read(getClass().getClassLoader(), TestEnumeration.class.getName()))
+                .isNotNull()
+                .returns(Enum.class.getName(), ClassFileReader.ClassFile::superName)
+                .satisfies(file -> assertThat(file.access() & 0x4000).isNotZero());
+    }
+
+    @Test
+    @DisplayName("should not read class files of types that can not be found")
+    void readMissingClassFile() {
+        assertThat(ClassFileReader.read(getClass().getClassLoader(), "com.konfigyr.schema.MissingType"))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("should fail to read fields from malformed class files")
+    void readMalformedClassFile() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ClassFileReader.readFields(new byte[] { 1, 2, 3, 4 }))
+                .withMessage("Not a Java class file");
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ClassFileReader.readFields(new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0 }))
+                .withMessage("Malformed Java class file");
+    }
+
+    @SuppressWarnings("unused")
+    static class TestFields {
+        static final String CONSTANT = "constant";
+
+        private int count;
+        private String name;
+
+        @Deprecated
+        private Duration timeout;
+
+        /**
+         * @deprecated only here to be detected by the reader.
+         */
+        @Deprecated(since = "1.0.0", forRemoval = true)
+        private long retired;
+
+        private int[] values;
+        private String[][] matrix;
+        private Map<String, List<Integer>> mappings;
+        private TestApplicationProperties.Nested nested;
+        private transient List<String> cache;
+    }
+
+    @SuppressWarnings("unused")
+    static class TestMethods extends TestFields implements Runnable {
+        public String getName() {
+            return "name";
+        }
+
+        @Deprecated
+        public boolean isActive() {
+            return false;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+}
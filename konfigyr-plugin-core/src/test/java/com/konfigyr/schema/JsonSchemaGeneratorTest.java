@@ -19,6 +19,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+import org.springframework.boot.configurationmetadata.ValueHint;
 import org.springframework.core.io.Resource;
 import org.springframework.util.MimeType;
 import org.springframework.util.unit.DataSize;
@@ -28,6 +29,7 @@ import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
+import java.net.URL;
 import java.nio.charset.Charset;
 import java.time.*;
 import java.util.*;
@@ -35,7 +37,9 @@ import java.util.concurrent.atomic.LongAccumulator;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatObject;
+import static org.assertj.core.api.Assertions.entry;
 
 @ExtendWith(MockitoExtension.class)
 class JsonSchemaGeneratorTest {
@@ -120,6 +124,17 @@ class JsonSchemaGeneratorTest {
                 .returns(null, StringSchema::pattern);
     }
 
+    @MethodSource("knownSubtypeFormats")
+    @ParameterizedTest(name = "should generate string schema for \"{0}\" with {1} format")
+    @DisplayName("should generate string schema with the format of the first matching supertype")
+    void generatesSubtypeStringSchema(Class<?> type, String format) {
+        assertThatSchema(type)
+                .returns(JsonSchemaType.STRING, JsonSchema::type)
+                .isInstanceOf(StringSchema.class)
+                .asInstanceOf(InstanceOfAssertFactories.type(StringSchema.class))
+                .returns(format, StringSchema::format);
+    }
+
     @ValueSource(classes = { Boolean.class, boolean.class })
     @ParameterizedTest(name = "should generate boolean schema for \"{0}\"")
     @DisplayName("should generate simple boolean schema")
@@ -265,6 +280,194 @@ class JsonSchemaGeneratorTest {
                 .containsEntry("name", StringSchema.instance());
     }
 
+    @Test
+    @DisplayName("should generate schema for a Java object that inherits its properties")
+    void generatesForInheritedType() {
+        assertThatSchema(TestExtendedPojo.class)
+                .returns(JsonSchemaType.OBJECT, JsonSchema::type)
+                .isInstanceOf(ObjectSchema.class)
+                .asInstanceOf(InstanceOfAssertFactories.type(ObjectSchema.class))
+                .returns(List.of("count"), ObjectSchema::required)
+                .extracting(ObjectSchema::properties, InstanceOfAssertFactories.map(String.class, JsonSchema.class))
+                .containsOnlyKeys("count", "description", "nested")
+                .containsEntry("count", IntegerSchema.builder().format(KonfigyrFormat.INT64).build())
+                .containsEntry("description", StringSchema.instance())
+                .hasEntrySatisfying("nested", nested -> assertThatObject(nested)
+                        .isEqualTo(generator.generateSchema(typeResolver.resolve(TestPojo.class), metadata)));
+    }
+
+    @Test
+    @DisplayName("should generate schema for nested collections of the same type")
+    void generatesForNestedLists() {
+        assertThatSchema(typeResolver.resolve(List.class, typeResolver.resolve(List.class, String.class)))
+                .isEqualTo(ArraySchema.builder()
+                        .items(ArraySchema.builder().items(StringSchema.instance()).build())
+                        .build());
+    }
+
+    @Test
+    @DisplayName("should generate open object schemas for recursive occurrences of a self-referential type")
+    void generatesForSelfReferentialType() {
+        assertThatSchema(TestNode.class)
+                .isInstanceOf(ObjectSchema.class)
+                .asInstanceOf(InstanceOfAssertFactories.type(ObjectSchema.class))
+                .extracting(ObjectSchema::properties, InstanceOfAssertFactories.map(String.class, JsonSchema.class))
+                .containsOnlyKeys("name", "next", "path", "previous")
+                .containsEntry("name", StringSchema.instance())
+                .containsEntry("next", ObjectSchema.builder()
+                        .description(SchemaGenerationContext.RECURSIVE_DESCRIPTION)
+                        .build())
+                .containsEntry("path", ArraySchema.builder()
+                        .items(ObjectSchema.builder().description(SchemaGenerationContext.RECURSIVE_DESCRIPTION).build())
+                        .build())
+                .containsEntry("previous", ObjectSchema.builder()
+                        .deprecated(true)
+                        .description(SchemaGenerationContext.RECURSIVE_DESCRIPTION)
+                        .build());
+    }
+
+    @Test
+    @DisplayName("should keep the enclosing schema of recursive occurrences outside of the generated schema")
+    void keepsRecursiveSchemas() {
+        final JsonSchema schema = generator.generateSchema(typeResolver.resolve(TestNode.class), metadata);
+
+        assertThat(generator.getRecursiveSchemas(schema))
+                .containsOnly(
+                        entry("/properties/next", 1),
+                        entry("/properties/path/items", 2),
+                        entry("/properties/previous", 1)
+                );
+
+        assertThat(generator.getRecursiveSchemas(((ObjectSchema) schema).properties().get("name")))
+                .isEmpty();
+
+        assertThat(generator.getRecursiveSchemas(ObjectSchema.builder()
+                .description(SchemaGenerationContext.RECURSIVE_DESCRIPTION)
+                .build()))
+                .as("should not treat equal schemas that were not generated as recursive occurrences")
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("should generate the same schemas for mutually recursive types regardless of their order")
+    void generatesForMutuallyRecursiveTypes() {
+        final JsonSchema parent = generator.generateSchema(typeResolver.resolve(TestParent.class), metadata);
+        final JsonSchema child = generator.generateSchema(typeResolver.resolve(TestChild.class), metadata);
+
+        assertThatObject(parent)
+                .isEqualTo(ObjectSchema.builder()
+                        .property("child", ObjectSchema.builder()
+                                .property("parent", ObjectSchema.builder()
+                                        .description(SchemaGenerationContext.RECURSIVE_DESCRIPTION)
+                                        .build())
+                                .property("size", IntegerSchema.builder().format(KonfigyrFormat.INT32).build())
+                                .required("size")
+                                .build())
+                        .property("name", StringSchema.instance())
+                        .build());
+
+        final var reversed = new DefaultJsonSchemaGenerator(new TypeLoader(), typeResolver);
+
+        assertThatObject(reversed.generateSchema(typeResolver.resolve(TestChild.class), metadata))
+                .isEqualTo(child);
+
+        assertThatObject(reversed.generateSchema(typeResolver.resolve(TestParent.class), metadata))
+                .isEqualTo(parent);
+    }
+
+    @Test
+    @DisplayName("should truncate types that exceed the maximum depth of the schema generation budget")
+    void truncatesTypesExceedingMaxDepth() {
+        final var budget = SchemaGenerationBudget.builder().maxDepth(1).build();
+        final var truncating = JsonSchemaGenerator.builder()
+                .typeLoader(new TypeLoader())
+                .typeResolver(typeResolver)
+                .budget(budget)
+                .build();
+
+        assertThatObject(truncating.generateSchema(typeResolver.resolve(TestPojo.class), metadata))
+                .as("should expand types within the budget")
+                .isEqualTo(generator.generateSchema(typeResolver.resolve(TestPojo.class), metadata));
+
+        assertThatObject(truncating.generateSchema(typeResolver.resolve(TestExtendedPojo.class), metadata))
+                .isInstanceOf(ObjectSchema.class)
+                .asInstanceOf(InstanceOfAssertFactories.type(ObjectSchema.class))
+                .extracting(ObjectSchema::properties, InstanceOfAssertFactories.map(String.class, JsonSchema.class))
+                .containsOnlyKeys("count", "description", "nested")
+                .containsEntry("count", IntegerSchema.builder().format(KonfigyrFormat.INT64).build())
+                .containsEntry("description", StringSchema.instance())
+                .containsEntry("nested", ObjectSchema.builder()
+                        .description(SchemaGenerationContext.TRUNCATED_DESCRIPTION)
+                        .build());
+
+        assertThatObject(truncating.generateSchema(typeResolver.resolve(TestExtendedPojo.class), metadata))
+                .as("should not memoize truncated schemas")
+                .isNotSameAs(truncating.generateSchema(typeResolver.resolve(TestExtendedPojo.class), metadata));
+    }
+
+    @Test
+    @DisplayName("should truncate types that exceed the maximum nodes of the schema generation budget")
+    void truncatesTypesExceedingMaxNodes() {
+        final var budget = SchemaGenerationBudget.builder().maxNodes(1).build();
+        final var truncating = JsonSchemaGenerator.builder()
+                .typeLoader(new TypeLoader())
+                .typeResolver(typeResolver)
+                .budget(budget)
+                .build();
+
+        assertThatObject(truncating.generateSchema(typeResolver.resolve(List.class, TestPojo.class), metadata))
+                .isEqualTo(ArraySchema.builder()
+                        .items(ObjectSchema.builder()
+                                .description(SchemaGenerationContext.TRUNCATED_DESCRIPTION)
+                                .build())
+                        .build());
+
+        assertThatObject(truncating.generateSchema(typeResolver.resolve(TestPojo.class), metadata))
+                .as("should start with a new budget for every property")
+                .isEqualTo(generator.generateSchema(typeResolver.resolve(TestPojo.class), metadata));
+    }
+
+    @Test
+    @DisplayName("should reuse generated schemas for properties of the same type and hints")
+    void reusesGeneratedSchemas() {
+        final ResolvedType type = typeResolver.resolve(Map.class, String.class, TestPojo.class);
+        final JsonSchema schema = generator.generateSchema(type, metadata);
+
+        assertThatObject(generator.generateSchema(typeResolver.resolve(Map.class, String.class, TestPojo.class), metadata))
+                .isSameAs(schema);
+
+        assertThatObject(generator.generateSchema(type, property("acme.first", "b", "a")))
+                .isNotSameAs(schema)
+                .isSameAs(generator.generateSchema(type, property("acme.second", "a", "b")))
+                .isNotSameAs(generator.generateSchema(type, property("acme.third", "c")));
+
+        assertThatObject(generator.generateSchema(typeResolver.resolve(Map.class, String.class, TestRecord.class), metadata))
+                .isNotSameAs(schema);
+    }
+
+    @ValueSource(classes = {
+            TestPojo.class, TestExtendedPojo.class, TestRecord.class, TestNode.class,
+            TestParent.class, TestChild.class, TestFormats.class, Named.class
+    })
+    @ParameterizedTest(name = "should generate the same schema for {0} from class files without loading it")
+    @DisplayName("should generate the same schemas from class files as from the loaded types")
+    void generatesFromClassFiles(Class<?> type) {
+        final ResourceClassLoader loader = new ResourceClassLoader(getClass().getClassLoader());
+        final JsonSchemaGenerator introspector = JsonSchemaGenerator.builder()
+                .typeLoader(new TypeLoader(loader))
+                .typeResolver(typeResolver)
+                .introspection(JsonSchemaGenerator.Introspection.CLASS_FILE)
+                .build();
+
+        assertThatObject(introspector.generateSchema(typeResolver.resolve(type), metadata))
+                .isNotNull()
+                .isEqualTo(generator.generateSchema(typeResolver.resolve(type), metadata));
+
+        assertThat(loader.requested)
+                .as("Types requested from the class loader")
+                .isEmpty();
+    }
+
     ObjectAssert<JsonSchema> assertThatSchema(Class<?> type) {
         return assertThatSchema(typeResolver.resolve(type));
     }
@@ -274,6 +477,19 @@ class JsonSchemaGeneratorTest {
                 .isNotNull();
     }
 
+    static ConfigurationMetadataProperty property(String name, String... keyHints) {
+        final ConfigurationMetadataProperty property = new ConfigurationMetadataProperty();
+        property.setId(name);
+
+        for (String hint : keyHints) {
+            final ValueHint value = new ValueHint();
+            value.setValue(hint);
+            property.getHints().getKeyHints().add(value);
+        }
+
+        return property;
+    }
+
     static Stream<Arguments> customStringFormats() {
         return Stream.of(
                 Arguments.of(UUID.class, "uuid"),
@@ -293,6 +509,15 @@ class JsonSchemaGeneratorTest {
         );
     }
 
+    static Stream<Arguments> knownSubtypeFormats() {
+        return Stream.of(
+                Arguments.of(GregorianCalendar.class, "date-time"),
+                Arguments.of(SimpleTimeZone.class, "time-zone"),
+                Arguments.of(ZoneOffset.class, "time-zone"),
+                Arguments.of(StringBuilder.class, null)
+        );
+    }
+
     interface Named {
         String getName();
     }
@@ -310,8 +535,76 @@ class JsonSchemaGeneratorTest {
         }
     }
 
+    static class TestBasePojo {
+        static final String CONSTANT = "constant";
+
+        protected String description;
+        protected transient Object cache;
+    }
+
+    static class TestExtendedPojo extends TestBasePojo {
+        static int instances;
+
+        long count;
+        TestPojo nested;
+        transient String computed;
+    }
+
     record TestRecord(String name, int age, @Deprecated boolean active) {
 
     }
 
+    static class TestNode {
+        String name;
+        TestNode next;
+        @Deprecated
+        TestNode previous;
+        TestNode[] path;
+    }
+
+    static class TestParent {
+        String name;
+        TestChild child;
+    }
+
+    static class TestChild {
+        TestParent parent;
+        int size;
+    }
+
+    static class TestFormats {
+        DataSize size;
+        MimeType mimeType;
+        Resource resource;
+        Duration timeout;
+        TestEnumeration enumeration;
+        TestEnumeration[] enumerations;
+        List<TestPojo> pojos;
+    }
+
+    /**
+     * Class loader that exposes the class files of the given loader as resources, but fails to load any
+     * type that is not part of the platform.
+     */
+    static class ResourceClassLoader extends ClassLoader {
+        final List<String> requested = new ArrayList<>();
+        final ClassLoader resources;
+
+        ResourceClassLoader(ClassLoader resources) {
+            super(ClassLoader.getPlatformClassLoader());
+            this.resources = resources;
+        }
+
+        @Override
+        protected URL findResource(String name) {
+            return resources.getResource(name);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            requested.add(name);
+            throw new ClassNotFoundException(name);
+        }
+    }
+
 }
@@ -0,0 +1,289 @@
+package com.konfigyr.schema;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class JsonSchemaReferencesTest {
+
+    static final String NESTED = """
+            { "type": "object", "properties": { "host": { "type": "string" }, "port": { "type": "integer" } } }
+            """;
+
+    @Test
+    @DisplayName("should hoist repeated object schemas into shared definitions")
+    void hoistRepeatedObjectSchemas() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "primary": %1$s,
+                    "secondary": %1$s,
+                    "replicas": { "type": "array", "items": %1$s },
+                    "name": { "type": "string" }
+                  }
+                }
+                """.formatted(NESTED));
+
+        final JsonNode result = JsonSchemaReferences.hoist(schema);
+
+        assertThat(result.get("properties"))
+                .isEqualTo(read("""
+                        {
+                          "primary": { "$ref": "#/$defs/object-1" },
+                          "secondary": { "$ref": "#/$defs/object-1" },
+                          "replicas": { "type": "array", "items": { "$ref": "#/$defs/object-1" } },
+                          "name": { "type": "string" }
+                        }
+                        """));
+
+        assertThat(result.get(JsonSchemaReferences.DEFINITIONS))
+                .isEqualTo(read("{ \"object-1\": %s }".formatted(NESTED)));
+
+        assertThat(JsonSchemaReferences.inline(result))
+                .as("should inline the hoisted schema back into the original one")
+                .isEqualTo(schema);
+    }
+
+    @Test
+    @DisplayName("should hoist repeated object schemas that contain other repeated object schemas")
+    void hoistNestedRepeatedObjectSchemas() {
+        final String outer = """
+                { "type": "object", "properties": { "left": %1$s, "right": %1$s } }
+                """.formatted(NESTED);
+
+        final JsonNode schema = read("""
+                { "type": "object", "properties": { "first": %1$s, "second": %1$s } }
+                """.formatted(outer));
+
+        final JsonNode result = JsonSchemaReferences.hoist(schema);
+
+        assertThat(result.get(JsonSchemaReferences.DEFINITIONS))
+                .isEqualTo(read("""
+                        {
+                          "object-1": {
+                            "type": "object",
+                            "properties": {
+                              "left": { "$ref": "#/$defs/object-2" },
+                              "right": { "$ref": "#/$defs/object-2" }
+                            }
+                          },
+                          "object-2": %s
+                        }
+                        """.formatted(NESTED)));
+
+        assertThat(JsonSchemaReferences.inline(result))
+                .isEqualTo(schema);
+    }
+
+    @Test
+    @DisplayName("should not hoist schemas without repeated object schemas")
+    void hoistWithoutRepeatedObjectSchemas() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "primary": %s,
+                    "first": { "type": "string" },
+                    "second": { "type": "string" },
+                    "empty": { "type": "object", "properties": { } },
+                    "other": { "type": "object", "properties": { } }
+                  }
+                }
+                """.formatted(NESTED));
+
+        assertThat(JsonSchemaReferences.hoist(schema))
+                .isSameAs(schema);
+
+        final JsonNode string = read("{ \"type\": \"string\" }");
+
+        assertThat(JsonSchemaReferences.hoist(string))
+                .isSameAs(string);
+    }
+
+    @Test
+    @DisplayName("should not inline schemas without shared definitions")
+    void inlineWithoutDefinitions() {
+        final JsonNode schema = read("{ \"type\": \"object\", \"properties\": { \"primary\": %s } }".formatted(NESTED));
+
+        assertThat(JsonSchemaReferences.inline(schema))
+                .isSameAs(schema);
+    }
+
+    @Test
+    @DisplayName("should not modify the schema that is being inlined")
+    void inlineCopy() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": { "primary": { "$ref": "#/$defs/nested" } },
+                  "$defs": { "nested": %s }
+                }
+                """.formatted(NESTED));
+
+        final JsonNode copy = schema.deepCopy();
+
+        assertThat(JsonSchemaReferences.inline(schema))
+                .isEqualTo(read("{ \"type\": \"object\", \"properties\": { \"primary\": %s } }".formatted(NESTED)));
+
+        assertThat(schema)
+                .isEqualTo(copy);
+    }
+
+    @Test
+    @DisplayName("should keep references that do not point to the shared definitions")
+    void inlineExternalReferences() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "primary": { "$ref": "#/$defs/nested" },
+                    "external": { "$ref": "https://konfigyr.com/schemas/data-size.json" }
+                  },
+                  "$defs": { "nested": %s }
+                }
+                """.formatted(NESTED));
+
+        assertThat(JsonSchemaReferences.inline(schema).at("/properties/external"))
+                .isEqualTo(read("{ \"$ref\": \"https://konfigyr.com/schemas/data-size.json\" }"));
+    }
+
+    @Test
+    @DisplayName("should fail to inline schemas that reference unknown definitions")
+    void inlineUnknownDefinition() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": { "primary": { "$ref": "#/$defs/unknown" } },
+                  "$defs": { "nested": %s }
+                }
+                """.formatted(NESTED));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> JsonSchemaReferences.inline(schema))
+                .withMessage("JSON Schema references an unknown definition: unknown");
+    }
+
+    @Test
+    @DisplayName("should write recursive occurrences of the root schema as references to the document root")
+    void hoistRootRecursion() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "name": { "type": "string" },
+                    "next": { "type": "object", "description": "%s" }
+                  }
+                }
+                """.formatted(SchemaGenerationContext.RECURSIVE_DESCRIPTION));
+
+        final JsonNode result = JsonSchemaReferences.hoist(schema, Map.of("/properties/next", 1));
+
+        assertThat(result.at("/properties/next"))
+                .isEqualTo(read("""
+                        { "$ref": "#", "type": "object", "description": "%s" }
+                        """.formatted(SchemaGenerationContext.RECURSIVE_DESCRIPTION)));
+
+        assertThat(result.has(JsonSchemaReferences.DEFINITIONS))
+                .isFalse();
+
+        assertThat(JsonSchemaReferences.inline(result))
+                .as("should inline the reference back into the recursive occurrence")
+                .isEqualTo(schema);
+    }
+
+    @Test
+    @DisplayName("should write recursive occurrences of nested schemas as references to their shared definitions")
+    void hoistNestedRecursion() {
+        final String node = """
+                { "type": "object", "properties": { "next": { "type": "object", "description": "%s" } } }
+                """.formatted(SchemaGenerationContext.RECURSIVE_DESCRIPTION);
+
+        final JsonNode schema = read("""
+                { "type": "object", "properties": { "head": %1$s, "tail": %1$s } }
+                """.formatted(node));
+
+        final JsonNode result = JsonSchemaReferences.hoist(schema, Map.of(
+                "/properties/head/properties/next", 1,
+                "/properties/tail/properties/next", 1
+        ));
+
+        assertThat(result.get("properties"))
+                .isEqualTo(read("""
+                        { "head": { "$ref": "#/$defs/object-1" }, "tail": { "$ref": "#/$defs/object-1" } }
+                        """));
+
+        assertThat(result.get(JsonSchemaReferences.DEFINITIONS))
+                .isEqualTo(read("""
+                        {
+                          "object-1": {
+                            "type": "object",
+                            "properties": {
+                              "next": { "$ref": "#/$defs/object-1", "type": "object", "description": "%s" }
+                            }
+                          }
+                        }
+                        """.formatted(SchemaGenerationContext.RECURSIVE_DESCRIPTION)));
+
+        assertThat(JsonSchemaReferences.inline(result))
+                .as("should inline the references back into the recursive occurrences")
+                .isEqualTo(schema);
+    }
+
+    @Test
+    @DisplayName("should inline definitions that reference themselves as recursive occurrences")
+    void inlineSelfReferencingDefinition() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": { "node": { "$ref": "#/$defs/node" } },
+                  "$defs": {
+                    "node": { "type": "object", "properties": { "next": { "$ref": "#/$defs/node" } } }
+                  }
+                }
+                """);
+
+        assertThat(JsonSchemaReferences.inline(schema))
+                .isEqualTo(read("""
+                        {
+                          "type": "object",
+                          "properties": {
+                            "node": {
+                              "type": "object",
+                              "properties": { "next": { "type": "object" } }
+                            }
+                          }
+                        }
+                        """));
+    }
+
+    @Test
+    @DisplayName("should not treat schemas as recursive occurrences based on their description")
+    void hoistWithoutRecursions() {
+        final JsonNode schema = read("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "next": { "type": "object", "description": "%s" }
+                  }
+                }
+                """.formatted(SchemaGenerationContext.RECURSIVE_DESCRIPTION));
+
+        assertThat(JsonSchemaReferences.hoist(schema))
+                .isSameAs(schema);
+
+        assertThat(JsonSchemaReferences.hoist(schema, Map.of("/properties/unknown", 1)))
+                .isSameAs(schema);
+    }
+
+    static JsonNode read(String json) {
+        return JsonMapper.shared().readTree(json);
+    }
+
+}
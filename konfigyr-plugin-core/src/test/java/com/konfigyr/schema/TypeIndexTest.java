@@ -0,0 +1,106 @@
+package com.konfigyr.schema;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeIndexTest {
+
+    final TypeIndex<String> index = new TypeIndex<>(types());
+
+    @Test
+    @DisplayName("should get values registered for exactly the given type")
+    void getExactType() {
+        assertThat(index.get(Integer.class))
+                .isEqualTo("integer");
+
+        assertThat(index.get(int.class))
+                .isEqualTo("int");
+
+        assertThat(index.get(AtomicInteger.class))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("should prefer values registered for exactly the given type over its supertypes")
+    void findExactType() {
+        assertThat(index.find(Integer.class))
+                .isEqualTo("integer");
+
+        assertThat(index.find(String.class))
+                .isEqualTo("string");
+    }
+
+    @Test
+    @DisplayName("should find values of the first registered supertype of the given type")
+    void findSupertype() {
+        assertThat(index.find(AtomicInteger.class))
+                .as("should match the number superclass")
+                .isEqualTo("number");
+
+        assertThat(index.find(StringBuilder.class))
+                .as("should match the char sequence interface")
+                .isEqualTo("char sequence");
+
+        assertThat(index.find(ArrayList.class))
+                .as("should match the first registered interface, not the closest one")
+                .isEqualTo("collection");
+
+        assertThat(index.find(LinkedList.class))
+                .isEqualTo("collection");
+    }
+
+    @Test
+    @DisplayName("should not find values for types without registered supertypes")
+    void findMissingTypes() {
+        assertThat(index.find(Object.class))
+                .isNull();
+
+        assertThat(index.find(long.class))
+                .isNull();
+
+        assertThat(index.find(Map.class))
+                .isNull();
+
+        assertThat(index.find(Object[].class))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("should find the same values as a scan over the registered types")
+    void findSameValuesAsScan() {
+        final Map<Class<?>, String> types = types();
+
+        for (Class<?> type : List.of(AtomicInteger.class, StringBuilder.class, ArrayList.class, Vector.class,
+                HashSet.class, TreeSet.class, Integer.class, Optional.class, Serializable.class)) {
+            final String expected = types.entrySet().stream()
+                    .filter(entry -> entry.getKey().isAssignableFrom(type))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+
+            assertThat(index.find(type))
+                    .as("should find value for type: %s", type)
+                    .isEqualTo(types.containsKey(type) ? types.get(type) : expected);
+        }
+    }
+
+    static Map<Class<?>, String> types() {
+        final Map<Class<?>, String> types = new LinkedHashMap<>();
+        types.put(CharSequence.class, "char sequence");
+        types.put(Number.class, "number");
+        types.put(Collection.class, "collection");
+        types.put(String.class, "string");
+        types.put(Integer.class, "integer");
+        types.put(int.class, "int");
+        types.put(List.class, "list");
+        types.put(Set.class, "set");
+        return types;
+    }
+
+}
@@ -1,7 +1,7 @@
 package com.konfigyr.gradle;
 
 import com.konfigyr.ArtifactMetadataResource;
-import com.konfigyr.ArtifactMetadataScanner;
+import com.konfigyr.MetadataPathMatcher;
 import com.konfigyr.artifactory.PropertyDescriptor;
 import org.gradle.api.GradleException;
 import org.gradle.api.artifacts.transform.*;
@@ -11,8 +11,10 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.SetProperty;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.CompileClasspath;
+import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.jspecify.annotations.NullMarked;
 
@@ -90,7 +92,12 @@ public abstract class ArtifactMetadataTransform implements TransformAction<Artif
         try {
             // Local project modules expose a class-output directory, not a JAR.
             // The service's own metadata lives here before the jar task runs.
-            final List<ArtifactMetadataResource> candidates = ArtifactMetadataScanner.scan(artifact);
+            final ArtifactoryService service = getParameters().getService().get();
+            final MetadataPathMatcher matcher = ArtifactoryService.createMetadataPathMatcher(
+                    getParameters().getAdditionalMetadataLocations().get(),
+                    getParameters().getAdditionalNestedArchives().get()
+            );
+            final List<ArtifactMetadataResource> candidates = service.scanArtifactMetadata(artifact, matcher);
 
             if (candidates.isEmpty()) {
                 logger.debug("No Spring Boot configuration metadata files found in artifact: {}", artifact);
@@ -98,7 +105,6 @@ public abstract class ArtifactMetadataTransform implements TransformAction<Artif
             }
 
             final File output = outputs.file(METADATA_FILE_NAME);
-            final ArtifactoryService service = getParameters().getService().get();
 
             if (logger.isDebugEnabled()) {
                 logger.debug("Generating configuration property descriptors into: {}", output);
@@ -107,7 +113,9 @@ public abstract class ArtifactMetadataTransform implements TransformAction<Artif
             final List<File> classpath = new ArrayList<>(getDependencies().getFiles());
             classpath.add(artifact);
 
-            service.writePropertyDescriptorMetadata(candidates, classpath, output);
+            // descriptors are sorted next to the output of this transform, which Gradle removes before the
+            // artifact is transformed again, so spilled descriptors of an interrupted transform never linger
+            service.writePropertyDescriptorMetadata(candidates, classpath, output, output.getParentFile());
         } catch (Exception ex) {
             throw new GradleException("Failed to generate Konfigyr property descriptor metadata for artifact: " +
                     artifact, ex);
@@ -127,6 +135,26 @@ public abstract class ArtifactMetadataTransform implements TransformAction<Artif
         @Internal
         Property<ArtifactoryService> getService();
 
+        /**
+         * Patterns of the configuration metadata file locations that are scanned in addition to the
+         * {@link MetadataPathMatcher#defaults() default} ones. Part of the cache key of the transform,
+         * artifacts are transformed again once the patterns change.
+         *
+         * @return the additional metadata location patterns, never {@literal null}.
+         */
+        @Input
+        SetProperty<String> getAdditionalMetadataLocations();
+
+        /**
+         * Patterns of the nested archive locations that are scanned in addition to the
+         * {@link MetadataPathMatcher#defaults() default} ones. Part of the cache key of the transform,
+         * artifacts are transformed again once the patterns change.
+         *
+         * @return the additional nested archive patterns, never {@literal null}.
+         */
+        @Input
+        SetProperty<String> getAdditionalNestedArchives();
+
     }
 
 }
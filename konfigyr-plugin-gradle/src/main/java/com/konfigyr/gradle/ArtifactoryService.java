@@ -2,28 +2,37 @@ package com.konfigyr.gradle;
 
 import com.konfigyr.*;
 import com.konfigyr.artifactory.*;
+import com.konfigyr.schema.JsonSchemaGenerator;
+import com.konfigyr.schema.JsonSchemaReferences;
+import com.konfigyr.schema.SchemaGenerationBudget;
 import org.gradle.api.GradleException;
 import org.gradle.api.artifacts.PublishException;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.SequenceWriter;
 import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * Gradle {@link BuildService} for interacting with the Konfigyr Artifactory REST API.
@@ -35,18 +44,99 @@ import java.util.stream.StreamSupport;
  * token/discovery cache. Every method that talks to a registry takes its name as the first
  * argument to select which of those clients to use, this service itself is keyed by the
  * registry name rather than bound to a single one.
+ * <p>
+ * When a {@link Parameters#getScanIndex() scan index} is configured, artifacts are scanned for Spring
+ * Boot configuration metadata through a persistent {@link ArtifactMetadataIndex}, shared by every build
+ * and daemon using the same Gradle user home, which is flushed once this service is closed at the end
+ * of the build. Likewise, when a {@link Parameters#getMetadataFreeArtifacts() metadata free artifact filter}
+ * is configured, dependencies resolved from the Gradle module cache that are known to contain no metadata
+ * are skipped without being scanned at all.
+ * <p>
+ * Artifacts are scanned for the metadata locations and nested archives of the configured
+ * {@link MetadataPathMatcher}, which are the {@link MetadataPathMatcher#defaults() defaults} extended with the
+ * {@link Parameters#getAdditionalMetadataLocations() additional metadata locations} and
+ * {@link Parameters#getAdditionalNestedArchives() additional nested archives}. The index and the filter record
+ * their entries per matcher, so builds that configure different patterns can share the same files.
+ * <p>
+ * In continuous builds, class-output directories of local project modules are scanned through an
+ * {@link ArtifactMetadataDirectoryWatcher}, which outlives this service in the {@link DirectoryWatcherRegistry}
+ * and keeps their scan results until their configuration metadata changes. Tasks that consume those
+ * directories are invalidated once a change is detected, see {@link #isArtifactMetadataChanged(Iterable)}.
+ * <p>
+ * Generated {@link PropertyDescriptor}s are kept in a {@link PropertyDescriptorCache} for the duration of
+ * the build, so projects that depend on the same library version, resolved against the same classpath,
+ * reuse its descriptors instead of generating them again. Class loaders used to resolve the property
+ * types are leased from a {@link ClassLoaderPool}, so they are shared by every artifact that is parsed
+ * against the same classpath. Every classpath is loaded by a single class loader, so the generated property
+ * descriptors never depend on the order in which artifacts are parsed. Pooled class loaders are closed once
+ * this service is closed.
+ * <p>
+ * When {@link Parameters#getSchemaReferences() schema references} are enabled, the JSON schemas of the written
+ * property descriptor metadata are converted into their {@link JsonSchemaReferences referenced form}, which writes
+ * repeated nested object schemas only once, and the recursive occurrences of self-referential types as references
+ * to their enclosing schema. The recursive schemas are kept next to the parsed descriptors, as reported by the
+ * {@link ArtifactMetadataParser#getRecursiveSchemas parser}, until their descriptors are written. Schemas are
+ * always converted back into their inline form when the property descriptor metadata is read, so the uploaded
+ * artifact metadata is the same in both modes.
+ * <p>
+ * The JSON schema of every property is generated within the {@link SchemaGenerationBudget} created from the
+ * {@link Parameters#getMaxSchemaDepth() maximum depth}, {@link Parameters#getMaxSchemaNodes() maximum nodes}
+ * and the optional {@link Parameters#getMaxSchemaTime() maximum time} parameters.
+ * <p>
+ * When {@link Parameters#getClassFileIntrospection() class file introspection} is enabled, the property schemas
+ * are generated by reading the class files of the property types, see {@link JsonSchemaGenerator.Introspection},
+ * instead of loading every type that is reachable from them into the pooled class loaders.
  *
  * @author Vladimir Spasic
  * @since 1.0.0
  * @see ArtifactoryClient
  */
 @NullMarked
-public abstract class ArtifactoryService implements BuildService<ArtifactoryService.Parameters> {
+public abstract class ArtifactoryService implements BuildService<ArtifactoryService.Parameters>, AutoCloseable {
+
+    /**
+     * Name of the Gradle module cache directory, where every resolved external dependency is located.
+     */
+    static final String MODULE_CACHE_DIRECTORY = "files-2.1";
+
+    /**
+     * Name of the JSON property of a serialized {@link PropertyDescriptor} that contains its JSON schema.
+     */
+    static final String SCHEMA_PROPERTY = "schema";
+
+    /**
+     * Maximum number of property descriptors of an artifact that are kept in the {@link PropertyDescriptorCache}
+     * when its metadata is written, which is the number of descriptors the {@link PropertyDescriptorSorter} keeps
+     * in memory, so that writing the metadata of larger artifacts never holds all of their descriptors.
+     */
+    static final int MAXIMUM_CACHED_DESCRIPTORS = PropertyDescriptorSorter.DEFAULT_BUFFER_SIZE;
 
     private final Logger logger = Logging.getLogger(ArtifactoryService.class);
 
     private final Map<String, ArtifactoryClient> clients;
     private final JsonMapper mapper;
+    private final MetadataPathMatcher matcher;
+
+    @Nullable
+    private final ArtifactMetadataIndex index;
+
+    @Nullable
+    private final MetadataFreeArtifactFilter filter;
+
+    @Nullable
+    private final ArtifactMetadataDirectoryWatcher watcher;
+
+    private final Set<File> changedDirectories = ConcurrentHashMap.newKeySet();
+    private final ArtifactMetadataDirectoryWatcher.Listener changeListener = this::onArtifactMetadataChange;
+
+    private final PropertyDescriptorCache descriptorCache = new PropertyDescriptorCache();
+    private final ClassLoaderPool classLoaders = new ClassLoaderPool();
+    private final boolean schemaReferences;
+    private final JsonSchemaGenerator.Introspection introspection;
+    private final SchemaGenerationBudget budget;
+
+    // recursive schemas of the parsed, or cached, property descriptor schemas, when schema references are enabled
+    private final Map<JsonSchema, Map<String, Integer>> recursiveSchemas = Collections.synchronizedMap(new IdentityHashMap<>());
 
     /**
      * Creates a new {@link ArtifactoryService} instance.
@@ -64,6 +154,32 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
         registries.forEach((name, registry) -> clients.put(name, factory.create(registry)));
 
         this.clients = Collections.unmodifiableMap(clients);
+        this.matcher = createMetadataPathMatcher(
+                getParameters().getAdditionalMetadataLocations().getOrElse(Set.of()),
+                getParameters().getAdditionalNestedArchives().getOrElse(Set.of())
+        );
+        this.index = getParameters().getScanIndex().isPresent()
+                ? new ArtifactMetadataIndex(getParameters().getScanIndex().get().getAsFile().toPath())
+                : null;
+        this.filter = getParameters().getMetadataFreeArtifacts().isPresent()
+                ? new MetadataFreeArtifactFilter(getParameters().getMetadataFreeArtifacts().get().getAsFile().toPath())
+                : null;
+        this.watcher = getParameters().getWatchDirectories().getOrElse(false)
+                ? DirectoryWatcherRegistry.obtain(matcher)
+                : null;
+        this.schemaReferences = getParameters().getSchemaReferences().getOrElse(false);
+        this.introspection = getParameters().getClassFileIntrospection().getOrElse(false)
+                ? JsonSchemaGenerator.Introspection.CLASS_FILE
+                : JsonSchemaGenerator.Introspection.REFLECTION;
+        this.budget = createSchemaGenerationBudget(
+                getParameters().getMaxSchemaDepth().getOrElse(SchemaGenerationBudget.DEFAULT.maxDepth()),
+                getParameters().getMaxSchemaNodes().getOrElse(SchemaGenerationBudget.DEFAULT.maxNodes()),
+                getParameters().getMaxSchemaTime().getOrNull()
+        );
+
+        if (watcher != null) {
+            watcher.addListener(changeListener);
+        }
     }
 
     /**
@@ -76,6 +192,61 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
     ArtifactoryService(Map<String, ArtifactoryClient> clients) {
         this.mapper = ArtifactoryClientFactory.createDefaultJsonMapper();
         this.clients = clients;
+        this.matcher = MetadataPathMatcher.defaults();
+        this.index = null;
+        this.filter = null;
+        this.watcher = null;
+        this.schemaReferences = false;
+        this.introspection = JsonSchemaGenerator.Introspection.REFLECTION;
+        this.budget = SchemaGenerationBudget.DEFAULT;
+    }
+
+    /**
+     * Creates the {@link MetadataPathMatcher} that matches the {@link MetadataPathMatcher#defaults() default}
+     * metadata locations and nested archives, as well as the given additional patterns.
+     *
+     * @param metadataLocations additional patterns of the metadata file locations, cannot be {@literal null}.
+     * @param nestedArchives additional patterns of the nested archive locations, cannot be {@literal null}.
+     * @return the metadata path matcher, never {@literal null}.
+     * @throws GradleException if any of the additional patterns is invalid.
+     */
+    static MetadataPathMatcher createMetadataPathMatcher(Collection<String> metadataLocations, Collection<String> nestedArchives) {
+        try {
+            return MetadataPathMatcher.defaults().extend(metadataLocations, nestedArchives);
+        } catch (IllegalArgumentException ex) {
+            throw new GradleException("Invalid Konfigyr metadata location or nested archive pattern: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Creates the {@link SchemaGenerationBudget} that the JSON schema of every property is generated within.
+     *
+     * @param maxDepth the maximum number of nested types that are expanded, must be positive.
+     * @param maxNodes the maximum number of schemas that are generated, must be positive.
+     * @param maxTime the maximum generation time in milliseconds, or {@literal null} for no time limit.
+     * @return the schema generation budget, never {@literal null}.
+     * @throws GradleException if any of the limits is not positive.
+     */
+    static SchemaGenerationBudget createSchemaGenerationBudget(int maxDepth, int maxNodes, @Nullable Long maxTime) {
+        if (maxDepth < 1 || maxNodes < 1 || (maxTime != null && maxTime < 1)) {
+            throw new GradleException("Invalid Konfigyr schema budget, the 'maxDepth', 'maxNodes' and 'maxTime' " +
+                    "limits must be positive, got: " + maxDepth + ", " + maxNodes + " and " + maxTime);
+        }
+
+        return SchemaGenerationBudget.builder()
+                .maxDepth(maxDepth)
+                .maxNodes(maxNodes)
+                .maxTime(maxTime == null ? null : Duration.ofMillis(maxTime))
+                .build();
+    }
+
+    /**
+     * Returns the {@link MetadataPathMatcher} that artifacts are scanned with by default.
+     *
+     * @return the configured metadata path matcher, never {@literal null}.
+     */
+    public MetadataPathMatcher getMetadataPathMatcher() {
+        return matcher;
     }
 
     private ArtifactoryClient resolveClient(String registryName) {
@@ -90,13 +261,112 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
         return client;
     }
 
+    /**
+     * Scans the given jar file or class-output directory for Spring Boot configuration metadata, through
+     * the persistent {@link ArtifactMetadataIndex} when one is configured, so that jars which were already
+     * scanned by a previous build are resolved with a single index lookup.
+     * <p>
+     * Jars resolved from the Gradle module cache that are recorded in the {@link MetadataFreeArtifactFilter},
+     * when one is configured, are not scanned at all, and jars that turn out to contain no metadata are
+     * recorded in it. Directories are scanned through the {@link ArtifactMetadataDirectoryWatcher}, when
+     * directories are watched, which only reads their metadata files again once they have changed.
+     *
+     * @param artifact the jar file or directory to scan, cannot be {@literal null}.
+     * @return the metadata resources found, empty if the artifact contains none or does not exist.
+     * @throws IOException if the artifact is a jar file that could not be read.
+     * @see #getMetadataPathMatcher()
+     */
+    public List<ArtifactMetadataResource> scanArtifactMetadata(File artifact) throws IOException {
+        return scanArtifactMetadata(artifact, matcher);
+    }
+
+    /**
+     * Scans the given jar file or class-output directory for the Spring Boot configuration metadata matched
+     * by the given {@link MetadataPathMatcher}, see {@link #scanArtifactMetadata(File)}. Directories are only
+     * scanned through the {@link ArtifactMetadataDirectoryWatcher} when the given matcher is the configured
+     * one, they are scanned directly otherwise.
+     *
+     * @param artifact the jar file or directory to scan, cannot be {@literal null}.
+     * @param matcher the matcher of the metadata locations and nested archives, cannot be {@literal null}.
+     * @return the metadata resources found, empty if the artifact contains none or does not exist.
+     * @throws IOException if the artifact is a jar file that could not be read.
+     */
+    public List<ArtifactMetadataResource> scanArtifactMetadata(File artifact, MetadataPathMatcher matcher) throws IOException {
+        if (watcher != null && artifact.isDirectory() && watcher.getMatcher().equals(matcher)) {
+            return watcher.scan(artifact);
+        }
+
+        final String key = filter == null ? null : metadataFreeArtifactKey(artifact);
+
+        if (filter != null && key != null && filter.isMetadataFree(key, matcher)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Skipping scan of {}, it is known to contain no configuration metadata", artifact);
+            }
+            return List.of();
+        }
+
+        final List<ArtifactMetadataResource> resources = index == null
+                ? ArtifactMetadataScanner.scan(artifact, matcher)
+                : index.scan(artifact, matcher);
+
+        if (filter != null && key != null && resources.isEmpty()) {
+            filter.add(key, matcher);
+        }
+
+        return resources;
+    }
+
+    /**
+     * Scans every given jar file or class-output directory for Spring Boot configuration metadata, concurrently,
+     * see {@link ArtifactMetadataScanner#scanAll(Iterable, ArtifactMetadataScanner.Scan)}. Every artifact is
+     * scanned just like {@link #scanArtifactMetadata(File)} scans it, so the scan results are recorded in the
+     * {@link ArtifactMetadataIndex} and the {@link MetadataFreeArtifactFilter}, when they are configured.
+     *
+     * @param artifacts the jar files or directories to scan, cannot be {@literal null}.
+     * @return the scan results keyed by artifact, in the order the artifacts were given, never {@literal null}.
+     */
+    public Map<File, ArtifactMetadataScanner.Result> scanArtifactMetadata(Iterable<? extends File> artifacts) {
+        return ArtifactMetadataScanner.scanAll(artifacts, this::scanArtifactMetadata);
+    }
+
+    /**
+     * Checks whether the configuration metadata of any of the given class-output directories has changed
+     * since it was last scanned by this, or a previous, build of the daemon. Used to invalidate the outputs
+     * of the tasks that consume these directories. Changes are only detected when directories are watched,
+     * which is the case in continuous builds, otherwise this method always returns {@literal false}.
+     *
+     * @param artifacts the jar files or directories to check, cannot be {@literal null}.
+     * @return {@literal true} if the metadata of at least one of the given directories has changed.
+     */
+    public boolean isArtifactMetadataChanged(Iterable<? extends File> artifacts) {
+        if (watcher == null) {
+            return false;
+        }
+
+        watcher.poll();
+
+        for (File artifact : artifacts) {
+            if (changedDirectories.contains(artifact.toPath().toAbsolutePath().normalize().toFile())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void onArtifactMetadataChange(File directory) {
+        logger.info("Spring Boot configuration metadata has changed in: {}", directory);
+        changedDirectories.add(directory);
+    }
+
     /**
      * Attempts to parse the given collection of {@link ArtifactMetadataResource}s into a
      * list of {@link PropertyDescriptor}s.
      * <p>
      * This method would create a {@link ClassLoader} that can resolve the Java types to construct
      * the {@link com.konfigyr.artifactory.JsonSchema} for each property using the specified collection
-     * of classpath files, usually jars.
+     * of classpath files, usually jars. The properties are resolved concurrently using the common
+     * fork-join pool.
      *
      * @param metadata the collection of Spring Boot configuration metadata resources, cannot be {@literal null}.
      * @param classpath the collection of files used to create a {@link ClassLoader}, cannot be {@literal null}.
@@ -106,24 +376,28 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
             Iterable<? extends ArtifactMetadataResource> metadata,
             Iterable<? extends File> classpath
     ) {
-        final URLClassLoader classLoader = createClassLoader(classpath);
-        final List<PropertyDescriptor> descriptors;
+        final PropertyDescriptorCache.Key key = PropertyDescriptorCache.Key.of(metadata, classpath);
+        final List<PropertyDescriptor> cached = descriptorCache.get(key);
 
-        try {
-            descriptors = new ArtifactMetadataParser(classLoader).parse(metadata);
-        } finally {
-            try {
-                classLoader.close();
-            } catch (IOException ex) {
-                logger.warn("Failed to close artifact metadata class loader", ex);
+        if (cached != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Reusing {} cached property descriptors", cached.size());
             }
+            return cached;
         }
 
+        final List<PropertyDescriptor> descriptors = new ArrayList<>();
+        parsePropertyDescriptors(metadata, classpath, descriptors::add);
+
+        descriptors.sort(PropertyDescriptor::compareTo);
+
         if (logger.isDebugEnabled()) {
             logger.debug("Successfully generated {} property descriptors", descriptors.size());
         }
 
-        return descriptors;
+        descriptorCache.put(key, descriptors);
+
+        return Collections.unmodifiableList(descriptors);
     }
 
     /**
@@ -133,17 +407,129 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
      * This method would create a {@link ClassLoader} that can resolve the Java types to construct
      * the {@link com.konfigyr.artifactory.JsonSchema} for each property using the specified collection
      * of classpath files, usually jars.
+     * <p>
+     * Descriptors of artifacts that declare many properties are sorted on disk, in the given temporary
+     * directory, which should be owned by the caller so that it is cleaned up by Gradle.
      *
      * @param metadata the collection of Spring Boot configuration metadata resources, cannot be {@literal null}.
      * @param classpath the collection of files used to create a {@link ClassLoader}, cannot be {@literal null}.
      * @param target the target file where the metadata should be written, cannot be {@literal null}.
+     * @param temporaryDirectory the directory where the descriptors are sorted, cannot be {@literal null}.
      */
     public void writePropertyDescriptorMetadata(
             Iterable<? extends ArtifactMetadataResource> metadata,
             Iterable<? extends File> classpath,
-            File target
+            File target,
+            File temporaryDirectory
     ) {
-        mapper.writeValue(target, parsePropertyDescriptors(metadata, classpath));
+        final PropertyDescriptorCache.Key key = PropertyDescriptorCache.Key.of(metadata, classpath);
+        final List<PropertyDescriptor> cached = descriptorCache.get(key);
+
+        if (cached != null) {
+            try (SequenceWriter writer = createPropertyDescriptorWriter(target)) {
+                cached.forEach(descriptor -> writePropertyDescriptor(writer, descriptor,
+                        recursiveSchemas.get(descriptor.schema())));
+            }
+            return;
+        }
+
+        // only the sorted descriptors of small artifacts are cached, the list stops growing once it exceeds
+        // the maximum number of cached descriptors, and is then discarded
+        final List<PropertyDescriptor> drained = new ArrayList<>();
+
+        // spilled descriptors are read back as new instances, their recursive schemas are kept by property name
+        final Map<String, Map<String, Integer>> recursions = new HashMap<>();
+
+        // descriptors are sorted using an external merge sort and written one at a time, the descriptors of
+        // artifacts that declare more properties than the sorter keeps in memory are spilled to disk
+        try (PropertyDescriptorSorter sorter = new PropertyDescriptorSorter(mapper, temporaryDirectory.toPath());
+             SequenceWriter writer = createPropertyDescriptorWriter(target)) {
+            parsePropertyDescriptors(metadata, classpath, descriptor -> {
+                final Map<String, Integer> recursive = recursiveSchemas.remove(descriptor.schema());
+
+                if (recursive != null) {
+                    recursions.put(descriptor.name(), recursive);
+                }
+
+                sorter.accept(descriptor);
+            });
+            sorter.drain(descriptor -> {
+                writePropertyDescriptor(writer, descriptor, recursions.get(descriptor.name()));
+
+                if (drained.size() <= MAXIMUM_CACHED_DESCRIPTORS) {
+                    drained.add(descriptor);
+                }
+            });
+        }
+
+        if (drained.size() <= MAXIMUM_CACHED_DESCRIPTORS) {
+            for (PropertyDescriptor descriptor : drained) {
+                final Map<String, Integer> recursive = recursions.get(descriptor.name());
+
+                if (recursive != null) {
+                    recursiveSchemas.put(descriptor.schema(), recursive);
+                }
+            }
+
+            descriptorCache.put(key, drained);
+        }
+    }
+
+    private SequenceWriter createPropertyDescriptorWriter(File target) {
+        // descriptors are written as JSON trees when their schemas are converted into the referenced form
+        return schemaReferences ? mapper.writer().writeValuesAsArray(target)
+                : mapper.writerFor(PropertyDescriptor.class).writeValuesAsArray(target);
+    }
+
+    private void writePropertyDescriptor(
+            SequenceWriter writer,
+            PropertyDescriptor descriptor,
+            @Nullable Map<String, Integer> recursions
+    ) {
+        if (!schemaReferences) {
+            writer.write(descriptor);
+            return;
+        }
+
+        final ObjectNode node = mapper.valueToTree(descriptor);
+        final JsonNode schema = node.get(SCHEMA_PROPERTY);
+
+        if (schema != null) {
+            node.set(SCHEMA_PROPERTY, JsonSchemaReferences.hoist(schema, recursions == null ? Map.of() : recursions));
+        }
+
+        writer.write(node);
+    }
+
+    private void parsePropertyDescriptors(
+            Iterable<? extends ArtifactMetadataResource> metadata,
+            Iterable<? extends File> classpath,
+            Consumer<PropertyDescriptor> consumer
+    ) {
+        try (ClassLoaderPool.Lease lease = classLoaders.acquire(classpath)) {
+            final ArtifactMetadataParser parser = ArtifactMetadataParser.builder()
+                    .classLoader(lease.getClassLoader())
+                    .engine(ArtifactMetadataParser.Engine.STREAMING)
+                    .executor(ForkJoinPool.commonPool())
+                    .budget(budget)
+                    .introspection(introspection)
+                    .build();
+
+            if (!schemaReferences) {
+                parser.parse(metadata, consumer);
+                return;
+            }
+
+            parser.parse(metadata, descriptor -> {
+                final Map<String, Integer> recursions = parser.getRecursiveSchemas(descriptor.schema());
+
+                if (!recursions.isEmpty()) {
+                    recursiveSchemas.put(descriptor.schema(), recursions);
+                }
+
+                consumer.accept(descriptor);
+            });
+        }
     }
 
     /**
@@ -156,7 +542,18 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
      */
     public ArtifactMetadata createArtifactMetadata(Artifact artifact, File metadata) {
         final JavaType descriptorsType = mapper.getTypeFactory().constructCollectionType(List.class, PropertyDescriptor.class);
-        final List<PropertyDescriptor> descriptors = mapper.readValue(metadata, descriptorsType);
+        final JsonNode tree = mapper.readTree(metadata);
+
+        // the metadata may have been written with schemas in their referenced form, by this or by a previous build
+        for (JsonNode node : tree) {
+            final JsonNode schema = node.get(SCHEMA_PROPERTY);
+
+            if (schema != null && node instanceof ObjectNode descriptor) {
+                descriptor.set(SCHEMA_PROPERTY, JsonSchemaReferences.inline(schema));
+            }
+        }
+
+        final List<PropertyDescriptor> descriptors = mapper.treeToValue(tree, descriptorsType);
 
         if (logger.isDebugEnabled()) {
             logger.debug("Successfully loaded {} property descriptors for: {}", descriptors.size(), artifact);
@@ -363,19 +760,62 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
         }
     }
 
-    static URLClassLoader createClassLoader(Iterable<? extends File> files) {
-        final URL[] classpath = StreamSupport.stream(files.spliterator(), false)
-                .map(file -> {
-                    try {
-                        return file.toURI().toURL();
-                    } catch (MalformedURLException ex) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .toArray(URL[]::new);
-
-        return new URLClassLoader(classpath, ClassLoader.getSystemClassLoader());
+    /**
+     * Flushes the persistent {@link ArtifactMetadataIndex} and {@link MetadataFreeArtifactFilter}, if they
+     * are configured, stops listening for class-output directory changes, closes the pooled class loaders and
+     * discards the cached property descriptors. Watched directories keep being watched for the next build.
+     * Invoked by Gradle once the build that uses this service has finished.
+     */
+    @Override
+    public void close() {
+        if (index != null) {
+            try {
+                index.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to write the artifact configuration metadata scan index: {}", index, ex);
+            }
+        }
+
+        if (filter != null) {
+            try {
+                filter.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to write the metadata free artifact filter: {}", filter, ex);
+            }
+        }
+
+        if (watcher != null) {
+            watcher.removeListener(changeListener);
+        }
+
+        classLoaders.close();
+        descriptorCache.clear();
+        recursiveSchemas.clear();
+    }
+
+    /**
+     * Creates the {@link MetadataFreeArtifactFilter} key for the given jar file, when it is located in the
+     * Gradle module cache, using its coordinates and SHA-1 checksum which are both part of the file location:
+     * {@code files-2.1/${group}/${module}/${version}/${sha1}/${file}}.
+     *
+     * @param artifact the artifact file, cannot be {@literal null}.
+     * @return the key in the {@code group:module:version:file@sha1} format, or {@literal null} if the file
+     * is not located in the Gradle module cache.
+     */
+    @Nullable
+    static String metadataFreeArtifactKey(File artifact) {
+        final File checksum = artifact.getParentFile();
+        final File version = checksum == null ? null : checksum.getParentFile();
+        final File module = version == null ? null : version.getParentFile();
+        final File group = module == null ? null : module.getParentFile();
+        final File cache = group == null ? null : group.getParentFile();
+
+        if (cache == null || !MODULE_CACHE_DIRECTORY.equals(cache.getName()) || !artifact.isFile()) {
+            return null;
+        }
+
+        return group.getName() + ':' + module.getName() + ':' + version.getName() + ':'
+                + artifact.getName() + '@' + checksum.getName();
     }
 
     static String formatCoordinates(Artifact artifact, char joiner) {
@@ -395,6 +835,87 @@ public abstract class ArtifactoryService implements BuildService<ArtifactoryServ
          */
         MapProperty<String, Registry> getConfigurations();
 
+        /**
+         * The file of the persistent {@link ArtifactMetadataIndex}, usually located in the Gradle user home.
+         * Artifacts are always scanned directly when it is not set.
+         *
+         * @return the scan index file, never {@literal null}.
+         */
+        RegularFileProperty getScanIndex();
+
+        /**
+         * The file of the persistent {@link MetadataFreeArtifactFilter}, usually located in the Gradle user
+         * home. Every artifact is scanned when it is not set.
+         *
+         * @return the metadata free artifact filter file, never {@literal null}.
+         */
+        RegularFileProperty getMetadataFreeArtifacts();
+
+        /**
+         * Whether class-output directories should be watched for configuration metadata changes, instead
+         * of being scanned again on every build, usually only enabled for continuous builds.
+         *
+         * @return whether the directories are watched, never {@literal null}.
+         */
+        Property<Boolean> getWatchDirectories();
+
+        /**
+         * Whether the JSON schemas of the written property descriptor metadata should be converted into their
+         * {@link JsonSchemaReferences referenced form}, instead of the default inline form.
+         *
+         * @return whether the schemas are written in their referenced form, never {@literal null}.
+         */
+        Property<Boolean> getSchemaReferences();
+
+        /**
+         * Whether the JSON schemas of the property types should be generated by reading their class files,
+         * using the {@link JsonSchemaGenerator.Introspection#CLASS_FILE class file introspection}, instead of
+         * loading the types that are reachable from them.
+         *
+         * @return whether the class file introspection is used, never {@literal null}.
+         */
+        Property<Boolean> getClassFileIntrospection();
+
+        /**
+         * The maximum number of nested types that are expanded when the JSON schema of a property is generated,
+         * see {@link SchemaGenerationBudget#maxDepth()}.
+         *
+         * @return the maximum schema depth, never {@literal null}.
+         */
+        Property<Integer> getMaxSchemaDepth();
+
+        /**
+         * The maximum number of schemas that are generated for a single property, see
+         * {@link SchemaGenerationBudget#maxNodes()}.
+         *
+         * @return the maximum number of schema nodes, never {@literal null}.
+         */
+        Property<Integer> getMaxSchemaNodes();
+
+        /**
+         * The maximum time in milliseconds spent generating the JSON schema of a single property, see
+         * {@link SchemaGenerationBudget#maxTime()}. Schemas are generated without a time limit when absent.
+         *
+         * @return the maximum schema generation time, never {@literal null}.
+         */
+        Property<Long> getMaxSchemaTime();
+
+        /**
+         * Patterns of the configuration metadata file locations that are scanned in addition to the
+         * {@link MetadataPathMatcher#defaults() default} ones.
+         *
+         * @return the additional metadata location patterns, never {@literal null}.
+         */
+        SetProperty<String> getAdditionalMetadataLocations();
+
+        /**
+         * Patterns of the nested archive locations that are scanned in addition to the
+         * {@link MetadataPathMatcher#defaults() default} ones.
+         *
+         * @return the additional nested archive patterns, never {@literal null}.
+         */
+        SetProperty<String> getAdditionalNestedArchives();
+
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.konfigyr.gradle;
+
+import com.konfigyr.ArtifactMetadataDirectoryWatcher;
+import com.konfigyr.MetadataPathMatcher;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link ArtifactMetadataDirectoryWatcher}s for the lifetime of the Gradle daemon, one for each
+ * {@link MetadataPathMatcher} the directories are scanned with.
+ * <p>
+ * The {@link ArtifactoryService} is closed by Gradle once every build has finished, which in a continuous
+ * build is after every change, so a watcher owned by it would start with an empty cache on every build and
+ * would never reuse a scan result. Watchers are instead kept by this registry, which lives as long as the
+ * class loader of the plugin, that Gradle reuses for every build of the same daemon while the build script
+ * classpath does not change.
+ * <p>
+ * Gradle offers no build service that outlives a single build, the watchers are therefore closed by a shutdown
+ * hook, registered once this registry is first used, so that their watch services, and the threads that poll
+ * them, are released once the daemon stops.
+ *
+ * @author Vladimir Spasic
+ * @since 1.3.0
+ * @see ArtifactoryService#scanArtifactMetadata(java.io.File, MetadataPathMatcher)
+ */
+@NullMarked
+final class DirectoryWatcherRegistry {
+
+    private static final Logger logger = Logging.getLogger(DirectoryWatcherRegistry.class);
+
+    private static final Map<MetadataPathMatcher, ArtifactMetadataDirectoryWatcher> watchers = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DirectoryWatcherRegistry::close, "konfigyr-directory-watchers"));
+    }
+
+    private DirectoryWatcherRegistry() {
+    }
+
+    /**
+     * Returns the daemon scoped {@link ArtifactMetadataDirectoryWatcher} for the given matcher, creating it
+     * when it is first requested.
+     *
+     * @param matcher the matcher of the metadata locations and nested archives, cannot be {@literal null}.
+     * @return the directory watcher, or {@literal null} if directories can not be watched on this platform.
+     */
+    @Nullable
+    static ArtifactMetadataDirectoryWatcher obtain(MetadataPathMatcher matcher) {
+        return watchers.computeIfAbsent(matcher, DirectoryWatcherRegistry::create);
+    }
+
+    @Nullable
+    private static ArtifactMetadataDirectoryWatcher create(MetadataPathMatcher matcher) {
+        try {
+            return new ArtifactMetadataDirectoryWatcher(matcher);
+        } catch (IOException | UnsupportedOperationException ex) {
+            logger.warn("Could not watch artifact configuration metadata directories, they would be scanned on every build", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Closes every registered {@link ArtifactMetadataDirectoryWatcher}, invoked by the shutdown hook.
+     */
+    private static void close() {
+        for (ArtifactMetadataDirectoryWatcher watcher : watchers.values()) {
+            try {
+                watcher.close();
+            } catch (IOException ex) {
+                logger.debug("Failed to close the artifact configuration metadata directory watcher: {}", watcher, ex);
+            }
+        }
+
+        watchers.clear();
+    }
+
+}
@@ -2,6 +2,7 @@ package com.konfigyr.gradle;
 
 import com.konfigyr.ArtifactMetadataResource;
 import com.konfigyr.ArtifactMetadataScanner;
+import com.konfigyr.MetadataPathMatcher;
 import com.konfigyr.artifactory.Artifact;
 import com.konfigyr.artifactory.ArtifactMetadata;
 import com.konfigyr.artifactory.PropertyDescriptor;
@@ -9,6 +10,7 @@ import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
 import org.gradle.api.tasks.*;
 
 import java.io.File;
@@ -82,6 +84,24 @@ public abstract class GenerateArtifactMetadataTask extends DefaultTask {
     @Optional
     public abstract Property<Artifact> getProjectArtifact();
 
+    /**
+     * Patterns of the configuration metadata file locations that are scanned in addition to the
+     * {@link MetadataPathMatcher#defaults() default} ones.
+     *
+     * @return the additional metadata location patterns, never {@literal null}.
+     */
+    @Input
+    public abstract SetProperty<String> getAdditionalMetadataLocations();
+
+    /**
+     * Patterns of the nested archive locations that are scanned in addition to the
+     * {@link MetadataPathMatcher#defaults() default} ones.
+     *
+     * @return the additional nested archive patterns, never {@literal null}.
+     */
+    @Input
+    public abstract SetProperty<String> getAdditionalNestedArchives();
+
     /**
      * The file this project's {@link ArtifactMetadata} is written to, if {@link #getProjectArchive()}
      * exposes Spring Boot configuration metadata. Left unwritten otherwise.
@@ -95,7 +115,11 @@ public abstract class GenerateArtifactMetadataTask extends DefaultTask {
     @TaskAction
     void generateArtifactMetadata() throws IOException {
         final File archive = getProjectArchive().get().getAsFile();
-        final List<ArtifactMetadataResource> candidates = ArtifactMetadataScanner.scan(archive);
+        final MetadataPathMatcher matcher = ArtifactoryService.createMetadataPathMatcher(
+                getAdditionalMetadataLocations().get(),
+                getAdditionalNestedArchives().get()
+        );
+        final List<ArtifactMetadataResource> candidates = ArtifactMetadataScanner.scan(archive, matcher);
 
         if (candidates.isEmpty()) {
             getLogger().debug("No Spring Boot configuration metadata found for this project's artifact: {}", archive);
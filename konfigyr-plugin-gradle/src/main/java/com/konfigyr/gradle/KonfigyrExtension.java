@@ -1,5 +1,6 @@
 package com.konfigyr.gradle;
 
+import com.konfigyr.schema.SchemaGenerationBudget;
 import lombok.Getter;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
@@ -9,10 +10,12 @@ import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.provider.SetProperty;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
 import java.time.Duration;
+import java.util.Set;
 
 /**
  * Configuration extension for the Konfigyr Gradle plugin.
@@ -39,6 +42,23 @@ import java.time.Duration;
  *         pollTimeout  = 10000L // defaults to 10 minutes
  *         pollInterval = 1000L  // defaults to 1 second
  *     }
+ *
+ *     // Optional: write repeated JSON schemas of the generated metadata only once, defaults to false
+ *     schemaReferences = true
+ *
+ *     // Optional: generate the JSON schemas from class files, without loading the types, defaults to false
+ *     classFileIntrospection = true
+ *
+ *     // Optional: limits how much of the type graph of a single property is expanded into its JSON schema
+ *     schemaBudget {
+ *         maxDepth = 32    // defaults to 32 nested types
+ *         maxNodes = 10000 // defaults to 10000 schemas
+ *         maxTime  = 5000L // no limit by default, truncated schemas then depend on the machine load
+ *     }
+ *
+ *     // Optional: metadata locations, and nested archives, that artifacts are also scanned for
+ *     additionalMetadataLocations.add("META-INF/konfigyr/*.json")
+ *     additionalNestedArchives.add("lib/*.jar")
  * }}</pre>
  * <p>
  * or a custom, self-hosted registry, which requires an explicit {@code url} and every credential set
@@ -71,6 +91,7 @@ import java.time.Duration;
  * @see RegistrySpec
  * @see ServiceSpec
  * @see PublishSpec
+ * @see SchemaBudgetSpec
  **/
 @Getter
 @NullMarked
@@ -102,6 +123,41 @@ public class KonfigyrExtension {
      */
     private final PublishSpec publish;
 
+    /**
+     * Limits of the JSON schema generation of a single property. Always present, populated with its
+     * conventions regardless of whether {@link #schemaBudget(Action)} is ever called, configuring it is
+     * only needed to override those conventions.
+     */
+    private final SchemaBudgetSpec schemaBudget;
+
+    /**
+     * Whether the JSON schemas in the generated {@code metadata.json} files are written in their referenced
+     * form, where object schemas that are used more than once are written only once as shared definitions.
+     * Defaults to {@literal false}, writing every schema inline.
+     */
+    private final Property<Boolean> schemaReferences;
+
+    /**
+     * Whether the JSON schemas of the property types are generated by reading the class files of the types
+     * that are reachable from them, instead of loading those types into the build. Defaults to {@literal false},
+     * loading the types and inspecting them using reflection.
+     */
+    private final Property<Boolean> classFileIntrospection;
+
+    /**
+     * Path patterns of the Spring Boot configuration metadata files that every artifact is scanned for, in
+     * addition to the well-known Spring Boot metadata locations, where a {@code *} matches any sequence of
+     * characters within a single path segment. Empty by default.
+     */
+    private final SetProperty<String> additionalMetadataLocations;
+
+    /**
+     * Path patterns of the nested archives that are scanned for configuration metadata, in place, without
+     * being extracted, in addition to the libraries of Spring Boot executable jars and wars located in
+     * {@code BOOT-INF/lib} and {@code WEB-INF/lib}. Empty by default.
+     */
+    private final SetProperty<String> additionalNestedArchives;
+
     @Getter(lombok.AccessLevel.NONE)
     private final ObjectFactory objects;
 
@@ -123,6 +179,11 @@ public class KonfigyrExtension {
 
         service = new ServiceSpec(factory);
         publish = new PublishSpec(factory);
+        schemaBudget = new SchemaBudgetSpec(factory);
+        schemaReferences = factory.property(Boolean.class).convention(false);
+        classFileIntrospection = factory.property(Boolean.class).convention(false);
+        additionalMetadataLocations = factory.setProperty(String.class).convention(Set.of());
+        additionalNestedArchives = factory.setProperty(String.class).convention(Set.of());
     }
 
     /**
@@ -205,6 +266,15 @@ public class KonfigyrExtension {
         action.execute(publish);
     }
 
+    /**
+     * Configures the {@link SchemaBudgetSpec limits of the JSON schema generation} of a single property.
+     *
+     * @param action configures the schema generation limits, cannot be {@literal null}.
+     */
+    public void schemaBudget(Action<SchemaBudgetSpec> action) {
+        action.execute(schemaBudget);
+    }
+
     /**
      * Returns the name of the service this project releases against. Defined by the
      * {@link #service(Action)} block, or the {@code konfigyr { service { name = ... } }} block.
@@ -319,4 +389,43 @@ public class KonfigyrExtension {
 
     }
 
+    /**
+     * Limits how much of the type graph of a single property is expanded when its JSON schema is generated,
+     * see {@link SchemaGenerationBudget}. Types that exceed the limits are generated as open object schemas.
+     *
+     * @author Vladimir Spasic
+     * @since 1.3.0
+     * @see KonfigyrExtension#schemaBudget(Action)
+     */
+    @Getter
+    @NullMarked
+    public static final class SchemaBudgetSpec {
+
+        /**
+         * The maximum number of nested types that are expanded. Defaults to {@code 32}.
+         */
+        private final Property<Integer> maxDepth;
+
+        /**
+         * The maximum number of schemas that are generated for a single property. Defaults to {@code 10000}.
+         */
+        private final Property<Integer> maxNodes;
+
+        /**
+         * The maximum time in milliseconds spent generating the schema of a single property. Not set by default.
+         * <p>
+         * Unlike the other limits, where a schema is truncated by this limit depends on the load of the machine,
+         * the same build may then generate different metadata. It should only be set when reproducible metadata
+         * is not required.
+         */
+        private final Property<Long> maxTime;
+
+        SchemaBudgetSpec(ObjectFactory factory) {
+            maxDepth = factory.property(Integer.class).convention(SchemaGenerationBudget.DEFAULT.maxDepth());
+            maxNodes = factory.property(Integer.class).convention(SchemaGenerationBudget.DEFAULT.maxNodes());
+            maxTime = factory.property(Long.class);
+        }
+
+    }
+
 }
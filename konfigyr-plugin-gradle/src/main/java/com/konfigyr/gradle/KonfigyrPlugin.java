@@ -20,6 +20,7 @@ import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
+import java.io.File;
 import java.time.Duration;
 import java.util.*;
 
@@ -42,6 +43,16 @@ public class KonfigyrPlugin implements Plugin<@NonNull Project> {
 
     static final String PLUGIN_NAME = "konfigyr";
 
+    /**
+     * Location of the persistent artifact metadata scan index, relative to the Gradle user home.
+     */
+    static final String SCAN_INDEX_LOCATION = "caches/konfigyr/artifact-metadata-index.bin";
+
+    /**
+     * Location of the persistent filter of artifacts without metadata, relative to the Gradle user home.
+     */
+    static final String METADATA_FREE_ARTIFACTS_LOCATION = "caches/konfigyr/metadata-free-artifacts.bin";
+
     private static final Logger logger = Logging.getLogger(KonfigyrPlugin.class);
 
     @Override
@@ -119,9 +130,27 @@ public class KonfigyrPlugin implements Plugin<@NonNull Project> {
     @NullMarked
     private static Provider<ArtifactoryService> registerArtifactoryService(Project project) {
         return project.getGradle().getSharedServices().registerIfAbsent(PLUGIN_NAME, ArtifactoryService.class, spec -> {
-            spec.parameters(parameters -> parameters.getConfigurations().set(
-                    project.provider(() -> resolveRegistries(project))
-            ));
+            spec.parameters(parameters -> {
+                parameters.getConfigurations().set(project.provider(() -> resolveRegistries(project)));
+                parameters.getScanIndex().set(new File(project.getGradle().getGradleUserHomeDir(), SCAN_INDEX_LOCATION));
+                parameters.getMetadataFreeArtifacts().set(
+                        new File(project.getGradle().getGradleUserHomeDir(), METADATA_FREE_ARTIFACTS_LOCATION));
+                parameters.getWatchDirectories().set(project.getGradle().getStartParameter().isContinuous());
+                parameters.getSchemaReferences().set(project.provider(
+                        () -> resolveRootExtension(project).getSchemaReferences().getOrElse(false)));
+                parameters.getClassFileIntrospection().set(project.provider(
+                        () -> resolveRootExtension(project).getClassFileIntrospection().getOrElse(false)));
+                parameters.getMaxSchemaDepth().set(project.provider(
+                        () -> resolveRootExtension(project).getSchemaBudget().getMaxDepth().getOrNull()));
+                parameters.getMaxSchemaNodes().set(project.provider(
+                        () -> resolveRootExtension(project).getSchemaBudget().getMaxNodes().getOrNull()));
+                parameters.getMaxSchemaTime().set(project.provider(
+                        () -> resolveRootExtension(project).getSchemaBudget().getMaxTime().getOrNull()));
+                parameters.getAdditionalMetadataLocations().set(project.provider(
+                        () -> resolveRootExtension(project).getAdditionalMetadataLocations().get()));
+                parameters.getAdditionalNestedArchives().set(project.provider(
+                        () -> resolveRootExtension(project).getAdditionalNestedArchives().get()));
+            });
         });
     }
 
@@ -231,7 +260,13 @@ public class KonfigyrPlugin implements Plugin<@NonNull Project> {
         project.getDependencies().registerTransform(ArtifactMetadataTransform.class, spec -> {
             spec.getFrom().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactTypeDefinition.JAR_TYPE);
             spec.getTo().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactMetadataTransform.ARTIFACT_TYPE);
-            spec.parameters(parameters -> parameters.getService().set(service));
+            spec.parameters(parameters -> {
+                parameters.getService().set(service);
+                parameters.getAdditionalMetadataLocations().set(project.provider(
+                        () -> resolveRootExtension(project).getAdditionalMetadataLocations().get()));
+                parameters.getAdditionalNestedArchives().set(project.provider(
+                        () -> resolveRootExtension(project).getAdditionalNestedArchives().get()));
+            });
         });
     }
 
@@ -242,6 +277,10 @@ public class KonfigyrPlugin implements Plugin<@NonNull Project> {
             task.getRuntimeClasspath().from(project.provider(() -> resolveProjectRuntimeClasspath(project)));
             task.getProjectArtifact().set(project.provider(() -> createProjectArtifact(project)));
             task.getMetadata().set(project.getLayout().getBuildDirectory().file("konfigyr/metadata.json"));
+            task.getAdditionalMetadataLocations().set(project.provider(
+                    () -> resolveRootExtension(project).getAdditionalMetadataLocations().get()));
+            task.getAdditionalNestedArchives().set(project.provider(
+                    () -> resolveRootExtension(project).getAdditionalNestedArchives().get()));
 
             task.getService().set(service);
             task.usesService(service);
@@ -327,6 +366,12 @@ public class KonfigyrPlugin implements Plugin<@NonNull Project> {
                     "the service { } block must be configured to create a service release",
                     ignore -> task.getServiceConfigured().get()
             );
+
+            // class-output directories are watched in continuous builds, a change of their configuration
+            // metadata invalidates the resolved dependencies even when Gradle did not notice it
+            task.getOutputs().upToDateWhen(
+                    ignore -> !task.getService().get().isArtifactMetadataChanged(task.getRuntimeClasspath())
+            );
         });
     }
 
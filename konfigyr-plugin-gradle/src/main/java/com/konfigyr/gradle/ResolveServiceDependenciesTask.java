@@ -1,5 +1,6 @@
 package com.konfigyr.gradle;
 
+import com.konfigyr.ArtifactMetadataScanner;
 import com.konfigyr.artifactory.Artifact;
 import com.konfigyr.artifactory.ArtifactMetadata;
 import org.gradle.api.DefaultTask;
@@ -15,6 +16,7 @@ import org.gradle.api.tasks.*;
 import org.gradle.internal.component.local.model.TransformedComponentFileArtifactIdentifier;
 import org.jspecify.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -134,6 +136,8 @@ public abstract class ResolveServiceDependenciesTask extends DefaultTask {
         final ArtifactoryService service = getService().get();
         final ArtifactCollection artifacts = getArtifacts().get();
 
+        prefetchArtifactMetadata(service);
+
         artifacts.getFailures().forEach(failure -> {
             getLogger().warn("Could not resolve Konfigyr metadata for a runtime classpath dependency, it will be " +
                     "skipped from this service's dependency manifest: {}", failure.getMessage());
@@ -162,6 +166,23 @@ public abstract class ResolveServiceDependenciesTask extends DefaultTask {
         );
     }
 
+    /**
+     * Scans the jars of the runtime classpath for configuration metadata concurrently, before the artifacts are
+     * transformed, so that the {@link ArtifactMetadataTransform}s find their scan results in the scan index of
+     * the {@link ArtifactoryService} instead of scanning every jar one after another. Failures are only logged,
+     * the transform of the failed artifact scans it again and reports its failure.
+     */
+    private void prefetchArtifactMetadata(ArtifactoryService service) {
+        final List<File> jars = getRuntimeClasspath().getFiles().stream()
+                .filter(File::isFile)
+                .toList();
+
+        service.scanArtifactMetadata(jars).values().stream()
+                .filter(ArtifactMetadataScanner.Result::isFailed)
+                .forEach(result -> getLogger().debug("Could not scan runtime classpath dependency: {}",
+                        result.artifact(), result.failure()));
+    }
+
     @Nullable
     private Artifact createArtifact(Object identifier) {
         if (identifier instanceof ModuleComponentIdentifier module) {
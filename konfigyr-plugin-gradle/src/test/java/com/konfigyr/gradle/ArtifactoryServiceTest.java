@@ -1,18 +1,28 @@
 package com.konfigyr.gradle;
 
+import com.konfigyr.ArtifactMetadataResource;
+import com.konfigyr.ArtifactMetadataScanner;
 import com.konfigyr.ArtifactoryClient;
 import com.konfigyr.HttpResponseException;
 import com.konfigyr.artifactory.*;
+import com.konfigyr.schema.SchemaGenerationBudget;
 import org.gradle.api.GradleException;
+import org.assertj.core.api.InstanceOfAssertFactories;
 import org.gradle.api.artifacts.PublishException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
@@ -190,6 +200,132 @@ class ArtifactoryServiceTest {
 
     }
 
+    @Test
+    @DisplayName("should create metadata free artifact keys for jars located in the Gradle module cache")
+    void createMetadataFreeArtifactKey(@TempDir Path dir) throws IOException {
+        final Path jar = dir.resolve("caches/modules-2/files-2.1/io.netty/netty-common/4.1.0/abc123/netty-common-4.1.0.jar");
+        Files.createDirectories(jar.getParent());
+        Files.createFile(jar);
+
+        assertThat(ArtifactoryService.metadataFreeArtifactKey(jar.toFile()))
+                .isEqualTo("io.netty:netty-common:4.1.0:netty-common-4.1.0.jar@abc123");
+    }
+
+    @Test
+    @DisplayName("should not create metadata free artifact keys for files outside of the Gradle module cache")
+    void skipMetadataFreeArtifactKey(@TempDir Path dir) throws IOException {
+        final Path jar = dir.resolve("build/libs/io.netty/netty-common/4.1.0/abc123/netty-common-4.1.0.jar");
+        Files.createDirectories(jar.getParent());
+        Files.createFile(jar);
+
+        assertThat(ArtifactoryService.metadataFreeArtifactKey(jar.toFile())).isNull();
+        assertThat(ArtifactoryService.metadataFreeArtifactKey(new File("netty-common-4.1.0.jar"))).isNull();
+        assertThat(ArtifactoryService.metadataFreeArtifactKey(jar.getParent().toFile())).isNull();
+    }
+
+    @Test
+    @DisplayName("should create the schema generation budget from the configured limits")
+    void createSchemaGenerationBudget() {
+        assertThat(ArtifactoryService.createSchemaGenerationBudget(8, 500, null))
+                .isEqualTo(SchemaGenerationBudget.builder().maxDepth(8).maxNodes(500).build());
+
+        assertThat(ArtifactoryService.createSchemaGenerationBudget(8, 500, 2000L))
+                .returns(Duration.ofSeconds(2), SchemaGenerationBudget::maxTime);
+
+        assertThatExceptionOfType(GradleException.class)
+                .isThrownBy(() -> ArtifactoryService.createSchemaGenerationBudget(0, 500, null))
+                .withMessageContaining("maxDepth");
+
+        assertThatExceptionOfType(GradleException.class)
+                .isThrownBy(() -> ArtifactoryService.createSchemaGenerationBudget(8, 500, -1L))
+                .withMessageContaining("maxTime");
+    }
+
+    @Test
+    @DisplayName("should scan a batch of artifacts for configuration metadata")
+    void scanArtifactMetadataBatch(@TempDir Path dir) throws IOException {
+        final Path metadata = dir.resolve("classes/META-INF/spring-configuration-metadata.json");
+        Files.createDirectories(metadata.getParent());
+        Files.writeString(metadata, "{}");
+
+        final Path corrupt = Files.writeString(dir.resolve("corrupt.jar"), "not a zip file");
+        final File missing = dir.resolve("missing.jar").toFile();
+
+        final Map<File, ArtifactMetadataScanner.Result> results = service.scanArtifactMetadata(
+                List.of(missing, dir.resolve("classes").toFile(), corrupt.toFile())
+        );
+
+        assertThat(results.keySet())
+                .containsExactly(missing, dir.resolve("classes").toFile(), corrupt.toFile());
+
+        assertThat(results.get(missing).resources()).isEmpty();
+        assertThat(results.get(dir.resolve("classes").toFile()).resources())
+                .singleElement()
+                .returns(metadata.toUri().toString(), ArtifactMetadataResource::name);
+        assertThat(results.get(corrupt.toFile()))
+                .returns(true, ArtifactMetadataScanner.Result::isFailed);
+    }
+
+    @Test
+    @DisplayName("should reuse property descriptors parsed from the same metadata and classpath")
+    void reuseCachedPropertyDescriptors(@TempDir Path dir) throws IOException {
+        final var metadata = List.of(ArtifactMetadataResource.of("spring-configuration-metadata.json", """
+                { "properties": [{ "name": "acme.timeout", "type": "java.time.Duration" }] }
+                """.getBytes(StandardCharsets.UTF_8)));
+
+        final List<PropertyDescriptor> descriptors = service.parsePropertyDescriptors(metadata, List.of());
+
+        assertThat(descriptors)
+                .extracting(PropertyDescriptor::name)
+                .containsExactly("acme.timeout");
+
+        assertThat(service.parsePropertyDescriptors(metadata, List.of()))
+                .isSameAs(service.parsePropertyDescriptors(metadata, List.of()))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(descriptors);
+
+        assertThat(service.parsePropertyDescriptors(metadata, List.of(dir.toFile())))
+                .isNotSameAs(service.parsePropertyDescriptors(metadata, List.of()));
+    }
+
+    @Test
+    @DisplayName("should inline referenced JSON schemas when creating artifact metadata")
+    void createArtifactMetadataWithReferencedSchemas(@TempDir Path dir) throws IOException {
+        final Path file = Files.writeString(dir.resolve("metadata.json"), """
+                [{
+                  "name": "acme.datasource",
+                  "typeName": "com.acme.DataSourceProperties",
+                  "schema": {
+                    "type": "object",
+                    "properties": {
+                      "primary": { "$ref": "#/$defs/object-1" },
+                      "secondary": { "$ref": "#/$defs/object-1" }
+                    },
+                    "$defs": {
+                      "object-1": { "type": "object", "properties": { "url": { "type": "string" } } }
+                    }
+                  }
+                }]
+                """);
+
+        final ArtifactMetadata metadata = service.createArtifactMetadata(
+                Artifact.of("com.acme", "acme-datasource", "1.0.0"), file.toFile());
+
+        assertThat(metadata.properties())
+                .hasSize(1)
+                .first()
+                .returns("acme.datasource", PropertyDescriptor::name)
+                .extracting(PropertyDescriptor::schema)
+                .isInstanceOf(ObjectSchema.class)
+                .asInstanceOf(InstanceOfAssertFactories.type(ObjectSchema.class))
+                .extracting(ObjectSchema::properties, InstanceOfAssertFactories.map(String.class, JsonSchema.class))
+                .containsOnlyKeys("primary", "secondary")
+                .allSatisfy((name, schema) -> assertThat(schema)
+                        .isEqualTo(ObjectSchema.builder()
+                                .property("url", StringSchema.instance())
+                                .build()));
+    }
+
     private static final class Service extends ArtifactoryService {
 
         private Service(Map<String, ArtifactoryClient> clients) {
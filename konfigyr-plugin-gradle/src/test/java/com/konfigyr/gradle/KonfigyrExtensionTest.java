@@ -1,5 +1,6 @@
 package com.konfigyr.gradle;
 
+import com.konfigyr.schema.SchemaGenerationBudget;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.testfixtures.ProjectBuilder;
@@ -79,6 +80,25 @@ class KonfigyrExtensionTest {
         assertThat(extension.getRegistries().getByName("staging")).isNotNull();
     }
 
+    @Test
+    @DisplayName("schemaBudget { } defaults to the default schema generation budget")
+    void schemaBudgetDefaults() {
+        assertThat(extension.getSchemaBudget().getMaxDepth().get())
+                .isEqualTo(SchemaGenerationBudget.DEFAULT.maxDepth());
+        assertThat(extension.getSchemaBudget().getMaxNodes().get())
+                .isEqualTo(SchemaGenerationBudget.DEFAULT.maxNodes());
+        assertThat(extension.getSchemaBudget().getMaxTime().isPresent())
+                .isFalse();
+
+        extension.schemaBudget(budget -> {
+            budget.getMaxDepth().set(8);
+            budget.getMaxTime().set(5000L);
+        });
+
+        assertThat(extension.getSchemaBudget().getMaxDepth().get()).isEqualTo(8);
+        assertThat(extension.getSchemaBudget().getMaxTime().get()).isEqualTo(5000L);
+    }
+
     @Test
     @DisplayName("service { } should be validated to make sure name is specified")
     void validatesServiceName() {